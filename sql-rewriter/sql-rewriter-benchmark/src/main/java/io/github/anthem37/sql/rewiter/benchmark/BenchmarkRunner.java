@@ -0,0 +1,34 @@
+package io.github.anthem37.sql.rewiter.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口
+ * <p>
+ * 默认运行本模块全部基准测试并启用GC profiler，报告每次操作的分配字节数；
+ * 支持JMH标准命令行参数，例如只运行分阶段测试：{@code java -jar target/benchmarks.jar RewritePhaseBenchmark -p input=JOIN_10}。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/25 16:03:40
+ */
+public class BenchmarkRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .parent(commandLine)
+                .addProfiler(GCProfiler.class);
+        if (commandLine.getIncludes().isEmpty()) {
+            options.include(BenchmarkRunner.class.getPackage().getName() + ".*Benchmark");
+        }
+        new Runner(options.build()).run();
+    }
+
+}
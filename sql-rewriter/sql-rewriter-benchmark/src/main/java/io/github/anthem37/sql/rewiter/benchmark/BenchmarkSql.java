@@ -0,0 +1,114 @@
+package io.github.anthem37.sql.rewiter.benchmark;
+
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddColumnInsertRule;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionSelectRule;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 基准测试输入
+ * <p>
+ * 每种输入提供一条带换行与缩进的原始SQL（与ORM生成的SQL相近，用于覆盖清理阶段），以及作用于它的规则：
+ * SELECT类输入为每张表添加租户条件，INSERT类输入添加租户列。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/25 15:20:44
+ */
+public enum BenchmarkSql {
+
+    /**
+     * 单表SELECT
+     */
+    SINGLE_TABLE {
+        @Override
+        public String sql() {
+
+            return "SELECT id, name, status\n    FROM t0\n   WHERE status = 1\n     AND name LIKE 'abc%'\n ORDER BY id DESC";
+        }
+    },
+
+    /**
+     * 10张表JOIN
+     */
+    JOIN_10 {
+        @Override
+        public String sql() {
+            StringBuilder sql = new StringBuilder("SELECT t0.id, t0.name");
+            for (int i = 1; i < TABLE_COUNT; i++) {
+                sql.append(", t").append(i).append(".name");
+            }
+            sql.append("\n    FROM t0");
+            for (int i = 1; i < TABLE_COUNT; i++) {
+                sql.append("\n    LEFT JOIN t").append(i).append(" ON t").append(i).append(".id = t").append(i - 1).append(".ref_id");
+            }
+            return sql.append("\n   WHERE t0.status = 1").toString();
+        }
+    },
+
+    /**
+     * 多层嵌套子查询
+     */
+    NESTED_SUBQUERY {
+        @Override
+        public String sql() {
+            String sql = "SELECT id FROM t0 WHERE status = 1";
+            for (int i = 1; i < NESTING_DEPTH; i++) {
+                sql = "SELECT id FROM t" + i + "\n    WHERE t" + i + ".id IN (" + sql + ")";
+            }
+            return sql;
+        }
+    },
+
+    /**
+     * 10000行多VALUES INSERT
+     */
+    INSERT_10K {
+        @Override
+        public String sql() {
+            StringBuilder sql = new StringBuilder(INSERT_ROWS * 24).append("INSERT INTO t0 (id, name, status)\nVALUES");
+            for (int i = 0; i < INSERT_ROWS; i++) {
+                sql.append(i == 0 ? "\n    (" : ",\n    (").append(i).append(", 'name").append(i).append("', 1)");
+            }
+            return sql.toString();
+        }
+
+        @Override
+        public List<IRule> rules() {
+
+            return Collections.singletonList(new AddColumnInsertRule("t0", "tenant_id", "TENANT_1"));
+        }
+    };
+
+    private static final int TABLE_COUNT = 10;
+
+    private static final int NESTING_DEPTH = 6;
+
+    private static final int INSERT_ROWS = 10_000;
+
+    /**
+     * 原始SQL
+     *
+     * @return sql
+     */
+    public abstract String sql();
+
+    /**
+     * 作用于该输入的规则，默认为t0..t9每张表添加租户条件
+     *
+     * @return 规则列表
+     */
+    public List<IRule> rules() {
+        List<IRule> rules = new ArrayList<>(TABLE_COUNT);
+        for (int i = 0; i < TABLE_COUNT; i++) {
+            String tableName = "t" + i;
+            rules.add(new AddConditionSelectRule(tableName, new EqualToConditionExpression(tableName, "tenant_id", "TENANT_1")));
+        }
+        return rules;
+    }
+
+}
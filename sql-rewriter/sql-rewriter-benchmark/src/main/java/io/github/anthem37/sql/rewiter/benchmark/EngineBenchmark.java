@@ -0,0 +1,66 @@
+package io.github.anthem37.sql.rewiter.benchmark;
+
+import io.github.anthem37.sql.rewiter.core.engine.impl.SQLRewriteEngine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL重写引擎端到端基准测试
+ * <p>
+ * 测量{@link SQLRewriteEngine#run(String)}完整流程（清理、解析、规则应用、反解析）的吞吐量，
+ * 引擎在所有线程间共享，分别以单线程与全部可用处理器线程运行，用于观察并发下的扩展性与分配压力。
+ * 引擎使用默认配置（不启用缓存），每次调用都会走完整流程。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/25 15:52:17
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EngineBenchmark {
+
+    @Param({"SINGLE_TABLE", "JOIN_10", "NESTED_SUBQUERY", "INSERT_10K"})
+    private BenchmarkSql input;
+
+    private String sql;
+
+    private SQLRewriteEngine engine;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        sql = input.sql();
+        engine = new SQLRewriteEngine(input.rules());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String runSingleThread() {
+
+        return engine.run(sql);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String runMultiThread() {
+
+        return engine.run(sql);
+    }
+
+}
@@ -0,0 +1,114 @@
+package io.github.anthem37.sql.rewiter.benchmark;
+
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
+import io.github.anthem37.sql.rewiter.core.util.SqlFormatUtils;
+import net.sf.jsqlparser.statement.Statement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 重写流程分阶段基准测试
+ * <p>
+ * 分别测量清理（{@link SqlFormatUtils#cleanSql(String)}）、解析、规则应用与反解析四个阶段，
+ * 配合GC profiler（{@code -prof gc}）可得到各阶段每次操作的分配字节数（gc.alloc.rate.norm）。
+ * 规则应用会修改AST，因此每次调用前重新解析出一份新的语句（不计入测量时间）。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/25 15:36:02
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class RewritePhaseBenchmark {
+
+    @Param({"SINGLE_TABLE", "JOIN_10", "NESTED_SUBQUERY", "INSERT_10K"})
+    private BenchmarkSql input;
+
+    private String rawSql;
+
+    private String cleanedSql;
+
+    private List<IRule> rules;
+
+    private Statement rewrittenStatement;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rawSql = input.sql();
+        cleanedSql = SqlFormatUtils.cleanSql(rawSql);
+        rules = input.rules();
+        rewrittenStatement = parse(cleanedSql);
+        applyRules(rewrittenStatement, rules);
+    }
+
+    @Benchmark
+    public String clean() {
+
+        return SqlFormatUtils.cleanSql(rawSql);
+    }
+
+    @Benchmark
+    public Statement parse() {
+
+        return parse(cleanedSql);
+    }
+
+    @Benchmark
+    public Statement apply(FreshStatement fresh) {
+        applyRules(fresh.statement, rules);
+        return fresh.statement;
+    }
+
+    @Benchmark
+    public String deparse() {
+
+        return rewrittenStatement.toString();
+    }
+
+    /**
+     * 每次调用前重新解析的语句，供规则应用阶段使用
+     */
+    @State(Scope.Thread)
+    public static class FreshStatement {
+
+        private Statement statement;
+
+        @Setup(Level.Invocation)
+        public void setUp(RewritePhaseBenchmark benchmark) {
+            statement = parse(benchmark.cleanedSql);
+        }
+    }
+
+    private static Statement parse(String sql) {
+
+        // 输入已清理，跳过解析前的清理，使解析阶段只包含解析本身
+        return JsqlParserUtils.tryParseSql(sql, false).getStatement();
+    }
+
+    private static void applyRules(Statement statement, List<IRule> rules) {
+        for (IRule rule : rules) {
+            if (rule.match(statement)) {
+                rule.apply(statement);
+            }
+        }
+    }
+
+}
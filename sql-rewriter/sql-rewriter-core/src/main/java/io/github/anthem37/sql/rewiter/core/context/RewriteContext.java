@@ -0,0 +1,311 @@
+package io.github.anthem37.sql.rewiter.core.context;
+
+import io.github.anthem37.sql.rewiter.core.engine.cache.SqlShape;
+import io.github.anthem37.sql.rewiter.core.extension.value.IValueSupplier;
+import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.JdbcNamedParameter;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SQL重写上下文
+ * <p>
+ * 每次重写创建一个实例，在规则应用过程中传递，用于规则向引擎报告是否修改了语句。
+ * 支持变更跟踪的规则（{@code IRule#isChangeTracking()}返回true）在修改AST时调用{@link #markChanged()}，
+ * 引擎据此判断语句是否发生变化：未变化时直接返回原SQL而无需反解析，变化时只反解析一次。
+ * 非线程安全，不应在多次重写之间复用。
+ * </p>
+ * <p>
+ * 启用编辑点记录（拼接输出模式）时，规则应通过record*方法报告修改：这些修改会被记录为源码编辑点，
+ * 引擎直接把它们拼接进原SQL；直接调用{@link #markChanged()}的修改无法拼接，引擎会退回反解析。
+ * </p>
+ * <p>
+ * 上下文同时承载协作式取消：超过截止时间、被{@link #cancel()}或执行线程被中断后{@link #isCancelled()}返回true，
+ * 引擎在每个规则应用前检查，耗时较长的规则也可以在内部循环中检查并提前返回。
+ * </p>
+ * <p>
+ * 调用方可以通过{@code ISQLRewriteEngine#run(String, RewriteContext)}传入带有属性（如租户ID）的上下文，
+ * 规则中的{@link IValueSupplier}从属性中解析实际值。引擎为每条语句创建继承其属性与取消状态的子上下文，
+ * 因此调用方的上下文可以在多次重写之间复用。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/23 09:12:35
+ */
+public class RewriteContext {
+
+    /**
+     * 语句是否已被修改
+     */
+    private boolean changed;
+
+    /**
+     * 是否存在未记录编辑点的修改
+     */
+    private boolean unrecordedChange;
+
+    /**
+     * 编辑点记录器，未启用拼接输出时为null
+     */
+    private SqlEditRecorder editRecorder;
+
+    /**
+     * 截止时间（System.nanoTime()），0表示不限制
+     */
+    private long deadlineNanos;
+
+    /**
+     * 是否已被取消
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * 父上下文，属性与取消状态从父上下文继承，可为null
+     */
+    private final RewriteContext parent;
+
+    /**
+     * 属性，未设置时为null
+     */
+    private Map<String, Object> attributes;
+
+    /**
+     * 编译重写模板时按出现顺序记录的值提供者，未启用时为null
+     */
+    private List<IValueSupplier> templateValues;
+
+    public RewriteContext() {
+        this(null);
+    }
+
+    private RewriteContext(RewriteContext parent) {
+        this.parent = parent;
+    }
+
+    /**
+     * 创建用于一次语句重写的子上下文
+     * <p>
+     * 子上下文继承本上下文的属性与取消状态，修改状态、编辑点与截止时间相互独立。
+     * </p>
+     *
+     * @return 子上下文
+     */
+    public RewriteContext newStatementContext() {
+
+        return new RewriteContext(this);
+    }
+
+    /**
+     * 设置属性
+     *
+     * @param name  属性名
+     * @param value 属性值
+     */
+    public void setAttribute(String name, Object value) {
+        if (attributes == null) {
+            attributes = new HashMap<>(8);
+        }
+        attributes.put(name, value);
+    }
+
+    /**
+     * 获取属性，本上下文未设置时从父上下文获取
+     *
+     * @param name 属性名
+     * @return 属性值，不存在时返回null
+     */
+    public Object getAttribute(String name) {
+        Object value = attributes == null ? null : attributes.get(name);
+        if (value == null && parent != null) {
+            return parent.getAttribute(name);
+        }
+        return value;
+    }
+
+    /**
+     * 本上下文或父上下文是否设置了属性
+     *
+     * @return 是/否
+     */
+    public boolean hasAttributes() {
+
+        return (attributes != null && !attributes.isEmpty()) || (parent != null && parent.hasAttributes());
+    }
+
+    /**
+     * 启用模板值记录：编译重写模板时，值提供者不解析实际值，而是以占位参数代替并记录下来，模板输出时再解析回填
+     */
+    public void enableTemplateValueRecording() {
+        if (templateValues == null) {
+            templateValues = new ArrayList<>();
+        }
+    }
+
+    /**
+     * 解析值提供者
+     * <p>
+     * 启用模板值记录时返回占位参数表达式，否则解析实际值并转为SQL表达式。
+     * </p>
+     *
+     * @param supplier 值提供者
+     * @return SQL表达式
+     */
+    public Expression resolveValue(IValueSupplier supplier) {
+        if (templateValues == null) {
+            return JsqlParserUtils.createValueExpression(supplier.get(this));
+        }
+        templateValues.add(supplier);
+        return new JdbcNamedParameter(SqlShape.CONTEXT_SLOT_PREFIX + (templateValues.size() - 1));
+    }
+
+    /**
+     * 获取编译重写模板时记录的值提供者，下标即占位参数序号
+     *
+     * @return 值提供者列表，未启用模板值记录时返回空列表
+     */
+    public List<IValueSupplier> getTemplateValues() {
+
+        return templateValues == null ? Collections.emptyList() : templateValues;
+    }
+
+    /**
+     * 设置重写截止时间
+     *
+     * @param timeoutMillis 自当前时刻起的超时时间（毫秒），小于等于0表示不限制
+     */
+    public void setTimeout(long timeoutMillis) {
+        if (timeoutMillis > 0) {
+            // 避免恰好得到0而被视为不限制
+            this.deadlineNanos = (System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis)) | 1L;
+        } else {
+            this.deadlineNanos = 0L;
+        }
+    }
+
+    /**
+     * 取消本次重写，可由其他线程调用
+     */
+    public void cancel() {
+        this.cancelled = true;
+    }
+
+    /**
+     * 本次重写是否应当停止：已被取消、超过截止时间或执行线程被中断
+     *
+     * @return 是/否
+     */
+    public boolean isCancelled() {
+        if (cancelled) {
+            return true;
+        }
+        if (parent != null && parent.cancelled) {
+            cancelled = true;
+            return true;
+        }
+        if (deadlineNanos != 0L && System.nanoTime() - deadlineNanos > 0) {
+            cancelled = true;
+            return true;
+        }
+        return Thread.currentThread().isInterrupted();
+    }
+
+    /**
+     * 启用编辑点记录
+     */
+    public void enableEditRecording() {
+        if (editRecorder == null) {
+            editRecorder = new SqlEditRecorder();
+        }
+    }
+
+    /**
+     * 是否启用了编辑点记录
+     *
+     * @return 是/否
+     */
+    public boolean isEditRecording() {
+
+        return editRecorder != null;
+    }
+
+    /**
+     * 标记语句已被修改（修改内容未记录为编辑点）
+     */
+    public void markChanged() {
+        this.changed = true;
+        this.unrecordedChange = true;
+    }
+
+    /**
+     * 语句是否已被修改
+     *
+     * @return 是/否
+     */
+    public boolean isChanged() {
+
+        return changed;
+    }
+
+    /**
+     * 报告为SELECT的WHERE追加AND条件，需在修改AST之前调用
+     *
+     * @param plainSelect 查询
+     * @param condition   条件表达式
+     */
+    public void recordWhereCondition(PlainSelect plainSelect, Expression condition) {
+        this.changed = true;
+        if (editRecorder != null) {
+            editRecorder.recordWhereCondition(plainSelect, condition);
+        }
+    }
+
+    /**
+     * 报告为JOIN的ON追加AND条件，需在修改AST之前调用
+     *
+     * @param join      join
+     * @param condition 条件表达式
+     */
+    public void recordJoinCondition(Join join, Expression condition) {
+        this.changed = true;
+        if (editRecorder != null) {
+            editRecorder.recordJoinCondition(join, condition);
+        }
+    }
+
+    /**
+     * 报告为INSERT追加列及其值（每一行追加同一个值）
+     *
+     * @param insert     insert
+     * @param columnName 列名
+     * @param value      值表达式
+     */
+    public void recordInsertColumn(Insert insert, String columnName, Expression value) {
+        this.changed = true;
+        if (editRecorder != null) {
+            editRecorder.recordInsertColumn(insert, columnName, value);
+        }
+    }
+
+    /**
+     * 将记录的编辑点拼接进被解析的原始SQL
+     *
+     * @param sql 被解析的原始SQL
+     * @return 拼接后的SQL，未启用编辑点记录、存在未记录的修改或编辑点无法定位时返回null
+     */
+    public String splice(String sql) {
+        if (editRecorder == null || unrecordedChange || editRecorder.isEmpty()) {
+            return null;
+        }
+        return editRecorder.splice(sql);
+    }
+
+}
@@ -0,0 +1,464 @@
+package io.github.anthem37.sql.rewiter.core.context;
+
+import io.github.anthem37.sql.rewiter.core.lexer.SqlLexer;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlTokenType;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.parser.ASTNodeAccess;
+import net.sf.jsqlparser.parser.SimpleNode;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.PlainSelect;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * SQL编辑点记录器
+ * <p>
+ * 拼接输出模式下，规则在修改AST的同时记录对应的源码编辑点（WHERE条件、JOIN ON条件、INSERT列与值），
+ * 最终通过AST节点记录的源码偏移定位插入位置，把编辑内容拼接进原始SQL，
+ * 从而保留原SQL的格式、注释与大小写，且只需复制一次字符串而无需反解析整棵语法树。
+ * </p>
+ * <p>
+ * 插入位置通过{@link SqlLexer}在节点所在区间内按词法单元（跟踪括号层级）查找子句边界
+ * （JSqlParser不为WHERE/ON表达式记录源码位置，只能按关键字查找）：
+ * 限定名中的单词（如t.start、o.left）、紧跟左括号的同名函数以及运算符、逗号、AND/OR之后的操作数不视为子句关键字。
+ * 任意编辑点无法可靠定位（节点没有源码位置、源码结构与AST不一致等）时{@link #splice(String)}返回null，
+ * 由调用方退回反解析；关键字识别不可能覆盖所有方言，调用方还应校验拼接结果与反解析结果一致。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/23 14:05:18
+ */
+public class SqlEditRecorder {
+
+    private static final String AND = ") AND ";
+
+    /**
+     * SELECT子句关键字，WHERE条件到此结束
+     */
+    private static final String[] SELECT_CLAUSE_KEYWORDS = {
+            "GROUP", "HAVING", "ORDER", "LIMIT", "OFFSET", "FETCH", "WINDOW", "QUALIFY", "FOR",
+            "UNION", "INTERSECT", "EXCEPT", "MINUS", "CONNECT", "START", "INTO"
+    };
+
+    /**
+     * JOIN相关关键字，JOIN ON条件到此结束
+     */
+    private static final String[] JOIN_KEYWORDS = {
+            "JOIN", "INNER", "LEFT", "RIGHT", "FULL", "CROSS", "NATURAL", "OUTER", "STRAIGHT_JOIN", "APPLY", "WHERE", "USING"
+    };
+
+    private static final Comparator<Insertion> INSERTION_ORDER = Comparator.comparingInt((Insertion insertion) -> insertion.offset)
+            .thenComparingInt(insertion -> insertion.prefix ? 1 : 0)
+            .thenComparingInt(insertion -> insertion.sequence);
+
+    private final Map<PlainSelect, ConditionEdit> whereEdits = new IdentityHashMap<>();
+
+    private final Map<Join, ConditionEdit> joinEdits = new IdentityHashMap<>();
+
+    private final Map<Insert, InsertEdit> insertEdits = new IdentityHashMap<>();
+
+    /**
+     * 记录为SELECT的WHERE追加AND条件，需在修改AST之前调用
+     *
+     * @param plainSelect 查询
+     * @param condition   条件表达式
+     */
+    public void recordWhereCondition(PlainSelect plainSelect, Expression condition) {
+        whereEdits.computeIfAbsent(plainSelect, key -> new ConditionEdit(key.getWhere() != null)).conditions.add(condition);
+    }
+
+    /**
+     * 记录为JOIN的ON追加AND条件，需在修改AST之前调用
+     *
+     * @param join      join
+     * @param condition 条件表达式
+     */
+    public void recordJoinCondition(Join join, Expression condition) {
+        joinEdits.computeIfAbsent(join, key -> new ConditionEdit(key.getOnExpression() != null)).conditions.add(condition);
+    }
+
+    /**
+     * 记录为INSERT追加列及其值（每一行追加同一个值）
+     *
+     * @param insert     insert
+     * @param columnName 列名
+     * @param value      值表达式
+     */
+    public void recordInsertColumn(Insert insert, String columnName, Expression value) {
+        InsertEdit edit = insertEdits.computeIfAbsent(insert, key -> new InsertEdit());
+        edit.columns.add(columnName);
+        edit.values.add(value);
+    }
+
+    /**
+     * 是否没有任何编辑点
+     *
+     * @return 是/否
+     */
+    public boolean isEmpty() {
+
+        return whereEdits.isEmpty() && joinEdits.isEmpty() && insertEdits.isEmpty();
+    }
+
+    /**
+     * 将编辑点拼接进被解析的原始SQL
+     *
+     * @param sql 被解析的原始SQL（AST节点偏移以它为准）
+     * @return 拼接后的SQL，任意编辑点无法定位时返回null
+     */
+    public String splice(String sql) {
+        List<Insertion> insertions = new ArrayList<>();
+        // 最后一个JOIN的ON条件与FROM子句在同一位置结束，JOIN的追加内容需排在WHERE之前
+        for (Map.Entry<Join, ConditionEdit> entry : joinEdits.entrySet()) {
+            if (!locateJoin(sql, entry.getKey(), entry.getValue(), insertions)) {
+                return null;
+            }
+        }
+        for (Map.Entry<PlainSelect, ConditionEdit> entry : whereEdits.entrySet()) {
+            if (!locateWhere(sql, entry.getKey(), entry.getValue(), insertions)) {
+                return null;
+            }
+        }
+        for (Map.Entry<Insert, InsertEdit> entry : insertEdits.entrySet()) {
+            if (!locateInsert(sql, entry.getKey(), entry.getValue(), insertions)) {
+                return null;
+            }
+        }
+        insertions.sort(INSERTION_ORDER);
+        int extra = 0;
+        for (Insertion insertion : insertions) {
+            extra += insertion.text.length();
+        }
+        StringBuilder builder = new StringBuilder(sql.length() + extra);
+        int copied = 0;
+        for (Insertion insertion : insertions) {
+            builder.append(sql, copied, insertion.offset).append(insertion.text);
+            copied = insertion.offset;
+        }
+        builder.append(sql, copied, sql.length());
+        return builder.toString();
+    }
+
+    /**
+     * 定位WHERE条件插入点：已有WHERE时用括号包裹原条件后追加，否则在FROM子句末尾添加WHERE
+     */
+    private boolean locateWhere(String sql, PlainSelect plainSelect, ConditionEdit edit, List<Insertion> insertions) {
+        int[] range = range(plainSelect, sql);
+        if (range == null) {
+            return false;
+        }
+        SqlLexer lexer = new SqlLexer(sql, range[0], range[1]);
+        int depth = 0;
+        boolean inFrom = false;
+        boolean inWhere = false;
+        int whereStart = -1;
+        int lastEnd = -1;
+        boolean afterOperator = false;
+        while (lexer.nextSignificant()) {
+            boolean operand = afterOperator;
+            afterOperator = isOperator(lexer);
+            if (depth == 0 && lexer.getTokenType() == SqlTokenType.WORD && !operand) {
+                if (!inFrom && !inWhere) {
+                    inFrom = lexer.isWord("FROM");
+                    continue;
+                }
+                if (inFrom && lexer.isWord("WHERE")) {
+                    inFrom = false;
+                    inWhere = true;
+                    continue;
+                }
+                if (isKeyword(lexer, sql, range[1], SELECT_CLAUSE_KEYWORDS)) {
+                    break;
+                }
+            }
+            if (depth == 0 && lexer.isSymbol(';')) {
+                break;
+            }
+            depth += depthChange(lexer);
+            if (depth < 0) {
+                return false;
+            }
+            if (inWhere && whereStart < 0) {
+                whereStart = lexer.getTokenStart();
+            }
+            if (inFrom || inWhere) {
+                lastEnd = lexer.getTokenEnd();
+            }
+        }
+        if (lastEnd < 0 || inWhere != edit.existing || (inWhere && whereStart < 0)) {
+            return false;
+        }
+        addConditionInsertions(edit, "WHERE", whereStart, lastEnd, insertions);
+        return true;
+    }
+
+    /**
+     * 定位JOIN ON条件插入点：从右侧表（子查询）结束处向后查找ON条件
+     */
+    private boolean locateJoin(String sql, Join join, ConditionEdit edit, List<Insertion> insertions) {
+        FromItem rightItem = join.getRightItem();
+        if (join.isSimple()) {
+            // 逗号连接没有ON子句
+            return false;
+        }
+        int[] range = rightItem instanceof ASTNodeAccess ? range((ASTNodeAccess) rightItem, sql) : null;
+        if (range == null) {
+            return false;
+        }
+        SqlLexer lexer = new SqlLexer(sql, range[1], sql.length());
+        int depth = 0;
+        boolean inOn = false;
+        int onStart = -1;
+        int lastEnd = range[1];
+        boolean afterOperator = false;
+        while (lexer.nextSignificant()) {
+            boolean operand = afterOperator;
+            afterOperator = isOperator(lexer);
+            if (depth == 0) {
+                if (lexer.isSymbol(',') || lexer.isSymbol(')') || lexer.isSymbol(';')) {
+                    break;
+                }
+                if (lexer.getTokenType() == SqlTokenType.WORD && !operand) {
+                    if (lexer.isWord("ON")) {
+                        if (inOn) {
+                            // 嵌套JOIN的ON条件，无法确定归属
+                            return false;
+                        }
+                        inOn = true;
+                        continue;
+                    }
+                    if (isKeyword(lexer, sql, sql.length(), JOIN_KEYWORDS) || isKeyword(lexer, sql, sql.length(), SELECT_CLAUSE_KEYWORDS)) {
+                        break;
+                    }
+                }
+            }
+            depth += depthChange(lexer);
+            if (inOn && onStart < 0) {
+                onStart = lexer.getTokenStart();
+            }
+            lastEnd = lexer.getTokenEnd();
+        }
+        if (inOn != edit.existing || (inOn && onStart < 0)) {
+            return false;
+        }
+        addConditionInsertions(edit, "ON", onStart, lastEnd, insertions);
+        return true;
+    }
+
+    /**
+     * 定位INSERT列与值插入点：列清单与VALUES中每一行的右括号之前
+     */
+    private boolean locateInsert(String sql, Insert insert, InsertEdit edit, List<Insertion> insertions) {
+        int[] range = insert.getTable() == null ? null : range(insert.getTable(), sql);
+        if (range == null) {
+            return false;
+        }
+        SqlLexer lexer = new SqlLexer(sql, range[1], sql.length());
+        // 列清单
+        if (!lexer.nextSignificant() || !lexer.isSymbol('(')) {
+            return false;
+        }
+        if (!appendToParenthesized(lexer, sql, joinWithComma(edit.columns), insertions)) {
+            return false;
+        }
+        if (!lexer.nextSignificant() || !(lexer.isWord("VALUES") || lexer.isWord("VALUE"))) {
+            return false;
+        }
+        String valuesText = joinWithComma(edit.values);
+        boolean more = lexer.nextSignificant();
+        while (more) {
+            if (lexer.isWord("ROW")) {
+                lexer.nextSignificant();
+            }
+            if (!lexer.isSymbol('(') || !appendToParenthesized(lexer, sql, valuesText, insertions)) {
+                return false;
+            }
+            more = lexer.nextSignificant() && lexer.isSymbol(',') && lexer.nextSignificant();
+        }
+        return true;
+    }
+
+    /**
+     * 扫描到与当前左括号匹配的右括号，在括号内最后一个词法单元之后追加内容
+     */
+    private static boolean appendToParenthesized(SqlLexer lexer, String sql, String text, List<Insertion> insertions) {
+        int lastEnd = -1;
+        int depth = 1;
+        while (lexer.nextSignificant()) {
+            if (lexer.isSymbol('(')) {
+                depth++;
+            } else if (lexer.isSymbol(')') && --depth == 0) {
+                if (lastEnd < 0) {
+                    insertions.add(new Insertion(lexer.getTokenStart(), false, insertions.size(), text));
+                } else {
+                    insertions.add(new Insertion(lastEnd, false, insertions.size(), ", " + text));
+                }
+                return true;
+            }
+            lastEnd = lexer.getTokenEnd();
+        }
+        return false;
+    }
+
+    private static void addConditionInsertions(ConditionEdit edit, String keyword, int start, int end, List<Insertion> insertions) {
+        List<Expression> conditions = edit.conditions;
+        StringBuilder suffix = new StringBuilder();
+        if (edit.existing) {
+            insertions.add(new Insertion(start, true, insertions.size(), repeat('(', conditions.size())));
+            for (Expression condition : conditions) {
+                suffix.append(AND).append(condition);
+            }
+        } else {
+            suffix.append(' ').append(keyword).append(' ').append(repeat('(', conditions.size() - 1)).append(conditions.get(0));
+            for (int i = 1; i < conditions.size(); i++) {
+                suffix.append(AND).append(conditions.get(i));
+            }
+        }
+        insertions.add(new Insertion(end, false, insertions.size(), suffix.toString()));
+    }
+
+    /**
+     * 当前单词是否为给定关键字之一，后面紧跟左括号时视为同名函数（如LEFT(...)），紧跟点号时视为限定名（如start.id）
+     */
+    private static boolean isKeyword(SqlLexer lexer, String sql, int end, String[] keywords) {
+        for (String keyword : keywords) {
+            if (lexer.isWord(keyword)) {
+                int i = lexer.getTokenEnd();
+                while (i < end && Character.isWhitespace(sql.charAt(i))) {
+                    i++;
+                }
+                return i >= end || (sql.charAt(i) != '(' && sql.charAt(i) != '.');
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前词法单元是否为运算符、点号、逗号、左括号或AND/OR/NOT/WHERE/ON，其后的单词只能是限定名的一部分或操作数，不可能开始新的子句
+     * （星号不在其中，SELECT * FROM中的FROM紧跟星号）
+     */
+    private static boolean isOperator(SqlLexer lexer) {
+        if (lexer.getTokenType() == SqlTokenType.WORD) {
+            return lexer.isWord("AND") || lexer.isWord("OR") || lexer.isWord("NOT") || lexer.isWord("WHERE") || lexer.isWord("ON");
+        }
+        if (lexer.getTokenType() != SqlTokenType.SYMBOL || lexer.getTokenLength() != 1) {
+            return false;
+        }
+        switch (lexer.getSql().charAt(lexer.getTokenStart())) {
+            case '.':
+            case ',':
+            case '(':
+            case '=':
+            case '<':
+            case '>':
+            case '!':
+            case '+':
+            case '-':
+            case '/':
+            case '%':
+            case '|':
+            case '&':
+            case '^':
+            case '~':
+            case ':':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static int depthChange(SqlLexer lexer) {
+        if (lexer.isSymbol('(')) {
+            return 1;
+        }
+        return lexer.isSymbol(')') ? -1 : 0;
+    }
+
+    /**
+     * AST节点在SQL中的区间[起始, 结束)，节点没有源码位置或与SQL不符时返回null
+     */
+    private static int[] range(ASTNodeAccess node, String sql) {
+        SimpleNode astNode = node.getASTNode();
+        if (astNode == null || astNode.jjtGetFirstToken() == null || astNode.jjtGetLastToken() == null) {
+            return null;
+        }
+        // JSqlParser的绝对位置从1开始
+        int start = astNode.jjtGetFirstToken().absoluteBegin - 1;
+        int end = astNode.jjtGetLastToken().absoluteEnd - 1;
+        if (start < 0 || end > sql.length() || start >= end) {
+            return null;
+        }
+        return new int[]{start, end};
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+
+    private static String joinWithComma(List<?> items) {
+        StringBuilder builder = new StringBuilder();
+        for (Object item : items) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(item);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 条件编辑：原有条件是否存在及按顺序追加的条件
+     */
+    private static final class ConditionEdit {
+
+        private final boolean existing;
+
+        private final List<Expression> conditions = new ArrayList<>();
+
+        private ConditionEdit(boolean existing) {
+            this.existing = existing;
+        }
+    }
+
+    /**
+     * INSERT编辑：按顺序追加的列与值
+     */
+    private static final class InsertEdit {
+
+        private final List<String> columns = new ArrayList<>();
+
+        private final List<Expression> values = new ArrayList<>();
+    }
+
+    /**
+     * 插入操作：同一偏移处先插入后缀（属于前一个词法单元），再插入前缀（属于后一个词法单元）
+     */
+    private static final class Insertion {
+
+        private final int offset;
+
+        private final boolean prefix;
+
+        private final int sequence;
+
+        private final String text;
+
+        private Insertion(int offset, boolean prefix, int sequence, String text) {
+            this.offset = offset;
+            this.prefix = prefix;
+            this.sequence = sequence;
+            this.text = text;
+        }
+    }
+
+}
@@ -1,8 +1,16 @@
 package io.github.anthem37.sql.rewiter.core.engine;
 
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.engine.script.ScriptRewriteResult;
+import io.github.anthem37.sql.rewiter.core.engine.script.ScriptRewriter;
 import io.github.anthem37.sql.rewiter.core.rule.IRule;
 
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * SQL重写引擎接口
@@ -19,6 +27,18 @@ public interface ISQLRewriteEngine {
      */
     List<IRule> getRules();
 
+    /**
+     * 获取规则版本
+     * <p>
+     * 规则被替换时版本递增，调用方以SQL为键缓存改写结果时可据此丢弃旧版本的结果。默认实现的规则不可变，版本恒为0。
+     * </p>
+     *
+     * @return 规则版本
+     */
+    default long getRuleVersion() {
+        return 0L;
+    }
+
     /**
      * 执行sql改写
      *
@@ -27,4 +47,82 @@ public interface ISQLRewriteEngine {
      */
     String run(String sql);
 
+    /**
+     * 执行sql改写，规则中的值提供者从调用方的重写上下文解析
+     * <p>
+     * 一个引擎实例可以服务于不同租户等动态取值的场景，上下文可以在多次调用之间复用。
+     * 值提供者无法从上下文取值时抛出异常，不会返回缺少条件的SQL。
+     * </p>
+     *
+     * @param sql     sql
+     * @param context 重写上下文，可为null
+     * @return 改写后的sql
+     * @throws io.github.anthem37.sql.rewiter.core.exception.SqlRewriteException 值提供者无法从上下文取值时抛出
+     */
+    String run(String sql, RewriteContext context);
+
+    /**
+     * 执行sql改写，并返回结果类型及结果能否被缓存
+     * <p>
+     * 调用方以SQL为键缓存改写结果时，应只缓存{@link RewriteResult#isCacheable()}为true的结果。
+     * 默认实现无法区分失败与无需改写，按{@link #run(String, RewriteContext)}的返回值判断是否改写；
+     * 改写失败时原样返回SQL的实现类应覆盖此方法。
+     * </p>
+     *
+     * @param sql     sql
+     * @param context 重写上下文，可为null
+     * @return 重写结果
+     */
+    default RewriteResult runWithResult(String sql, RewriteContext context) {
+        String result = run(sql, context);
+        return result == sql ? RewriteResult.unchanged(sql) : RewriteResult.rewritten(result);
+    }
+
+    /**
+     * 批量执行sql改写
+     * <p>
+     * 默认实现在调用线程上逐条改写，实现类可覆盖以支持去重与并行。
+     * </p>
+     *
+     * @param sqls sql列表
+     * @return 改写后的sql列表，与输入顺序一致
+     */
+    default List<String> runBatch(List<String> sqls) {
+        List<String> results = new ArrayList<>(sqls.size());
+        for (String sql : sqls) {
+            results.add(run(sql));
+        }
+        return results;
+    }
+
+    /**
+     * 异步执行sql改写
+     * <p>
+     * 默认实现在{@link java.util.concurrent.ForkJoinPool#commonPool()}上改写，实现类可覆盖以支持有界队列与自定义执行器。
+     * </p>
+     *
+     * @param sql sql
+     * @return 改写后的sql
+     */
+    default CompletableFuture<String> runAsync(String sql) {
+        return CompletableFuture.supplyAsync(() -> run(sql));
+    }
+
+    /**
+     * 改写多语句脚本
+     * <p>
+     * 按分号切分脚本（字符串字面量、注释与$tag$引用中的分号不会被切分），逐条改写后流式写出，
+     * 语句之间的空白与注释原样保留，内存占用只与单条语句长度有关。
+     * 解析失败且含分号的语句可能是被合并的多条语句，计入{@link ScriptRewriteResult#getSuspiciousCount()}。
+     * </p>
+     *
+     * @param reader 脚本输入，不会被关闭
+     * @param writer 改写后的脚本输出，不会被关闭
+     * @return 重写结果
+     * @throws IOException 读写失败时抛出
+     */
+    default ScriptRewriteResult runScript(Reader reader, Writer writer) throws IOException {
+        return new ScriptRewriter(ScriptRewriter.DEFAULT_MAX_STATEMENT_LENGTH, ScriptRewriter.DEFAULT_READ_BUFFER_SIZE).rewriteWithResult(reader, writer, sql -> runWithResult(sql, null));
+    }
+
 }
@@ -0,0 +1,98 @@
+package io.github.anthem37.sql.rewiter.core.engine;
+
+import io.github.anthem37.sql.rewiter.core.engine.metrics.RewriteOutcome;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 单条SQL的重写结果
+ * <p>
+ * 除改写后的SQL外还给出本次改写的结果类型，以及该结果能否被调用方按SQL缓存：
+ * 规则应用失败、被取消、超出解析限制或解析超时时引擎按原样返回SQL（fail-open），
+ * 这类结果与规则、负载或时机有关，不能缓存，否则同一SQL此后将一直不被改写。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/12/01 10:12:36
+ */
+@Getter
+@ToString
+public final class RewriteResult {
+
+    /**
+     * 改写后的SQL，未改写时为原SQL实例
+     */
+    private final String sql;
+
+    /**
+     * 结果类型
+     */
+    private final RewriteOutcome outcome;
+
+    /**
+     * 结果是否只由SQL与规则决定，可以按SQL缓存
+     */
+    private final boolean cacheable;
+
+    private RewriteResult(String sql, RewriteOutcome outcome, boolean cacheable) {
+        this.sql = sql;
+        this.outcome = outcome;
+        this.cacheable = cacheable;
+    }
+
+    /**
+     * SQL被改写
+     *
+     * @param sql 改写后的SQL
+     * @return 重写结果
+     */
+    public static RewriteResult rewritten(String sql) {
+
+        return new RewriteResult(sql, RewriteOutcome.REWRITTEN, true);
+    }
+
+    /**
+     * SQL无需改写
+     *
+     * @param sql 原SQL
+     * @return 重写结果
+     */
+    public static RewriteResult unchanged(String sql) {
+
+        return new RewriteResult(sql, RewriteOutcome.UNCHANGED, true);
+    }
+
+    /**
+     * SQL解析失败，原样返回
+     *
+     * @param sql       原SQL
+     * @param cacheable 是否为语法错误等确定性失败（超出解析限制、解析超时不是）
+     * @return 重写结果
+     */
+    public static RewriteResult parseFailed(String sql, boolean cacheable) {
+
+        return new RewriteResult(sql, RewriteOutcome.PARSE_FAILED, cacheable);
+    }
+
+    /**
+     * 规则应用失败或被取消，原样返回，不可缓存
+     *
+     * @param sql 原SQL
+     * @return 重写结果
+     */
+    public static RewriteResult failed(String sql) {
+
+        return new RewriteResult(sql, RewriteOutcome.RULE_FAILED, false);
+    }
+
+    /**
+     * 是否因失败而原样返回SQL
+     *
+     * @return 解析失败或规则应用失败时返回true
+     */
+    public boolean isFailed() {
+
+        return outcome == RewriteOutcome.PARSE_FAILED || outcome == RewriteOutcome.RULE_FAILED;
+    }
+
+}
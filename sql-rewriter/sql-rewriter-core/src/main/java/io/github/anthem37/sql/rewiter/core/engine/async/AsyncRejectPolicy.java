@@ -0,0 +1,24 @@
+package io.github.anthem37.sql.rewiter.core.engine.async;
+
+/**
+ * 异步重写任务拒绝策略
+ * <p>
+ * 待处理（排队中与执行中）的异步重写任务数达到上限时的处理方式。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/24 15:02:19
+ */
+public enum AsyncRejectPolicy {
+
+    /**
+     * 立即返回以{@code SqlRewriteException}异常完成的Future，不阻塞调用线程，适用于事件循环等不能阻塞的场景
+     */
+    ABORT,
+
+    /**
+     * 在调用线程上同步改写，调用方因此被减速，形成反压
+     */
+    CALLER_RUNS
+
+}
@@ -0,0 +1,198 @@
+package io.github.anthem37.sql.rewiter.core.engine.async;
+
+import io.github.anthem37.sql.rewiter.core.exception.ErrorEnum;
+import io.github.anthem37.sql.rewiter.core.exception.SqlRewriteException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 异步重写执行器
+ * <p>
+ * 1. 通过信号量限制待处理（排队中与执行中）的任务数，达到上限时按{@link AsyncRejectPolicy}拒绝或由调用线程执行。
+ * 2. 执行器可插拔：使用外部传入的{@link Executor}；未传入时按需创建，
+ * JDK 21+且启用虚拟线程时通过反射调用{@code Executors.newVirtualThreadPerTaskExecutor()}（编译基线仍为Java 8），
+ * 否则创建固定大小、空闲线程可回收的守护线程池。
+ * 3. 内部执行器在首次提交任务时才创建，未使用异步接口的引擎不会创建任何线程。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/24 15:10:43
+ */
+@Slf4j
+public class AsyncRewriter {
+
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    /**
+     * 外部传入的执行器，为null时使用内部执行器
+     */
+    private final Executor customExecutor;
+
+    /**
+     * 内部线程池大小
+     */
+    private final int threads;
+
+    /**
+     * 是否优先使用虚拟线程
+     */
+    private final boolean virtualThreads;
+
+    /**
+     * 待处理任务数上限
+     */
+    private final int maxPending;
+
+    private final AsyncRejectPolicy rejectPolicy;
+
+    private final Semaphore permits;
+
+    private final LongAdder rejectedCount = new LongAdder();
+
+    private volatile Executor executor;
+
+    public AsyncRewriter(Executor customExecutor, int threads, boolean virtualThreads, int maxPending, AsyncRejectPolicy rejectPolicy) {
+        this.customExecutor = customExecutor;
+        this.threads = Math.max(1, threads);
+        this.virtualThreads = virtualThreads;
+        this.maxPending = Math.max(1, maxPending);
+        this.rejectPolicy = rejectPolicy == null ? AsyncRejectPolicy.ABORT : rejectPolicy;
+        this.permits = new Semaphore(this.maxPending);
+    }
+
+    /**
+     * 提交异步改写任务
+     *
+     * @param sql      sql
+     * @param rewriter 单条sql改写函数，需线程安全
+     * @return 改写结果
+     */
+    public CompletableFuture<String> submit(String sql, Function<String, String> rewriter) {
+        if (!permits.tryAcquire()) {
+            rejectedCount.increment();
+            if (rejectPolicy == AsyncRejectPolicy.CALLER_RUNS) {
+                return runInCaller(sql, rewriter);
+            }
+            return failed(new SqlRewriteException(ErrorEnum.ASYNC_REWRITE_REJECTED, maxPending));
+        }
+        CompletableFuture<String> future = new CompletableFuture<>();
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    future.complete(rewriter.apply(sql));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                } finally {
+                    permits.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permits.release();
+            rejectedCount.increment();
+            future.completeExceptionally(new SqlRewriteException(e, ErrorEnum.ASYNC_REWRITE_REJECTED, maxPending));
+        }
+        return future;
+    }
+
+    /**
+     * 当前待处理的任务数
+     *
+     * @return 数量
+     */
+    public int getPendingCount() {
+
+        return maxPending - permits.availablePermits();
+    }
+
+    /**
+     * 累计被拒绝（含由调用线程执行）的任务数
+     *
+     * @return 数量
+     */
+    public long getRejectedCount() {
+
+        return rejectedCount.sum();
+    }
+
+    private static CompletableFuture<String> runInCaller(String sql, Function<String, String> rewriter) {
+        try {
+            return CompletableFuture.completedFuture(rewriter.apply(sql));
+        } catch (Throwable e) {
+            return failed(e);
+        }
+    }
+
+    private static CompletableFuture<String> failed(Throwable e) {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        future.completeExceptionally(e);
+        return future;
+    }
+
+    private Executor getExecutor() {
+        if (customExecutor != null) {
+            return customExecutor;
+        }
+        Executor current = executor;
+        if (current == null) {
+            synchronized (this) {
+                current = executor;
+                if (current == null) {
+                    current = createExecutor();
+                    executor = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Executor createExecutor() {
+        if (virtualThreads) {
+            ExecutorService virtualExecutor = newVirtualThreadExecutor();
+            if (virtualExecutor != null) {
+                log.debug("AsyncRewriter, 使用虚拟线程执行异步重写");
+                return virtualExecutor;
+            }
+            log.info("AsyncRewriter, 当前JDK不支持虚拟线程，改用平台线程池，线程数: {}", threads);
+        }
+        String prefix = "sql-rewriter-async-" + POOL_SEQUENCE.incrementAndGet() + "-";
+        AtomicInteger threadSequence = new AtomicInteger();
+        ThreadFactory threadFactory = runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+        // 待处理任务数已由信号量限制，队列不会无限增长
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * 通过反射创建虚拟线程执行器（JDK 21+）
+     *
+     * @return 执行器，不支持时返回null
+     */
+    static ExecutorService newVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
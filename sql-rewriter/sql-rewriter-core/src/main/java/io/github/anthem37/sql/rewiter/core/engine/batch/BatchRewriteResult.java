@@ -0,0 +1,69 @@
+package io.github.anthem37.sql.rewiter.core.engine.batch;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 批量重写结果
+ * <p>
+ * 包含按输入顺序排列的改写结果，以及本批次的去重与耗时统计。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/24 10:21:46
+ */
+@Getter
+@AllArgsConstructor
+@ToString(exclude = "results")
+public final class BatchRewriteResult {
+
+    /**
+     * 改写结果，与输入SQL一一对应
+     */
+    private final List<String> results;
+
+    /**
+     * 输入SQL数量
+     */
+    private final int totalCount;
+
+    /**
+     * 去重后实际改写的SQL数量
+     */
+    private final int distinctCount;
+
+    /**
+     * 是否并行执行
+     */
+    private final boolean parallel;
+
+    /**
+     * 本批次耗时（纳秒）
+     */
+    private final long elapsedNanos;
+
+    /**
+     * 被去重的SQL数量
+     *
+     * @return 数量
+     */
+    public int getDuplicateCount() {
+
+        return totalCount - distinctCount;
+    }
+
+    /**
+     * 本批次耗时（毫秒）
+     *
+     * @return 耗时
+     */
+    public long getElapsedMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+}
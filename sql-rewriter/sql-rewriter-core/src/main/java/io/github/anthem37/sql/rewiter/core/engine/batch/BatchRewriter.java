@@ -0,0 +1,133 @@
+package io.github.anthem37.sql.rewiter.core.engine.batch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+
+/**
+ * 批量重写执行器
+ * <p>
+ * 1. 批次内去重：相同的SQL只改写一次（JDBC批处理、回放的查询日志中重复率通常很高）。
+ * 2. 去重后的SQL数量达到并行阈值时，在指定的{@link ForkJoinPool}上分治并行改写，否则在调用线程上顺序改写。
+ * 3. 结果按输入顺序返回，同时给出去重数量与耗时统计。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/24 10:35:02
+ */
+@Slf4j
+public class BatchRewriter {
+
+    /**
+     * 单个并行子任务最多处理的SQL数量
+     */
+    private static final int LEAF_SIZE = 8;
+
+    /**
+     * 并行执行的线程池
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * 去重后SQL数量达到该值时并行执行
+     */
+    private final int parallelThreshold;
+
+    public BatchRewriter(ForkJoinPool pool, int parallelThreshold) {
+        this.pool = pool == null ? ForkJoinPool.commonPool() : pool;
+        this.parallelThreshold = Math.max(1, parallelThreshold);
+    }
+
+    /**
+     * 批量改写
+     *
+     * @param sqls     sql列表
+     * @param rewriter  单条sql改写函数，需线程安全
+     * @return 批量重写结果
+     */
+    public BatchRewriteResult rewrite(List<String> sqls, Function<String, String> rewriter) {
+        long start = System.nanoTime();
+        if (sqls == null || sqls.isEmpty()) {
+            return new BatchRewriteResult(Collections.emptyList(), 0, 0, false, System.nanoTime() - start);
+        }
+        int total = sqls.size();
+        // 1. 去重，记录每条输入对应的去重后下标
+        Map<String, Integer> distinctIndex = new HashMap<>(total * 4 / 3 + 1);
+        List<String> distinct = new ArrayList<>();
+        int[] slots = new int[total];
+        for (int i = 0; i < total; i++) {
+            String sql = sqls.get(i);
+            Integer slot = distinctIndex.get(sql);
+            if (slot == null) {
+                slot = distinct.size();
+                distinctIndex.put(sql, slot);
+                distinct.add(sql);
+            }
+            slots[i] = slot;
+        }
+        // 2. 改写去重后的SQL
+        String[] rewritten = new String[distinct.size()];
+        boolean parallel = distinct.size() >= parallelThreshold && pool.getParallelism() > 1;
+        if (parallel) {
+            pool.invoke(new RewriteAction(distinct, rewritten, rewriter, 0, distinct.size()));
+        } else {
+            for (int i = 0; i < rewritten.length; i++) {
+                rewritten[i] = rewriter.apply(distinct.get(i));
+            }
+        }
+        // 3. 按输入顺序组装结果
+        List<String> results = new ArrayList<>(total);
+        for (int slot : slots) {
+            results.add(rewritten[slot]);
+        }
+        BatchRewriteResult result = new BatchRewriteResult(Collections.unmodifiableList(results), total, distinct.size(), parallel, System.nanoTime() - start);
+        log.debug("BatchRewriter.rewrite, 批量重写完成: {}", result);
+        return result;
+    }
+
+    /**
+     * 分治改写任务
+     */
+    private static final class RewriteAction extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<String> sqls;
+
+        private final String[] results;
+
+        private final transient Function<String, String> rewriter;
+
+        private final int from;
+
+        private final int to;
+
+        private RewriteAction(List<String> sqls, String[] results, Function<String, String> rewriter, int from, int to) {
+            this.sqls = sqls;
+            this.results = results;
+            this.rewriter = rewriter;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_SIZE) {
+                for (int i = from; i < to; i++) {
+                    results[i] = rewriter.apply(sqls.get(i));
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new RewriteAction(sqls, results, rewriter, from, middle), new RewriteAction(sqls, results, rewriter, middle, to));
+        }
+    }
+
+}
@@ -0,0 +1,85 @@
+package io.github.anthem37.sql.rewiter.core.engine.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import io.github.anthem37.sql.rewiter.core.engine.config.SQLRewriteEngineConfig;
+
+/**
+ * 解析失败SQL的负缓存
+ * <p>
+ * 记录已知无法解析的SQL指纹（128位murmur3哈希），命中后直接跳过解析，
+ * 避免不支持的方言语句每次都经历一次失败的解析、异常创建。
+ * 只保存指纹而不保存SQL原文，内存占用与SQL长度无关。
+ * 只记录语法错误等确定性的失败，超出解析限制与解析超时不记录。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/21 09:51:26
+ */
+public class ParseFailureCache {
+
+    private static final HashFunction FINGERPRINT = Hashing.murmur3_128();
+
+    private final Cache<HashCode, Boolean> cache;
+
+    public ParseFailureCache(SQLRewriteEngineConfig config) {
+        this.cache = CacheBuilder.newBuilder().recordStats().maximumSize(config.getParseFailureCacheMaximumSize()).build();
+    }
+
+    /**
+     * 是否为已知解析失败的SQL
+     *
+     * @param sql sql
+     * @return 是/否
+     */
+    public boolean contains(String sql) {
+
+        return cache.getIfPresent(fingerprint(sql)) != null;
+    }
+
+    /**
+     * 记录解析失败的SQL
+     *
+     * @param sql sql
+     */
+    public void add(String sql) {
+        cache.put(fingerprint(sql), Boolean.TRUE);
+    }
+
+    /**
+     * 获取缓存统计信息
+     *
+     * @return 统计信息
+     */
+    public CacheStats stats() {
+
+        return cache.stats();
+    }
+
+    /**
+     * 当前记录的失败SQL指纹数量
+     *
+     * @return 数量
+     */
+    public long size() {
+
+        return cache.size();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    private static HashCode fingerprint(String sql) {
+
+        return FINGERPRINT.hashUnencodedChars(sql);
+    }
+
+}
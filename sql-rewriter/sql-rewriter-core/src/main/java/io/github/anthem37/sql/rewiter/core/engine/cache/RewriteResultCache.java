@@ -0,0 +1,131 @@
+package io.github.anthem37.sql.rewiter.core.engine.cache;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.github.anthem37.sql.rewiter.core.engine.RewriteResult;
+import io.github.anthem37.sql.rewiter.core.engine.config.SQLRewriteEngineConfig;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * SQL重写结果缓存
+ * <p>
+ * 以原始SQL为键缓存重写结果，基于Guava Cache实现：
+ * 1. 支持按条目数或按字符权重限制容量，超出后按近似LRU淘汰。
+ * 2. 同一SQL的并发未命中只会执行一次重写，其余线程等待结果（single-flight）。
+ * 3. "无需重写"的结果同样缓存，值与键为同一String实例，不额外占用内存。
+ * 4. 不可缓存的结果（规则应用失败、被取消、超出解析限制等原样返回的SQL）只返回给本次调用，不写入缓存。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/20 10:18:05
+ */
+public class RewriteResultCache {
+
+    private final Cache<String, RewriteResult> cache;
+
+    public RewriteResultCache(SQLRewriteEngineConfig config) {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+        if (config.getResultCacheMaximumWeight() > 0) {
+            builder.maximumWeight(config.getResultCacheMaximumWeight()).weigher(RewriteResultCache::weigh);
+        } else {
+            builder.maximumSize(config.getResultCacheMaximumSize());
+        }
+        if (config.getResultCacheExpireAfterAccessMillis() > 0) {
+            builder.expireAfterAccess(config.getResultCacheExpireAfterAccessMillis(), TimeUnit.MILLISECONDS);
+        }
+        this.cache = builder.build();
+    }
+
+    /**
+     * 获取重写结果，未命中时通过loader加载，同一SQL并发加载只执行一次
+     * <p>
+     * loader返回不可缓存的结果时不写入缓存，本次及等待同一加载的调用直接得到该结果；
+     * loader抛出的异常与错误原样抛出。
+     * </p>
+     *
+     * @param sql    原始SQL
+     * @param loader 重写函数
+     * @return 重写结果
+     */
+    public RewriteResult get(String sql, Function<String, RewriteResult> loader) {
+        try {
+            return cache.get(sql, () -> {
+                RewriteResult result = loader.apply(sql);
+                if (!result.isCacheable()) {
+                    throw new UncacheableResult(result);
+                }
+                return result;
+            });
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof UncacheableResult) {
+                return ((UncacheableResult) e.getCause()).result;
+            }
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        } catch (ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        } catch (ExecutionException e) {
+            // loader不声明受检异常，不会出现
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
+    /**
+     * 获取缓存统计信息（命中、未命中、淘汰次数等）
+     *
+     * @return 统计信息
+     */
+    public CacheStats stats() {
+
+        return cache.stats();
+    }
+
+    /**
+     * 当前缓存条目数
+     *
+     * @return 条目数
+     */
+    public long size() {
+
+        return cache.size();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 计算缓存条目权重，值与键为同一实例（无需重写）时只计算键
+     */
+    private static int weigh(String sql, RewriteResult result) {
+
+        return sql == result.getSql() ? sql.length() : sql.length() + result.getSql().length();
+    }
+
+    /**
+     * 携带不可缓存的结果跳出Guava Cache的加载，使其不被写入缓存
+     */
+    private static final class UncacheableResult extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient RewriteResult result;
+
+        private UncacheableResult(RewriteResult result) {
+            super(null, null, false, false);
+            this.result = result;
+        }
+    }
+
+}
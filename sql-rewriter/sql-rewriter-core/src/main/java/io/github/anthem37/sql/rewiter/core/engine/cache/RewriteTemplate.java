@@ -0,0 +1,198 @@
+package io.github.anthem37.sql.rewiter.core.engine.cache;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.extension.value.IValueSupplier;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlLexer;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlTokenType;
+import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * SQL重写模板
+ * <p>
+ * 由某个SQL形状重写后的结果编译而来，重写结果按槽位切分为若干文本片段，
+ * 后续同形状的SQL只需将各自的字面量按槽位回填，无需再次解析和应用规则。
+ * 规则中的值提供者编译为上下文值槽位，输出时从调用方的重写上下文解析回填，因此模板与租户等动态取值无关。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/20 15:02:18
+ */
+public final class RewriteTemplate {
+
+    /**
+     * 形状重写后无变化，直接返回原SQL
+     */
+    public static final RewriteTemplate UNCHANGED = new RewriteTemplate(null, null, null);
+
+    /**
+     * 形状无法模板化（槽位SQL解析失败或重写后槽位缺失/重复），需走完整重写流程
+     */
+    public static final RewriteTemplate UNSUPPORTED = new RewriteTemplate(null, null, null);
+
+    /**
+     * 本次编译时规则应用失败或被取消，不写入缓存，本次走完整重写流程，下次重新编译
+     */
+    public static final RewriteTemplate FAILED = new RewriteTemplate(null, null, null);
+
+    /**
+     * 文本片段，数量为槽位数+1
+     */
+    private final String[] fragments;
+
+    /**
+     * 重写结果中第i个槽位对应的字面量序号，负数-(k+1)表示第k个上下文值槽位
+     */
+    private final int[] slotOrder;
+
+    /**
+     * 上下文值槽位对应的值提供者
+     */
+    private final IValueSupplier[] values;
+
+    private RewriteTemplate(String[] fragments, int[] slotOrder, IValueSupplier[] values) {
+        this.fragments = fragments;
+        this.slotOrder = slotOrder;
+        this.values = values;
+    }
+
+    /**
+     * 根据形状重写后的SQL编译模板
+     *
+     * @param rewrittenSql 形状重写后的SQL
+     * @param slotCount    形状中的槽位数
+     * @return 模板，槽位缺失或重复时返回UNSUPPORTED
+     */
+    public static RewriteTemplate compile(String rewrittenSql, int slotCount) {
+
+        return compile(rewrittenSql, slotCount, Collections.emptyList());
+    }
+
+    /**
+     * 根据形状重写后的SQL编译模板
+     *
+     * @param rewrittenSql 形状重写后的SQL
+     * @param slotCount    形状中的槽位数
+     * @param values       重写时记录的值提供者，下标即上下文值槽位序号
+     * @return 模板，槽位缺失或重复时返回UNSUPPORTED
+     */
+    public static RewriteTemplate compile(String rewrittenSql, int slotCount, List<IValueSupplier> values) {
+        String[] fragments = new String[slotCount + 1];
+        int[] slotOrder = new int[slotCount];
+        boolean[] seen = new boolean[slotCount];
+        int found = 0;
+        int literalFound = 0;
+        int fragmentStart = 0;
+        SqlLexer lexer = new SqlLexer(rewrittenSql);
+        while (lexer.next()) {
+            if (lexer.getTokenType() != SqlTokenType.PARAMETER) {
+                continue;
+            }
+            int start = lexer.getTokenStart();
+            int slot;
+            if (isSlot(rewrittenSql, start, lexer.getTokenEnd(), SqlShape.CONTEXT_SLOT_PREFIX)) {
+                // 上下文值槽位可能重复出现（如多行INSERT共享同一个值节点）
+                int index = parseNumber(rewrittenSql, start + 1 + SqlShape.CONTEXT_SLOT_PREFIX.length(), lexer.getTokenEnd());
+                if (index < 0 || index >= values.size()) {
+                    return UNSUPPORTED;
+                }
+                slot = -(index + 1);
+            } else if (isSlot(rewrittenSql, start, lexer.getTokenEnd(), SqlShape.SLOT_PREFIX)) {
+                slot = parseNumber(rewrittenSql, start + 1 + SqlShape.SLOT_PREFIX.length(), lexer.getTokenEnd());
+                if (slot < 0 || slot >= slotCount || seen[slot]) {
+                    return UNSUPPORTED;
+                }
+                seen[slot] = true;
+                literalFound++;
+            } else {
+                continue;
+            }
+            if (found == slotOrder.length) {
+                slotOrder = Arrays.copyOf(slotOrder, slotOrder.length * 2 + 1);
+                fragments = Arrays.copyOf(fragments, slotOrder.length + 1);
+            }
+            fragments[found] = rewrittenSql.substring(fragmentStart, start);
+            slotOrder[found] = slot;
+            found++;
+            fragmentStart = lexer.getTokenEnd();
+        }
+        if (literalFound != slotCount) {
+            return UNSUPPORTED;
+        }
+        if (found != slotOrder.length) {
+            slotOrder = Arrays.copyOf(slotOrder, found);
+        }
+        fragments = Arrays.copyOf(fragments, found + 1);
+        fragments[found] = rewrittenSql.substring(fragmentStart);
+        return new RewriteTemplate(fragments, slotOrder, values.toArray(new IValueSupplier[0]));
+    }
+
+    /**
+     * 将SQL的字面量回填到模板中
+     *
+     * @param shape SQL形状
+     * @return 重写后的SQL
+     */
+    public String bind(SqlShape shape) {
+
+        return bind(shape, null);
+    }
+
+    /**
+     * 将SQL的字面量与从重写上下文解析的值回填到模板中
+     *
+     * @param shape   SQL形状
+     * @param context 调用方的重写上下文，可为null
+     * @return 重写后的SQL
+     */
+    public String bind(SqlShape shape, RewriteContext context) {
+        String[] resolved = values.length == 0 ? null : new String[values.length];
+        int length = shape.getLiteralLength();
+        for (String fragment : fragments) {
+            length += fragment.length();
+        }
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < slotOrder.length; i++) {
+            builder.append(fragments[i]);
+            int slot = slotOrder[i];
+            if (slot >= 0) {
+                shape.appendLiteral(builder, slot);
+                continue;
+            }
+            int index = -slot - 1;
+            if (resolved[index] == null) {
+                resolved[index] = JsqlParserUtils.createValueExpression(values[index].get(context)).toString();
+            }
+            builder.append(resolved[index]);
+        }
+        builder.append(fragments[slotOrder.length]);
+        return builder.toString();
+    }
+
+    /**
+     * 是否为指定前缀的槽位参数
+     */
+    private static boolean isSlot(String sql, int start, int end, String prefix) {
+
+        return sql.charAt(start) == ':' && start + 1 + prefix.length() < end && sql.startsWith(prefix, start + 1);
+    }
+
+    /**
+     * 解析槽位参数序号，不是纯数字时返回-1
+     */
+    private static int parseNumber(String sql, int numberStart, int end) {
+        int slot = 0;
+        for (int i = numberStart; i < end; i++) {
+            char c = sql.charAt(i);
+            if (c < '0' || c > '9' || slot > (Integer.MAX_VALUE - 9) / 10) {
+                return -1;
+            }
+            slot = slot * 10 + (c - '0');
+        }
+        return slot;
+    }
+
+}
@@ -0,0 +1,110 @@
+package io.github.anthem37.sql.rewiter.core.engine.cache;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.github.anthem37.sql.rewiter.core.engine.config.SQLRewriteEngineConfig;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * 字面量无关的SQL重写模板缓存
+ * <p>
+ * 以SQL形状（见{@link SqlShape}）为键缓存重写模板（见{@link RewriteTemplate}），
+ * 仅字面量不同的SQL共享同一模板。同一形状的并发未命中只编译一次模板。
+ * 编译失败（{@link RewriteTemplate#FAILED}）的结果不写入缓存，避免一次偶发失败使整个形状不再被改写。
+ * </p>
+ * <p>
+ * 注意：模板模式假定规则的匹配与改写结果不依赖SQL中的字面量取值。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/20 15:20:41
+ */
+@Slf4j
+public class RewriteTemplateCache {
+
+    private final Cache<String, RewriteTemplate> cache;
+
+    public RewriteTemplateCache(SQLRewriteEngineConfig config) {
+        this.cache = CacheBuilder.newBuilder().recordStats().maximumSize(config.getTemplateCacheMaximumSize()).build();
+    }
+
+    /**
+     * 获取形状对应的重写模板，未命中时通过compiler编译
+     *
+     * @param shape    SQL形状
+     * @param compiler 模板编译函数
+     * @return 重写模板，编译失败时返回未缓存的{@link RewriteTemplate#FAILED}
+     */
+    public RewriteTemplate get(SqlShape shape, Function<SqlShape, RewriteTemplate> compiler) {
+        try {
+            return cache.get(shape.getKey(), () -> {
+                RewriteTemplate template = compiler.apply(shape);
+                if (template == RewriteTemplate.FAILED) {
+                    throw new TemplateCompileFailed();
+                }
+                return template;
+            });
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof TemplateCompileFailed) {
+                return RewriteTemplate.FAILED;
+            }
+            log.warn("RewriteTemplateCache.get, 编译重写模板失败，形状: {}, 错误信息: {}", shape.getKey(), e.getMessage());
+
+            return RewriteTemplate.FAILED;
+        } catch (ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        } catch (ExecutionException e) {
+            log.warn("RewriteTemplateCache.get, 编译重写模板失败，形状: {}, 错误信息: {}", shape.getKey(), e.getMessage());
+
+            return RewriteTemplate.FAILED;
+        }
+    }
+
+    /**
+     * 获取缓存统计信息，hitRate()即模板命中率
+     *
+     * @return 统计信息
+     */
+    public CacheStats stats() {
+
+        return cache.stats();
+    }
+
+    /**
+     * 当前缓存的不同SQL形状数量
+     *
+     * @return 形状数量
+     */
+    public long size() {
+
+        return cache.size();
+    }
+
+    /**
+     * 清空缓存
+     */
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    /**
+     * 标记本次编译失败，使结果跳出Guava Cache的加载而不被写入缓存
+     */
+    private static final class TemplateCompileFailed extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private TemplateCompileFailed() {
+            super(null, null, false, false);
+        }
+    }
+
+}
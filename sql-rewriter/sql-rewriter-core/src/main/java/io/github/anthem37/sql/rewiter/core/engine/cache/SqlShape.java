@@ -0,0 +1,208 @@
+package io.github.anthem37.sql.rewiter.core.engine.cache;
+
+import io.github.anthem37.sql.rewiter.core.lexer.SqlLexer;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlTokenType;
+import lombok.Getter;
+import net.sf.jsqlparser.parser.CCJSqlParserConstants;
+import net.sf.jsqlparser.parser.CCJSqlParserTokenManager;
+import net.sf.jsqlparser.parser.SimpleCharStream;
+import net.sf.jsqlparser.parser.StringProvider;
+import net.sf.jsqlparser.parser.Token;
+
+import java.util.Arrays;
+
+/**
+ * SQL形状（字面量无关的归一化SQL）
+ * <p>
+ * 将SQL中的字符串、数值字面量依次替换为命名参数槽位（:__sr_slot_0、:__sr_slot_1...），
+ * 并将连续空白压缩为单个空格，仅字面量不同的SQL会得到相同的形状键。
+ * 同时记录每个字面量在原SQL中的位置，以便将其回填到重写后的模板中。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/20 14:46:30
+ */
+@Getter
+public final class SqlShape {
+
+    /**
+     * 槽位参数名前缀
+     */
+    public static final String SLOT_PREFIX = "__sr_slot_";
+
+    /**
+     * 重写上下文值槽位前缀，以字面量槽位前缀开头，因此同样不会与原SQL冲突
+     */
+    public static final String CONTEXT_SLOT_PREFIX = SLOT_PREFIX + "c";
+
+    private static final int[] EMPTY_BOUNDS = new int[0];
+
+    /**
+     * 原始SQL
+     */
+    private final String sql;
+
+    /**
+     * 形状键（字面量替换为槽位后的归一化SQL）
+     */
+    private final String key;
+
+    /**
+     * 字面量在原SQL中的起止下标，依次为[start0, end0, start1, end1, ...]
+     */
+    private final int[] literalBounds;
+
+    private SqlShape(String sql, String key, int[] literalBounds) {
+        this.sql = sql;
+        this.key = key;
+        this.literalBounds = literalBounds;
+    }
+
+    /**
+     * 计算SQL形状
+     *
+     * @param sql 原始SQL
+     * @return SQL形状，SQL为空、存在未闭合的字面量/注释或与槽位名冲突时返回null
+     */
+    public static SqlShape of(String sql) {
+        if (sql == null || sql.contains(SLOT_PREFIX)) {
+            return null;
+        }
+        SqlLexer lexer = new SqlLexer(sql);
+        StringBuilder key = new StringBuilder(sql.length() + 16);
+        int[] bounds = EMPTY_BOUNDS;
+        int literalCount = 0;
+        boolean pendingSpace = false;
+        while (lexer.next()) {
+            if (lexer.isUnterminated()) {
+                return null;
+            }
+            SqlTokenType tokenType = lexer.getTokenType();
+            if (tokenType == SqlTokenType.WHITESPACE) {
+                pendingSpace = key.length() > 0;
+                continue;
+            }
+            if (pendingSpace) {
+                key.append(' ');
+                pendingSpace = false;
+            }
+            if (tokenType == SqlTokenType.STRING || tokenType == SqlTokenType.NUMBER) {
+                if (bounds.length < (literalCount + 1) * 2) {
+                    int[] grown = new int[Math.max(8, bounds.length * 2)];
+                    System.arraycopy(bounds, 0, grown, 0, literalCount * 2);
+                    bounds = grown;
+                }
+                bounds[literalCount * 2] = lexer.getTokenStart();
+                bounds[literalCount * 2 + 1] = lexer.getTokenEnd();
+                key.append(':').append(SLOT_PREFIX).append(literalCount);
+                literalCount++;
+                continue;
+            }
+            key.append(sql, lexer.getTokenStart(), lexer.getTokenEnd());
+        }
+        if (key.length() == 0) {
+            return null;
+        }
+        int[] literalBounds = new int[literalCount * 2];
+        System.arraycopy(bounds, 0, literalBounds, 0, literalBounds.length);
+        return new SqlShape(sql, key.toString(), literalBounds);
+    }
+
+    /**
+     * 字面量个数
+     *
+     * @return 个数
+     */
+    public int getLiteralCount() {
+
+        return literalBounds.length / 2;
+    }
+
+    /**
+     * 字面量边界是否与解析器一致
+     * <p>
+     * 模板按本类识别的字面量切分与回填，若JSqlParser对同一段文本的切分不同（如方言相关的转义），
+     * 槽位与追加的条件就会落在错误的位置，甚至被并入字符串或注释。这里用JSqlParser自身的词法分析
+     * 逐个比对字面量的位置与原文，任何不一致（包括解析器无法切分）都返回false。
+     * 开销与一次词法分析相当，只应在编译模板时调用。
+     * </p>
+     *
+     * @return 是/否
+     */
+    public boolean literalsMatchParser() {
+        int[] lineStarts = lineStarts(sql);
+        CCJSqlParserTokenManager tokenManager = new CCJSqlParserTokenManager(new SimpleCharStream(new StringProvider(sql)));
+        int index = 0;
+        try {
+            for (Token token = tokenManager.getNextToken(); token.kind != CCJSqlParserConstants.EOF; token = tokenManager.getNextToken()) {
+                if (!isLiteral(token.kind)) {
+                    continue;
+                }
+                if (index * 2 >= literalBounds.length || token.beginLine > lineStarts.length) {
+                    return false;
+                }
+                int start = lineStarts[token.beginLine - 1] + token.beginColumn - 1;
+                if (start != literalBounds[index * 2] || start + token.image.length() != literalBounds[index * 2 + 1]) {
+                    return false;
+                }
+                index++;
+            }
+        } catch (RuntimeException e) {
+            // 解析器词法错误（如未闭合的字面量）
+            return false;
+        }
+        return index * 2 == literalBounds.length;
+    }
+
+    /**
+     * 将第index个字面量原文追加到builder
+     *
+     * @param builder 目标
+     * @param index   字面量序号
+     */
+    public void appendLiteral(StringBuilder builder, int index) {
+        builder.append(sql, literalBounds[index * 2], literalBounds[index * 2 + 1]);
+    }
+
+    /**
+     * 所有字面量原文的总长度
+     *
+     * @return 长度
+     */
+    public int getLiteralLength() {
+        int length = 0;
+        for (int i = 0; i < literalBounds.length; i += 2) {
+            length += literalBounds[i + 1] - literalBounds[i];
+        }
+        return length;
+    }
+
+    private static boolean isLiteral(int kind) {
+
+        return kind == CCJSqlParserConstants.S_CHAR_LITERAL || kind == CCJSqlParserConstants.S_LONG
+                || kind == CCJSqlParserConstants.S_DOUBLE || kind == CCJSqlParserConstants.S_HEX;
+    }
+
+    /**
+     * 各行起始下标，换行规则与JSqlParser一致（\r\n、\r、\n均为一个换行）
+     */
+    private static int[] lineStarts(String sql) {
+        int[] starts = new int[8];
+        int count = 1;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c != '\n' && c != '\r') {
+                continue;
+            }
+            if (c == '\r' && i + 1 < sql.length() && sql.charAt(i + 1) == '\n') {
+                i++;
+            }
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count * 2);
+            }
+            starts[count++] = i + 1;
+        }
+        return Arrays.copyOf(starts, count);
+    }
+
+}
@@ -0,0 +1,283 @@
+package io.github.anthem37.sql.rewiter.core.engine.config;
+
+import io.github.anthem37.sql.rewiter.core.engine.async.AsyncRejectPolicy;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.IRewriteMetrics;
+import io.github.anthem37.sql.rewiter.core.engine.script.DumpFileRewriter;
+import io.github.anthem37.sql.rewiter.core.engine.script.ScriptRewriter;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * SQL重写引擎配置
+ * <p>
+ * 所有可选能力默认关闭，未显式配置时引擎行为与无配置构造保持一致。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/20 10:12:36
+ */
+@Getter
+@Builder
+@ToString
+public class SQLRewriteEngineConfig {
+
+    /**
+     * 是否启用重写结果缓存（原始SQL -> 重写后SQL）
+     */
+    @Builder.Default
+    private final boolean resultCacheEnabled = false;
+
+    /**
+     * 重写结果缓存最大条目数，仅在未配置最大权重时生效
+     */
+    @Builder.Default
+    private final long resultCacheMaximumSize = 10_000L;
+
+    /**
+     * 重写结果缓存最大权重（按字符数计算），大于0时替代最大条目数
+     */
+    @Builder.Default
+    private final long resultCacheMaximumWeight = 0L;
+
+    /**
+     * 重写结果缓存访问后过期时间（毫秒），小于等于0表示不过期
+     */
+    @Builder.Default
+    private final long resultCacheExpireAfterAccessMillis = 0L;
+
+    /**
+     * 是否启用字面量无关的重写模板缓存
+     * <p>
+     * 启用后仅字面量不同的SQL共享同一重写模板，命中时不再解析SQL、不再执行规则，
+     * 要求规则的匹配与改写结果不依赖SQL中的字面量取值。
+     * </p>
+     */
+    @Builder.Default
+    private final boolean templateCacheEnabled = false;
+
+    /**
+     * 重写模板缓存最大形状数
+     */
+    @Builder.Default
+    private final long templateCacheMaximumSize = 10_000L;
+
+    /**
+     * 是否启用规则词法预过滤
+     * <p>
+     * 启用后在解析前根据规则的语句类型与目标表名做词法判断，确定没有规则可以作用的SQL直接返回原SQL而不解析。
+     * 要求规则的作用范围与{@code ISqlRule#getType()}、{@code ISqlRule#getTargetTableName()}声明一致。
+     * </p>
+     */
+    @Builder.Default
+    private final boolean preFilterEnabled = false;
+
+    /**
+     * 是否启用规则分发索引
+     * <p>
+     * 启用后引擎构造时按语句类型与目标表名建立规则索引，每条语句只访问可能作用于它的规则（仍按优先级顺序），
+     * 要求规则的作用范围与{@code ISqlRule#getType()}、{@code ISqlRule#getTargetTableName()}声明一致。
+     * </p>
+     */
+    @Builder.Default
+    private final boolean dispatchIndexEnabled = false;
+
+    /**
+     * 是否融合Select添加条件规则
+     * <p>
+     * 启用后引擎构造时将优先级相邻的多个{@code AddConditionSelectRule}合并为一次AST遍历，
+     * 多租户、数据权限等场景下规则数量较多时可显著减少遍历次数，改写结果与逐个应用一致。
+     * </p>
+     */
+    @Builder.Default
+    private final boolean fuseConditionRules = false;
+
+    /**
+     * 是否启用拼接输出
+     * <p>
+     * 启用后规则修改AST时记录源码编辑点，改写结果通过把编辑点拼接进原SQL得到，保留原SQL的格式、注释与大小写，
+     * 无法拼接（存在不支持编辑点记录的规则、源码结构无法定位等）时自动退回反解析。
+     * 拼接结果会重新解析并与改写后的AST比对，不一致时同样退回反解析，因此每次改写额外付出一次解析与反解析。
+     * 与重写模板缓存同时启用时，经模板改写的SQL会按模板规范化空白。
+     * </p>
+     */
+    @Builder.Default
+    private final boolean spliceOutputEnabled = false;
+
+    /**
+     * 是否启用INSERT ... VALUES快速路径
+     * <p>
+     * 启用后，当作用于INSERT语句的规则全部是{@code AddColumnInsertRule}时，带列清单的INSERT ... VALUES语句
+     * 通过一次词法扫描把新增列和值追加到每个值元组中，不解析也不反解析，输出保留原SQL的文本。
+     * 适用于批量写入的超大多行VALUES语句，结构无法识别时自动走常规重写流程。
+     * </p>
+     */
+    @Builder.Default
+    private final boolean insertFastPathEnabled = false;
+
+    /**
+     * 是否启用解析失败SQL的负缓存，命中后直接返回原SQL而不再尝试解析
+     */
+    @Builder.Default
+    private final boolean parseFailureCacheEnabled = false;
+
+    /**
+     * 解析失败负缓存最大指纹数
+     */
+    @Builder.Default
+    private final long parseFailureCacheMaximumSize = 1_000L;
+
+    /**
+     * 解析失败汇总日志的输出间隔（毫秒），每个间隔最多输出一条WARN日志
+     */
+    @Builder.Default
+    private final long parseFailureLogIntervalMillis = 60_000L;
+
+    /**
+     * 是否启用解析保护
+     * <p>
+     * 启用后超出长度、嵌套深度、语法单元数量或解析超时的SQL不再改写，原样返回并计入统计，
+     * 避免超大或过度复杂的SQL长时间占用请求线程。
+     * </p>
+     */
+    @Builder.Default
+    private final boolean parseGuardEnabled = false;
+
+    /**
+     * 允许解析的SQL最大长度（字符数），小于等于0表示不限制
+     */
+    @Builder.Default
+    private final int maxSqlLength = 1_000_000;
+
+    /**
+     * 允许解析的SQL最大括号嵌套深度，小于等于0表示不限制
+     */
+    @Builder.Default
+    private final int maxNestingDepth = 32;
+
+    /**
+     * 允许解析的SQL最大语法单元数量（按词法单元数估计AST节点数），小于等于0表示不限制
+     */
+    @Builder.Default
+    private final int maxAstNodes = 100_000;
+
+    /**
+     * 解析超时时间（毫秒），小于等于0表示不限制
+     */
+    @Builder.Default
+    private final long parseTimeoutMillis = 2_000L;
+
+    /**
+     * 规则应用阶段的超时时间（毫秒），超时后停止应用剩余规则并返回原SQL，小于等于0表示不限制
+     */
+    @Builder.Default
+    private final long rewriteTimeoutMillis = 0L;
+
+    /**
+     * 重写指标，为null时不采集指标
+     * <p>
+     * 引擎在每次重写时以纳秒精度回调清理、解析、匹配、应用（含单个规则）与反解析各阶段耗时，以及重写结果计数，
+     * 可使用默认实现{@code HistogramRewriteMetrics}或自行对接监控系统。
+     * </p>
+     */
+    @Builder.Default
+    private final IRewriteMetrics metrics = null;
+
+    /**
+     * 慢重写阈值（毫秒），耗时达到阈值的重写输出WARN日志，小于等于0表示不输出
+     */
+    @Builder.Default
+    private final long slowRewriteThresholdMillis = 0L;
+
+    /**
+     * 重写日志采样率（0~1），未达到慢重写阈值的重写按该比例输出INFO日志，0表示不采样
+     */
+    @Builder.Default
+    private final double diagnosticsSampleRate = 0D;
+
+    /**
+     * 诊断日志中SQL的最大长度，超出部分截断
+     */
+    @Builder.Default
+    private final int diagnosticsMaxSqlLength = 512;
+
+    /**
+     * 脚本模式下单条语句的最大长度（字符数），超过时该语句原样输出，用于限制脚本重写的内存占用
+     */
+    @Builder.Default
+    private final int scriptMaxStatementLength = ScriptRewriter.DEFAULT_MAX_STATEMENT_LENGTH;
+
+    /**
+     * 脚本模式下每次从输入读取的字符数
+     */
+    @Builder.Default
+    private final int scriptReadBufferSize = ScriptRewriter.DEFAULT_READ_BUFFER_SIZE;
+
+    /**
+     * 转储文件重写的工作线程数
+     */
+    @Builder.Default
+    private final int dumpThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 转储文件重写的块大小（字节），块在该大小之后的第一个语句边界处切分
+     */
+    @Builder.Default
+    private final int dumpChunkBytes = DumpFileRewriter.DEFAULT_CHUNK_BYTES;
+
+    /**
+     * 批量重写使用的线程池，为null时使用{@link ForkJoinPool#commonPool()}
+     */
+    @Builder.Default
+    private final ForkJoinPool batchPool = null;
+
+    /**
+     * 批量重写去重后的SQL数量达到该值时并行执行，否则在调用线程上顺序执行
+     */
+    @Builder.Default
+    private final int batchParallelThreshold = 64;
+
+    /**
+     * 异步重写使用的执行器，为null时引擎在首次异步调用时创建内部执行器
+     */
+    @Builder.Default
+    private final Executor asyncExecutor = null;
+
+    /**
+     * 内部异步执行器的线程数（使用虚拟线程时不生效）
+     */
+    @Builder.Default
+    private final int asyncThreads = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * 内部异步执行器是否使用虚拟线程，仅在JDK 21+生效，低版本JDK自动退回平台线程池
+     */
+    @Builder.Default
+    private final boolean asyncVirtualThreads = false;
+
+    /**
+     * 待处理（排队中与执行中）的异步重写任务数上限
+     */
+    @Builder.Default
+    private final int asyncMaxPending = 1024;
+
+    /**
+     * 异步重写任务数达到上限时的处理策略
+     */
+    @Builder.Default
+    private final AsyncRejectPolicy asyncRejectPolicy = AsyncRejectPolicy.ABORT;
+
+    /**
+     * 默认配置
+     *
+     * @return 默认配置
+     */
+    public static SQLRewriteEngineConfig defaultConfig() {
+
+        return SQLRewriteEngineConfig.builder().build();
+    }
+
+}
@@ -0,0 +1,98 @@
+package io.github.anthem37.sql.rewiter.core.engine.diagnostics;
+
+import cn.hutool.core.util.StrUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL重写诊断日志
+ * <p>
+ * 只输出两类日志，SQL均按配置长度截断：
+ * 1. 慢重写：耗时达到阈值的重写输出WARN日志。
+ * 2. 采样：其余重写按采样率输出INFO日志，用于观察正常流量下的改写效果。
+ * 未达到阈值且未被采样的重写只做一次比较（采样时再取一次随机数），不分配任何对象；
+ * 阈值与采样率均未配置时引擎不会创建本对象，也不会计时。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/26 14:22:51
+ */
+@Slf4j
+public class RewriteDiagnostics {
+
+    /**
+     * 慢重写阈值（纳秒），小于等于0表示不输出慢重写日志
+     */
+    private final long slowThresholdNanos;
+
+    /**
+     * 采样率（0~1）
+     */
+    private final double sampleRate;
+
+    /**
+     * 日志中SQL的最大长度
+     */
+    private final int maxSqlLength;
+
+    private final LongAdder slowCount = new LongAdder();
+
+    public RewriteDiagnostics(long slowThresholdMillis, double sampleRate, int maxSqlLength) {
+        this.slowThresholdNanos = slowThresholdMillis > 0 ? TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis) : 0L;
+        this.sampleRate = Math.min(1D, Math.max(0D, sampleRate));
+        this.maxSqlLength = Math.max(1, maxSqlLength);
+    }
+
+    /**
+     * 诊断是否启用
+     *
+     * @param slowThresholdMillis 慢重写阈值（毫秒）
+     * @param sampleRate          采样率
+     * @return 是/否
+     */
+    public static boolean isEnabled(long slowThresholdMillis, double sampleRate) {
+
+        return slowThresholdMillis > 0 || sampleRate > 0D;
+    }
+
+    /**
+     * 记录一次重写
+     *
+     * @param sql    原sql
+     * @param result 改写后的sql
+     * @param nanos  耗时（纳秒）
+     */
+    public void record(String sql, String result, long nanos) {
+        if (slowThresholdNanos > 0L && nanos >= slowThresholdNanos) {
+            slowCount.increment();
+            if (log.isWarnEnabled()) {
+                log.warn("SQLRewriteEngine.run, 慢重写，耗时: {} ms, 是否改写: {}, \n原始SQL: {}, \n重写后SQL: {}",
+                        TimeUnit.NANOSECONDS.toMillis(nanos), result != sql, truncate(sql), truncate(result));
+            }
+            return;
+        }
+        if (sampleRate > 0D && log.isInfoEnabled() && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.info("SQLRewriteEngine.run, 采样重写，耗时: {} us, 是否改写: {}, \n原始SQL: {}, \n重写后SQL: {}",
+                    TimeUnit.NANOSECONDS.toMicros(nanos), result != sql, truncate(sql), truncate(result));
+        }
+    }
+
+    /**
+     * 累计慢重写次数
+     *
+     * @return 次数
+     */
+    public long getSlowCount() {
+
+        return slowCount.sum();
+    }
+
+    private String truncate(String sql) {
+
+        return StrUtil.maxLength(sql, maxSqlLength);
+    }
+
+}
@@ -0,0 +1,263 @@
+package io.github.anthem37.sql.rewiter.core.engine.dispatch;
+
+import cn.hutool.core.util.StrUtil;
+import io.github.anthem37.sql.rewiter.core.engine.filter.IdentifierMatcher;
+import io.github.anthem37.sql.rewiter.core.engine.filter.StatementKind;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
+import io.github.anthem37.sql.rewiter.core.util.RuleUtils;
+import lombok.extern.slf4j.Slf4j;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.util.TablesNamesFinder;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 规则分发索引
+ * <p>
+ * 引擎构造时按语句类别（{@link ISqlRule#getType()}）与归一化目标表名（{@link ISqlRule#getTargetTableName()}）
+ * 建立的不可变索引，语句只会访问可能作用于它的规则，且仍按{@code RulePriority}排序后的顺序执行：
+ * 1. 未声明目标表名的规则（及作用范围未知的规则）按语句类别直接命中。
+ * 2. 声明了目标表名的规则，仅当语句AST中存在该表名（或别名）的表时命中，表从已解析的语句中收集，不再扫描SQL文本；
+ * 语句包含表名收集不支持的结构时，该语句类别下的所有规则均命中。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/22 10:03:55
+ */
+@Slf4j
+public class RuleDispatchIndex {
+
+    private static final StatementKind[] KINDS = StatementKind.values();
+
+    private static final int[] EMPTY = new int[0];
+
+    /**
+     * 按优先级排序后的规则
+     */
+    private final IRule[] rules;
+
+    /**
+     * 所有目标表名的匹配器
+     */
+    private final IdentifierMatcher tableMatcher;
+
+    /**
+     * 各语句类别下无需表名即命中的规则
+     */
+    private final List<List<IRule>> wildcardRules;
+
+    /**
+     * 各语句类别下的所有规则
+     */
+    private final List<List<IRule>> kindRules;
+
+    /**
+     * 各语句类别下无需表名即命中的规则序号
+     */
+    private final int[][] wildcardOrdinals;
+
+    /**
+     * 各语句类别下按目标表名编号索引的规则序号
+     */
+    private final int[][][] tableOrdinals;
+
+    /**
+     * 各语句类别是否存在声明了目标表名的规则
+     */
+    private final boolean[] kindHasTableRules;
+
+    public RuleDispatchIndex(List<IRule> sortedRules) {
+        this.rules = sortedRules.toArray(new IRule[0]);
+        Set<String> tableNames = new LinkedHashSet<>();
+        for (IRule rule : rules) {
+            List<ISqlRule<?>> sqlRules = RuleUtils.getSqlRules(rule);
+            if (sqlRules == null) {
+                continue;
+            }
+            for (ISqlRule<?> sqlRule : sqlRules) {
+                if (StrUtil.isNotBlank(sqlRule.getTargetTableName())) {
+                    tableNames.add(sqlRule.getTargetTableName());
+                }
+            }
+        }
+        this.tableMatcher = new IdentifierMatcher(tableNames);
+        int tableCount = tableMatcher.size();
+        List<List<Integer>> wildcard = new ArrayList<>();
+        List<List<Set<Integer>>> byTable = new ArrayList<>();
+        for (int k = 0; k < KINDS.length; k++) {
+            wildcard.add(new ArrayList<>());
+            List<Set<Integer>> tables = new ArrayList<>();
+            for (int t = 0; t < tableCount; t++) {
+                tables.add(new LinkedHashSet<>());
+            }
+            byTable.add(tables);
+        }
+        for (int ordinal = 0; ordinal < rules.length; ordinal++) {
+            List<ISqlRule<?>> sqlRules = RuleUtils.getSqlRules(rules[ordinal]);
+            if (sqlRules == null) {
+                // 作用范围未知的规则对所有语句类别生效
+                for (List<Integer> ordinals : wildcard) {
+                    ordinals.add(ordinal);
+                }
+                continue;
+            }
+            for (StatementKind kind : KINDS) {
+                boolean anyWildcard = false;
+                for (ISqlRule<?> sqlRule : sqlRules) {
+                    Class<?> type = sqlRule.getType();
+                    if (type == null || !kind.accepts(type)) {
+                        continue;
+                    }
+                    int tableId = StrUtil.isBlank(sqlRule.getTargetTableName()) ? -1 : tableMatcher.find(sqlRule.getTargetTableName());
+                    if (tableId < 0) {
+                        anyWildcard = true;
+                    } else {
+                        byTable.get(kind.ordinal()).get(tableId).add(ordinal);
+                    }
+                }
+                if (anyWildcard) {
+                    wildcard.get(kind.ordinal()).add(ordinal);
+                }
+            }
+        }
+        this.wildcardRules = new ArrayList<>(KINDS.length);
+        this.kindRules = new ArrayList<>(KINDS.length);
+        this.wildcardOrdinals = new int[KINDS.length][];
+        this.tableOrdinals = new int[KINDS.length][tableCount][];
+        this.kindHasTableRules = new boolean[KINDS.length];
+        for (int k = 0; k < KINDS.length; k++) {
+            int[] ordinals = toArray(wildcard.get(k));
+            wildcardOrdinals[k] = ordinals;
+            List<IRule> kindWildcardRules = new ArrayList<>(ordinals.length);
+            for (int ordinal : ordinals) {
+                kindWildcardRules.add(rules[ordinal]);
+            }
+            wildcardRules.add(Collections.unmodifiableList(kindWildcardRules));
+            Set<Integer> all = new LinkedHashSet<>(wildcard.get(k));
+            for (int t = 0; t < tableCount; t++) {
+                int[] table = toArray(byTable.get(k).get(t));
+                tableOrdinals[k][t] = table;
+                kindHasTableRules[k] |= table.length > 0;
+                for (int ordinal : table) {
+                    all.add(ordinal);
+                }
+            }
+            kindRules.add(Collections.unmodifiableList(toRules(all)));
+        }
+        log.debug("构造RuleDispatchIndex, 规则数量: {}, 目标表数量: {}", rules.length, tableCount);
+    }
+
+    /**
+     * 选出可能作用于语句的规则，保持优先级顺序
+     *
+     * @param statement 已解析的语句
+     * @return 候选规则列表
+     */
+    public List<IRule> select(Statement statement) {
+        int kind = StatementKind.of(statement).ordinal();
+        if (!kindHasTableRules[kind]) {
+            return wildcardRules.get(kind);
+        }
+        TableRuleCollector collector = new TableRuleCollector(tableOrdinals[kind]);
+        try {
+            collector.getTables(statement);
+        } catch (RuntimeException e) {
+            // 表名收集不支持的语句结构，无法确定涉及的表
+            log.debug("RuleDispatchIndex.select, 无法收集语句中的表，使用该语句类别下的所有规则: {}", e.getMessage());
+            return kindRules.get(kind);
+        }
+        boolean[] selected = collector.selected;
+        if (selected == null) {
+            return wildcardRules.get(kind);
+        }
+        for (int ordinal : wildcardOrdinals[kind]) {
+            selected[ordinal] = true;
+        }
+        List<IRule> candidates = new ArrayList<>();
+        for (int ordinal = 0; ordinal < selected.length; ordinal++) {
+            if (selected[ordinal]) {
+                candidates.add(rules[ordinal]);
+            }
+        }
+        return candidates;
+    }
+
+    private List<IRule> toRules(Set<Integer> ordinals) {
+        boolean[] selected = new boolean[rules.length];
+        for (int ordinal : ordinals) {
+            selected[ordinal] = true;
+        }
+        List<IRule> list = new ArrayList<>(ordinals.size());
+        for (int ordinal = 0; ordinal < selected.length; ordinal++) {
+            if (selected[ordinal]) {
+                list.add(rules[ordinal]);
+            }
+        }
+        return list;
+    }
+
+    private static int[] toArray(Iterable<Integer> values) {
+        List<Integer> list = new ArrayList<>();
+        values.forEach(list::add);
+        if (list.isEmpty()) {
+            return EMPTY;
+        }
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * 遍历语句AST中的所有表（含子查询、JOIN与WITH引用），按表名与别名标记命中的规则
+     * <p>
+     * 规则按表名或别名匹配表（{@code ISqlRule#matchTable}），因此不沿用{@link TablesNamesFinder}排除WITH名称的结果，而是直接检查每个表节点。
+     * </p>
+     */
+    private final class TableRuleCollector extends TablesNamesFinder {
+
+        private final int[][] kindTableOrdinals;
+
+        /**
+         * 命中的规则序号，未命中任何表时为null
+         */
+        private boolean[] selected;
+
+        private TableRuleCollector(int[][] kindTableOrdinals) {
+            this.kindTableOrdinals = kindTableOrdinals;
+        }
+
+        @Override
+        public void visit(Table table) {
+            mark(table.getName());
+            if (table.getAlias() != null) {
+                mark(table.getAlias().getName());
+            }
+            super.visit(table);
+        }
+
+        private void mark(String name) {
+            if (StrUtil.isBlank(name)) {
+                return;
+            }
+            int tableId = tableMatcher.find(name);
+            if (tableId < 0 || kindTableOrdinals[tableId].length == 0) {
+                return;
+            }
+            if (selected == null) {
+                selected = new boolean[rules.length];
+            }
+            for (int ordinal : kindTableOrdinals[tableId]) {
+                selected[ordinal] = true;
+            }
+        }
+    }
+
+}
@@ -0,0 +1,255 @@
+package io.github.anthem37.sql.rewiter.core.engine.fastpath;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.engine.filter.StatementKind;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddColumnInsertRule;
+import io.github.anthem37.sql.rewiter.core.extension.value.IValueSupplier;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlLexer;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlTokenType;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
+import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
+import io.github.anthem37.sql.rewiter.core.util.RuleUtils;
+import net.sf.jsqlparser.schema.Table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * INSERT ... VALUES 快速路径
+ * <p>
+ * 当作用于INSERT语句的规则全部是{@link AddColumnInsertRule}时，无需构建AST：
+ * 一次词法扫描定位列清单与每个值元组的右括号，边扫描边把新增列名和值追加到输出中，
+ * 适用于ORM批量写入产生的超大多行VALUES语句。
+ * </p>
+ * <p>
+ * 输出保留原SQL的文本（与拼接输出一致），不做反解析规范化。
+ * 遇到无法确定的结构（无列清单、INSERT ... SELECT、SET语法、未闭合的字符串等）时返回null，由调用方走常规重写流程。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/28 10:16:42
+ */
+public final class InsertValuesFastPath {
+
+    private final List<AddColumnInsertRule> rules;
+
+    /**
+     * 每个规则新增值的SQL文本，与rules一一对应，构造时渲染一次；值为值提供者时为null，每次改写从上下文解析
+     */
+    private final List<String> valueTexts;
+
+    private final LongAdder rewrittenCount = new LongAdder();
+
+    private InsertValuesFastPath(List<AddColumnInsertRule> rules) {
+        this.rules = rules;
+        this.valueTexts = new ArrayList<>(rules.size());
+        for (AddColumnInsertRule rule : rules) {
+            Object columnValue = rule.getColumnValue();
+            valueTexts.add(columnValue instanceof IValueSupplier ? null : JsqlParserUtils.createValueExpression(columnValue).toString());
+        }
+    }
+
+    /**
+     * 根据规则列表创建快速路径
+     *
+     * @param rules 按优先级排序的规则列表
+     * @return 快速路径，存在其他可能作用于INSERT语句的规则（或无法确定规则作用的语句类型）时返回null
+     */
+    public static InsertValuesFastPath of(List<IRule> rules) {
+        List<AddColumnInsertRule> insertRules = new ArrayList<>();
+        for (IRule rule : rules) {
+            List<ISqlRule<?>> sqlRules = RuleUtils.getSqlRules(rule);
+            if (sqlRules == null) {
+                return null;
+            }
+            for (ISqlRule<?> sqlRule : sqlRules) {
+                if (sqlRule.getClass() == AddColumnInsertRule.class) {
+                    insertRules.add((AddColumnInsertRule) sqlRule);
+                } else if (StatementKind.INSERT.accepts(sqlRule.getType())) {
+                    return null;
+                }
+            }
+        }
+        return insertRules.isEmpty() ? null : new InsertValuesFastPath(insertRules);
+    }
+
+    /**
+     * 尝试以快速路径改写SQL
+     *
+     * @param sql sql
+     * @return 改写后的sql；表名不匹配任何规则时返回原sql实例；不是可处理的INSERT ... VALUES语句时返回null
+     */
+    public String tryRewrite(String sql) {
+
+        return tryRewrite(sql, null);
+    }
+
+    /**
+     * 尝试以快速路径改写SQL，值提供者从重写上下文解析
+     *
+     * @param sql     sql
+     * @param context 调用方的重写上下文，可为null
+     * @return 改写后的sql；表名不匹配任何规则时返回原sql实例；不是可处理的INSERT ... VALUES语句时返回null
+     */
+    public String tryRewrite(String sql, RewriteContext context) {
+        if (sql == null) {
+            return null;
+        }
+        SqlLexer lexer = new SqlLexer(sql);
+        if (!lexer.nextSignificant() || !lexer.isWord("INSERT") || !lexer.nextSignificant()) {
+            return null;
+        }
+        if (lexer.isWord("IGNORE") && !lexer.nextSignificant()) {
+            return null;
+        }
+        if (lexer.isWord("INTO") && !lexer.nextSignificant()) {
+            return null;
+        }
+        String tableName = scanTableName(lexer);
+        if (tableName == null || !lexer.isSymbol('(')) {
+            return null;
+        }
+        String columnsText = null;
+        String valuesText = null;
+        Table table = new Table(tableName);
+        for (int i = 0; i < rules.size(); i++) {
+            AddColumnInsertRule rule = rules.get(i);
+            if (rule.matchTable(table)) {
+                String valueText = valueTexts.get(i);
+                if (valueText == null) {
+                    valueText = JsqlParserUtils.createValueExpression(rule.getColumnValue(), context).toString();
+                }
+                columnsText = columnsText == null ? ", " + rule.getColumnName() : columnsText + ", " + rule.getColumnName();
+                valuesText = valuesText == null ? ", " + valueText : valuesText + ", " + valueText;
+            }
+        }
+        if (columnsText == null) {
+            return sql;
+        }
+        // 列清单
+        int columnsEnd = scanParenthesized(lexer);
+        if (columnsEnd < 0 || !lexer.nextSignificant() || !(lexer.isWord("VALUES") || lexer.isWord("VALUE"))) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder(sql.length() + columnsText.length() + valuesText.length() * 16);
+        builder.append(sql, 0, columnsEnd).append(columnsText);
+        int copied = columnsEnd;
+        // 值元组，边扫描边输出
+        boolean more = lexer.nextSignificant();
+        if (!more) {
+            return null;
+        }
+        while (more) {
+            if (lexer.isWord("ROW") && !lexer.nextSignificant()) {
+                return null;
+            }
+            if (!lexer.isSymbol('(')) {
+                return null;
+            }
+            int rowEnd = scanParenthesized(lexer);
+            if (rowEnd < 0) {
+                return null;
+            }
+            builder.append(sql, copied, rowEnd).append(valuesText);
+            copied = rowEnd;
+            more = lexer.nextSignificant();
+            if (!more || !lexer.isSymbol(',')) {
+                break;
+            }
+            // 逗号之后必须还有值元组
+            if (!lexer.nextSignificant()) {
+                return null;
+            }
+        }
+        // 其余部分仅允许为空、单个结尾分号或ON DUPLICATE KEY UPDATE、RETURNING子句，原样输出
+        if (more && !isAcceptableTail(lexer)) {
+            return null;
+        }
+        builder.append(sql, copied, sql.length());
+        rewrittenCount.increment();
+        return builder.toString();
+    }
+
+    /**
+     * 获取通过快速路径改写的SQL数量
+     *
+     * @return 数量
+     */
+    public long getRewrittenCount() {
+
+        return rewrittenCount.sum();
+    }
+
+    /**
+     * 判断最后一个值元组之后的部分能否原样输出：结尾分号，或以ON DUPLICATE KEY UPDATE、RETURNING开始且其后至多一个结尾分号。
+     * 分号之后的第二条语句、多余的逗号等其他内容一律不接受，交由常规重写流程处理
+     *
+     * @param lexer 位于最后一个值元组之后首个有意义词法单元的扫描器
+     * @return 是/否
+     */
+    private static boolean isAcceptableTail(SqlLexer lexer) {
+        if (lexer.isWord("ON")) {
+            if (!lexer.nextSignificant() || !lexer.isWord("DUPLICATE") || !lexer.nextSignificant() || !lexer.isWord("KEY")
+                    || !lexer.nextSignificant() || !lexer.isWord("UPDATE")) {
+                return false;
+            }
+        } else if (!lexer.isWord("RETURNING") && !lexer.isSymbol(';')) {
+            return false;
+        }
+        do {
+            if (lexer.isUnterminated()) {
+                return false;
+            }
+            if (lexer.isSymbol(';')) {
+                return !lexer.nextSignificant();
+            }
+        } while (lexer.nextSignificant());
+        return true;
+    }
+
+    /**
+     * 扫描（可能带schema限定的）表名，结束时扫描器位于表名之后的首个有意义词法单元
+     *
+     * @return 不含schema的表名，不是表名时返回null
+     */
+    private static String scanTableName(SqlLexer lexer) {
+        String name = null;
+        while (lexer.getTokenType() == SqlTokenType.WORD || lexer.getTokenType() == SqlTokenType.QUOTED_IDENTIFIER) {
+            name = lexer.getTokenText();
+            if (!lexer.nextSignificant()) {
+                return null;
+            }
+            if (!lexer.isSymbol('.')) {
+                return name;
+            }
+            if (!lexer.nextSignificant()) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 从当前左括号扫描到匹配的右括号
+     *
+     * @return 括号内最后一个有意义词法单元的结束下标，括号为空、未闭合或存在未闭合的字符串时返回-1
+     */
+    private static int scanParenthesized(SqlLexer lexer) {
+        int lastEnd = -1;
+        int depth = 1;
+        while (lexer.nextSignificant()) {
+            if (lexer.isUnterminated()) {
+                return -1;
+            }
+            if (lexer.isSymbol('(')) {
+                depth++;
+            } else if (lexer.isSymbol(')') && --depth == 0) {
+                return lastEnd;
+            }
+            lastEnd = lexer.getTokenEnd();
+        }
+        return -1;
+    }
+}
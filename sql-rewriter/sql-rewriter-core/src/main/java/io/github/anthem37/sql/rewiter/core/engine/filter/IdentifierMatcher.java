@@ -0,0 +1,180 @@
+package io.github.anthem37.sql.rewiter.core.engine.filter;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 忽略大小写的标识符多模式匹配器
+ * <p>
+ * 将一组标识符编译为开放寻址哈希表，对词法扫描得到的标识符区间做一次哈希查找即可判断是否命中任意模式。
+ * 与在原始文本上做子串匹配不同，按词法单元匹配天然遵守标识符边界，不会误命中字符串字面量、注释或更长标识符的一部分。
+ * 查找过程不创建任何对象。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/21 14:30:52
+ */
+public final class IdentifierMatcher {
+
+    /**
+     * 已归一化（去引号、转小写）的标识符，下标即标识符编号
+     */
+    private final String[] names;
+
+    /**
+     * 开放寻址表，存储标识符编号+1，0表示空槽
+     */
+    private final int[] slots;
+
+    private final int mask;
+
+    public IdentifierMatcher(Collection<String> identifiers) {
+        Set<String> normalized = new LinkedHashSet<>();
+        for (String identifier : identifiers) {
+            String name = normalize(identifier);
+            if (name != null && !name.isEmpty()) {
+                normalized.add(name);
+            }
+        }
+        this.names = normalized.toArray(new String[0]);
+        int capacity = Integer.highestOneBit(Math.max(4, names.length * 4) - 1) << 1;
+        this.slots = new int[capacity];
+        this.mask = capacity - 1;
+        for (int id = 0; id < names.length; id++) {
+            String name = names[id];
+            int index = hash(name, 0, name.length()) & mask;
+            while (slots[index] != 0) {
+                index = (index + 1) & mask;
+            }
+            slots[index] = id + 1;
+        }
+    }
+
+    /**
+     * 标识符数量
+     *
+     * @return 数量
+     */
+    public int size() {
+
+        return names.length;
+    }
+
+    /**
+     * 是否为空
+     *
+     * @return 是/否
+     */
+    public boolean isEmpty() {
+
+        return names.length == 0;
+    }
+
+    /**
+     * 获取编号对应的归一化标识符
+     *
+     * @param id 编号
+     * @return 标识符
+     */
+    public String getName(int id) {
+
+        return names[id];
+    }
+
+    /**
+     * 查找标识符编号
+     *
+     * @param identifier 标识符
+     * @return 编号，未命中返回-1
+     */
+    public int find(String identifier) {
+        String name = normalize(identifier);
+
+        return name == null ? -1 : find(name, 0, name.length(), false);
+    }
+
+    /**
+     * 查找文本区间对应的标识符编号
+     *
+     * @param text   文本
+     * @param start  起始下标（包含）
+     * @param end    结束下标（不包含）
+     * @param quoted 区间是否为带引号的标识符（首尾为引号字符）
+     * @return 编号，未命中返回-1
+     */
+    public int find(CharSequence text, int start, int end, boolean quoted) {
+        if (quoted) {
+            start++;
+            end--;
+        }
+        if (end <= start || names.length == 0) {
+            return -1;
+        }
+        int index = hash(text, start, end) & mask;
+        int slot;
+        while ((slot = slots[index]) != 0) {
+            String name = names[slot - 1];
+            if (regionEquals(name, text, start, end)) {
+                return slot - 1;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * 归一化标识符：去除首尾空白与引号（"、`、[]），取最后一段名称并转为小写
+     *
+     * @param identifier 标识符
+     * @return 归一化结果
+     */
+    public static String normalize(String identifier) {
+        if (identifier == null) {
+            return null;
+        }
+        String name = identifier.trim();
+        int dot = name.lastIndexOf('.');
+        if (dot >= 0 && dot < name.length() - 1 && !isQuoted(name)) {
+            name = name.substring(dot + 1);
+        }
+        if (isQuoted(name)) {
+            name = name.substring(1, name.length() - 1);
+        }
+        StringBuilder builder = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            builder.append(Character.toLowerCase(name.charAt(i)));
+        }
+        return builder.toString();
+    }
+
+    private static boolean isQuoted(String name) {
+        if (name.length() < 2) {
+            return false;
+        }
+        char first = name.charAt(0);
+        char last = name.charAt(name.length() - 1);
+        return (first == '"' && last == '"') || (first == '`' && last == '`') || (first == '[' && last == ']');
+    }
+
+    private static int hash(CharSequence text, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + Character.toLowerCase(text.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean regionEquals(String name, CharSequence text, int start, int end) {
+        if (name.length() != end - start) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) != Character.toLowerCase(text.charAt(start + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,227 @@
+package io.github.anthem37.sql.rewiter.core.engine.filter;
+
+import cn.hutool.core.util.StrUtil;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlLexer;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlTokenType;
+import io.github.anthem37.sql.rewiter.core.rule.ICombineSqlRule;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
+import io.github.anthem37.sql.rewiter.core.util.RuleUtils;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 规则词法预过滤器
+ * <p>
+ * 在解析SQL之前，根据所有规则声明的语句类型（{@link ISqlRule#getType()}）与目标表名（{@link ISqlRule#getTargetTableName()}）
+ * 判断SQL是否可能被任意规则改写：
+ * 1. SQL首个关键字对应的语句类别没有任何规则时，无需解析。
+ * 2. 该类别的规则均声明了目标表名，而SQL中没有任何标识符命中这些表名（或别名）时，无需解析。
+ * </p>
+ * <p>
+ * 标识符通过{@link SqlLexer}按词法单元识别，字符串字面量与注释中的内容不会被误判为表名，
+ * 带引号的标识符会去除引号后比较。存在非{@link ISqlRule}/{@link ICombineSqlRule}的规则时，
+ * 由于无法得知其作用范围，预过滤器不做任何过滤。
+ * </p>
+ * <p>
+ * 预过滤器位于安全相关的规则之前，判断错误时必须倾向于解析：扫描到未闭合的字面量/注释，
+ * 或边界与方言有关的字面量（含反斜杠，见{@link SqlLexer#isAmbiguous()}）时，其后的表名可能被词法扫描遗漏，一律判定为可能被改写。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/21 14:58:16
+ */
+@Slf4j
+public class RulePreFilter {
+
+    private static final StatementKind[] KINDS = StatementKind.values();
+
+    /**
+     * 是否存在作用范围未知的规则，存在时不做过滤
+     */
+    private final boolean passThrough;
+
+    /**
+     * 各语句类别是否存在规则
+     */
+    private final boolean[] kindHasRules = new boolean[KINDS.length];
+
+    /**
+     * 各语句类别是否存在未声明目标表名的规则
+     */
+    private final boolean[] kindWildcard = new boolean[KINDS.length];
+
+    /**
+     * 各语句类别关注的目标表名编号
+     */
+    private final boolean[][] kindTables;
+
+    /**
+     * 所有目标表名的匹配器
+     */
+    private final IdentifierMatcher tableMatcher;
+
+    private final LongAdder checkedCount = new LongAdder();
+
+    private final LongAdder bypassedCount = new LongAdder();
+
+    public RulePreFilter(List<IRule> rules) {
+        List<ISqlRule<?>> sqlRules = new ArrayList<>();
+        boolean unknown = false;
+        for (IRule rule : rules) {
+            List<ISqlRule<?>> children = RuleUtils.getSqlRules(rule);
+            if (children == null) {
+                unknown = true;
+            } else {
+                sqlRules.addAll(children);
+            }
+        }
+        this.passThrough = unknown;
+        List<String> tableNames = new ArrayList<>();
+        for (ISqlRule<?> sqlRule : sqlRules) {
+            if (StrUtil.isNotBlank(sqlRule.getTargetTableName())) {
+                tableNames.add(sqlRule.getTargetTableName());
+            }
+        }
+        this.tableMatcher = new IdentifierMatcher(tableNames);
+        this.kindTables = new boolean[KINDS.length][tableMatcher.size()];
+        for (ISqlRule<?> sqlRule : sqlRules) {
+            Class<?> type = sqlRule.getType();
+            String tableName = sqlRule.getTargetTableName();
+            for (StatementKind kind : KINDS) {
+                if (type == null || !kind.accepts(type)) {
+                    continue;
+                }
+                kindHasRules[kind.ordinal()] = true;
+                int tableId = StrUtil.isBlank(tableName) ? -1 : tableMatcher.find(tableName);
+                if (tableId < 0) {
+                    kindWildcard[kind.ordinal()] = true;
+                } else {
+                    kindTables[kind.ordinal()][tableId] = true;
+                }
+            }
+        }
+        log.debug("构造RulePreFilter, 目标表数量: {}, 是否不做过滤: {}", tableMatcher.size(), passThrough);
+    }
+
+    /**
+     * 判断SQL是否可能被任意规则改写
+     *
+     * @param sql sql
+     * @return 可能被改写返回true，确定不会被改写返回false
+     */
+    public boolean mayApply(String sql) {
+        checkedCount.increment();
+        if (passThrough || sql == null) {
+            return true;
+        }
+        if (scan(sql)) {
+            return true;
+        }
+        bypassedCount.increment();
+        return false;
+    }
+
+    /**
+     * 已检查的SQL数量
+     *
+     * @return 数量
+     */
+    public long getCheckedCount() {
+
+        return checkedCount.sum();
+    }
+
+    /**
+     * 跳过解析的SQL数量
+     *
+     * @return 数量
+     */
+    public long getBypassedCount() {
+
+        return bypassedCount.sum();
+    }
+
+    private boolean scan(String sql) {
+        SqlLexer lexer = new SqlLexer(sql);
+        // 1. 根据首个关键字确定语句类别
+        StatementKind kind = null;
+        boolean detected = false;
+        while (!detected && lexer.nextSignificant()) {
+            if (lexer.isSymbol('(')) {
+                continue;
+            }
+            detected = true;
+            kind = StatementKind.fromLeadingKeyword(lexer);
+        }
+        if (!detected) {
+            return isUncertain(lexer);
+        }
+        boolean anyRules = false;
+        for (StatementKind candidate : KINDS) {
+            if (!isCandidate(candidate, kind)) {
+                continue;
+            }
+            if (kindWildcard[candidate.ordinal()]) {
+                return true;
+            }
+            anyRules |= kindHasRules[candidate.ordinal()];
+        }
+        if (!anyRules) {
+            // 该类别没有规则，但边界不可靠时首个关键字之后可能是被合并的其他语句
+            return hasUncertainToken(lexer);
+        }
+        // 2. 扫描标识符，命中任意关注的目标表名即需要解析
+        do {
+            if (isUncertain(lexer)) {
+                return true;
+            }
+            SqlTokenType tokenType = lexer.getTokenType();
+            if (tokenType != SqlTokenType.WORD && tokenType != SqlTokenType.QUOTED_IDENTIFIER) {
+                continue;
+            }
+            int tableId = tableMatcher.find(sql, lexer.getTokenStart(), lexer.getTokenEnd(), tokenType == SqlTokenType.QUOTED_IDENTIFIER);
+            if (tableId < 0) {
+                continue;
+            }
+            for (StatementKind candidate : KINDS) {
+                if (isCandidate(candidate, kind) && kindTables[candidate.ordinal()][tableId]) {
+                    return true;
+                }
+            }
+        } while (lexer.next());
+        return false;
+    }
+
+    /**
+     * 从当前词法单元起是否存在边界不可靠的词法单元
+     */
+    private static boolean hasUncertainToken(SqlLexer lexer) {
+        do {
+            if (isUncertain(lexer)) {
+                return true;
+            }
+        } while (lexer.next());
+        return false;
+    }
+
+    /**
+     * 当前词法单元的边界是否不可靠
+     */
+    private static boolean isUncertain(SqlLexer lexer) {
+
+        return lexer.isUnterminated() || lexer.isAmbiguous();
+    }
+
+    /**
+     * 类别是否为候选类别，kind为null（WITH开头）时SELECT/INSERT/UPDATE/DELETE均为候选
+     */
+    private static boolean isCandidate(StatementKind candidate, StatementKind kind) {
+
+        return kind == null ? candidate != StatementKind.OTHER : candidate == kind;
+    }
+
+}
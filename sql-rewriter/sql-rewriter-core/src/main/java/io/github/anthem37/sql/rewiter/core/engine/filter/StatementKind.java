@@ -0,0 +1,105 @@
+package io.github.anthem37.sql.rewiter.core.engine.filter;
+
+import io.github.anthem37.sql.rewiter.core.lexer.SqlLexer;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlTokenType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.insert.Insert;
+import net.sf.jsqlparser.statement.select.Select;
+import net.sf.jsqlparser.statement.update.Update;
+
+/**
+ * 语句类别
+ * <p>
+ * 用于在解析前根据SQL首个关键字判断语句类别，以及在解析后根据语句类型归类。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/21 14:12:09
+ */
+@Getter
+@AllArgsConstructor
+public enum StatementKind {
+
+    SELECT(Select.class),
+    INSERT(Insert.class),
+    UPDATE(Update.class),
+    DELETE(Delete.class),
+    /**
+     * 其他语句（DDL、MERGE、UPSERT等）
+     */
+    OTHER(Statement.class);
+
+    private static final StatementKind[] VALUES = values();
+
+    /**
+     * 类别对应的JSqlParser语句类型
+     */
+    private final Class<? extends Statement> statementType;
+
+    /**
+     * 规则声明的语句类型是否可能作用于该类别
+     *
+     * @param ruleType 规则声明的语句类型
+     * @return 是/否
+     */
+    public boolean accepts(Class<?> ruleType) {
+        if (this == OTHER) {
+            // 规则类型不属于任何已知类别（如Statement本身、Merge等）时，可能作用于其他语句
+            for (StatementKind kind : VALUES) {
+                if (kind != OTHER && kind.statementType.isAssignableFrom(ruleType)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return statementType.isAssignableFrom(ruleType) || ruleType.isAssignableFrom(statementType);
+    }
+
+    /**
+     * 根据已解析的语句归类
+     *
+     * @param statement 语句
+     * @return 语句类别
+     */
+    public static StatementKind of(Statement statement) {
+        for (StatementKind kind : VALUES) {
+            if (kind != OTHER && kind.statementType.isInstance(statement)) {
+                return kind;
+            }
+        }
+        return OTHER;
+    }
+
+    /**
+     * 根据词法扫描器当前所在的首个关键字判断语句类别
+     *
+     * @param lexer 位于首个有意义词法单元（已跳过注释、空白与左括号）的扫描器
+     * @return 语句类别，以WITH开头等无法仅凭首个关键字判断时返回null
+     */
+    public static StatementKind fromLeadingKeyword(SqlLexer lexer) {
+        if (lexer.getTokenType() != SqlTokenType.WORD) {
+            return OTHER;
+        }
+        if (lexer.isWord("SELECT") || lexer.isWord("VALUES") || lexer.isWord("TABLE")) {
+            return SELECT;
+        }
+        if (lexer.isWord("INSERT")) {
+            return INSERT;
+        }
+        if (lexer.isWord("UPDATE")) {
+            return UPDATE;
+        }
+        if (lexer.isWord("DELETE")) {
+            return DELETE;
+        }
+        if (lexer.isWord("WITH")) {
+            // WITH可引导SELECT/INSERT/UPDATE/DELETE
+            return null;
+        }
+        return OTHER;
+    }
+
+}
@@ -0,0 +1,182 @@
+package io.github.anthem37.sql.rewiter.core.engine.guard;
+
+import cn.hutool.core.util.StrUtil;
+import io.github.anthem37.sql.rewiter.core.exception.ErrorEnum;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlLexer;
+import io.github.anthem37.sql.rewiter.core.parser.CallerThreadSqlParser;
+import io.github.anthem37.sql.rewiter.core.parser.ParseResult;
+import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
+import io.github.anthem37.sql.rewiter.core.util.SqlFormatUtils;
+
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 解析保护
+ * <p>
+ * 防止超大或过度复杂的SQL（数MB的IN列表、数十层嵌套子查询等）长时间占用线程甚至栈溢出：
+ * 1. 解析前检查：SQL长度、括号嵌套深度与词法单元数量（AST节点数量的上界估计），
+ * 嵌套深度与词法单元数量在同一次词法扫描中计算，超限时立即停止扫描。
+ * 2. 解析超时：在调用线程上解析，由共享的调度线程在超时后通知解析器中断（见{@link CallerThreadSqlParser}），
+ * 解析只占用调用线程本身，并发度由调用方的线程数决定。
+ * 任意检查未通过时返回失败的{@link ParseResult}，由引擎原样返回SQL，并按原因分别计数。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/25 09:40:27
+ */
+public class ParseGuard {
+
+    /**
+     * SQL最大长度，小于等于0表示不限制
+     */
+    private final int maxSqlLength;
+
+    /**
+     * 括号最大嵌套深度，小于等于0表示不限制
+     */
+    private final int maxNestingDepth;
+
+    /**
+     * 最大词法单元数量，小于等于0表示不限制
+     */
+    private final int maxAstNodes;
+
+    /**
+     * 解析超时时间（毫秒），小于等于0表示不限制
+     */
+    private final long parseTimeoutMillis;
+
+    private final LongAdder lengthExceededCount = new LongAdder();
+
+    private final LongAdder depthExceededCount = new LongAdder();
+
+    private final LongAdder nodesExceededCount = new LongAdder();
+
+    private final LongAdder timeoutCount = new LongAdder();
+
+    public ParseGuard(int maxSqlLength, int maxNestingDepth, int maxAstNodes, long parseTimeoutMillis) {
+        this.maxSqlLength = maxSqlLength;
+        this.maxNestingDepth = maxNestingDepth;
+        this.maxAstNodes = maxAstNodes;
+        this.parseTimeoutMillis = parseTimeoutMillis;
+    }
+
+    /**
+     * 解析前检查SQL是否超出限制
+     *
+     * @param sql sql
+     * @return 超出限制时返回失败的解析结果，否则返回null
+     */
+    public ParseResult check(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        if (maxSqlLength > 0 && sql.length() > maxSqlLength) {
+            lengthExceededCount.increment();
+            return exceeded(StrUtil.format("SQL长度 {} 超过 {}", sql.length(), maxSqlLength));
+        }
+        if (maxNestingDepth <= 0 && maxAstNodes <= 0) {
+            return null;
+        }
+        SqlLexer lexer = new SqlLexer(sql);
+        int depth = 0;
+        int tokens = 0;
+        while (lexer.nextSignificant()) {
+            if (lexer.isSymbol('(') && ++depth > maxNestingDepth && maxNestingDepth > 0) {
+                depthExceededCount.increment();
+                return exceeded(StrUtil.format("嵌套深度超过 {}", maxNestingDepth));
+            }
+            if (lexer.isSymbol(')')) {
+                depth--;
+            }
+            if (++tokens > maxAstNodes && maxAstNodes > 0) {
+                nodesExceededCount.increment();
+                return exceeded(StrUtil.format("语法单元数量超过 {}", maxAstNodes));
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 在超时限制内解析SQL
+     *
+     * @param sql   sql
+     * @param clean 是否先清理SQL（合并空白）
+     * @return 解析结果
+     */
+    public ParseResult parse(String sql, boolean clean) {
+        if (parseTimeoutMillis <= 0) {
+            return JsqlParserUtils.tryParseSql(sql, clean);
+        }
+        String parseSql = clean ? SqlFormatUtils.cleanSql(sql) : sql;
+        if (StrUtil.isBlank(parseSql)) {
+            return ParseResult.failure(ErrorEnum.SQL_BLANK, ErrorEnum.SQL_BLANK.getErrorMsg(), null);
+        }
+        try {
+            return ParseResult.success(CallerThreadSqlParser.parse(parseSql, parseTimeoutMillis));
+        } catch (Exception e) {
+            if (e.getCause() instanceof TimeoutException) {
+                timeoutCount.increment();
+                return ParseResult.failure(ErrorEnum.SQL_PARSE_TIMEOUT, ErrorEnum.SQL_PARSE_TIMEOUT.formatMsg(parseTimeoutMillis, StrUtil.maxLength(parseSql, 128)), e);
+            }
+            return ParseResult.failure(ErrorEnum.SQL_PARSE_ERROR, ErrorEnum.SQL_PARSE_ERROR.formatMsg(parseSql), e);
+        }
+    }
+
+    /**
+     * 因长度超限跳过解析的次数
+     *
+     * @return 次数
+     */
+    public long getLengthExceededCount() {
+
+        return lengthExceededCount.sum();
+    }
+
+    /**
+     * 因嵌套深度超限跳过解析的次数
+     *
+     * @return 次数
+     */
+    public long getDepthExceededCount() {
+
+        return depthExceededCount.sum();
+    }
+
+    /**
+     * 因语法单元数量超限跳过解析的次数
+     *
+     * @return 次数
+     */
+    public long getNodesExceededCount() {
+
+        return nodesExceededCount.sum();
+    }
+
+    /**
+     * 解析超时的次数
+     *
+     * @return 次数
+     */
+    public long getTimeoutCount() {
+
+        return timeoutCount.sum();
+    }
+
+    /**
+     * 所有原因导致的跳过次数之和
+     *
+     * @return 次数
+     */
+    public long getRejectedCount() {
+
+        return getLengthExceededCount() + getDepthExceededCount() + getNodesExceededCount() + getTimeoutCount();
+    }
+
+    private static ParseResult exceeded(String reason) {
+
+        return ParseResult.failure(ErrorEnum.SQL_PARSE_LIMIT_EXCEEDED, ErrorEnum.SQL_PARSE_LIMIT_EXCEEDED.formatMsg(reason), null);
+    }
+
+}
@@ -0,0 +1,103 @@
+package io.github.anthem37.sql.rewiter.core.engine.impl;
+
+import cn.hutool.core.collection.CollectionUtil;
+import io.github.anthem37.sql.rewiter.core.engine.cache.RewriteResultCache;
+import io.github.anthem37.sql.rewiter.core.engine.cache.RewriteTemplateCache;
+import io.github.anthem37.sql.rewiter.core.engine.config.SQLRewriteEngineConfig;
+import io.github.anthem37.sql.rewiter.core.engine.dispatch.RuleDispatchIndex;
+import io.github.anthem37.sql.rewiter.core.engine.fastpath.InsertValuesFastPath;
+import io.github.anthem37.sql.rewiter.core.engine.filter.RulePreFilter;
+import io.github.anthem37.sql.rewiter.core.extension.rule.FusedAddConditionSelectRule;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import io.github.anthem37.sql.rewiter.core.util.RuleUtils;
+import lombok.Getter;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 规则快照
+ * <p>
+ * 一组规则及由其派生的全部状态（执行规则、预过滤器、分发索引、快速路径）与依赖规则的缓存（重写结果、重写模板），
+ * 构造后不再修改。引擎替换规则时整体替换快照，读取方无需加锁；
+ * 一次改写只读取一次快照，替换规则前开始的改写按原快照完成，结果也只写入原快照的缓存，不会污染新版本。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/30 16:05:27
+ */
+@Getter
+final class RuleSnapshot {
+
+    /**
+     * 规则版本，引擎构造时为0，每次替换规则加1
+     */
+    private final long version;
+
+    /**
+     * 按优先级排序的规则列表
+     */
+    private final List<IRule> rules;
+
+    /**
+     * 实际执行的规则列表（按优先级排序，可能包含融合后的规则），与rules保持相同的执行语义
+     */
+    private final List<IRule> executionRules;
+
+    /**
+     * 规则词法预过滤器，未启用时为null
+     */
+    private final RulePreFilter preFilter;
+
+    /**
+     * 规则分发索引，未启用时为null
+     */
+    private final RuleDispatchIndex dispatchIndex;
+
+    /**
+     * INSERT ... VALUES快速路径，未启用或规则不满足条件时为null
+     */
+    private final InsertValuesFastPath insertFastPath;
+
+    /**
+     * 重写结果缓存，未启用时为null
+     */
+    private final RewriteResultCache resultCache;
+
+    /**
+     * 重写模板缓存，未启用时为null
+     */
+    private final RewriteTemplateCache templateCache;
+
+    RuleSnapshot(long version, List<IRule> rules, SQLRewriteEngineConfig config) {
+        this.version = version;
+        if (CollectionUtil.isEmpty(rules)) {
+            this.rules = Collections.emptyList();
+            this.executionRules = Collections.emptyList();
+            this.preFilter = null;
+            this.dispatchIndex = null;
+            this.insertFastPath = null;
+            this.resultCache = null;
+            this.templateCache = null;
+            return;
+        }
+        // 排序并封装为不可变列表
+        this.rules = Collections.unmodifiableList(RuleUtils.sortByPriority(rules));
+        this.executionRules = config.isFuseConditionRules() ? Collections.unmodifiableList(FusedAddConditionSelectRule.fuse(this.rules)) : this.rules;
+        this.preFilter = config.isPreFilterEnabled() ? new RulePreFilter(this.rules) : null;
+        this.dispatchIndex = config.isDispatchIndexEnabled() ? new RuleDispatchIndex(this.executionRules) : null;
+        this.insertFastPath = config.isInsertFastPathEnabled() ? InsertValuesFastPath.of(this.rules) : null;
+        this.resultCache = config.isResultCacheEnabled() ? new RewriteResultCache(config) : null;
+        this.templateCache = config.isTemplateCacheEnabled() ? new RewriteTemplateCache(config) : null;
+    }
+
+    /**
+     * 是否没有任何规则
+     *
+     * @return 是否为空
+     */
+    boolean isEmpty() {
+
+        return rules.isEmpty();
+    }
+}
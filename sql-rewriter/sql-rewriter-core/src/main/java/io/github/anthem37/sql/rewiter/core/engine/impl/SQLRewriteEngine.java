@@ -1,19 +1,52 @@
 package io.github.anthem37.sql.rewiter.core.engine.impl;
 
-import cn.hutool.core.collection.CollectionUtil;
-import cn.hutool.core.exceptions.ExceptionUtil;
 import cn.hutool.core.util.StrUtil;
+import com.google.common.cache.CacheStats;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.engine.ISQLRewriteEngine;
+import io.github.anthem37.sql.rewiter.core.engine.RewriteResult;
+import io.github.anthem37.sql.rewiter.core.engine.async.AsyncRewriter;
+import io.github.anthem37.sql.rewiter.core.engine.batch.BatchRewriteResult;
+import io.github.anthem37.sql.rewiter.core.engine.batch.BatchRewriter;
+import io.github.anthem37.sql.rewiter.core.engine.cache.ParseFailureCache;
+import io.github.anthem37.sql.rewiter.core.engine.cache.RewriteResultCache;
+import io.github.anthem37.sql.rewiter.core.engine.cache.RewriteTemplate;
+import io.github.anthem37.sql.rewiter.core.engine.cache.RewriteTemplateCache;
+import io.github.anthem37.sql.rewiter.core.engine.cache.SqlShape;
+import io.github.anthem37.sql.rewiter.core.engine.config.SQLRewriteEngineConfig;
+import io.github.anthem37.sql.rewiter.core.engine.diagnostics.RewriteDiagnostics;
+import io.github.anthem37.sql.rewiter.core.engine.dispatch.RuleDispatchIndex;
+import io.github.anthem37.sql.rewiter.core.engine.fastpath.InsertValuesFastPath;
+import io.github.anthem37.sql.rewiter.core.engine.filter.RulePreFilter;
+import io.github.anthem37.sql.rewiter.core.engine.guard.ParseGuard;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.IRewriteMetrics;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.RewriteOutcome;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.RewritePhase;
+import io.github.anthem37.sql.rewiter.core.engine.script.DumpFileRewriter;
+import io.github.anthem37.sql.rewiter.core.engine.script.DumpRewriteResult;
+import io.github.anthem37.sql.rewiter.core.engine.script.ScriptRewriteResult;
+import io.github.anthem37.sql.rewiter.core.engine.script.ScriptRewriter;
+import io.github.anthem37.sql.rewiter.core.engine.support.ParseFailureReporter;
+import io.github.anthem37.sql.rewiter.core.exception.ErrorEnum;
+import io.github.anthem37.sql.rewiter.core.exception.SqlRewriteException;
+import io.github.anthem37.sql.rewiter.core.parser.ParseResult;
 import io.github.anthem37.sql.rewiter.core.rule.IRule;
 import io.github.anthem37.sql.rewiter.core.util.GsonUtils;
 import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
-import io.github.anthem37.sql.rewiter.core.util.RuleUtils;
+import io.github.anthem37.sql.rewiter.core.util.SqlFormatUtils;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jsqlparser.statement.Statement;
 
-import java.util.Collections;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * SQL重写引擎实现类
@@ -25,55 +58,774 @@ import java.util.List;
 @Getter
 public class SQLRewriteEngine implements ISQLRewriteEngine {
 
-    private final List<IRule> rules;
+    private static final CacheStats EMPTY_CACHE_STATS = new CacheStats(0, 0, 0, 0, 0, 0);
+
+    private final SQLRewriteEngineConfig config;
+
+    /**
+     * 当前规则快照，替换规则时整体替换（写时复制），读取方不加锁
+     */
+    @Getter(AccessLevel.NONE)
+    private volatile RuleSnapshot snapshot;
+
+    /**
+     * 解析失败负缓存，未启用时为null
+     */
+    @Getter(AccessLevel.NONE)
+    private final ParseFailureCache parseFailureCache;
+
+    /**
+     * 解析保护，未启用时为null
+     */
+    @Getter(AccessLevel.NONE)
+    private final ParseGuard parseGuard;
+
+    /**
+     * 规则应用阶段被取消（超时或中断）的次数
+     */
+    @Getter(AccessLevel.NONE)
+    private final LongAdder rewriteCancelledCount = new LongAdder();
+
+    /**
+     * 重写指标，未配置时为null
+     */
+    @Getter(AccessLevel.NONE)
+    private final IRewriteMetrics metrics;
+
+    /**
+     * 诊断日志，未启用时为null
+     */
+    @Getter(AccessLevel.NONE)
+    private final RewriteDiagnostics diagnostics;
+
+    /**
+     * 批量重写执行器
+     */
+    @Getter(AccessLevel.NONE)
+    private final BatchRewriter batchRewriter;
+
+    /**
+     * 脚本重写器
+     */
+    @Getter(AccessLevel.NONE)
+    private final ScriptRewriter scriptRewriter;
+
+    /**
+     * 异步重写执行器
+     */
+    @Getter(AccessLevel.NONE)
+    private final AsyncRewriter asyncRewriter;
+
+    /**
+     * 解析失败汇总日志
+     */
+    @Getter(AccessLevel.NONE)
+    private final ParseFailureReporter parseFailureReporter;
 
     public SQLRewriteEngine(List<IRule> rules) {
-        String rulesStr = GsonUtils.toJson(rules, true);
-        // 构造时排序并封装为不可变列表
-        if (CollectionUtil.isEmpty(rules)) {
-            this.rules = Collections.emptyList();
-            log.debug("构造SQLRewriteEngine,SQL重写引擎初始化完成，规则列表为空");
-            return;
+        this(rules, SQLRewriteEngineConfig.defaultConfig());
+    }
+
+    public SQLRewriteEngine(List<IRule> rules, SQLRewriteEngineConfig config) {
+        this.config = config == null ? SQLRewriteEngineConfig.defaultConfig() : config;
+        this.parseFailureCache = this.config.isParseFailureCacheEnabled() ? new ParseFailureCache(this.config) : null;
+        this.parseGuard = this.config.isParseGuardEnabled() ? new ParseGuard(this.config.getMaxSqlLength(), this.config.getMaxNestingDepth(),
+                this.config.getMaxAstNodes(), this.config.getParseTimeoutMillis()) : null;
+        this.metrics = this.config.getMetrics();
+        this.diagnostics = RewriteDiagnostics.isEnabled(this.config.getSlowRewriteThresholdMillis(), this.config.getDiagnosticsSampleRate())
+                ? new RewriteDiagnostics(this.config.getSlowRewriteThresholdMillis(), this.config.getDiagnosticsSampleRate(), this.config.getDiagnosticsMaxSqlLength())
+                : null;
+        this.parseFailureReporter = new ParseFailureReporter(this.config.getParseFailureLogIntervalMillis());
+        this.scriptRewriter = new ScriptRewriter(this.config.getScriptMaxStatementLength(), this.config.getScriptReadBufferSize());
+        this.batchRewriter = new BatchRewriter(this.config.getBatchPool(), this.config.getBatchParallelThreshold());
+        this.asyncRewriter = new AsyncRewriter(this.config.getAsyncExecutor(), this.config.getAsyncThreads(), this.config.isAsyncVirtualThreads(),
+                this.config.getAsyncMaxPending(), this.config.getAsyncRejectPolicy());
+        this.snapshot = new RuleSnapshot(0L, rules, this.config);
+        if (log.isDebugEnabled()) {
+            log.debug("构造SQLRewriteEngine, SQL重写引擎初始化完成，规则数量: {}, 规则列表: {}, 配置: {}",
+                    snapshot.getRules().size(), GsonUtils.toJson(snapshot.getRules(), true), this.config);
         }
-        this.rules = Collections.unmodifiableList(RuleUtils.sortByPriority(rules));
-        log.debug("构造SQLRewriteEngine, SQL重写引擎初始化完成，规则数量: {}, 规则列表: {}", rules.size(), rulesStr);
+    }
+
+    /**
+     * 获取当前规则（按优先级排序）
+     *
+     * @return 不可变的规则列表
+     */
+    @Override
+    public List<IRule> getRules() {
+
+        return snapshot.getRules();
+    }
+
+    /**
+     * 获取当前规则版本，构造时为0，每次替换规则加1
+     *
+     * @return 规则版本
+     */
+    @Override
+    public long getRuleVersion() {
+
+        return snapshot.getVersion();
+    }
+
+    /**
+     * 原子地替换规则
+     * <p>
+     * 新规则及其派生状态（排序、融合、预过滤器、分发索引、快速路径）构建完成后整体替换当前快照，
+     * 替换之后开始的改写全部使用新规则，替换之前已开始的改写按原规则完成；
+     * 重写结果缓存与重写模板缓存随快照更换，旧版本的结果不会被新版本读取。
+     * 解析失败负缓存、解析保护、线程池与各项统计与规则无关，保留不变。
+     * </p>
+     *
+     * @param rules 新的规则列表
+     * @return 新的规则版本
+     */
+    public synchronized long reloadRules(List<IRule> rules) {
+        RuleSnapshot next = new RuleSnapshot(snapshot.getVersion() + 1, rules, config);
+        snapshot = next;
+        log.info("SQLRewriteEngine.reloadRules, 规则已替换，版本: {}, 规则数量: {}", next.getVersion(), next.getRules().size());
+
+        return next.getVersion();
     }
 
     @Override
     public String run(String sql) {
-        if (CollectionUtil.isEmpty(rules)) {
+
+        return run(sql, null);
+    }
+
+    /**
+     * 执行sql改写，规则中的值提供者从调用方的重写上下文解析
+     * <p>
+     * 上下文带有属性时改写结果可能因属性而异，不经过重写结果缓存；重写模板缓存只保存与属性无关的模板，
+     * 值提供者在输出时从上下文解析回填，因此一个引擎实例可以服务于所有租户。
+     * 值提供者无法从上下文取值时不会原样返回缺少条件的SQL，而是抛出异常。
+     * </p>
+     *
+     * @param sql     sql
+     * @param context 重写上下文，可为null
+     * @return 改写后的sql
+     * @throws SqlRewriteException 值提供者无法从上下文取值时抛出
+     */
+    @Override
+    public String run(String sql, RewriteContext context) {
+
+        return runWithResult(sql, context).getSql();
+    }
+
+    /**
+     * 执行sql改写，并返回结果类型及结果能否被缓存
+     * <p>
+     * 规则应用失败、被取消、超出解析限制或解析超时时原样返回SQL，结果标记为不可缓存，也不会写入重写结果缓存。
+     * </p>
+     *
+     * @param sql     sql
+     * @param context 重写上下文，可为null
+     * @return 重写结果
+     * @throws SqlRewriteException 值提供者无法从上下文取值时抛出
+     */
+    @Override
+    public RewriteResult runWithResult(String sql, RewriteContext context) {
+        // 一次改写只读取一次快照，期间替换规则不影响本次改写
+        RuleSnapshot current = snapshot;
+        if (current.isEmpty()) {
             log.debug("SQLRewriteEngine.run, 规则列表为空，直接返回原SQL: {}", sql);
-            return sql;
+            return RewriteResult.unchanged(sql);
+        }
+        RewriteResultCache resultCache = current.getResultCache();
+        if (resultCache != null && sql != null && (context == null || !context.hasAttributes())) {
+            return resultCache.get(sql, key -> rewrite(key, null, current));
         }
-        long start = System.currentTimeMillis();
-        Statement statement;
+        return rewrite(sql, context, current);
+    }
+
+    @Override
+    public List<String> runBatch(List<String> sqls) {
+
+        return runBatchWithStats(sqls).getResults();
+    }
+
+    /**
+     * 批量执行sql改写，并返回本批次的去重与耗时统计
+     * <p>
+     * 批次内相同的SQL只改写一次，去重后数量达到{@code batchParallelThreshold}时在{@code batchPool}上并行改写，
+     * 结果按输入顺序返回。
+     * </p>
+     *
+     * @param sqls sql列表
+     * @return 批量重写结果
+     */
+    public BatchRewriteResult runBatchWithStats(List<String> sqls) {
+
+        return batchRewriter.rewrite(sqls, this::run);
+    }
+
+    /**
+     * 异步执行sql改写
+     * <p>
+     * 待处理任务数达到{@code asyncMaxPending}时按{@code asyncRejectPolicy}拒绝或由调用线程执行，
+     * 不会在事件循环等调用线程上阻塞等待。
+     * </p>
+     *
+     * @param sql sql
+     * @return 改写后的sql
+     */
+    @Override
+    public CompletableFuture<String> runAsync(String sql) {
+
+        return asyncRewriter.submit(sql, this::run);
+    }
+
+    /**
+     * 改写多语句脚本
+     * <p>
+     * 单条语句超过{@code scriptMaxStatementLength}时原样输出，每条语句按{@link #run(String)}改写（可命中各级缓存），
+     * 解析失败且含分号的语句计入{@link ScriptRewriteResult#getSuspiciousCount()}。
+     * </p>
+     *
+     * @param reader 脚本输入，不会被关闭
+     * @param writer 改写后的脚本输出，不会被关闭
+     * @return 重写结果
+     * @throws IOException 读写失败时抛出
+     */
+    @Override
+    public ScriptRewriteResult runScript(Reader reader, Writer writer) throws IOException {
+
+        return scriptRewriter.rewriteWithResult(reader, writer, sql -> runWithResult(sql, null));
+    }
+
+    /**
+     * 改写SQL转储文件
+     * <p>
+     * 输入文件以内存映射方式按语句边界切分为约{@code dumpChunkBytes}大小的块，在{@code dumpThreads}个线程上并行改写，
+     * 按原始顺序流水线写入输出文件，完成后输出包含吞吐量（MB/s）的INFO日志。
+     * </p>
+     *
+     * @param input  输入文件
+     * @param output 输出文件，已存在时覆盖
+     * @return 重写结果
+     * @throws IOException 读写失败时抛出
+     */
+    public DumpRewriteResult runDumpFile(Path input, Path output) throws IOException {
+
+        return new DumpFileRewriter(config.getDumpThreads(), config.getDumpChunkBytes(), scriptRewriter).rewriteWithResult(input, output, sql -> runWithResult(sql, null));
+    }
+
+    /**
+     * 获取当前待处理的异步重写任务数
+     *
+     * @return 数量
+     */
+    public int getAsyncPendingCount() {
+
+        return asyncRewriter.getPendingCount();
+    }
+
+    /**
+     * 获取累计被拒绝（含由调用线程执行）的异步重写任务数
+     *
+     * @return 数量
+     */
+    public long getAsyncRejectedCount() {
+
+        return asyncRewriter.getRejectedCount();
+    }
+
+    /**
+     * 获取重写结果缓存统计信息（命中、未命中、淘汰次数等），未启用缓存时返回全0统计
+     *
+     * @return 缓存统计信息
+     */
+    public CacheStats getResultCacheStats() {
+
+        RewriteResultCache resultCache = snapshot.getResultCache();
+
+        return resultCache == null ? EMPTY_CACHE_STATS : resultCache.stats();
+    }
+
+    /**
+     * 获取重写模板缓存统计信息，hitRate()即模板命中率，未启用时返回全0统计
+     *
+     * @return 缓存统计信息
+     */
+    public CacheStats getTemplateCacheStats() {
+
+        RewriteTemplateCache templateCache = snapshot.getTemplateCache();
+
+        return templateCache == null ? EMPTY_CACHE_STATS : templateCache.stats();
+    }
+
+    /**
+     * 获取重写模板缓存中不同SQL形状的数量，未启用时返回0
+     *
+     * @return 形状数量
+     */
+    public long getTemplateShapeCount() {
+
+        RewriteTemplateCache templateCache = snapshot.getTemplateCache();
+
+        return templateCache == null ? 0L : templateCache.size();
+    }
+
+    /**
+     * 获取解析失败负缓存统计信息，未启用时返回全0统计
+     *
+     * @return 缓存统计信息
+     */
+    public CacheStats getParseFailureCacheStats() {
+
+        return parseFailureCache == null ? EMPTY_CACHE_STATS : parseFailureCache.stats();
+    }
+
+    /**
+     * 获取累计解析失败次数（含命中负缓存的次数）
+     *
+     * @return 次数
+     */
+    public long getParseFailureCount() {
+
+        return parseFailureReporter.getTotalFailures();
+    }
+
+    /**
+     * 获取词法预过滤跳过解析的SQL数量，未启用时返回0
+     *
+     * @return 数量
+     */
+    public long getPreFilterBypassCount() {
+
+        RulePreFilter preFilter = snapshot.getPreFilter();
+
+        return preFilter == null ? 0L : preFilter.getBypassedCount();
+    }
+
+    /**
+     * 获取通过INSERT ... VALUES快速路径改写的SQL数量，未启用时返回0
+     *
+     * @return 数量
+     */
+    public long getInsertFastPathCount() {
+
+        InsertValuesFastPath insertFastPath = snapshot.getInsertFastPath();
+
+        return insertFastPath == null ? 0L : insertFastPath.getRewrittenCount();
+    }
+
+    /**
+     * 获取因超出解析限制（长度、嵌套深度、语法单元数量、解析超时）而原样返回的SQL数量，未启用解析保护时返回0
+     *
+     * @return 数量
+     */
+    public long getParseGuardRejectedCount() {
+
+        return parseGuard == null ? 0L : parseGuard.getRejectedCount();
+    }
+
+    /**
+     * 获取解析超时的次数，未启用解析保护时返回0
+     *
+     * @return 次数
+     */
+    public long getParseTimeoutCount() {
+
+        return parseGuard == null ? 0L : parseGuard.getTimeoutCount();
+    }
+
+    /**
+     * 获取规则应用阶段被取消（超时或线程中断）的次数
+     *
+     * @return 次数
+     */
+    public long getRewriteCancelledCount() {
+
+        return rewriteCancelledCount.sum();
+    }
+
+    /**
+     * 获取累计慢重写次数，未配置慢重写阈值时返回0
+     *
+     * @return 次数
+     */
+    public long getSlowRewriteCount() {
+
+        return diagnostics == null ? 0L : diagnostics.getSlowCount();
+    }
+
+    /**
+     * 改写SQL（不经过重写结果缓存），启用诊断时计时并交给诊断日志
+     *
+     * @param sql     sql
+     * @param context 调用方的重写上下文，可为null
+     * @param current 本次改写使用的规则快照
+     * @return 重写结果
+     */
+    private RewriteResult rewrite(String sql, RewriteContext context, RuleSnapshot current) {
+        if (diagnostics == null) {
+            return doRewrite(sql, context, current);
+        }
+        long start = System.nanoTime();
+        RewriteResult result = doRewrite(sql, context, current);
+        diagnostics.record(sql, result.getSql(), System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * 改写SQL
+     * <p>
+     * 1. 词法预过滤确定没有规则可以作用时直接返回原SQL。
+     * 2. INSERT ... VALUES语句优先通过快速路径改写，不解析。
+     * 3. 超出解析限制的SQL直接返回原SQL。
+     * 4. 优先通过重写模板缓存改写，未启用或无法模板化时走完整重写流程。
+     * </p>
+     *
+     * @param sql     sql
+     * @param context 调用方的重写上下文，可为null
+     * @param current 本次改写使用的规则快照
+     * @return 重写结果
+     */
+    private RewriteResult doRewrite(String sql, RewriteContext context, RuleSnapshot current) {
+        RulePreFilter preFilter = current.getPreFilter();
+        if (preFilter != null && !preFilter.mayApply(sql)) {
+            log.debug("SQLRewriteEngine.run, 没有规则可以作用于该SQL，跳过解析直接返回原SQL: {}", sql);
+            recordOutcome(RewriteOutcome.UNCHANGED);
+
+            return RewriteResult.unchanged(sql);
+        }
+        InsertValuesFastPath insertFastPath = current.getInsertFastPath();
+        if (insertFastPath != null) {
+            String result;
+            try {
+                result = insertFastPath.tryRewrite(sql, context);
+            } catch (Exception e) {
+                return handleRewriteFailure(sql, e, System.nanoTime());
+            }
+            if (result != null) {
+                RewriteResult rewriteResult = result == sql ? RewriteResult.unchanged(sql) : RewriteResult.rewritten(result);
+                recordOutcome(rewriteResult.getOutcome());
+
+                return rewriteResult;
+            }
+        }
+        if (parseGuard != null) {
+            ParseResult rejected = parseGuard.check(sql);
+            if (rejected != null) {
+                parseFailureReporter.report(sql, rejected);
+                recordOutcome(RewriteOutcome.PARSE_FAILED);
+
+                return RewriteResult.parseFailed(sql, false);
+            }
+        }
+        RewriteTemplateCache templateCache = current.getTemplateCache();
+        if (templateCache == null) {
+            return doRun(sql, context, current);
+        }
+        SqlShape shape = SqlShape.of(sql);
+        if (shape == null) {
+            return doRun(sql, context, current);
+        }
+        RewriteTemplate template = templateCache.get(shape, key -> compileTemplate(key, current));
+        if (template == RewriteTemplate.UNCHANGED) {
+            recordOutcome(RewriteOutcome.UNCHANGED);
+
+            return RewriteResult.unchanged(sql);
+        }
+        if (template == RewriteTemplate.UNSUPPORTED || template == RewriteTemplate.FAILED) {
+            return doRun(sql, context, current);
+        }
+        String result;
         try {
-            statement = JsqlParserUtils.parseSql(sql);
+            result = template.bind(shape, context);
         } catch (Exception e) {
-            log.warn("SQLRewriteEngine.run, SQL不支持重写，直接返回原SQL: \nSQL: {} \n异常: {}", sql, ExceptionUtil.stacktraceToString(e));
+            return handleRewriteFailure(sql, e, System.nanoTime());
+        }
+        recordOutcome(RewriteOutcome.REWRITTEN);
+        return RewriteResult.rewritten(result);
+    }
+
+    /**
+     * 将SQL形状（字面量已替换为槽位）按常规流程重写并编译为模板
+     * <p>
+     * 编译时值提供者以上下文值槽位代替，模板与调用方上下文的属性无关。
+     * 规则应用失败或被取消时返回{@link RewriteTemplate#FAILED}，不能当作"无需改写"缓存到整个形状上。
+     * 字面量边界与解析器不一致的形状不能模板化，否则追加的条件可能被回填进字符串或注释中。
+     * </p>
+     *
+     * @param shape   SQL形状
+     * @param current 本次改写使用的规则快照
+     * @return 重写模板
+     */
+    private RewriteTemplate compileTemplate(SqlShape shape, RuleSnapshot current) {
+        String shapeSql = shape.getKey();
+        if (!shape.literalsMatchParser()) {
+            log.debug("SQLRewriteEngine.compileTemplate, SQL字面量边界与解析器不一致，该形状改走完整重写流程: {}", shapeSql);
+
+            return RewriteTemplate.UNSUPPORTED;
+        }
+        ParseResult parseResult = parse(shapeSql, !config.isSpliceOutputEnabled());
+        if (!parseResult.isSuccess()) {
+            log.debug("SQLRewriteEngine.compileTemplate, SQL形状无法解析，该形状改走完整重写流程: {}", shapeSql);
+
+            return RewriteTemplate.UNSUPPORTED;
+        }
+        RewriteContext context = new RewriteContext();
+        context.enableTemplateValueRecording();
+        // 模板编译的结果由使用模板的调用记录，这里不记录
+        RewriteResult result = rewriteStatement(parseResult.getStatement(), shapeSql, config.isSpliceOutputEnabled(), System.nanoTime(), false, context, current);
+        if (result.isFailed()) {
+            return RewriteTemplate.FAILED;
+        }
+        if (result.getOutcome() == RewriteOutcome.UNCHANGED) {
+            return RewriteTemplate.UNCHANGED;
+        }
+        return RewriteTemplate.compile(result.getSql(), shape.getLiteralCount(), context.getTemplateValues());
+    }
+
+    /**
+     * 执行一次完整的解析、规则应用与反解析
+     *
+     * @param sql     sql
+     * @param context 调用方的重写上下文，可为null
+     * @param current 本次改写使用的规则快照
+     * @return 重写结果，无需改写或改写失败时为原sql
+     */
+    private RewriteResult doRun(String sql, RewriteContext context, RuleSnapshot current) {
+        long start = System.nanoTime();
+        if (parseFailureCache != null && sql != null && parseFailureCache.contains(sql)) {
+            parseFailureReporter.reportCached(sql);
+            recordOutcome(RewriteOutcome.PARSE_FAILED);
+
+            return RewriteResult.parseFailed(sql, true);
+        }
+        // 拼接输出需要AST节点偏移与原SQL一致，因此优先解析未清理的SQL，失败时再按常规方式解析
+        boolean spliceable = config.isSpliceOutputEnabled();
+        ParseResult parseResult = parse(sql, !spliceable);
+        if (spliceable && !parseResult.isSuccess() && parseResult.getError() == ErrorEnum.SQL_PARSE_ERROR) {
+            spliceable = false;
+            parseResult = parse(sql, true);
+        }
+        if (!parseResult.isSuccess()) {
+            // 超出解析限制与解析超时取决于负载与配置，不是SQL本身的问题，不计入负缓存，结果也不可缓存
+            boolean deterministic = parseResult.getError() != ErrorEnum.SQL_PARSE_LIMIT_EXCEEDED && parseResult.getError() != ErrorEnum.SQL_PARSE_TIMEOUT;
+            if (parseFailureCache != null && sql != null && deterministic) {
+                parseFailureCache.add(sql);
+            }
+            parseFailureReporter.report(sql, parseResult);
+            recordOutcome(RewriteOutcome.PARSE_FAILED);
 
-            return sql;
+            return RewriteResult.parseFailed(sql, deterministic);
         }
+        return rewriteStatement(parseResult.getStatement(), sql, spliceable, start, true,
+                context == null ? new RewriteContext() : context.newStatementContext(), current);
+    }
+
+    /**
+     * 解析SQL，启用解析保护时在超时限制内解析
+     *
+     * @param sql   sql
+     * @param clean 是否先清理SQL
+     * @return 解析结果
+     */
+    private ParseResult parse(String sql, boolean clean) {
+        String parseSql = sql;
+        if (clean) {
+            long cleanStart = metricsNanoTime();
+            parseSql = SqlFormatUtils.cleanSql(sql);
+            recordPhase(RewritePhase.CLEAN, cleanStart);
+        }
+        long parseStart = metricsNanoTime();
+        ParseResult parseResult = parseGuard == null ? JsqlParserUtils.tryParseSql(parseSql, false) : parseGuard.parse(parseSql, false);
+        recordPhase(RewritePhase.PARSE, parseStart);
+        return parseResult;
+    }
+
+    /**
+     * 对已解析的语句应用规则并反解析
+     * <p>
+     * 规则通过{@link RewriteContext}报告修改：语句未被修改时不做任何反解析，被修改时只反解析一次；
+     * 存在不支持变更跟踪的规则时，退化为比较应用前后的反解析结果。
+     * 启用拼接输出时，修改均已记录为编辑点则直接拼接进原sql，不再反解析。
+     * 每个规则应用前检查协作式取消，超过{@code rewriteTimeoutMillis}或线程被中断时放弃本次改写并返回原sql。
+     * </p>
+     *
+     * @param statement     语句
+     * @param sql           原sql
+     * @param spliceable    语句是否由未清理的原sql解析得到（可拼接输出）
+     * @param start         开始时间（System.nanoTime()）
+     * @param recordOutcome 是否向指标记录重写结果
+     * @param context       本条语句的重写上下文
+     * @param current       本次改写使用的规则快照
+     * @return 重写结果，无需改写或改写失败时为原sql实例
+     */
+    private RewriteResult rewriteStatement(Statement statement, String sql, boolean spliceable, long start, boolean recordOutcome, RewriteContext context,
+                                    RuleSnapshot current) {
         try {
-            String beforeSql = statement.toString();
-            for (IRule rule : rules) {
-                if (rule.match(statement)) {
-                    rule.apply(statement);
+            if (spliceable) {
+                context.enableEditRecording();
+            }
+            context.setTimeout(config.getRewriteTimeoutMillis());
+            // 仅当不支持变更跟踪的规则在语句尚未被修改时应用，才需要在应用前反解析以便比较
+            String beforeSql = null;
+            boolean untracked = false;
+            long matchNanos = 0L;
+            long applyNanos = 0L;
+            long deparseNanos = 0L;
+            long phaseStart = metricsNanoTime();
+            RuleDispatchIndex dispatchIndex = current.getDispatchIndex();
+            List<IRule> candidates = dispatchIndex == null ? current.getExecutionRules() : dispatchIndex.select(statement);
+            for (IRule rule : candidates) {
+                if (context.isCancelled()) {
+                    rewriteCancelledCount.increment();
+                    log.warn("SQLRewriteEngine.run, SQL重写已取消（超时或线程中断），耗时: {} ms, 返回原SQL: {}",
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), StrUtil.maxLength(sql, 256));
+                    if (recordOutcome) {
+                        recordOutcome(RewriteOutcome.RULE_FAILED);
+                    }
+
+                    return RewriteResult.failed(sql);
+                }
+                boolean matched = rule.match(statement);
+                matchNanos += elapsedMetricsNanos(phaseStart);
+                if (!matched) {
+                    phaseStart = metricsNanoTime();
+                    continue;
+                }
+                if (!rule.isChangeTracking()) {
+                    untracked = true;
+                    if (beforeSql == null && !context.isChanged()) {
+                        phaseStart = metricsNanoTime();
+                        beforeSql = statement.toString();
+                        deparseNanos += elapsedMetricsNanos(phaseStart);
+                    }
                 }
+                phaseStart = metricsNanoTime();
+                rule.apply(statement, context);
+                if (metrics != null) {
+                    long ruleNanos = System.nanoTime() - phaseStart;
+                    applyNanos += ruleNanos;
+                    metrics.recordRuleApply(rule, ruleNanos);
+                }
+                phaseStart = metricsNanoTime();
+            }
+            if (metrics != null) {
+                metrics.recordPhase(RewritePhase.MATCH, matchNanos);
+                metrics.recordPhase(RewritePhase.APPLY, applyNanos);
             }
-            String result = statement.toString();
-            if (StrUtil.equals(beforeSql, result)) {
+            if (!context.isChanged() && beforeSql == null) {
                 log.debug("SQLRewriteEngine.run, SQL无需重写，直接返回原SQL: {}", sql);
+                if (recordOutcome) {
+                    recordOutcome(RewriteOutcome.UNCHANGED);
+                }
+
+                return RewriteResult.unchanged(sql);
+            }
+            phaseStart = metricsNanoTime();
+            // 只应用了变更跟踪规则时，所有修改都已记录为编辑点，可直接拼接
+            String result = untracked ? null : verifySplice(context.splice(sql), statement);
+            if (result == null) {
+                result = statement.toString();
+            }
+            if (metrics != null) {
+                metrics.recordPhase(RewritePhase.DEPARSE, deparseNanos + System.nanoTime() - phaseStart);
+            }
+            if (!context.isChanged() && StrUtil.equals(beforeSql, result)) {
+                log.debug("SQLRewriteEngine.run, SQL无需重写，直接返回原SQL: {}", sql);
+                if (recordOutcome) {
+                    recordOutcome(RewriteOutcome.UNCHANGED);
+                }
 
-                return sql;
+                return RewriteResult.unchanged(sql);
+            }
+            if (recordOutcome) {
+                recordOutcome(RewriteOutcome.REWRITTEN);
             }
-            long cost = System.currentTimeMillis() - start;
-            log.debug("SQLRewriteEngine.run, SQL重写耗时: {} ms, \n原始SQL: {}, \n重写后SQL: {}", cost, sql, result);
-            return result;
+            if (log.isDebugEnabled()) {
+                log.debug("SQLRewriteEngine.run, SQL重写耗时: {} ms, \n原始SQL: {}, \n重写后SQL: {}", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), sql, result);
+            }
+            return RewriteResult.rewritten(result);
         } catch (Exception e) {
-            long cost = System.currentTimeMillis() - start;
-            log.error("SQLRewriteEngine.run, SQL重写失败，耗时: {} ms, \n原始SQL: {}, \n错误信息: {}", cost, sql, e.getMessage(), e);
-            return sql;
+            if (!recordOutcome) {
+                rethrowIfUnresolvedValue(e);
+                log.error("SQLRewriteEngine.run, SQL重写失败，耗时: {} ms, \n原始SQL: {}, \n错误信息: {}",
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), sql, e.getMessage(), e);
+                return RewriteResult.failed(sql);
+            }
+            return handleRewriteFailure(sql, e, start);
+        }
+    }
+
+    /**
+     * 校验拼接结果：编辑点按词法定位，无法完全排除误判，因此重新解析拼接后的SQL，
+     * 其反解析结果与改写后的AST一致时才采用拼接结果
+     *
+     * @param spliced   拼接后的SQL，可为null
+     * @param statement 改写后的语句
+     * @return 校验通过时返回拼接后的SQL，否则返回null（退回反解析）
+     */
+    private String verifySplice(String spliced, Statement statement) {
+        if (spliced == null) {
+            return null;
+        }
+        ParseResult parseResult = parse(spliced, false);
+        if (parseResult.isSuccess() && StrUtil.equals(parseResult.getStatement().toString(), statement.toString())) {
+            return spliced;
+        }
+        log.warn("SQLRewriteEngine.run, 拼接结果与改写后的语句不一致，退回反解析: {}", StrUtil.maxLength(spliced, 256));
+        return null;
+    }
+
+    /**
+     * 记录改写失败并原样返回sql
+     * <p>
+     * 值提供者无法从上下文取值（如缺少租户属性）时原样返回会放行缺少条件的SQL，因此不返回而是抛出异常。
+     * </p>
+     *
+     * @param sql   原sql
+     * @param e     异常
+     * @param start 开始时间（System.nanoTime()）
+     * @return 不可缓存的失败结果
+     */
+    private RewriteResult handleRewriteFailure(String sql, Exception e, long start) {
+        long cost = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        recordOutcome(RewriteOutcome.RULE_FAILED);
+        rethrowIfUnresolvedValue(e);
+        log.error("SQLRewriteEngine.run, SQL重写失败，耗时: {} ms, \n原始SQL: {}, \n错误信息: {}", cost, sql, e.getMessage(), e);
+        return RewriteResult.failed(sql);
+    }
+
+    /**
+     * 值提供者无法从上下文取值时抛出原异常
+     *
+     * @param e 规则应用中抛出的异常
+     */
+    private static void rethrowIfUnresolvedValue(Exception e) {
+        if (e instanceof SqlRewriteException && ErrorEnum.CONTEXT_ATTRIBUTE_MISSING.getCode().equals(((SqlRewriteException) e).getCode())) {
+            throw (SqlRewriteException) e;
+        }
+    }
+
+    /**
+     * 启用指标时返回当前纳秒时间，未启用时返回0，避免无谓的计时调用
+     */
+    private long metricsNanoTime() {
+
+        return metrics == null ? 0L : System.nanoTime();
+    }
+
+    private long elapsedMetricsNanos(long startNanos) {
+
+        return metrics == null ? 0L : System.nanoTime() - startNanos;
+    }
+
+    private void recordPhase(RewritePhase phase, long startNanos) {
+        if (metrics != null) {
+            metrics.recordPhase(phase, System.nanoTime() - startNanos);
+        }
+    }
+
+    private void recordOutcome(RewriteOutcome outcome) {
+        if (metrics != null) {
+            metrics.recordOutcome(outcome);
         }
     }
 }
@@ -0,0 +1,41 @@
+package io.github.anthem37.sql.rewiter.core.engine.metrics;
+
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+
+/**
+ * SQL重写指标SPI
+ * <p>
+ * 引擎在重写的热路径上同步回调，实现必须线程安全且足够轻量（不加锁、不做IO），
+ * 可在实现中转发到Micrometer、Prometheus等监控系统。默认实现见{@code HistogramRewriteMetrics}。
+ * 命中重写结果缓存的调用不经过重写流程，不会产生回调。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/26 09:20:48
+ */
+public interface IRewriteMetrics {
+
+    /**
+     * 记录一次阶段耗时
+     *
+     * @param phase 阶段
+     * @param nanos 耗时（纳秒）
+     */
+    void recordPhase(RewritePhase phase, long nanos);
+
+    /**
+     * 记录一次规则应用耗时
+     *
+     * @param rule  规则（启用规则融合时为融合后的规则）
+     * @param nanos 耗时（纳秒）
+     */
+    void recordRuleApply(IRule rule, long nanos);
+
+    /**
+     * 记录一次重写结果
+     *
+     * @param outcome 结果
+     */
+    void recordOutcome(RewriteOutcome outcome);
+
+}
@@ -0,0 +1,166 @@
+package io.github.anthem37.sql.rewiter.core.engine.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 无锁耗时直方图
+ * <p>
+ * 对数-线性分桶：每个2的幂区间再等分为8个子桶，相对误差不超过12.5%，覆盖全部非负long值，
+ * 桶数固定（488个），记录时只做一次无锁的原子自增，不分配对象。
+ * 读取通过{@link #snapshot()}复制桶计数完成，不会阻塞记录线程；快照与并发记录之间不保证原子一致。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/26 09:31:57
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 3;
+
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    private final LongAdder sum = new LongAdder();
+
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /**
+     * 记录一个值
+     *
+     * @param value 值（纳秒），负值按0记录
+     */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        counts.incrementAndGet(bucketIndex(v));
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    /**
+     * 获取当前快照
+     *
+     * @return 快照
+     */
+    public Snapshot snapshot() {
+        long[] copied = new long[BUCKETS];
+        long count = 0L;
+        for (int i = 0; i < BUCKETS; i++) {
+            copied[i] = counts.get(i);
+            count += copied[i];
+        }
+        return new Snapshot(copied, count, sum.sum(), max.get());
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        int shift = (Long.SIZE - 1 - Long.numberOfLeadingZeros(value)) - SUB_BUCKET_BITS;
+        int sub = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long lower = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * 直方图快照
+     */
+    public static final class Snapshot {
+
+        private final long[] counts;
+
+        private final long count;
+
+        private final long sum;
+
+        private final long max;
+
+        private Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * 记录次数
+         *
+         * @return 次数
+         */
+        public long getCount() {
+
+            return count;
+        }
+
+        /**
+         * 记录值之和
+         *
+         * @return 和
+         */
+        public long getSum() {
+
+            return sum;
+        }
+
+        /**
+         * 最大值
+         *
+         * @return 最大值
+         */
+        public long getMax() {
+
+            return max;
+        }
+
+        /**
+         * 平均值
+         *
+         * @return 平均值，无记录时返回0
+         */
+        public double getMean() {
+
+            return count == 0L ? 0D : (double) sum / count;
+        }
+
+        /**
+         * 分位数，返回所在桶的上界（不超过最大值）
+         *
+         * @param quantile 分位（0~1），如0.99
+         * @return 分位数，无记录时返回0
+         */
+        public long getValueAtQuantile(double quantile) {
+            if (count == 0L) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(Math.min(1D, Math.max(0D, quantile)) * count));
+            long seen = 0L;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        @Override
+        public String toString() {
+
+            return "Snapshot(count=" + count + ", mean=" + (long) getMean() + ", p50=" + getValueAtQuantile(0.5D)
+                    + ", p99=" + getValueAtQuantile(0.99D) + ", max=" + max + ")";
+        }
+    }
+
+}
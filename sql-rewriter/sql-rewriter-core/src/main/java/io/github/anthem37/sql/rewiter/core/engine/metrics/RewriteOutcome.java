@@ -0,0 +1,31 @@
+package io.github.anthem37.sql.rewiter.core.engine.metrics;
+
+/**
+ * SQL重写结果
+ *
+ * @author anthem37
+ * @since 2025/11/26 09:16:05
+ */
+public enum RewriteOutcome {
+
+    /**
+     * SQL被改写
+     */
+    REWRITTEN,
+
+    /**
+     * SQL无需改写（含词法预过滤跳过解析的SQL）
+     */
+    UNCHANGED,
+
+    /**
+     * SQL解析失败或超出解析限制，原样返回
+     */
+    PARSE_FAILED,
+
+    /**
+     * 规则应用失败或被取消，原样返回
+     */
+    RULE_FAILED
+
+}
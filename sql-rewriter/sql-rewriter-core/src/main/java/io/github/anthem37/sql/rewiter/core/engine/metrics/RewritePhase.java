@@ -0,0 +1,36 @@
+package io.github.anthem37.sql.rewiter.core.engine.metrics;
+
+/**
+ * SQL重写阶段
+ *
+ * @author anthem37
+ * @since 2025/11/26 09:14:22
+ */
+public enum RewritePhase {
+
+    /**
+     * 清理SQL（合并空白等）
+     */
+    CLEAN,
+
+    /**
+     * 解析SQL为AST
+     */
+    PARSE,
+
+    /**
+     * 选出候选规则并判断规则是否匹配
+     */
+    MATCH,
+
+    /**
+     * 应用规则（全部规则之和，单个规则的耗时通过{@link IRewriteMetrics#recordRuleApply}报告）
+     */
+    APPLY,
+
+    /**
+     * 反解析或拼接输出改写后的SQL
+     */
+    DEPARSE
+
+}
@@ -0,0 +1,95 @@
+package io.github.anthem37.sql.rewiter.core.engine.metrics.impl;
+
+import com.google.common.collect.MapMaker;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.IRewriteMetrics;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.LatencyHistogram;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.RewriteOutcome;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.RewritePhase;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 基于无锁直方图的默认重写指标实现
+ * <p>
+ * 每个阶段、每个规则各一个{@link LatencyHistogram}，结果计数使用{@link LongAdder}，
+ * 记录路径不加锁、不分配对象（规则首次出现时除外），读取方法随时可调用且不会阻塞重写线程。
+ * 规则按实例（引用相等）区分，规则被回收后对应的直方图随之释放。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/26 09:58:13
+ */
+public class HistogramRewriteMetrics implements IRewriteMetrics {
+
+    private final LatencyHistogram[] phases = new LatencyHistogram[RewritePhase.values().length];
+
+    private final LongAdder[] outcomes = new LongAdder[RewriteOutcome.values().length];
+
+    private final ConcurrentMap<IRule, LatencyHistogram> rules = new MapMaker().weakKeys().makeMap();
+
+    public HistogramRewriteMetrics() {
+        for (int i = 0; i < phases.length; i++) {
+            phases[i] = new LatencyHistogram();
+        }
+        for (int i = 0; i < outcomes.length; i++) {
+            outcomes[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void recordPhase(RewritePhase phase, long nanos) {
+        phases[phase.ordinal()].record(nanos);
+    }
+
+    @Override
+    public void recordRuleApply(IRule rule, long nanos) {
+        LatencyHistogram histogram = rules.get(rule);
+        if (histogram == null) {
+            histogram = rules.computeIfAbsent(rule, key -> new LatencyHistogram());
+        }
+        histogram.record(nanos);
+    }
+
+    @Override
+    public void recordOutcome(RewriteOutcome outcome) {
+        outcomes[outcome.ordinal()].increment();
+    }
+
+    /**
+     * 获取阶段耗时快照（纳秒）
+     *
+     * @param phase 阶段
+     * @return 快照
+     */
+    public LatencyHistogram.Snapshot getPhaseSnapshot(RewritePhase phase) {
+
+        return phases[phase.ordinal()].snapshot();
+    }
+
+    /**
+     * 获取各规则应用耗时快照（纳秒）
+     *
+     * @return 规则 -> 快照
+     */
+    public Map<IRule, LatencyHistogram.Snapshot> getRuleSnapshots() {
+        Map<IRule, LatencyHistogram.Snapshot> snapshots = new LinkedHashMap<>();
+        rules.forEach((rule, histogram) -> snapshots.put(rule, histogram.snapshot()));
+        return snapshots;
+    }
+
+    /**
+     * 获取结果计数
+     *
+     * @param outcome 结果
+     * @return 次数
+     */
+    public long getOutcomeCount(RewriteOutcome outcome) {
+
+        return outcomes[outcome.ordinal()].sum();
+    }
+
+}
@@ -0,0 +1,200 @@
+package io.github.anthem37.sql.rewiter.core.engine.script;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 转储文件的语句边界扫描器
+ * <p>
+ * 以内存映射窗口顺序扫描文件字节，识别单引号与双引号字符串、反引号标识符、单行与块注释，
+ * 在这些结构之外以“分号+换行”作为语句边界（mysqldump等工具的输出格式）。
+ * 反斜杠在MySQL中是转义符（双引号同样可以引用字符串），在解析器中不是，同一段字节按两种规则的引号边界可能不同，
+ * 因此同时按两种规则扫描，只有两者都位于引号与注释之外时才作为边界：边界只会更少，不会把解析器眼中的一条语句切开。
+ * 块内语句的最终切分由{@link ScriptRewriter}按解析器规则进行。
+ * 只比较ASCII字节，UTF-8多字节字符的各字节均不小于0x80，不会被误判。
+ * 未识别$tag$引用，其中的“分号+换行”可能被当作边界，此时被切开的语句无法解析而原样输出，输出内容仍与输入一致。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/27 14:31:06
+ */
+final class DumpChunkScanner {
+
+    private static final long WINDOW_SIZE = 64L << 20;
+
+    private static final int NORMAL = 0;
+
+    private static final int SINGLE_QUOTED = 1;
+
+    private static final int DOUBLE_QUOTED = 2;
+
+    private static final int BACKTICK_QUOTED = 3;
+
+    private static final int LINE_COMMENT = 4;
+
+    private static final int BLOCK_COMMENT = 5;
+
+    private final FileChannel channel;
+
+    private final long size;
+
+    /**
+     * 按MySQL规则（反斜杠为转义符）扫描的状态
+     */
+    private final QuoteState mysqlState = new QuoteState(true);
+
+    /**
+     * 按解析器规则（反斜杠不是转义符）扫描的状态
+     */
+    private final QuoteState parserState = new QuoteState(false);
+
+    private MappedByteBuffer window;
+
+    private long windowStart;
+
+    private long windowEnd;
+
+    /**
+     * 下一个待扫描字节的位置
+     */
+    private long position;
+
+    DumpChunkScanner(FileChannel channel) throws IOException {
+        this.channel = channel;
+        this.size = channel.size();
+    }
+
+    /**
+     * 扫描到不小于minEnd的第一个语句边界
+     *
+     * @param minEnd 块的最小结束位置
+     * @return 块结束位置（边界之后的第一个字节），到达文件末尾时返回文件大小
+     * @throws IOException 映射失败时抛出
+     */
+    long nextBoundary(long minEnd) throws IOException {
+        while (position < size) {
+            byte b = byteAt(position++);
+            // 两种规则都需要处理每个字节，不能短路
+            boolean outsideForMysql = mysqlState.accept(b);
+            boolean outsideForParser = parserState.accept(b);
+            if (outsideForMysql && outsideForParser && b == ';') {
+                long boundary = boundaryAfterSemicolon(position);
+                if (boundary >= minEnd) {
+                    position = boundary;
+                    return boundary;
+                }
+            }
+        }
+        position = size;
+        return size;
+    }
+
+    /**
+     * 分号之后紧跟换行（\n或\r\n）时返回换行之后的位置，否则返回-1
+     */
+    private long boundaryAfterSemicolon(long index) throws IOException {
+        int next = peek(index);
+        if (next == '\n') {
+            return index + 1;
+        }
+        if (next == '\r' && peek(index + 1) == '\n') {
+            return index + 2;
+        }
+        return -1L;
+    }
+
+    private int peek(long index) throws IOException {
+
+        return index < size ? byteAt(index) : -1;
+    }
+
+    private byte byteAt(long index) throws IOException {
+        if (index < windowStart || index >= windowEnd || window == null) {
+            windowStart = index;
+            windowEnd = Math.min(size, index + WINDOW_SIZE);
+            window = channel.map(FileChannel.MapMode.READ_ONLY, windowStart, windowEnd - windowStart);
+        }
+        return window.get((int) (index - windowStart));
+    }
+
+    /**
+     * 按一种转义规则跟踪的引号与注释状态
+     */
+    private final class QuoteState {
+
+        /**
+         * 字符串中的反斜杠是否为转义符
+         */
+        private final boolean backslashEscapes;
+
+        private int state = NORMAL;
+
+        /**
+         * 下一个字节属于当前结构（转义字符或注释的第二个字符），直接跳过
+         */
+        private boolean skipNext;
+
+        private QuoteState(boolean backslashEscapes) {
+            this.backslashEscapes = backslashEscapes;
+        }
+
+        /**
+         * 处理位于position - 1的字节
+         *
+         * @param b 字节
+         * @return 该字节是否位于引号与注释之外（且本身不开启引号或注释）
+         * @throws IOException 映射失败时抛出
+         */
+        private boolean accept(byte b) throws IOException {
+            if (skipNext) {
+                skipNext = false;
+                return false;
+            }
+            switch (state) {
+                case NORMAL:
+                    if (b == '\'') {
+                        state = SINGLE_QUOTED;
+                    } else if (b == '"') {
+                        state = DOUBLE_QUOTED;
+                    } else if (b == '`') {
+                        state = BACKTICK_QUOTED;
+                    } else if (b == '-' && peek(position) == '-') {
+                        skipNext = true;
+                        state = LINE_COMMENT;
+                    } else if (b == '/' && peek(position) == '*') {
+                        skipNext = true;
+                        state = BLOCK_COMMENT;
+                    } else {
+                        return true;
+                    }
+                    return false;
+                case SINGLE_QUOTED:
+                case DOUBLE_QUOTED:
+                    if (backslashEscapes && b == '\\') {
+                        skipNext = true;
+                    } else if (b == (state == SINGLE_QUOTED ? '\'' : '"')) {
+                        state = NORMAL;
+                    }
+                    return false;
+                case BACKTICK_QUOTED:
+                    if (b == '`') {
+                        state = NORMAL;
+                    }
+                    return false;
+                case LINE_COMMENT:
+                    if (b == '\n') {
+                        state = NORMAL;
+                    }
+                    return false;
+                default:
+                    if (b == '*' && peek(position) == '/') {
+                        skipNext = true;
+                        state = NORMAL;
+                    }
+                    return false;
+            }
+        }
+    }
+
+}
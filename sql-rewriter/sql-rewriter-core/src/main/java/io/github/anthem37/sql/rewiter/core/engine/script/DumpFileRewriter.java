@@ -0,0 +1,226 @@
+package io.github.anthem37.sql.rewiter.core.engine.script;
+
+import io.github.anthem37.sql.rewiter.core.engine.RewriteResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * 大体积SQL转储文件重写器
+ * <p>
+ * 面向mysqldump等工具导出的数十GB转储文件：
+ * 1. 调用线程以内存映射窗口顺序扫描输入文件，按语句边界（见{@link DumpChunkScanner}）切分为约{@code chunkBytes}大小的块。
+ * 2. 各块提交到工作线程池并行改写，每块内部按{@link ScriptRewriter}逐条语句改写。
+ * 3. 独立的写线程按块的原始顺序取回结果并写入输出文件，与扫描、改写并行进行。
+ * 在途块数量有上限（线程数的2倍），内存占用与文件大小无关。
+ * 块按UTF-8解码，非法UTF-8字节（如未使用--hex-blob导出的二进制列）逐字节无损保留（见{@link LosslessUtf8Codec}），
+ * 不影响同一块中其他语句的解码与改写；改写结果含无法编码的字符时以异常结束，不会静默写出替换字符。
+ * 块内语句的切分规则与解析器一致，解析失败且含分号的语句计入{@link DumpRewriteResult#getSuspiciousCount()}。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/27 15:26:53
+ */
+@Slf4j
+public class DumpFileRewriter {
+
+    /**
+     * 默认块大小（字节）
+     */
+    public static final int DEFAULT_CHUNK_BYTES = 8 << 20;
+
+    private static final AtomicInteger POOL_SEQUENCE = new AtomicInteger();
+
+    private static final long OFFER_TIMEOUT_MILLIS = 100L;
+
+    private final int threads;
+
+    private final int chunkBytes;
+
+    private final ScriptRewriter scriptRewriter;
+
+    public DumpFileRewriter(int threads, int chunkBytes, ScriptRewriter scriptRewriter) {
+        this.threads = Math.max(1, threads);
+        this.chunkBytes = Math.max(1, chunkBytes);
+        this.scriptRewriter = scriptRewriter;
+    }
+
+    /**
+     * 重写转储文件
+     *
+     * @param input    输入文件
+     * @param output   输出文件，已存在时覆盖
+     * @param rewriter 单条语句的改写函数，需线程安全
+     * @return 重写结果
+     * @throws IOException 读写失败时抛出
+     */
+    public DumpRewriteResult rewrite(Path input, Path output, Function<String, String> rewriter) throws IOException {
+
+        return rewriteWithResult(input, output, sql -> {
+            String result = rewriter.apply(sql);
+            return result == null || result.equals(sql) ? RewriteResult.unchanged(sql) : RewriteResult.rewritten(result);
+        });
+    }
+
+    /**
+     * 重写转储文件，改写函数同时给出结果类型，解析失败且含分号的语句会被单独计数
+     *
+     * @param input    输入文件
+     * @param output   输出文件，已存在时覆盖
+     * @param rewriter 单条语句的改写函数，需线程安全
+     * @return 重写结果
+     * @throws IOException 读写失败时抛出
+     */
+    public DumpRewriteResult rewriteWithResult(Path input, Path output, Function<String, RewriteResult> rewriter) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, threadFactory("sql-rewriter-dump-"));
+        ExecutorService writerThread = Executors.newSingleThreadExecutor(threadFactory("sql-rewriter-dump-writer-"));
+        BlockingQueue<Future<Chunk>> pending = new ArrayBlockingQueue<>(threads * 2);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Future<long[]> writing = writerThread.submit(() -> writeInOrder(pending, out));
+            DumpChunkScanner scanner = new DumpChunkScanner(in);
+            long size = in.size();
+            long chunkStart = 0L;
+            long chunkCount = 0L;
+            while (chunkStart < size) {
+                long chunkEnd = scanner.nextBoundary(chunkStart + chunkBytes);
+                if (chunkEnd - chunkStart > Integer.MAX_VALUE - 8) {
+                    throw new IOException("单个语句超过2GB，无法重写，起始位置: " + chunkStart);
+                }
+                long from = chunkStart;
+                enqueue(pending, workers.submit(() -> rewriteChunk(in, from, chunkEnd, rewriter)), writing);
+                chunkCount++;
+                chunkStart = chunkEnd;
+            }
+            enqueue(pending, CompletableFuture.completedFuture(Chunk.END), writing);
+            long[] totals = await(writing);
+            DumpRewriteResult result = new DumpRewriteResult(size, totals[0], chunkCount, totals[1], totals[2], totals[3], System.nanoTime() - start);
+            if (result.getSuspiciousCount() > 0) {
+                log.warn("DumpFileRewriter.rewrite, {} 条语句解析失败且含分号，可能是多条语句被合并，已原样输出: {}", result.getSuspiciousCount(), input);
+            }
+            log.info("DumpFileRewriter.rewrite, 转储文件重写完成: {} -> {}, 吞吐量: {} MB/s, 统计: {}",
+                    input, output, String.format("%.1f", result.getThroughputMbPerSecond()), result);
+            return result;
+        } finally {
+            workers.shutdownNow();
+            writerThread.shutdownNow();
+        }
+    }
+
+    private Chunk rewriteChunk(FileChannel in, long from, long to, Function<String, RewriteResult> rewriter) throws IOException {
+        int length = (int) (to - from);
+        String text = LosslessUtf8Codec.decode(in.map(FileChannel.MapMode.READ_ONLY, from, length));
+        StringWriter writer = new StringWriter(length + (length >> 4));
+        ScriptRewriteResult stats = scriptRewriter.rewriteWithResult(new StringReader(text), writer, rewriter);
+        ByteBuffer encoded;
+        try {
+            encoded = LosslessUtf8Codec.encode(writer.getBuffer());
+        } catch (IOException e) {
+            throw new IOException("转储文件块改写结果无法写出，起始位置: " + from + ", " + e.getMessage(), e);
+        }
+        return new Chunk(encoded, stats.getStatementCount(), stats.getRewrittenCount(), stats.getSuspiciousCount());
+    }
+
+    /**
+     * 写线程：按提交顺序等待各块完成并写出
+     *
+     * @return [写出字节数, 语句数, 改写语句数, 可疑语句数]
+     */
+    private static long[] writeInOrder(BlockingQueue<Future<Chunk>> pending, FileChannel out) throws Exception {
+        long[] totals = new long[4];
+        while (true) {
+            Chunk chunk = pending.take().get();
+            if (chunk == Chunk.END) {
+                return totals;
+            }
+            totals[0] += chunk.bytes.remaining();
+            while (chunk.bytes.hasRemaining()) {
+                out.write(chunk.bytes);
+            }
+            totals[1] += chunk.statementCount;
+            totals[2] += chunk.rewrittenCount;
+            totals[3] += chunk.suspiciousCount;
+        }
+    }
+
+    /**
+     * 放入在途队列，队列已满时等待；写线程异常结束时立即抛出其异常，避免永久阻塞
+     */
+    private static void enqueue(BlockingQueue<Future<Chunk>> pending, Future<Chunk> chunk, Future<long[]> writing) throws IOException {
+        try {
+            while (!pending.offer(chunk, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (writing.isDone()) {
+                    await(writing);
+                    throw new IOException("写线程已提前结束");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("转储文件重写被中断", e);
+        }
+    }
+
+    private static long[] await(Future<long[]> writing) throws IOException {
+        try {
+            return writing.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("转储文件重写被中断", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof ExecutionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("转储文件重写失败", cause);
+        }
+    }
+
+    private static ThreadFactory threadFactory(String namePrefix) {
+        String prefix = namePrefix + POOL_SEQUENCE.incrementAndGet() + "-";
+        AtomicInteger threadSequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + threadSequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static final class Chunk {
+
+        private static final Chunk END = new Chunk(ByteBuffer.allocate(0), 0L, 0L, 0L);
+
+        private final ByteBuffer bytes;
+
+        private final long statementCount;
+
+        private final long rewrittenCount;
+
+        private final long suspiciousCount;
+
+        private Chunk(ByteBuffer bytes, long statementCount, long rewrittenCount, long suspiciousCount) {
+            this.bytes = bytes;
+            this.statementCount = statementCount;
+            this.rewrittenCount = rewrittenCount;
+            this.suspiciousCount = suspiciousCount;
+        }
+    }
+
+}
@@ -0,0 +1,77 @@
+package io.github.anthem37.sql.rewiter.core.engine.script;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 转储文件重写结果
+ *
+ * @author anthem37
+ * @since 2025/11/27 15:02:48
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public final class DumpRewriteResult {
+
+    private static final double BYTES_PER_MB = 1024D * 1024D;
+
+    /**
+     * 读取的字节数
+     */
+    private final long bytesRead;
+
+    /**
+     * 写出的字节数
+     */
+    private final long bytesWritten;
+
+    /**
+     * 切分出的块数量
+     */
+    private final long chunkCount;
+
+    /**
+     * 语句数量
+     */
+    private final long statementCount;
+
+    /**
+     * 被改写的语句数量
+     */
+    private final long rewrittenCount;
+
+    /**
+     * 解析失败且含分号而原样输出的语句数量，可能是切分错误合并的多条语句，其中的语句未被改写
+     */
+    private final long suspiciousCount;
+
+    /**
+     * 耗时（纳秒）
+     */
+    private final long elapsedNanos;
+
+    /**
+     * 耗时（毫秒）
+     *
+     * @return 耗时
+     */
+    public long getElapsedMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+    /**
+     * 按读取字节数计算的吞吐量（MB/s）
+     *
+     * @return 吞吐量
+     */
+    public double getThroughputMbPerSecond() {
+
+        return elapsedNanos <= 0L ? 0D : bytesRead / BYTES_PER_MB / (elapsedNanos / 1_000_000_000D);
+    }
+
+}
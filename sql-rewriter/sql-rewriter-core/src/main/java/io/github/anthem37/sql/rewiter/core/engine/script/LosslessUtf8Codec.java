@@ -0,0 +1,105 @@
+package io.github.anthem37.sql.rewiter.core.engine.script;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 字节级无损的UTF-8编解码
+ * <p>
+ * 转储文件中可能夹杂非法UTF-8字节（如未使用--hex-blob导出的二进制列）：
+ * 解码时每个非法字节转换为一个不成对的低位代理字符（U+DC00 | 字节值），合法部分按UTF-8正常解码；
+ * 编码时再将这些字符还原为原字节，因此未被改写的部分与输入逐字节一致，其余语句不受影响。
+ * 合法的UTF-8不会解码出不成对的代理字符，二者不会混淆。
+ * 输出中含其他无法编码的字符（规则产生的不成对代理字符）时抛出异常，不会静默替换。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/12/01 15:08:42
+ */
+final class LosslessUtf8Codec {
+
+    /**
+     * 非法字节对应字符的基值，低8位为字节值
+     */
+    private static final char ESCAPE_BASE = 0xDC00;
+
+    private LosslessUtf8Codec() {
+    }
+
+    /**
+     * 解码，非法字节逐个转换为代理字符
+     *
+     * @param bytes 字节，读取到末尾
+     * @return 文本
+     */
+    static String decode(ByteBuffer bytes) {
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        // UTF-8每个字节最多解码出一个字符，非法字节同样只对应一个字符，不会溢出
+        CharBuffer chars = CharBuffer.allocate(bytes.remaining());
+        CoderResult result = decoder.decode(bytes, chars, true);
+        while (result.isError()) {
+            for (int i = 0; i < result.length(); i++) {
+                chars.put((char) (ESCAPE_BASE | (bytes.get() & 0xFF)));
+            }
+            result = decoder.decode(bytes, chars, true);
+        }
+        decoder.flush(chars);
+        chars.flip();
+        return chars.toString();
+    }
+
+    /**
+     * 编码，代理字符还原为原字节
+     *
+     * @param text 文本
+     * @return 字节，可直接读取
+     * @throws IOException 含无法编码的字符时抛出
+     */
+    static ByteBuffer encode(CharSequence text) throws IOException {
+        CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPORT)
+                .onUnmappableCharacter(CodingErrorAction.REPORT);
+        CharBuffer chars = CharBuffer.wrap(text);
+        ByteBuffer bytes = ByteBuffer.allocate(text.length() + (text.length() >> 3) + 16);
+        while (true) {
+            CoderResult result = encoder.encode(chars, bytes, true);
+            if (result.isUnderflow()) {
+                result = encoder.flush(bytes);
+                if (result.isUnderflow()) {
+                    break;
+                }
+            }
+            if (result.isOverflow()) {
+                bytes = grow(bytes);
+                continue;
+            }
+            char c = chars.get(chars.position());
+            if (result.length() != 1 || (c & 0xFF00) != ESCAPE_BASE) {
+                throw new IOException(String.format("改写后的SQL含无法按UTF-8编码的字符 U+%04X，位置: %d", (int) c, chars.position()));
+            }
+            if (!bytes.hasRemaining()) {
+                bytes = grow(bytes);
+            }
+            bytes.put((byte) c);
+            chars.get();
+        }
+        bytes.flip();
+        return bytes;
+    }
+
+    private static ByteBuffer grow(ByteBuffer bytes) {
+        ByteBuffer larger = ByteBuffer.allocate(bytes.capacity() * 2);
+        bytes.flip();
+        larger.put(bytes);
+        return larger;
+    }
+
+}
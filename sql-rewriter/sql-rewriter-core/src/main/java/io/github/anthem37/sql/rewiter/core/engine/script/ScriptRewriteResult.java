@@ -0,0 +1,60 @@
+package io.github.anthem37.sql.rewiter.core.engine.script;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 脚本重写结果
+ *
+ * @author anthem37
+ * @since 2025/11/27 10:05:32
+ */
+@Getter
+@AllArgsConstructor
+@ToString
+public final class ScriptRewriteResult {
+
+    /**
+     * 脚本中的语句数量（不含只有空白与注释的片段）
+     */
+    private final long statementCount;
+
+    /**
+     * 被改写的语句数量
+     */
+    private final long rewrittenCount;
+
+    /**
+     * 超过单条语句长度上限而原样输出的语句数量
+     */
+    private final long oversizedCount;
+
+    /**
+     * 解析失败且含分号而原样输出的语句数量，可能是切分错误合并的多条语句，其中的语句未被改写
+     */
+    private final long suspiciousCount;
+
+    /**
+     * 读取的字符数
+     */
+    private final long charCount;
+
+    /**
+     * 耗时（纳秒）
+     */
+    private final long elapsedNanos;
+
+    /**
+     * 耗时（毫秒）
+     *
+     * @return 耗时
+     */
+    public long getElapsedMillis() {
+
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+    }
+
+}
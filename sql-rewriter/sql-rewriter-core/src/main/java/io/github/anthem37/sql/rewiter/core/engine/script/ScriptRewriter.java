@@ -0,0 +1,210 @@
+package io.github.anthem37.sql.rewiter.core.engine.script;
+
+import io.github.anthem37.sql.rewiter.core.engine.RewriteResult;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.RewriteOutcome;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlLexer;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlTokenType;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.function.Function;
+
+/**
+ * 多语句脚本重写器
+ * <p>
+ * 从{@link Reader}分块读取脚本，通过{@link SqlLexer}按分号切分语句（字符串字面量、带引号的标识符、注释与$tag$引用中的分号不会被切分，
+ * 字面量边界与解析器一致，反斜杠不是转义符），
+ * 每切出一条语句立即改写并写入{@link Writer}，内存占用只与单条语句的长度有关，与脚本大小无关：
+ * 1. 语句前后的空白与注释原样输出，只有语句本身交给改写函数，分号原样保留。
+ * 2. 单条语句（含尚未结束的词法单元）超过长度上限时不再缓存，直接原样输出直到该语句结束。
+ * 3. 未结束的词法单元（如超长或未闭合的字符串）在缓冲区中待扫描的内容增长一倍后才重新扫描，总扫描量与脚本长度成线性关系。
+ * 4. 解析失败且含分号的语句可能是切分错误合并的多条语句（如按MySQL规则书写的反斜杠转义），原样输出但单独计数并输出WARN日志，
+ * 调用方应检查{@link ScriptRewriteResult#getSuspiciousCount()}，不能假定其中的语句都已被改写。
+ * 不支持以非分号作为分隔符的脚本（如存储过程定义中的DELIMITER切换）。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/27 10:21:17
+ */
+@Slf4j
+public class ScriptRewriter {
+
+    /**
+     * 词法单元之后需要保留的预读字符数，保证跨读取块的$tag$、前缀字符串等能被正确识别
+     */
+    private static final int LOOKAHEAD = 64;
+
+    /**
+     * 默认单条语句最大长度（字符数）
+     */
+    public static final int DEFAULT_MAX_STATEMENT_LENGTH = 1 << 20;
+
+    /**
+     * 默认每次读取的字符数
+     */
+    public static final int DEFAULT_READ_BUFFER_SIZE = 8192;
+
+    /**
+     * 单条语句最大长度（字符数）
+     */
+    private final int maxStatementLength;
+
+    /**
+     * 每次读取的字符数
+     */
+    private final int readBufferSize;
+
+    public ScriptRewriter(int maxStatementLength, int readBufferSize) {
+        this.maxStatementLength = Math.max(1, maxStatementLength);
+        this.readBufferSize = Math.max(LOOKAHEAD, readBufferSize);
+    }
+
+    /**
+     * 重写脚本
+     *
+     * @param reader   脚本输入，不会被关闭
+     * @param writer   改写后的脚本输出，不会被关闭（会被flush）
+     * @param rewriter 单条语句的改写函数
+     * @return 重写结果
+     * @throws IOException 读写失败时抛出
+     */
+    public ScriptRewriteResult rewrite(Reader reader, Writer writer, Function<String, String> rewriter) throws IOException {
+
+        return rewriteWithResult(reader, writer, sql -> {
+            String result = rewriter.apply(sql);
+            return result == null || result.equals(sql) ? RewriteResult.unchanged(sql) : RewriteResult.rewritten(result);
+        });
+    }
+
+    /**
+     * 重写脚本，改写函数同时给出结果类型，解析失败且含分号的语句会被单独计数
+     *
+     * @param reader   脚本输入，不会被关闭
+     * @param writer   改写后的脚本输出，不会被关闭（会被flush）
+     * @param rewriter 单条语句的改写函数
+     * @return 重写结果
+     * @throws IOException 读写失败时抛出
+     */
+    public ScriptRewriteResult rewriteWithResult(Reader reader, Writer writer, Function<String, RewriteResult> rewriter) throws IOException {
+        long start = System.nanoTime();
+        Counter counter = new Counter();
+        StringBuilder buffer = new StringBuilder(readBufferSize * 2);
+        char[] chunk = new char[readBufferSize];
+        long charCount = 0L;
+        // 当前语句在缓冲区中的起始位置，以及已确认的词法单元结束位置（下次从这里继续扫描）
+        int statementStart = 0;
+        int scanned = 0;
+        // 再次扫描前待扫描内容（scanned之后）至少需要达到的长度
+        int rescanLength = 0;
+        boolean passThrough = false;
+        boolean eof = false;
+        while (true) {
+            if (eof || buffer.length() - scanned >= rescanLength) {
+                rescanLength = 0;
+                SqlLexer lexer = new SqlLexer(buffer, scanned, buffer.length());
+                while (lexer.next()) {
+                    if (!eof && lexer.getTokenEnd() + LOOKAHEAD > buffer.length()) {
+                        // 词法单元可能延续到尚未读取的内容，待扫描内容增长一倍后再从该词法单元开始扫描
+                        rescanLength = 2 * (buffer.length() - scanned);
+                        break;
+                    }
+                    scanned = lexer.getTokenEnd();
+                    if (lexer.getTokenType() == SqlTokenType.SYMBOL && lexer.isSymbol(';')) {
+                        if (passThrough) {
+                            writer.append(buffer, statementStart, scanned);
+                            passThrough = false;
+                        } else {
+                            writeStatement(buffer, statementStart, lexer.getTokenStart(), charCount - buffer.length(), writer, rewriter, counter);
+                            writer.write(';');
+                        }
+                        statementStart = scanned;
+                    }
+                }
+            }
+            if (!passThrough && buffer.length() - statementStart > maxStatementLength) {
+                log.warn("ScriptRewriter.rewrite, 语句长度超过上限 {}，原样输出该语句", maxStatementLength);
+                passThrough = true;
+                counter.oversized++;
+            }
+            if (passThrough) {
+                writer.append(buffer, statementStart, scanned);
+                statementStart = scanned;
+            }
+            if (eof) {
+                break;
+            }
+            // 丢弃已输出的内容，缓冲区只保留当前语句
+            buffer.delete(0, statementStart);
+            scanned -= statementStart;
+            statementStart = 0;
+            int read = reader.read(chunk);
+            if (read < 0) {
+                eof = true;
+            } else {
+                buffer.append(chunk, 0, read);
+                charCount += read;
+            }
+        }
+        if (passThrough) {
+            writer.append(buffer, statementStart, buffer.length());
+        } else {
+            writeStatement(buffer, statementStart, buffer.length(), charCount - buffer.length(), writer, rewriter, counter);
+        }
+        writer.flush();
+        ScriptRewriteResult result = new ScriptRewriteResult(counter.statements, counter.rewritten, counter.oversized, counter.suspicious, charCount, System.nanoTime() - start);
+        log.debug("ScriptRewriter.rewrite, 脚本重写完成: {}", result);
+        return result;
+    }
+
+    /**
+     * 输出buffer[start, end)中的一条语句：首尾的空白与注释原样输出，中间部分改写后输出
+     *
+     * @param bufferOffset 缓冲区首字符在脚本中的位置，用于日志
+     */
+    private static void writeStatement(StringBuilder buffer, int start, int end, long bufferOffset, Writer writer,
+                                       Function<String, RewriteResult> rewriter, Counter counter) throws IOException {
+        SqlLexer lexer = new SqlLexer(buffer, start, end);
+        int bodyStart = -1;
+        int bodyEnd = -1;
+        while (lexer.nextSignificant()) {
+            if (bodyStart < 0) {
+                bodyStart = lexer.getTokenStart();
+            }
+            bodyEnd = lexer.getTokenEnd();
+        }
+        if (bodyStart < 0) {
+            writer.append(buffer, start, end);
+            return;
+        }
+        String body = buffer.substring(bodyStart, bodyEnd);
+        RewriteResult rewriteResult = rewriter.apply(body);
+        String result = rewriteResult.getSql();
+        counter.statements++;
+        if (rewriteResult.getOutcome() == RewriteOutcome.PARSE_FAILED && body.indexOf(';') >= 0) {
+            log.warn("ScriptRewriter.rewrite, 语句解析失败且含分号，可能是多条语句被合并，已原样输出，位置: {}", bufferOffset + bodyStart);
+            counter.suspicious++;
+        }
+        if (result != null && result != body && !result.equals(body)) {
+            counter.rewritten++;
+        } else {
+            result = body;
+        }
+        writer.append(buffer, start, bodyStart);
+        writer.write(result);
+        writer.append(buffer, bodyEnd, end);
+    }
+
+    private static final class Counter {
+
+        private long statements;
+
+        private long rewritten;
+
+        private long oversized;
+
+        private long suspicious;
+    }
+
+}
@@ -0,0 +1,96 @@
+package io.github.anthem37.sql.rewiter.core.engine.support;
+
+import cn.hutool.core.util.StrUtil;
+import io.github.anthem37.sql.rewiter.core.parser.ParseResult;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SQL解析失败的限频汇总日志
+ * <p>
+ * 每个统计周期最多输出一条WARN日志，内容为周期内的失败次数以及最近一条失败SQL与原因，
+ * 不生成堆栈字符串；完整堆栈仅在DEBUG级别开启时输出。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/21 10:07:43
+ */
+@Slf4j
+public class ParseFailureReporter {
+
+    /**
+     * 日志中SQL的最大长度
+     */
+    private static final int MAX_SQL_LENGTH = 512;
+
+    private final long intervalNanos;
+
+    private final AtomicLong lastLogNanos;
+
+    private final LongAdder failures = new LongAdder();
+
+    private final LongAdder cachedFailures = new LongAdder();
+
+    private final LongAdder totalFailures = new LongAdder();
+
+    public ParseFailureReporter(long intervalMillis) {
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0L, intervalMillis));
+        // 保证第一次失败立即输出
+        this.lastLogNanos = new AtomicLong(System.nanoTime() - this.intervalNanos);
+    }
+
+    /**
+     * 报告一次解析失败
+     *
+     * @param sql    sql
+     * @param result 解析结果
+     */
+    public void report(String sql, ParseResult result) {
+        failures.increment();
+        totalFailures.increment();
+        if (log.isDebugEnabled()) {
+            log.debug("SQLRewriteEngine.run, SQL不支持重写，直接返回原SQL: \nSQL: {}", sql, result.getCause());
+        }
+        tryLog(sql, result.getErrorMessage());
+    }
+
+    /**
+     * 报告一次命中负缓存的解析失败
+     *
+     * @param sql sql
+     */
+    public void reportCached(String sql) {
+        cachedFailures.increment();
+        totalFailures.increment();
+        tryLog(sql, null);
+    }
+
+    /**
+     * 累计解析失败次数（含命中负缓存的次数）
+     *
+     * @return 次数
+     */
+    public long getTotalFailures() {
+
+        return totalFailures.sum();
+    }
+
+    private void tryLog(String sql, String errorMessage) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        long now = System.nanoTime();
+        long last = lastLogNanos.get();
+        if (now - last < intervalNanos || !lastLogNanos.compareAndSet(last, now)) {
+            return;
+        }
+        long parsed = failures.sumThenReset();
+        long cached = cachedFailures.sumThenReset();
+        log.warn("SQLRewriteEngine.run, SQL不支持重写，直接返回原SQL，统计周期内解析失败: {} 次, 命中负缓存: {} 次, \n最近一条SQL: {} \n原因: {}",
+                parsed, cached, StrUtil.maxLength(sql, MAX_SQL_LENGTH), StrUtil.blankToDefault(errorMessage, "已知解析失败"));
+    }
+
+}
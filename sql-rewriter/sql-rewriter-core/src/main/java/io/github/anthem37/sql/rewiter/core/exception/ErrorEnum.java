@@ -15,7 +15,11 @@ import lombok.Getter;
 public enum ErrorEnum {
     SQL_BLANK("sql_blank", "SQL语句为空"),
     SQL_PARSE_ERROR("sql_parse_error", "SQL解析异常: {}"),
-    SQL_REWRITE_ERROR("sql_rewrite_error", "SQL重写异常: {}");
+    SQL_PARSE_LIMIT_EXCEEDED("sql_parse_limit_exceeded", "SQL超出解析限制: {}"),
+    SQL_PARSE_TIMEOUT("sql_parse_timeout", "SQL解析超时（{} ms）: {}"),
+    SQL_REWRITE_ERROR("sql_rewrite_error", "SQL重写异常: {}"),
+    ASYNC_REWRITE_REJECTED("async_rewrite_rejected", "异步重写任务被拒绝，待处理任务数已达上限: {}"),
+    CONTEXT_ATTRIBUTE_MISSING("context_attribute_missing", "重写上下文缺少属性: {}");
 
     /**
      * 错误码
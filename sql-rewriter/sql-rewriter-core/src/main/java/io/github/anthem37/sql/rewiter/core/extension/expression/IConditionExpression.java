@@ -1,5 +1,6 @@
 package io.github.anthem37.sql.rewiter.core.extension.expression;
 
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import net.sf.jsqlparser.expression.Expression;
 
 /**
@@ -12,6 +13,10 @@ public interface IConditionExpression extends Expression {
 
     /**
      * 重新构造别名表达式
+     * <p>
+     * 返回的表达式会被直接插入AST，且可能同时出现在多个线程的AST中，实现应保证其构造后不可修改；
+     * 满足这一点时可以按别名缓存并重复返回同一实例。
+     * </p>
      *
      * @param alias 别名
      * @return 重新构造后的条件表达式
@@ -20,4 +25,18 @@ public interface IConditionExpression extends Expression {
 
         return this;
     }
+
+    /**
+     * 通过重写上下文解析条件中的值提供者
+     * <p>
+     * 不含值提供者的条件返回自身。
+     * </p>
+     *
+     * @param context 重写上下文，可为null
+     * @return 解析后的条件表达式
+     */
+    default IConditionExpression resolveValues(RewriteContext context) {
+
+        return this;
+    }
 }
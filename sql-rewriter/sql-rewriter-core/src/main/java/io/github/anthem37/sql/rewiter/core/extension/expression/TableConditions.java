@@ -0,0 +1,240 @@
+package io.github.anthem37.sql.rewiter.core.extension.expression;
+
+import cn.hutool.core.util.ObjectUtil;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
+import net.sf.jsqlparser.expression.Alias;
+import net.sf.jsqlparser.schema.Table;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 表名到条件表达式的映射
+ * <p>
+ * 供添加条件的访问器使用，按添加顺序（即规则优先级顺序）保存若干"目标表名-条件表达式"条目。
+ * 单条目时与{@link JsqlParserUtils#equalToTableName(String, Table)}的匹配语义完全一致；
+ * 多条目时按归一化表名建立哈希索引，一次查找即可得到某个表（按表名或别名）命中的全部条目，
+ * 从而多个规则可以在一次AST遍历中完成。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/22 15:11:40
+ */
+public final class TableConditions {
+
+    private static final int[] NONE = new int[0];
+
+    private static final int[] FIRST = new int[]{0};
+
+    /**
+     * 目标表名
+     */
+    private final String[] tableNames;
+
+    /**
+     * 条件表达式
+     */
+    private final IConditionExpression[] conditions;
+
+    /**
+     * 归一化表名 -> 条目序号（升序），仅多条目时使用
+     */
+    private final Map<String, int[]> index;
+
+    private TableConditions(String[] tableNames, IConditionExpression[] conditions, Map<String, int[]> index) {
+        this.tableNames = tableNames;
+        this.conditions = conditions;
+        this.index = index;
+    }
+
+    private TableConditions(String[] tableNames, IConditionExpression[] conditions) {
+        this.tableNames = tableNames;
+        this.conditions = conditions;
+        if (tableNames.length <= 1) {
+            this.index = Collections.emptyMap();
+            return;
+        }
+        Map<String, List<Integer>> grouped = new HashMap<>();
+        for (int i = 0; i < tableNames.length; i++) {
+            String key = normalize(tableNames[i]);
+            if (key != null) {
+                grouped.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+        Map<String, int[]> built = new HashMap<>(grouped.size() * 2);
+        grouped.forEach((key, ordinals) -> built.put(key, ordinals.stream().mapToInt(Integer::intValue).toArray()));
+        this.index = built;
+    }
+
+    /**
+     * 单个目标表的条件映射
+     *
+     * @param tableName           目标表名
+     * @param conditionExpression 条件表达式
+     * @return 条件映射
+     */
+    public static TableConditions of(String tableName, IConditionExpression conditionExpression) {
+
+        return new TableConditions(new String[]{tableName}, new IConditionExpression[]{conditionExpression});
+    }
+
+    /**
+     * 多个目标表的条件映射，条目顺序即条件的添加顺序
+     *
+     * @param tableNames 目标表名
+     * @param conditions 条件表达式，与表名一一对应
+     * @return 条件映射
+     */
+    public static TableConditions of(List<String> tableNames, List<IConditionExpression> conditions) {
+        if (tableNames.size() != conditions.size()) {
+            throw new IllegalArgumentException("表名与条件表达式数量不一致");
+        }
+
+        return new TableConditions(tableNames.toArray(new String[0]), conditions.toArray(new IConditionExpression[0]));
+    }
+
+    /**
+     * 通过重写上下文解析各条件中的值提供者
+     *
+     * @param context 重写上下文，可为null
+     * @return 解析后的条件映射（共享表名索引），没有条件需要解析时返回自身
+     */
+    public TableConditions resolveValues(RewriteContext context) {
+        IConditionExpression[] resolved = null;
+        for (int i = 0; i < conditions.length; i++) {
+            IConditionExpression condition = conditions[i].resolveValues(context);
+            if (condition != conditions[i]) {
+                if (resolved == null) {
+                    resolved = conditions.clone();
+                }
+                resolved[i] = condition;
+            }
+        }
+        return resolved == null ? this : new TableConditions(tableNames, resolved, index);
+    }
+
+    /**
+     * 条目数量
+     *
+     * @return 数量
+     */
+    public int size() {
+
+        return tableNames.length;
+    }
+
+    /**
+     * 获取条目的目标表名
+     *
+     * @param ordinal 条目序号
+     * @return 目标表名
+     */
+    public String getTableName(int ordinal) {
+
+        return tableNames[ordinal];
+    }
+
+    /**
+     * 获取条目的条件表达式
+     *
+     * @param ordinal 条目序号
+     * @return 条件表达式
+     */
+    public IConditionExpression getCondition(int ordinal) {
+
+        return conditions[ordinal];
+    }
+
+    /**
+     * 获取表（按表名或别名）命中的条目序号，按添加顺序升序排列
+     *
+     * @param table AST Table对象
+     * @return 条目序号
+     */
+    public int[] match(Table table) {
+        if (ObjectUtil.isEmpty(table)) {
+            return NONE;
+        }
+        if (tableNames.length == 1) {
+            return JsqlParserUtils.equalToTableName(tableNames[0], table) ? FIRST : NONE;
+        }
+        int[] byName = lookup(table.getName());
+        Alias alias = table.getAlias();
+        int[] byAlias = ObjectUtil.isEmpty(alias) ? NONE : lookup(alias.getName());
+        return merge(byName, byAlias);
+    }
+
+    /**
+     * 获取表命中的条件表达式（已按表别名重新构造），按添加顺序排列
+     *
+     * @param table AST Table对象
+     * @return 条件表达式
+     */
+    public List<IConditionExpression> resolve(Table table) {
+        int[] ordinals = match(table);
+        if (ordinals.length == 0) {
+            return Collections.emptyList();
+        }
+        String alias = JsqlParserUtils.getAlias(table);
+        List<IConditionExpression> resolved = new ArrayList<>(ordinals.length);
+        for (int ordinal : ordinals) {
+            resolved.add(conditions[ordinal].reconstructAliasExpression(alias));
+        }
+        return resolved;
+    }
+
+    private int[] lookup(String name) {
+        String key = normalize(name);
+        if (key == null) {
+            return NONE;
+        }
+        int[] ordinals = index.get(key);
+        return ordinals == null ? NONE : ordinals;
+    }
+
+    private static int[] merge(int[] a, int[] b) {
+        if (b.length == 0) {
+            return a;
+        }
+        if (a.length == 0) {
+            return b;
+        }
+        int[] merged = new int[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int k = 0;
+        while (i < a.length || j < b.length) {
+            int next;
+            if (j >= b.length || (i < a.length && a[i] <= b[j])) {
+                next = a[i++];
+            } else {
+                next = b[j++];
+            }
+            if (k == 0 || merged[k - 1] != next) {
+                merged[k++] = next;
+            }
+        }
+        return k == merged.length ? merged : Arrays.copyOf(merged, k);
+    }
+
+    /**
+     * 与JsqlParserUtils.equalToTableName一致的归一化：去除首尾空白与双引号后忽略大小写
+     */
+    private static String normalize(String name) {
+        if (name == null) {
+            return null;
+        }
+        String trimmed = name.trim();
+        if (trimmed.length() >= 2 && trimmed.startsWith("\"") && trimmed.endsWith("\"")) {
+            trimmed = trimmed.substring(1, trimmed.length() - 1);
+        }
+        return trimmed.isEmpty() ? null : trimmed.toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -1,23 +1,40 @@
 package io.github.anthem37.sql.rewiter.core.extension.expression.impl;
 
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.extension.expression.IConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.value.IValueSupplier;
 import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
 import lombok.Getter;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.NullValue;
 import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 /**
  * 等值条件表达式（=）
  * <p>
  * 用于表示SQL中的等值比较，例如 {@code table_name.column_name = value}。
  * </p>
+ * <p>
+ * 同一实例会被插入到多个线程各自的AST中，因此构造后不可修改：修改左右表达式与Oracle连接语法的方法一律抛出
+ * {@link UnsupportedOperationException}，内部的列、表与值节点也只供反解析读取，规则不应修改已添加的条件。
+ * 按别名重新构造的表达式在每个实例上缓存（按别名），重复命中同一别名时不再分配新对象。
+ * </p>
  *
  * @author hb28301
  * @since 2025/11/12 15:17:53
  */
 public class EqualToConditionExpression extends EqualsTo implements IConditionExpression {
 
+    /**
+     * 每个实例缓存的别名表达式数量上限，超出后按需构造不再缓存（避免别名无限增长时占用内存）
+     */
+    private static final int MAX_MEMOIZED_ALIASES = 64;
+
     /**
      * 表名（区分大小写，建议与SQL中表名保持一致）
      * 用于生成左侧的Column对象，支持别名适配。
@@ -30,39 +47,114 @@ public class EqualToConditionExpression extends EqualsTo implements IConditionEx
     @Getter
     private final String columnName;
     /**
-     * 值（支持任意类型，最终会转为SQL表达式）
+     * 值（支持任意类型，最终会转为SQL表达式），为{@link IValueSupplier}时每次重写从上下文解析
      */
     @Getter
     private final Object columnValue;
 
+    /**
+     * 别名 -> 按别名重新构造的表达式，为null时不缓存（如按上下文解析出的一次性表达式）
+     */
+    private final Map<String, EqualToConditionExpression> aliasExpressions;
+
     /**
      * 构造等值条件表达式
+     * <p>
+     * 值为{@link IValueSupplier}时，未经{@link #resolveValues(RewriteContext)}解析的表达式右侧为NULL（不匹配任何行）。
+     * </p>
      *
      * @param tableName   表名
      * @param columnName  字段名
-     * @param columnValue 值
+     * @param columnValue 值或值提供者
      */
     public EqualToConditionExpression(String tableName, String columnName, Object columnValue) {
+        this(tableName, columnName, columnValue,
+                columnValue instanceof IValueSupplier ? new NullValue() : JsqlParserUtils.createValueExpression(columnValue), true);
+    }
+
+    private EqualToConditionExpression(String tableName, String columnName, Object columnValue, Expression valueExpression, boolean memoizeAliases) {
         super();
-        setLeftExpression(new Column(new Table(tableName), columnName));
-        setRightExpression(JsqlParserUtils.createValueExpression(columnValue));
+        super.setLeftExpression(new Column(new Table(tableName), columnName));
+        super.setRightExpression(valueExpression);
         this.tableName = tableName;
         this.columnName = columnName;
         this.columnValue = columnValue;
+        this.aliasExpressions = memoizeAliases ? new ConcurrentHashMap<>(4) : null;
     }
 
     /**
      * 生成适配别名的新条件表达式
      * <p>
      * 用于SQL重写时，将表名替换为别名，保证条件表达式与AST结构一致。
+     * 别名与表名相同时返回自身；其余别名的结果按别名缓存（最多{@value #MAX_MEMOIZED_ALIASES}个），值节点与本实例共享。
      * </p>
      *
      * @param alias 别名
-     * @return 新等值条件表达式
+     * @return 适配别名的等值条件表达式
      */
     @Override
     public IConditionExpression reconstructAliasExpression(String alias) {
-        return new EqualToConditionExpression(alias, columnName, columnValue);
+        if (alias == null) {
+            return newAliasExpression(null);
+        }
+        if (alias.equals(tableName)) {
+            return this;
+        }
+        if (aliasExpressions == null) {
+            return newAliasExpression(alias);
+        }
+        EqualToConditionExpression memoized = aliasExpressions.get(alias);
+        if (memoized != null) {
+            return memoized;
+        }
+        if (aliasExpressions.size() >= MAX_MEMOIZED_ALIASES) {
+            return newAliasExpression(alias);
+        }
+        return aliasExpressions.computeIfAbsent(alias, this::newAliasExpression);
+    }
+
+    /**
+     * 值为{@link IValueSupplier}时，通过重写上下文解析出值并生成新条件表达式
+     *
+     * @param context 重写上下文，可为null
+     * @return 新等值条件表达式，值不是值提供者时返回自身
+     */
+    @Override
+    public IConditionExpression resolveValues(RewriteContext context) {
+        if (!(columnValue instanceof IValueSupplier)) {
+            return this;
+        }
+        return new EqualToConditionExpression(tableName, columnName, columnValue, JsqlParserUtils.createValueExpression(columnValue, context), false);
+    }
+
+    @Override
+    public void setLeftExpression(Expression expression) {
+        throw immutable();
+    }
+
+    @Override
+    public void setRightExpression(Expression expression) {
+        throw immutable();
+    }
+
+    @Override
+    public void setOldOracleJoinSyntax(int oldOracleJoinSyntax) {
+        throw immutable();
+    }
+
+    @Override
+    public void setOraclePriorPosition(int oraclePriorPosition) {
+        throw immutable();
+    }
+
+    private EqualToConditionExpression newAliasExpression(String alias) {
+
+        return new EqualToConditionExpression(alias, columnName, columnValue, getRightExpression(), false);
+    }
+
+    private static UnsupportedOperationException immutable() {
+
+        return new UnsupportedOperationException("条件表达式会被多个SQL共享，不可修改");
     }
 
 }
@@ -1,5 +1,6 @@
 package io.github.anthem37.sql.rewiter.core.extension.rule;
 
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.rule.ICombineSqlRule;
 import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
 import io.github.anthem37.sql.rewiter.core.util.RuleUtils;
@@ -26,8 +27,12 @@ public abstract class AbstractCombineSqlRule implements ICombineSqlRule {
 
     @Override
     public boolean match(Statement statement) {
-
-        return rules.stream().anyMatch(sqlRule -> sqlRule.match(statement));
+        for (ISqlRule<?> rule : rules) {
+            if (rule.match(statement)) {
+                return true;
+            }
+        }
+        return false;
     }
 
     @Override
@@ -37,4 +42,26 @@ public abstract class AbstractCombineSqlRule implements ICombineSqlRule {
         }
     }
 
+    @Override
+    public void apply(Statement statement, RewriteContext context) {
+        for (ISqlRule<?> rule : rules) {
+            rule.apply(statement, context);
+        }
+    }
+
+    /**
+     * 所有子规则均支持变更跟踪时，组合规则才支持变更跟踪
+     *
+     * @return 是/否
+     */
+    @Override
+    public boolean isChangeTracking() {
+        for (ISqlRule<?> rule : rules) {
+            if (!rule.isChangeTracking()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
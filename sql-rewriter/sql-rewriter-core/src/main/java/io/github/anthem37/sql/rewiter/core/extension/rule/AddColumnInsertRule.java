@@ -1,22 +1,22 @@
 package io.github.anthem37.sql.rewiter.core.extension.rule;
 
 import cn.hutool.core.collection.CollectionUtil;
-import com.google.common.collect.Lists;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
 import io.github.anthem37.sql.rewiter.core.rule.RulePriority;
 import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
 import lombok.Getter;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.Function;
+import net.sf.jsqlparser.expression.Parenthesis;
 import net.sf.jsqlparser.expression.RowConstructor;
 import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
+import net.sf.jsqlparser.expression.operators.relational.ParenthesedExpressionList;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.insert.Insert;
 import net.sf.jsqlparser.statement.select.Values;
 
-import java.util.List;
-
 /**
  * Insert语句添加列规则实现
  * <p>
@@ -43,7 +43,7 @@ public class AddColumnInsertRule implements ISqlRule<Insert> {
     private final String columnName;
 
     /**
-     * 新增列的值（支持任意类型，最终会转为SQL表达式）
+     * 新增列的值（支持任意类型，最终会转为SQL表达式），为{@code IValueSupplier}时每次重写从上下文解析
      */
     private final Object columnValue;
 
@@ -109,6 +109,16 @@ public class AddColumnInsertRule implements ISqlRule<Insert> {
         return priority;
     }
 
+    /**
+     * 表名匹配时必定添加列并标记重写上下文
+     *
+     * @return true
+     */
+    @Override
+    public boolean isChangeTracking() {
+        return true;
+    }
+
     /**
      * 应用规则到Insert语句
      * <p>
@@ -120,44 +130,63 @@ public class AddColumnInsertRule implements ISqlRule<Insert> {
      */
     @Override
     public void applyTyped(Insert insert) {
+        applyTyped(insert, null);
+    }
+
+    /**
+     * 应用规则到Insert语句，添加列时标记重写上下文
+     * <p>
+     * 新增值表达式只创建一次，由所有行共享；各行直接原地追加，不复制值列表。
+     * INSERT ... SELECT等非VALUES插入不做处理。
+     * </p>
+     *
+     * @param insert  需要重写的Insert对象
+     * @param context 重写上下文
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public void applyTyped(Insert insert, RewriteContext context) {
         Table table = insert.getTable();
-        if (!matchTable(table)) {
+        if (!matchTable(table) || !(insert.getSelect() instanceof Values)) {
             return;
         }
+        Expression value = JsqlParserUtils.createValueExpression(columnValue, context);
+        if (context != null) {
+            context.recordInsertColumn(insert, columnName, value);
+        }
 
         // 添加新列名
         insert.addColumns(new Column(columnName));
 
-        Values values = insert.getValues();
         // 添加新值
-        ExpressionList insertItemsList = values.getExpressions();
-        List<Expression> insertItemsListExpressions = Lists.newArrayList(insertItemsList.getExpressions());
-        if (CollectionUtil.isEmpty(insertItemsListExpressions)) {
-            insertItemsListExpressions.add(JsqlParserUtils.createValueExpression(columnValue));
-            insertItemsList.setExpressions(insertItemsListExpressions);
+        ExpressionList<Expression> rows = (ExpressionList<Expression>) insert.getValues().getExpressions();
+        if (CollectionUtil.isEmpty(rows)) {
+            rows.add(value);
             return;
         }
-        Expression firstExpression = insertItemsListExpressions.get(0);
-        if (firstExpression instanceof RowConstructor) {
-            // 处理RowConstructor类型
-            for (Expression expression : insertItemsListExpressions) {
-                RowConstructor rowConstructor = (RowConstructor) expression;
-                rowConstructor.getExpressions().add(JsqlParserUtils.createValueExpression(columnValue));
+        boolean rowList = false;
+        for (int i = 0; i < rows.size(); i++) {
+            Expression row = rows.get(i);
+            if (row instanceof ParenthesedExpressionList) {
+                // 多列行：(a, b)
+                ((ParenthesedExpressionList<Expression>) row).add(value);
+            } else if (row instanceof Parenthesis) {
+                // 单列行：(a)
+                rows.set(i, new ParenthesedExpressionList<>(((Parenthesis) row).getExpression(), value));
+            } else if (row instanceof RowConstructor) {
+                ((RowConstructor<Expression>) row).add(value);
+            } else if (row instanceof Function && "ROW".equalsIgnoreCase(((Function) row).getName())) {
+                // ROW(a, b)
+                ((ExpressionList<Expression>) ((Function) row).getParameters()).add(value);
+            } else {
+                continue;
             }
-            return;
+            rowList = true;
         }
-        if (firstExpression instanceof Function) {
-            // 处理Function类型
-            for (Expression expression : insertItemsListExpressions) {
-                Function function = (Function) expression;
-                ExpressionList parameters = function.getParameters();
-                parameters.getExpressions().add(JsqlParserUtils.createValueExpression(columnValue));
-            }
-            return;
+        if (!rowList) {
+            // 不带括号的单行值列表
+            rows.add(value);
         }
-        // 处理普通值列表
-        insertItemsListExpressions.add(JsqlParserUtils.createValueExpression(columnValue));
-        insertItemsList.setExpressions(insertItemsListExpressions);
     }
 
 }
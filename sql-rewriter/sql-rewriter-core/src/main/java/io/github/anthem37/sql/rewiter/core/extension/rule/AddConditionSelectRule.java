@@ -1,6 +1,8 @@
 package io.github.anthem37.sql.rewiter.core.extension.rule;
 
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.extension.expression.IConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.expression.TableConditions;
 import io.github.anthem37.sql.rewiter.core.extension.visitor.impl.AddConditionSelectVisitor;
 import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
 import io.github.anthem37.sql.rewiter.core.rule.RulePriority;
@@ -90,10 +92,31 @@ public class AddConditionSelectRule implements ISqlRule<Select> {
      */
     @Override
     public void applyTyped(Select select) {
+        applyTyped(select, null);
+    }
+
+    /**
+     * 应用规则到Select语句，添加条件时标记重写上下文
+     *
+     * @param select  需要重写的Select对象
+     * @param context 重写上下文
+     */
+    @Override
+    public void applyTyped(Select select, RewriteContext context) {
         // 只处理目标表
-        AddConditionSelectVisitor selectVisitor = new AddConditionSelectVisitor(tableName, conditionExpression);
+        AddConditionSelectVisitor selectVisitor = new AddConditionSelectVisitor(TableConditions.of(tableName, conditionExpression.resolveValues(context)), context);
         select.accept(selectVisitor);
     }
 
+    /**
+     * 每次添加条件都会标记重写上下文
+     *
+     * @return true
+     */
+    @Override
+    public boolean isChangeTracking() {
+        return true;
+    }
+
 }
 
@@ -0,0 +1,123 @@
+package io.github.anthem37.sql.rewiter.core.extension.rule;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.extension.expression.IConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.expression.TableConditions;
+import io.github.anthem37.sql.rewiter.core.extension.visitor.impl.AddConditionStatementVisitor;
+import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
+import io.github.anthem37.sql.rewiter.core.rule.RulePriority;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import net.sf.jsqlparser.statement.update.Update;
+
+/**
+ * 为Update语句添加条件的规则实现
+ * <p>
+ * 用于在SQL重写过程中，针对指定表名的UPDATE语句动态添加WHERE或JOIN条件，
+ * 覆盖目标表、多表UPDATE中的JOIN表以及子查询，语句只需解析一次。
+ * 支持优先级配置，便于与其他规则协同工作。
+ * 典型应用场景：多租户、数据权限等。
+ *
+ * @author anthem37
+ * @since 2025/11/28 15:51:37
+ */
+@Getter
+@AllArgsConstructor
+public class AddConditionUpdateRule implements ISqlRule<Update> {
+
+    /**
+     * 目标表名（区分大小写，建议与SQL中表名保持一致）
+     * 仅当SQL语句的目标表、JOIN表或子查询中的表名与此一致时才会应用本规则。
+     */
+    private final String tableName;
+
+    /**
+     * 条件表达式（如等值、范围等），会自动适配表别名
+     * 通过IConditionExpression接口实现，支持灵活扩展。
+     */
+    private final IConditionExpression conditionExpression;
+
+    /**
+     * 规则优先级，数值越小优先级越高
+     * 便于多规则协同时控制应用顺序。
+     */
+    private final int priority;
+
+    /**
+     * 构造函数，使用默认优先级（RulePriority.UPDATE_DEFAULT）
+     *
+     * @param tableName           目标表名
+     * @param conditionExpression 条件表达式
+     */
+    public AddConditionUpdateRule(String tableName, IConditionExpression conditionExpression) {
+        this(tableName, conditionExpression, RulePriority.UPDATE_DEFAULT);
+    }
+
+    /**
+     * 获取本规则适用的SQL类型（Update）
+     *
+     * @return Update.class
+     */
+    @Override
+    public Class<Update> getType() {
+        return Update.class;
+    }
+
+    /**
+     * 获取目标表名
+     *
+     * @return 目标表名
+     */
+    @Override
+    public String getTargetTableName() {
+        return tableName;
+    }
+
+    /**
+     * 获取规则优先级
+     *
+     * @return 优先级数值
+     */
+    @Override
+    public int getPriority() {
+        return priority;
+    }
+
+    /**
+     * 应用规则到Update语句
+     * <p>
+     * 仅当Update语句的目标表、JOIN表或子查询中的表名与目标表名一致时，才会通过visitor添加条件。
+     * </p>
+     *
+     * @param update 需要重写的Update对象
+     */
+    @Override
+    public void applyTyped(Update update) {
+        applyTyped(update, null);
+    }
+
+    /**
+     * 应用规则到Update语句，添加条件时标记重写上下文
+     *
+     * @param update  需要重写的Update对象
+     * @param context 重写上下文
+     */
+    @Override
+    public void applyTyped(Update update, RewriteContext context) {
+        // 只处理目标表
+        AddConditionStatementVisitor statementVisitor = new AddConditionStatementVisitor(TableConditions.of(tableName, conditionExpression.resolveValues(context)), context);
+        update.accept(statementVisitor);
+    }
+
+    /**
+     * 每次添加条件都会标记重写上下文
+     *
+     * @return true
+     */
+    @Override
+    public boolean isChangeTracking() {
+        return true;
+    }
+
+}
+
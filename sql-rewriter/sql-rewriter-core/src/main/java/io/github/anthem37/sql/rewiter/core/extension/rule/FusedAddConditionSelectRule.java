@@ -0,0 +1,155 @@
+package io.github.anthem37.sql.rewiter.core.extension.rule;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.extension.expression.IConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.expression.TableConditions;
+import io.github.anthem37.sql.rewiter.core.extension.visitor.impl.AddConditionSelectVisitor;
+import io.github.anthem37.sql.rewiter.core.rule.ICombineSqlRule;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
+import lombok.Getter;
+import net.sf.jsqlparser.statement.Statement;
+import net.sf.jsqlparser.statement.select.Select;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 融合的Select添加条件规则
+ * <p>
+ * 将优先级相邻的若干{@link AddConditionSelectRule}合并为一次AST遍历：
+ * 每个表节点只做一次表名查找，即可按原优先级顺序追加所有命中规则的条件，
+ * 结果与逐个应用这些规则一致，但避免了N个规则N次遍历整棵语法树。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/22 15:40:26
+ */
+@Getter
+public class FusedAddConditionSelectRule implements ICombineSqlRule {
+
+    /**
+     * 被融合的规则，按优先级排序
+     */
+    private final List<ISqlRule<?>> rules;
+
+    /**
+     * 融合后的表名-条件映射
+     */
+    private final TableConditions tableConditions;
+
+    /**
+     * 规则优先级，取第一个被融合规则的优先级
+     */
+    private final int priority;
+
+    /**
+     * 构造函数
+     *
+     * @param rules 被融合的规则，需已按优先级排序
+     */
+    public FusedAddConditionSelectRule(List<AddConditionSelectRule> rules) {
+        if (rules == null || rules.isEmpty()) {
+            throw new IllegalArgumentException("被融合的规则不能为空");
+        }
+        List<String> tableNames = new ArrayList<>(rules.size());
+        List<IConditionExpression> conditions = new ArrayList<>(rules.size());
+        for (AddConditionSelectRule rule : rules) {
+            tableNames.add(rule.getTableName());
+            conditions.add(rule.getConditionExpression());
+        }
+        this.rules = Collections.unmodifiableList(new ArrayList<>(rules));
+        this.tableConditions = TableConditions.of(tableNames, conditions);
+        this.priority = rules.get(0).getPriority();
+    }
+
+    @Override
+    public boolean match(Statement statement) {
+
+        return statement instanceof Select;
+    }
+
+    /**
+     * 一次遍历为所有目标表添加条件
+     *
+     * @param statement 需要重写的语句
+     */
+    @Override
+    public void apply(Statement statement) {
+        apply(statement, null);
+    }
+
+    /**
+     * 一次遍历为所有目标表添加条件，添加条件时标记重写上下文
+     *
+     * @param statement 需要重写的语句
+     * @param context   重写上下文
+     */
+    @Override
+    public void apply(Statement statement, RewriteContext context) {
+        if (statement instanceof Select) {
+            AddConditionSelectVisitor selectVisitor = new AddConditionSelectVisitor(tableConditions.resolveValues(context), context);
+            ((Select) statement).accept(selectVisitor);
+        }
+    }
+
+    @Override
+    public boolean isChangeTracking() {
+        return true;
+    }
+
+    /**
+     * 将按优先级排序的规则列表中连续的{@link AddConditionSelectRule}融合为一次AST遍历
+     * <p>
+     * 只融合在排序后列表中连续出现的规则（中间只允许夹杂不会作用于Select的ISqlRule），
+     * 因此任意其他规则与被融合规则之间的相对执行顺序保持不变。
+     * 仅出现一个时保持原规则不变。
+     * </p>
+     *
+     * @param sortedRules 按优先级排序的规则列表
+     * @return 融合后的规则列表
+     */
+    public static List<IRule> fuse(List<IRule> sortedRules) {
+        List<IRule> fused = new ArrayList<>(sortedRules.size());
+        List<AddConditionSelectRule> run = new ArrayList<>();
+        List<IRule> skipped = new ArrayList<>();
+        for (IRule rule : sortedRules) {
+            if (rule != null && rule.getClass() == AddConditionSelectRule.class) {
+                run.add((AddConditionSelectRule) rule);
+                continue;
+            }
+            if (!run.isEmpty() && isNonSelectSqlRule(rule)) {
+                // 不会作用于Select的规则与Select规则的执行顺序互不影响
+                skipped.add(rule);
+                continue;
+            }
+            flushRun(fused, run, skipped);
+            fused.add(rule);
+        }
+        flushRun(fused, run, skipped);
+
+        return fused;
+    }
+
+    private static void flushRun(List<IRule> fused, List<AddConditionSelectRule> run, List<IRule> skipped) {
+        if (run.size() == 1) {
+            fused.add(run.get(0));
+        } else if (run.size() > 1) {
+            fused.add(new FusedAddConditionSelectRule(run));
+        }
+        fused.addAll(skipped);
+        run.clear();
+        skipped.clear();
+    }
+
+    private static boolean isNonSelectSqlRule(IRule rule) {
+        if (!(rule instanceof ISqlRule)) {
+            return false;
+        }
+        Class<?> type = ((ISqlRule<?>) rule).getType();
+
+        return type != null && !type.isAssignableFrom(Select.class) && !Select.class.isAssignableFrom(type);
+    }
+
+}
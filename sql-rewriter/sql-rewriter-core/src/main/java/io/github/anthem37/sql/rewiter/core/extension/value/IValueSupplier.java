@@ -0,0 +1,27 @@
+package io.github.anthem37.sql.rewiter.core.extension.value;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+
+/**
+ * 值提供者接口
+ * <p>
+ * 作为规则中的值（如{@code AddColumnInsertRule}的新增列值、{@code EqualToConditionExpression}的比较值）使用时，
+ * 每次重写从重写上下文中解析出实际值，从而一个引擎实例可以服务于不同租户等动态取值的场景。
+ * 规则应通过{@code JsqlParserUtils#createValueExpression(Object, RewriteContext)}解析，
+ * 以便重写模板缓存只保存与取值无关的模板，在输出时回填。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/29 10:05:21
+ */
+@FunctionalInterface
+public interface IValueSupplier {
+
+    /**
+     * 从重写上下文解析值
+     *
+     * @param context 重写上下文，可为null
+     * @return 值（支持任意类型，最终会转为SQL表达式）
+     */
+    Object get(RewriteContext context);
+}
@@ -0,0 +1,40 @@
+package io.github.anthem37.sql.rewiter.core.extension.value.impl;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.exception.ErrorEnum;
+import io.github.anthem37.sql.rewiter.core.exception.SqlRewriteException;
+import io.github.anthem37.sql.rewiter.core.extension.value.IValueSupplier;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 读取重写上下文属性的值提供者
+ * <p>
+ * 典型用法：{@code new EqualToConditionExpression("tenant", "tenant_id", new ContextAttributeValueSupplier("tenantId"))}，
+ * 调用方通过{@code engine.run(sql, context)}传入带有tenantId属性的上下文。
+ * 上下文为null或缺少该属性时抛出异常，避免静默生成缺少条件值的SQL。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/29 10:12:47
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ContextAttributeValueSupplier implements IValueSupplier {
+
+    /**
+     * 属性名
+     */
+    private final String attributeName;
+
+    @Override
+    public Object get(RewriteContext context) {
+        Object value = context == null ? null : context.getAttribute(attributeName);
+        if (value == null) {
+            throw new SqlRewriteException(ErrorEnum.CONTEXT_ATTRIBUTE_MISSING, attributeName);
+        }
+        return value;
+    }
+}
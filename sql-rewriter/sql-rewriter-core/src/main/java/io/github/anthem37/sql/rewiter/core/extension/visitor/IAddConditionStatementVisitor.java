@@ -0,0 +1,15 @@
+package io.github.anthem37.sql.rewiter.core.extension.visitor;
+
+import net.sf.jsqlparser.statement.StatementVisitor;
+
+/**
+ * 添加条件表达式访问器接口 - 更新与删除语句
+ * <p>
+ * 用于在SQL AST中添加新的条件表达式。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/28 15:42:18
+ */
+public interface IAddConditionStatementVisitor extends StatementVisitor, IAddConditionVisitor {
+}
@@ -1,11 +1,16 @@
 package io.github.anthem37.sql.rewiter.core.extension.visitor;
 
 import cn.hutool.core.util.ObjectUtil;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.Parenthesis;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
+import net.sf.jsqlparser.statement.delete.Delete;
 import net.sf.jsqlparser.statement.select.Join;
 import net.sf.jsqlparser.statement.select.PlainSelect;
+import net.sf.jsqlparser.statement.update.Update;
+
+import java.util.Collections;
 
 /**
  * 添加条件表达式访问器接口
@@ -18,6 +23,15 @@ import net.sf.jsqlparser.statement.select.PlainSelect;
  */
 public interface IAddConditionVisitor {
 
+    /**
+     * 获取重写上下文，添加条件时通过它报告修改（拼接输出模式下同时记录编辑点）
+     *
+     * @return 重写上下文，可为null
+     */
+    default RewriteContext getRewriteContext() {
+        return null;
+    }
+
     /**
      * 给where添加and连接的条件
      *
@@ -25,6 +39,10 @@ public interface IAddConditionVisitor {
      * @param expression  条件表达式
      */
     default void addAndExpression4Where(PlainSelect plainSelect, Expression expression) {
+        RewriteContext rewriteContext = getRewriteContext();
+        if (rewriteContext != null) {
+            rewriteContext.recordWhereCondition(plainSelect, expression);
+        }
         Expression where = plainSelect.getWhere();
         if (ObjectUtil.isEmpty(where)) {
             plainSelect.setWhere(expression);
@@ -34,6 +52,44 @@ public interface IAddConditionVisitor {
         }
     }
 
+    /**
+     * 给update的where添加and连接的条件
+     * <p>
+     * UPDATE/DELETE的修改不记录为编辑点，拼接输出模式下退回反解析。
+     * </p>
+     *
+     * @param update     更新语句
+     * @param expression 条件表达式
+     */
+    default void addAndExpression4Where(Update update, Expression expression) {
+        RewriteContext rewriteContext = getRewriteContext();
+        if (rewriteContext != null) {
+            rewriteContext.markChanged();
+        }
+        Expression where = update.getWhere();
+        // 用括号包裹原有条件，避免OR优先级问题
+        update.setWhere(ObjectUtil.isEmpty(where) ? expression : new AndExpression(new Parenthesis(where), expression));
+    }
+
+    /**
+     * 给delete的where添加and连接的条件
+     * <p>
+     * UPDATE/DELETE的修改不记录为编辑点，拼接输出模式下退回反解析。
+     * </p>
+     *
+     * @param delete     删除语句
+     * @param expression 条件表达式
+     */
+    default void addAndExpression4Where(Delete delete, Expression expression) {
+        RewriteContext rewriteContext = getRewriteContext();
+        if (rewriteContext != null) {
+            rewriteContext.markChanged();
+        }
+        Expression where = delete.getWhere();
+        // 用括号包裹原有条件，避免OR优先级问题
+        delete.setWhere(ObjectUtil.isEmpty(where) ? expression : new AndExpression(new Parenthesis(where), expression));
+    }
+
     /**
      * 给join添加and连接的条件
      *
@@ -41,13 +97,18 @@ public interface IAddConditionVisitor {
      * @param expression 条件表达式
      */
     default void addAndExpression4Join(Join join, Expression expression) {
+        RewriteContext rewriteContext = getRewriteContext();
+        if (rewriteContext != null) {
+            rewriteContext.recordJoinCondition(join, expression);
+        }
         Expression onExpression = join.getOnExpression();
         Expression newOnExpression = expression;
         if (ObjectUtil.isNotEmpty(onExpression)) {
             // 用括号包裹原有条件，避免OR优先级问题
             newOnExpression = new AndExpression(new Parenthesis(onExpression), expression);
         }
-        join.setOnExpression(newOnExpression);
+        // setOnExpression会追加到ON条件列表，需替换整个列表，否则原条件会重复输出
+        join.setOnExpressions(Collections.singletonList(newOnExpression));
     }
 
 }
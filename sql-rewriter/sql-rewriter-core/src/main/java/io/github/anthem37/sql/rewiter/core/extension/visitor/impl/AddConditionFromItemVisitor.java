@@ -1,10 +1,12 @@
 package io.github.anthem37.sql.rewiter.core.extension.visitor.impl;
 
 import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.StrUtil;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.extension.expression.IConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.expression.TableConditions;
 import io.github.anthem37.sql.rewiter.core.extension.visitor.IAddConditionFromItemVisitor;
 import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import net.sf.jsqlparser.schema.Table;
@@ -25,17 +27,47 @@ import java.util.List;
  */
 @EqualsAndHashCode(callSuper = true)
 @Data
-@AllArgsConstructor
 public class AddConditionFromItemVisitor extends FromItemVisitorAdapter implements IAddConditionFromItemVisitor {
 
     /**
-     * 目标表名（区分大小写，建议与SQL中表名保持一致）
+     * 目标表名到条件表达式（如等值、范围等）的映射，条件会自动适配表别名
      */
-    private final String tableName;
+    private final TableConditions tableConditions;
+
+    /**
+     * 重写上下文，添加条件时标记语句已被修改，可为null
+     */
+    private final RewriteContext rewriteContext;
+
+    /**
+     * 构造方法，单个目标表
+     *
+     * @param tableName           目标表名（区分大小写，建议与SQL中表名保持一致）
+     * @param conditionExpression 条件表达式
+     */
+    public AddConditionFromItemVisitor(String tableName, IConditionExpression conditionExpression) {
+        this(TableConditions.of(tableName, conditionExpression));
+    }
+
+    /**
+     * 构造方法，多个目标表在一次遍历中完成
+     *
+     * @param tableConditions 目标表名到条件表达式的映射
+     */
+    public AddConditionFromItemVisitor(TableConditions tableConditions) {
+        this(tableConditions, null);
+    }
+
     /**
-     * 条件表达式（如等值、范围等），会自动适配表别名
+     * 构造方法，多个目标表在一次遍历中完成，并向重写上下文报告修改
+     *
+     * @param tableConditions 目标表名到条件表达式的映射
+     * @param rewriteContext  重写上下文
      */
-    private final IConditionExpression conditionExpression;
+    public AddConditionFromItemVisitor(TableConditions tableConditions, RewriteContext rewriteContext) {
+        this.tableConditions = tableConditions;
+        this.rewriteContext = rewriteContext;
+    }
 
     /**
      * 访问括号中的SELECT语句，递归添加条件
@@ -44,43 +76,65 @@ public class AddConditionFromItemVisitor extends FromItemVisitorAdapter implemen
      */
     @Override
     public void visit(ParenthesedSelect selectBody) {
-        AddConditionSelectVisitor addConditionSelectVisitor = new AddConditionSelectVisitor(tableName, conditionExpression);
+        AddConditionSelectVisitor addConditionSelectVisitor = new AddConditionSelectVisitor(tableConditions, rewriteContext);
         selectBody.accept(addConditionSelectVisitor);
     }
 
+    /**
+     * 访问括号中的FROM结构（如 (a JOIN b ON ...)）
+     * <p>
+     * 每个条目独立判断：左侧表或某个JOIN表首次命中目标表后，其后的每个JOIN都会以命中表的别名添加条件。
+     * </p>
+     *
+     * @param aThis 括号中的FROM结构
+     */
     @Override
     public void visit(ParenthesedFromItem aThis) {
         FromItem leftFromItem = aThis.getFromItem();
-        boolean isAcceptable = false;
-        String alias = null;
+        int size = tableConditions.size();
+        // 各条目命中的表别名，null表示尚未命中
+        String[] aliases = new String[size];
         if (leftFromItem instanceof Table) {
-            Table table = ((Table) leftFromItem);
-            isAcceptable = JsqlParserUtils.equalToTableName(tableName, table);
-            if (isAcceptable) {
-                alias = JsqlParserUtils.getAlias(table);
-            }
+            accept((Table) leftFromItem, aliases);
+        }
+        if (leftFromItem != null) {
+            leftFromItem.accept(this);
         }
-        leftFromItem.accept(this);
         List<Join> joins = aThis.getJoins();
         if (CollectionUtil.isEmpty(joins)) {
             return;
         }
         for (Join join : joins) {
             FromItem rightItem = join.getRightItem();
-            if (!isAcceptable && (rightItem instanceof Table)) {
-                Table table = ((Table) rightItem);
-                isAcceptable = JsqlParserUtils.equalToTableName(tableName, table);
-                if (isAcceptable) {
-                    alias = JsqlParserUtils.getAlias(table);
+            if (rightItem instanceof Table) {
+                accept((Table) rightItem, aliases);
+            }
+            for (int ordinal = 0; ordinal < size; ordinal++) {
+                if (aliases[ordinal] != null) {
+                    IConditionExpression aliasConditionExpression = tableConditions.getCondition(ordinal).reconstructAliasExpression(aliases[ordinal]);
+                    addAndExpression4Join(join, aliasConditionExpression);
                 }
             }
-            if (isAcceptable) {
-                IConditionExpression aliasConditionExpression = conditionExpression.reconstructAliasExpression(alias);
-                addAndExpression4Join(join, aliasConditionExpression);
+            if (rightItem != null) {
+                rightItem.accept(this);
             }
-            rightItem.accept(this);
         }
     }
 
-}
+    /**
+     * 记录表命中的、此前尚未命中的条目别名
+     */
+    private void accept(Table table, String[] aliases) {
+        int[] ordinals = tableConditions.match(table);
+        if (ordinals.length == 0) {
+            return;
+        }
+        String alias = StrUtil.nullToEmpty(JsqlParserUtils.getAlias(table));
+        for (int ordinal : ordinals) {
+            if (aliases[ordinal] == null) {
+                aliases[ordinal] = alias;
+            }
+        }
+    }
 
+}
@@ -2,10 +2,10 @@ package io.github.anthem37.sql.rewiter.core.extension.visitor.impl;
 
 import cn.hutool.core.util.ObjectUtil;
 import com.google.common.collect.Lists;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.extension.expression.IConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.expression.TableConditions;
 import io.github.anthem37.sql.rewiter.core.extension.visitor.IAddConditionSelectVisitor;
-import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
-import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
 import lombok.SneakyThrows;
@@ -32,19 +32,48 @@ import java.util.Optional;
  */
 @EqualsAndHashCode(callSuper = true)
 @Data
-@AllArgsConstructor
 public class AddConditionSelectVisitor extends SelectVisitorAdapter implements IAddConditionSelectVisitor {
 
     /**
-     * 目标表名（区分大小写，建议与SQL中表名保持一致）
-     * 仅当AST节点的表名与此一致时才会应用条件。
+     * 目标表名到条件表达式（如等值、范围等）的映射，条件会自动适配表别名
+     * 仅当AST节点的表名或别名与目标表名一致时才会应用对应条件。
      */
-    private final String tableName;
+    private final TableConditions tableConditions;
+
+    /**
+     * 重写上下文，添加条件时标记语句已被修改，可为null
+     */
+    private final RewriteContext rewriteContext;
+
+    /**
+     * 构造方法，单个目标表
+     *
+     * @param tableName           目标表名（区分大小写，建议与SQL中表名保持一致）
+     * @param conditionExpression 条件表达式
+     */
+    public AddConditionSelectVisitor(String tableName, IConditionExpression conditionExpression) {
+        this(TableConditions.of(tableName, conditionExpression));
+    }
+
+    /**
+     * 构造方法，多个目标表在一次遍历中完成
+     *
+     * @param tableConditions 目标表名到条件表达式的映射
+     */
+    public AddConditionSelectVisitor(TableConditions tableConditions) {
+        this(tableConditions, null);
+    }
+
     /**
-     * 条件表达式（如等值、范围等），会自动适配表别名
-     * 通过IConditionExpression接口实现，支持灵活扩展。
+     * 构造方法，多个目标表在一次遍历中完成，并向重写上下文报告修改
+     *
+     * @param tableConditions 目标表名到条件表达式的映射
+     * @param rewriteContext  重写上下文
      */
-    private final IConditionExpression conditionExpression;
+    public AddConditionSelectVisitor(TableConditions tableConditions, RewriteContext rewriteContext) {
+        this.tableConditions = tableConditions;
+        this.rewriteContext = rewriteContext;
+    }
 
     /**
      * 访问PlainSelect节点，添加where和join条件
@@ -63,17 +92,14 @@ public class AddConditionSelectVisitor extends SelectVisitorAdapter implements I
         // 处理主表
         FromItem fromItem = plainSelect.getFromItem();
         if (fromItem instanceof Table) {
-            Table table = (Table) fromItem;
-            String alias = JsqlParserUtils.getAlias(table);
-            // 主表匹配时，添加条件
-            if (JsqlParserUtils.equalToTableName(tableName, table)) {
-                IConditionExpression aliasConditionExpression = conditionExpression.reconstructAliasExpression(alias);
+            // 主表匹配时，按顺序添加条件
+            for (IConditionExpression aliasConditionExpression : tableConditions.resolve((Table) fromItem)) {
                 addAndExpression4Where(plainSelect, aliasConditionExpression);
             }
         }
 
         // 递归处理fromItem（如子查询、嵌套结构）
-        AddConditionFromItemVisitor sieveFromItemVisitor = new AddConditionFromItemVisitor(tableName, conditionExpression);
+        AddConditionFromItemVisitor sieveFromItemVisitor = new AddConditionFromItemVisitor(tableConditions, rewriteContext);
         if (fromItem != null) {
             fromItem.accept(sieveFromItemVisitor);
         }
@@ -82,11 +108,8 @@ public class AddConditionSelectVisitor extends SelectVisitorAdapter implements I
         for (Join join : Optional.ofNullable(plainSelect.getJoins()).orElse(Lists.newArrayList())) {
             FromItem rightItem = join.getRightItem();
             if (rightItem instanceof Table) {
-                Table table = ((Table) rightItem);
-                String alias = JsqlParserUtils.getAlias(table);
-                // JOIN表匹配时，添加条件
-                if (JsqlParserUtils.equalToTableName(tableName, table)) {
-                    IConditionExpression aliasConditionExpression = conditionExpression.reconstructAliasExpression(alias);
+                // JOIN表匹配时，按顺序添加条件
+                for (IConditionExpression aliasConditionExpression : tableConditions.resolve((Table) rightItem)) {
                     addAndExpression4Join(join, aliasConditionExpression);
                 }
             }
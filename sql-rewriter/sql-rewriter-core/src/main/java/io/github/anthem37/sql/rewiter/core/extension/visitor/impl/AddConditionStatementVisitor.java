@@ -0,0 +1,210 @@
+package io.github.anthem37.sql.rewiter.core.extension.visitor.impl;
+
+import cn.hutool.core.collection.CollectionUtil;
+import cn.hutool.core.util.ObjectUtil;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.extension.expression.IConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.expression.TableConditions;
+import io.github.anthem37.sql.rewiter.core.extension.visitor.IAddConditionStatementVisitor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.schema.Table;
+import net.sf.jsqlparser.statement.StatementVisitorAdapter;
+import net.sf.jsqlparser.statement.delete.Delete;
+import net.sf.jsqlparser.statement.select.FromItem;
+import net.sf.jsqlparser.statement.select.Join;
+import net.sf.jsqlparser.statement.select.WithItem;
+import net.sf.jsqlparser.statement.update.Update;
+import net.sf.jsqlparser.statement.update.UpdateSet;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Update/Delete语句条件访问器实现
+ * <p>
+ * 用于在SQL AST遍历过程中，针对指定表名的UPDATE、DELETE语句动态添加WHERE或JOIN条件。
+ * 支持目标表、多表UPDATE/DELETE中的JOIN表（含逗号连接）、UPDATE ... FROM、DELETE ... USING，
+ * 以及SET、WHERE、WITH中的子查询，自动适配表别名。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/28 15:44:06
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+public class AddConditionStatementVisitor extends StatementVisitorAdapter implements IAddConditionStatementVisitor {
+
+    /**
+     * 目标表名到条件表达式（如等值、范围等）的映射，条件会自动适配表别名
+     */
+    private final TableConditions tableConditions;
+
+    /**
+     * 重写上下文，添加条件时标记语句已被修改，可为null
+     */
+    private final RewriteContext rewriteContext;
+
+    /**
+     * 构造方法，单个目标表
+     *
+     * @param tableName           目标表名（区分大小写，建议与SQL中表名保持一致）
+     * @param conditionExpression 条件表达式
+     */
+    public AddConditionStatementVisitor(String tableName, IConditionExpression conditionExpression) {
+        this(TableConditions.of(tableName, conditionExpression));
+    }
+
+    /**
+     * 构造方法，多个目标表在一次遍历中完成
+     *
+     * @param tableConditions 目标表名到条件表达式的映射
+     */
+    public AddConditionStatementVisitor(TableConditions tableConditions) {
+        this(tableConditions, null);
+    }
+
+    /**
+     * 构造方法，多个目标表在一次遍历中完成，并向重写上下文报告修改
+     *
+     * @param tableConditions 目标表名到条件表达式的映射
+     * @param rewriteContext  重写上下文
+     */
+    public AddConditionStatementVisitor(TableConditions tableConditions, RewriteContext rewriteContext) {
+        this.tableConditions = tableConditions;
+        this.rewriteContext = rewriteContext;
+    }
+
+    /**
+     * 访问Update节点，添加where和join条件
+     * <p>
+     * 1. 目标表、逗号连接的表、UPDATE ... FROM的表匹配时，在WHERE子句添加条件。
+     * 2. JOIN表匹配时，在JOIN ON子句添加条件。
+     * 3. 递归处理WITH、FROM、JOIN右表、SET值、WHERE表达式中的子查询。
+     * </p>
+     *
+     * @param update update语句AST节点
+     */
+    @Override
+    public void visit(Update update) {
+        AddConditionSelectVisitor selectVisitor = new AddConditionSelectVisitor(tableConditions, rewriteContext);
+        visitWithItems(update.getWithItemsList(), selectVisitor);
+        Consumer<Expression> whereAppender = expression -> addAndExpression4Where(update, expression);
+        // 处理目标表
+        addConditions(update.getTable(), whereAppender);
+        // 处理多表UPDATE中SET之前的JOIN表
+        AddConditionFromItemVisitor fromItemVisitor = new AddConditionFromItemVisitor(tableConditions, rewriteContext);
+        addJoinConditions(update.getStartJoins(), fromItemVisitor, whereAppender);
+        // 处理UPDATE ... FROM
+        FromItem fromItem = update.getFromItem();
+        if (fromItem instanceof Table) {
+            addConditions((Table) fromItem, whereAppender);
+        }
+        if (fromItem != null) {
+            fromItem.accept(fromItemVisitor);
+        }
+        addJoinConditions(update.getJoins(), fromItemVisitor, whereAppender);
+
+        // 递归处理SET值与WHERE表达式中的子查询
+        AddConditionExpressionVisitor expressionVisitor = new AddConditionExpressionVisitor(selectVisitor);
+        if (CollectionUtil.isNotEmpty(update.getUpdateSets())) {
+            for (UpdateSet updateSet : update.getUpdateSets()) {
+                for (Expression value : updateSet.getValues()) {
+                    value.accept(expressionVisitor);
+                }
+            }
+        }
+        Expression where = update.getWhere();
+        if (ObjectUtil.isNotEmpty(where)) {
+            where.accept(expressionVisitor);
+        }
+    }
+
+    /**
+     * 访问Delete节点，添加where和join条件
+     * <p>
+     * 1. 目标表、DELETE ... USING的表、逗号连接的表匹配时，在WHERE子句添加条件。
+     * 2. JOIN表匹配时，在JOIN ON子句添加条件。
+     * 3. 多表DELETE中待删除的表清单（DELETE a, b FROM ...）只是对FROM中表的引用，不单独处理。
+     * 4. 递归处理WITH、JOIN右表、WHERE表达式中的子查询。
+     * </p>
+     *
+     * @param delete delete语句AST节点
+     */
+    @Override
+    public void visit(Delete delete) {
+        AddConditionSelectVisitor selectVisitor = new AddConditionSelectVisitor(tableConditions, rewriteContext);
+        visitWithItems(delete.getWithItemsList(), selectVisitor);
+        Consumer<Expression> whereAppender = expression -> addAndExpression4Where(delete, expression);
+        // 处理目标表
+        addConditions(delete.getTable(), whereAppender);
+        // 处理DELETE ... USING
+        if (CollectionUtil.isNotEmpty(delete.getUsingList())) {
+            for (Table table : delete.getUsingList()) {
+                addConditions(table, whereAppender);
+            }
+        }
+        AddConditionFromItemVisitor fromItemVisitor = new AddConditionFromItemVisitor(tableConditions, rewriteContext);
+        addJoinConditions(delete.getJoins(), fromItemVisitor, whereAppender);
+
+        // 递归处理WHERE表达式中的子查询
+        Expression where = delete.getWhere();
+        if (ObjectUtil.isNotEmpty(where)) {
+            where.accept(new AddConditionExpressionVisitor(selectVisitor));
+        }
+    }
+
+    /**
+     * 表匹配时，按顺序把条件交给追加方式
+     */
+    private void addConditions(Table table, Consumer<Expression> appender) {
+        if (table == null) {
+            return;
+        }
+        for (IConditionExpression aliasConditionExpression : tableConditions.resolve(table)) {
+            appender.accept(aliasConditionExpression);
+        }
+    }
+
+    /**
+     * 处理JOIN表：带ON条件的JOIN在ON子句添加条件，逗号连接及无ON条件的JOIN（CROSS、NATURAL、USING）在WHERE子句添加条件
+     */
+    private void addJoinConditions(List<Join> joins, AddConditionFromItemVisitor fromItemVisitor, Consumer<Expression> whereAppender) {
+        if (CollectionUtil.isEmpty(joins)) {
+            return;
+        }
+        for (Join join : joins) {
+            FromItem rightItem = join.getRightItem();
+            if (rightItem instanceof Table) {
+                boolean onClause = !join.isSimple() && CollectionUtil.isNotEmpty(join.getOnExpressions());
+                addConditions((Table) rightItem, expression -> {
+                    if (!onClause) {
+                        whereAppender.accept(expression);
+                        return;
+                    }
+                    // UPDATE/DELETE的JOIN条件无法可靠定位编辑点，标记为未记录的修改以退回反解析
+                    if (rewriteContext != null) {
+                        rewriteContext.markChanged();
+                    }
+                    addAndExpression4Join(join, expression);
+                });
+            }
+            // 递归处理JOIN右表（如子查询、嵌套结构）
+            if (rightItem != null) {
+                rightItem.accept(fromItemVisitor);
+            }
+        }
+    }
+
+    private static void visitWithItems(List<WithItem> withItems, AddConditionSelectVisitor selectVisitor) {
+        if (CollectionUtil.isEmpty(withItems)) {
+            return;
+        }
+        for (WithItem withItem : withItems) {
+            if (withItem.getSelect() != null) {
+                withItem.getSelect().accept(selectVisitor);
+            }
+        }
+    }
+}
@@ -0,0 +1,427 @@
+package io.github.anthem37.sql.rewiter.core.lexer;
+
+import lombok.Getter;
+
+/**
+ * 轻量SQL词法扫描器
+ * <p>
+ * 以游标方式逐个识别词法单元，只记录类型和起止下标，扫描过程不产生任何中间对象。
+ * 能正确识别字符串字面量（含''转义、N''/X''/B''/E''前缀、PostgreSQL的$tag$引用）、
+ * 带引号的标识符、单行与块注释，适用于解析前的快速预处理（过滤、归一化、切分等）。
+ * </p>
+ * <p>
+ * 字面量边界必须与解析器一致，否则预处理看到的SQL结构与实际执行的不同。JSqlParser默认不把反斜杠当作转义符，
+ * {@code 'C:'}是一个完整的字面量，因此默认同样不识别反斜杠转义；只有解析器同样开启反斜杠转义（MySQL方言）时
+ * 才应通过{@link #SqlLexer(CharSequence, int, int, boolean)}开启。含反斜杠的字符串在两种方言下边界可能不同，
+ * 通过{@link #isAmbiguous()}标记，调用方可据此保守处理。
+ * </p>
+ * <pre>
+ * SqlLexer lexer = new SqlLexer(sql);
+ * while (lexer.next()) {
+ *     SqlTokenType type = lexer.getTokenType();
+ *     int start = lexer.getTokenStart();
+ *     int end = lexer.getTokenEnd();
+ * }
+ * </pre>
+ *
+ * @author anthem37
+ * @since 2025/11/20 14:08:47
+ */
+@Getter
+public final class SqlLexer {
+
+    private final CharSequence sql;
+
+    private final int end;
+
+    /**
+     * 字符串字面量中的反斜杠是否为转义符
+     */
+    private final boolean backslashEscapes;
+
+    private int position;
+
+    /**
+     * 当前词法单元类型
+     */
+    private SqlTokenType tokenType;
+
+    /**
+     * 当前词法单元起始下标（包含）
+     */
+    private int tokenStart;
+
+    /**
+     * 当前词法单元结束下标（不包含）
+     */
+    private int tokenEnd;
+
+    /**
+     * 当前字符串、注释或带引号标识符是否未闭合（到达输入末尾仍未结束）
+     */
+    private boolean unterminated;
+
+    /**
+     * 当前字符串字面量是否含反斜杠（是否支持反斜杠转义的方言下边界可能不同）
+     */
+    private boolean ambiguous;
+
+    public SqlLexer(CharSequence sql) {
+        this(sql, 0, sql.length());
+    }
+
+    public SqlLexer(CharSequence sql, int start, int end) {
+        this(sql, start, end, false);
+    }
+
+    /**
+     * @param sql              sql
+     * @param start            起始下标（包含）
+     * @param end              结束下标（不包含）
+     * @param backslashEscapes 字符串字面量中的反斜杠是否为转义符，仅用于MySQL方言
+     */
+    public SqlLexer(CharSequence sql, int start, int end, boolean backslashEscapes) {
+        this.sql = sql;
+        this.position = start;
+        this.end = end;
+        this.backslashEscapes = backslashEscapes;
+    }
+
+    /**
+     * 扫描下一个词法单元
+     *
+     * @return 是否还有词法单元
+     */
+    public boolean next() {
+        if (position >= end) {
+            tokenType = null;
+            tokenStart = end;
+            tokenEnd = end;
+            return false;
+        }
+        unterminated = false;
+        ambiguous = false;
+        tokenStart = position;
+        char c = sql.charAt(position);
+        if (Character.isWhitespace(c)) {
+            position = skipWhitespace(position);
+            tokenType = SqlTokenType.WHITESPACE;
+        } else if (c == '-' && peek(position + 1) == '-') {
+            position = skipLine(position + 2);
+            tokenType = SqlTokenType.LINE_COMMENT;
+        } else if (c == '/' && peek(position + 1) == '*') {
+            position = skipBlockComment(position + 2);
+            tokenType = SqlTokenType.BLOCK_COMMENT;
+        } else if (c == '\'') {
+            position = skipQuoted(position + 1, '\'', backslashEscapes);
+            tokenType = SqlTokenType.STRING;
+        } else if (isStringPrefix(c) && peek(position + 1) == '\'') {
+            position = skipQuoted(position + 2, '\'', backslashEscapes);
+            tokenType = SqlTokenType.STRING;
+        } else if (c == '"' || c == '`') {
+            position = skipQuoted(position + 1, c, false);
+            tokenType = SqlTokenType.QUOTED_IDENTIFIER;
+        } else if (c == '$' && isDollarQuoteStart(position)) {
+            position = skipDollarQuoted(position);
+            tokenType = SqlTokenType.STRING;
+        } else if (isDigit(c) || (c == '.' && isDigit(peek(position + 1)))) {
+            position = skipNumber(position);
+            tokenType = SqlTokenType.NUMBER;
+        } else if (isWordStart(c)) {
+            position = skipWord(position + 1);
+            tokenType = SqlTokenType.WORD;
+        } else if (c == '?') {
+            position++;
+            tokenType = SqlTokenType.PARAMETER;
+        } else if (c == ':' && isWordStart(peek(position + 1))) {
+            position = skipWord(position + 2);
+            tokenType = SqlTokenType.PARAMETER;
+        } else if (c == ':' && peek(position + 1) == ':') {
+            position += 2;
+            tokenType = SqlTokenType.SYMBOL;
+        } else {
+            position++;
+            tokenType = SqlTokenType.SYMBOL;
+        }
+        tokenEnd = position;
+        return true;
+    }
+
+    /**
+     * 跳过空白与注释，扫描下一个有意义的词法单元
+     *
+     * @return 是否还有词法单元
+     */
+    public boolean nextSignificant() {
+        while (next()) {
+            if (!isTrivia()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 当前词法单元是否为空白或注释
+     *
+     * @return 是/否
+     */
+    public boolean isTrivia() {
+
+        return tokenType == SqlTokenType.WHITESPACE || tokenType == SqlTokenType.LINE_COMMENT || tokenType == SqlTokenType.BLOCK_COMMENT;
+    }
+
+    /**
+     * 当前词法单元长度
+     *
+     * @return 长度
+     */
+    public int getTokenLength() {
+
+        return tokenEnd - tokenStart;
+    }
+
+    /**
+     * 当前词法单元是否为指定关键字（忽略大小写）
+     *
+     * @param keyword 关键字
+     * @return 是/否
+     */
+    public boolean isWord(String keyword) {
+
+        return tokenType == SqlTokenType.WORD && regionEqualsIgnoreCase(tokenStart, tokenEnd, keyword);
+    }
+
+    /**
+     * 当前词法单元是否为指定符号
+     *
+     * @param symbol 符号
+     * @return 是/否
+     */
+    public boolean isSymbol(char symbol) {
+
+        return tokenType == SqlTokenType.SYMBOL && getTokenLength() == 1 && sql.charAt(tokenStart) == symbol;
+    }
+
+    /**
+     * 当前词法单元文本（会创建新字符串，仅在必要时调用）
+     *
+     * @return 文本
+     */
+    public String getTokenText() {
+
+        return sql.subSequence(tokenStart, tokenEnd).toString();
+    }
+
+    /**
+     * 比较指定区间文本与目标字符串是否相等（忽略大小写）
+     *
+     * @param start  起始下标
+     * @param stop   结束下标
+     * @param target 目标字符串
+     * @return 是/否
+     */
+    public boolean regionEqualsIgnoreCase(int start, int stop, String target) {
+        int length = stop - start;
+        if (length != target.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            char a = sql.charAt(start + i);
+            char b = target.charAt(i);
+            if (a != b && Character.toLowerCase(a) != Character.toLowerCase(b)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 是否可作为标识符首字符
+     *
+     * @param c 字符
+     * @return 是/否
+     */
+    public static boolean isWordStart(char c) {
+
+        return c == '_' || Character.isLetter(c);
+    }
+
+    /**
+     * 是否可作为标识符后续字符
+     *
+     * @param c 字符
+     * @return 是/否
+     */
+    public static boolean isWordPart(char c) {
+
+        return c == '_' || c == '$' || Character.isLetterOrDigit(c);
+    }
+
+    private static boolean isDigit(char c) {
+
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isStringPrefix(char c) {
+        switch (c) {
+            case 'N':
+            case 'n':
+            case 'E':
+            case 'e':
+            case 'X':
+            case 'x':
+            case 'B':
+            case 'b':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private char peek(int index) {
+
+        return index < end ? sql.charAt(index) : '\0';
+    }
+
+    private int skipWhitespace(int index) {
+        while (index < end && Character.isWhitespace(sql.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+    private int skipLine(int index) {
+        while (index < end) {
+            char c = sql.charAt(index++);
+            if (c == '\n') {
+                return index;
+            }
+        }
+        return end;
+    }
+
+    private int skipBlockComment(int index) {
+        while (index + 1 < end) {
+            if (sql.charAt(index) == '*' && sql.charAt(index + 1) == '/') {
+                return index + 2;
+            }
+            index++;
+        }
+        unterminated = true;
+        return end;
+    }
+
+    private int skipQuoted(int index, char quote, boolean backslashEscape) {
+        while (index < end) {
+            char c = sql.charAt(index);
+            if (c == '\\' && quote == '\'') {
+                ambiguous = true;
+                if (backslashEscape) {
+                    index += 2;
+                    continue;
+                }
+            }
+            if (c == quote) {
+                // 连续两个引号表示转义
+                if (peek(index + 1) == quote) {
+                    index += 2;
+                    continue;
+                }
+                return index + 1;
+            }
+            index++;
+        }
+        unterminated = true;
+        return end;
+    }
+
+    private boolean isDollarQuoteStart(int index) {
+        // $$ 或 $tag$，tag由标识符字符组成且不以数字开头（避免与$1参数混淆）
+        int i = index + 1;
+        if (i < end && sql.charAt(i) == '$') {
+            return true;
+        }
+        if (i >= end || !isWordStart(sql.charAt(i))) {
+            return false;
+        }
+        while (i < end && sql.charAt(i) != '$') {
+            char c = sql.charAt(i);
+            if (c != '_' && !Character.isLetterOrDigit(c)) {
+                return false;
+            }
+            i++;
+        }
+        return i < end;
+    }
+
+    private int skipDollarQuoted(int index) {
+        int tagEnd = index + 1;
+        while (sql.charAt(tagEnd) != '$') {
+            tagEnd++;
+        }
+        int tagLength = tagEnd + 1 - index;
+        int i = tagEnd + 1;
+        while (i + tagLength <= end) {
+            if (sql.charAt(i) == '$' && regionMatches(i, index, tagLength)) {
+                return i + tagLength;
+            }
+            i++;
+        }
+        unterminated = true;
+        return end;
+    }
+
+    private boolean regionMatches(int a, int b, int length) {
+        for (int i = 0; i < length; i++) {
+            if (sql.charAt(a + i) != sql.charAt(b + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int skipNumber(int index) {
+        if (sql.charAt(index) == '0' && (peek(index + 1) == 'x' || peek(index + 1) == 'X')) {
+            index += 2;
+            while (index < end && Character.digit(sql.charAt(index), 16) >= 0) {
+                index++;
+            }
+            return index;
+        }
+        while (index < end && isDigit(sql.charAt(index))) {
+            index++;
+        }
+        if (peek(index) == '.' && isDigit(peek(index + 1))) {
+            index++;
+            while (index < end && isDigit(sql.charAt(index))) {
+                index++;
+            }
+        } else if (peek(index) == '.' && !isWordStart(peek(index + 1))) {
+            // 形如 1. 的数值
+            index++;
+        }
+        char e = peek(index);
+        if (e == 'e' || e == 'E') {
+            int i = index + 1;
+            if (peek(i) == '+' || peek(i) == '-') {
+                i++;
+            }
+            if (isDigit(peek(i))) {
+                index = i;
+                while (index < end && isDigit(sql.charAt(index))) {
+                    index++;
+                }
+            }
+        }
+        return index;
+    }
+
+    private int skipWord(int index) {
+        while (index < end && isWordPart(sql.charAt(index))) {
+            index++;
+        }
+        return index;
+    }
+
+}
@@ -0,0 +1,56 @@
+package io.github.anthem37.sql.rewiter.core.lexer;
+
+/**
+ * SQL词法单元类型
+ *
+ * @author anthem37
+ * @since 2025/11/20 14:05:12
+ */
+public enum SqlTokenType {
+
+    /**
+     * 空白（空格、制表符、换行等）
+     */
+    WHITESPACE,
+
+    /**
+     * 单行注释（-- ...）
+     */
+    LINE_COMMENT,
+
+    /**
+     * 块注释（/* ... *&#47;）
+     */
+    BLOCK_COMMENT,
+
+    /**
+     * 字符串字面量（'...'、N'...'、X'...'、$tag$...$tag$等）
+     */
+    STRING,
+
+    /**
+     * 数值字面量（123、1.5、1e3、0xFF等）
+     */
+    NUMBER,
+
+    /**
+     * 带引号的标识符（"..."、`...`）
+     */
+    QUOTED_IDENTIFIER,
+
+    /**
+     * 关键字或普通标识符
+     */
+    WORD,
+
+    /**
+     * 参数占位符（?、:name）
+     */
+    PARAMETER,
+
+    /**
+     * 其他符号（运算符、括号、逗号、分号等）
+     */
+    SYMBOL
+
+}
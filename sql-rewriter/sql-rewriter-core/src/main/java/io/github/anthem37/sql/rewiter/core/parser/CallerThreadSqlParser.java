@@ -0,0 +1,128 @@
+package io.github.anthem37.sql.rewiter.core.parser;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParser;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.parser.feature.Feature;
+import net.sf.jsqlparser.statement.Statement;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 在调用线程上解析SQL
+ * <p>
+ * {@code CCJSqlParserUtil.parse(String)}为了支持超时，每次解析都新建一个单线程线程池并在其中解析，
+ * 高并发时线程的创建与销毁成为主要开销。这里直接驱动{@link CCJSqlParser}在调用线程上解析，
+ * 解析策略与其保持一致（先按简单模式解析，失败且允许复杂解析时再按复杂模式解析）。
+ * </p>
+ * <p>
+ * 超时由所有解析共享的一个守护调度线程触发：到期时设置解析器的{@code interrupted}标志，
+ * 解析器在后续的前瞻检查中停止解析，本次解析按超时失败处理（异常原因为{@link TimeoutException}，与JSqlParser一致）。
+ * 超时是协作式的，解析器在未经过前瞻检查的语法片段中不会立即停止，但结果一定被丢弃。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/30 19:02:44
+ */
+public final class CallerThreadSqlParser {
+
+    /**
+     * JSqlParser默认的解析超时时间（毫秒）
+     */
+    public static final long DEFAULT_TIMEOUT_MILLIS = ((Number) Feature.timeOut.getDefaultValue()).longValue();
+
+    private static volatile ScheduledThreadPoolExecutor scheduler;
+
+    private CallerThreadSqlParser() {
+    }
+
+    /**
+     * 以JSqlParser默认的超时时间解析SQL
+     *
+     * @param sql sql
+     * @return 语句，sql为空时返回null
+     * @throws JSQLParserException 解析失败或超时时抛出
+     */
+    public static Statement parse(String sql) throws JSQLParserException {
+
+        return parse(sql, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * 在超时限制内解析SQL
+     *
+     * @param sql           sql
+     * @param timeoutMillis 超时时间（毫秒），小于等于0表示不限制
+     * @return 语句，sql为空时返回null
+     * @throws JSQLParserException 解析失败或超时时抛出
+     */
+    public static Statement parse(String sql, long timeoutMillis) throws JSQLParserException {
+        if (sql == null || sql.isEmpty()) {
+            return null;
+        }
+        CCJSqlParser parser = CCJSqlParserUtil.newParser(sql);
+        boolean allowComplexParsing = parser.getConfiguration().getAsBoolean(Feature.allowComplexParsing);
+        try {
+            return parseStatement(parser.withAllowComplexParsing(false), timeoutMillis);
+        } catch (JSQLParserException e) {
+            if (!allowComplexParsing || e.getCause() instanceof TimeoutException) {
+                throw e;
+            }
+        }
+        return parseStatement(CCJSqlParserUtil.newParser(sql).withAllowComplexParsing(true), timeoutMillis);
+    }
+
+    private static Statement parseStatement(CCJSqlParser parser, long timeoutMillis) throws JSQLParserException {
+        ScheduledFuture<?> timeout = timeoutMillis > 0
+                ? getScheduler().schedule(() -> {
+                    parser.interrupted = true;
+                }, timeoutMillis, TimeUnit.MILLISECONDS)
+                : null;
+        Statement statement;
+        try {
+            statement = parser.Statement();
+        } catch (Exception e) {
+            if (parser.interrupted) {
+                throw timeoutException(timeoutMillis);
+            }
+            throw new JSQLParserException(e);
+        } finally {
+            if (timeout != null) {
+                timeout.cancel(false);
+            }
+        }
+        // 解析期间被中断时前瞻结果不可靠，即使解析完成也丢弃
+        if (parser.interrupted) {
+            throw timeoutException(timeoutMillis);
+        }
+        return statement;
+    }
+
+    private static JSQLParserException timeoutException(long timeoutMillis) {
+
+        return new JSQLParserException("Time out occurred.", new TimeoutException("解析超过 " + timeoutMillis + " ms"));
+    }
+
+    private static ScheduledThreadPoolExecutor getScheduler() {
+        ScheduledThreadPoolExecutor current = scheduler;
+        if (current == null) {
+            synchronized (CallerThreadSqlParser.class) {
+                current = scheduler;
+                if (current == null) {
+                    current = new ScheduledThreadPoolExecutor(1, runnable -> {
+                        Thread thread = new Thread(runnable, "sql-rewriter-parse-timeout");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    // 绝大多数解析在超时前完成，取消的任务立即移出队列，避免队列堆积
+                    current.setRemoveOnCancelPolicy(true);
+                    scheduler = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,91 @@
+package io.github.anthem37.sql.rewiter.core.parser;
+
+import io.github.anthem37.sql.rewiter.core.exception.ErrorEnum;
+import io.github.anthem37.sql.rewiter.core.exception.SqlRewriteException;
+import lombok.Getter;
+import net.sf.jsqlparser.statement.Statement;
+
+/**
+ * SQL解析结果
+ * <p>
+ * 以返回值而非异常表达解析失败，便于在热路径上判断失败而无需创建异常、拼接堆栈字符串。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/21 09:32:10
+ */
+@Getter
+public final class ParseResult {
+
+    /**
+     * 解析成功时的语句
+     */
+    private final Statement statement;
+
+    /**
+     * 解析失败时的错误类型
+     */
+    private final ErrorEnum error;
+
+    /**
+     * 解析失败时的错误信息
+     */
+    private final String errorMessage;
+
+    /**
+     * 解析失败时底层解析器抛出的原始异常（可能为null）
+     */
+    private final Throwable cause;
+
+    private ParseResult(Statement statement, ErrorEnum error, String errorMessage, Throwable cause) {
+        this.statement = statement;
+        this.error = error;
+        this.errorMessage = errorMessage;
+        this.cause = cause;
+    }
+
+    /**
+     * 解析成功
+     *
+     * @param statement 语句
+     * @return 解析结果
+     */
+    public static ParseResult success(Statement statement) {
+
+        return new ParseResult(statement, null, null, null);
+    }
+
+    /**
+     * 解析失败
+     *
+     * @param error        错误类型
+     * @param errorMessage 错误信息
+     * @param cause        原始异常
+     * @return 解析结果
+     */
+    public static ParseResult failure(ErrorEnum error, String errorMessage, Throwable cause) {
+
+        return new ParseResult(null, error, errorMessage, cause);
+    }
+
+    /**
+     * 是否解析成功
+     *
+     * @return 是/否
+     */
+    public boolean isSuccess() {
+
+        return statement != null;
+    }
+
+    /**
+     * 转换为异常，供需要异常语义的调用方使用
+     *
+     * @return SQL重写异常
+     */
+    public SqlRewriteException toException() {
+
+        return new SqlRewriteException(error.getCode(), errorMessage, cause);
+    }
+
+}
@@ -1,5 +1,6 @@
 package io.github.anthem37.sql.rewiter.core.rule;
 
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import net.sf.jsqlparser.statement.Statement;
 
 /**
@@ -35,4 +36,31 @@ public interface IRule {
      */
     void apply(Statement statement);
 
+    /**
+     * 应用规则，并通过重写上下文报告是否修改了语句
+     * <p>
+     * 默认实现忽略上下文，由引擎通过比较应用前后的SQL判断是否发生变化。
+     * 支持变更跟踪的规则应覆盖本方法，并在修改语句时调用{@link RewriteContext#markChanged()}。
+     * </p>
+     *
+     * @param statement sql
+     * @param context   重写上下文
+     */
+    default void apply(Statement statement, RewriteContext context) {
+        apply(statement);
+    }
+
+    /**
+     * 是否支持变更跟踪
+     * <p>
+     * 返回true表示规则每次修改语句都会通过{@link #apply(Statement, RewriteContext)}的上下文报告，
+     * 引擎无需在应用前反解析语句以检测变化。
+     * </p>
+     *
+     * @return 是/否
+     */
+    default boolean isChangeTracking() {
+        return false;
+    }
+
 }
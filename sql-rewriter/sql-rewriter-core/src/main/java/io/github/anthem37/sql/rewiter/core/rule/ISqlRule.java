@@ -1,5 +1,6 @@
 package io.github.anthem37.sql.rewiter.core.rule;
 
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.util.JsqlParserUtils;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.Statement;
@@ -42,6 +43,16 @@ public interface ISqlRule<T extends Statement> extends IRule {
      */
     void applyTyped(T statement);
 
+    /**
+     * 应用规则到具体类型，并通过重写上下文报告是否修改了语句
+     * <p>
+     * 默认实现忽略上下文，支持变更跟踪的规则应覆盖本方法与{@link #isChangeTracking()}。
+     * </p>
+     */
+    default void applyTyped(T statement, RewriteContext context) {
+        applyTyped(statement);
+    }
+
     /**
      * 获取规则优先级
      * 根据SQL类型提供不同的默认优先级：
@@ -88,4 +99,12 @@ public interface ISqlRule<T extends Statement> extends IRule {
         }
     }
 
-}
\ No newline at end of file
+    @Override
+    @SuppressWarnings("unchecked")
+    default void apply(Statement statement, RewriteContext context) {
+        if (match(statement)) {
+            applyTyped((T) statement, context);
+        }
+    }
+
+}
@@ -44,6 +44,11 @@ public final class GsonUtils {
      */
     private static final Gson GSON_NO_NULLS = new GsonBuilder().setDateFormat(DEFAULT_DATE_PATTERN).disableHtmlEscaping().create();
 
+    /**
+     * 漂亮打印的 Gson 实例（serializeNulls=true, disableHtmlEscaping=true）
+     */
+    private static final Gson PRETTY_GSON = new GsonBuilder().setDateFormat(DEFAULT_DATE_PATTERN).disableHtmlEscaping().serializeNulls().setPrettyPrinting().create();
+
     /**
      * 私有构造，禁止实例化
      */
@@ -92,8 +97,7 @@ public final class GsonUtils {
         if (src == null) {
             return "null";
         }
-        Gson gson = pretty ? new GsonBuilder().setDateFormat(DEFAULT_DATE_PATTERN).disableHtmlEscaping().serializeNulls().setPrettyPrinting().create() : DEFAULT_GSON;
-        return gson.toJson(src);
+        return (pretty ? PRETTY_GSON : DEFAULT_GSON).toJson(src);
     }
 
     /**
@@ -281,8 +285,7 @@ public final class GsonUtils {
         if (el == null) {
             return json;
         }
-        Gson gson = new GsonBuilder().setDateFormat(DEFAULT_DATE_PATTERN).disableHtmlEscaping().serializeNulls().setPrettyPrinting().create();
-        return gson.toJson(el);
+        return PRETTY_GSON.toJson(el);
     }
 
     // ------------------------------ 深拷贝 ------------------------------
@@ -5,12 +5,14 @@ import cn.hutool.core.date.DateTime;
 import cn.hutool.core.date.DateUtil;
 import cn.hutool.core.util.ObjectUtil;
 import cn.hutool.core.util.StrUtil;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.exception.ErrorEnum;
 import io.github.anthem37.sql.rewiter.core.exception.SqlRewriteException;
-import lombok.SneakyThrows;
+import io.github.anthem37.sql.rewiter.core.extension.value.IValueSupplier;
+import io.github.anthem37.sql.rewiter.core.parser.CallerThreadSqlParser;
+import io.github.anthem37.sql.rewiter.core.parser.ParseResult;
 import lombok.extern.slf4j.Slf4j;
 import net.sf.jsqlparser.expression.*;
-import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.schema.Table;
 import net.sf.jsqlparser.statement.Statement;
 
@@ -33,20 +35,69 @@ public class JsqlParserUtils {
      *
      * @param sql SQL语句
      * @return Statement对象
-     * @throws RuntimeException 解析失败时抛出
+     * @throws SqlRewriteException 解析失败时抛出
      */
-    @SneakyThrows
     public static Statement parseSql(String sql) {
-        //mp的插件可能会将sql改写后插入较多的/n等符号, 可能会导致CCJSqlParserUtil解析失败
-        sql = SqlFormatUtils.cleanSql(sql);
+        ParseResult result = tryParseSql(sql);
+        if (!result.isSuccess()) {
+            throw result.toException();
+        }
+        return result.getStatement();
+    }
+
+    /**
+     * 解析SQL字符串，失败时不抛出异常而是返回失败结果
+     *
+     * @param sql SQL语句
+     * @return 解析结果
+     */
+    public static ParseResult tryParseSql(String sql) {
+
+        return tryParseSql(sql, true);
+    }
+
+    /**
+     * 解析SQL字符串，失败时不抛出异常而是返回失败结果
+     * <p>
+     * 在调用线程上解析，超时时间与JSqlParser默认值一致，见{@link CallerThreadSqlParser}。
+     * </p>
+     *
+     * @param sql   SQL语句
+     * @param clean 是否先清理SQL（合并空白），不清理时AST节点记录的源码偏移与传入的SQL一致
+     * @return 解析结果
+     */
+    public static ParseResult tryParseSql(String sql, boolean clean) {
+        if (clean) {
+            //mp的插件可能会将sql改写后插入较多的/n等符号, 可能会导致CCJSqlParserUtil解析失败
+            sql = SqlFormatUtils.cleanSql(sql);
+        }
         if (StrUtil.isBlank(sql)) {
-            throw new SqlRewriteException(ErrorEnum.SQL_BLANK);
+            return ParseResult.failure(ErrorEnum.SQL_BLANK, ErrorEnum.SQL_BLANK.getErrorMsg(), null);
         }
         try {
-            return CCJSqlParserUtil.parse(sql);
+            return ParseResult.success(CallerThreadSqlParser.parse(sql));
         } catch (Exception e) {
-            throw new SqlRewriteException(e, ErrorEnum.SQL_PARSE_ERROR, sql);
+            return ParseResult.failure(ErrorEnum.SQL_PARSE_ERROR, ErrorEnum.SQL_PARSE_ERROR.formatMsg(sql), e);
+        }
+    }
+
+    /**
+     * 根据不同类型创建对应的JSQLParser表达式，值提供者通过重写上下文解析
+     * <p>
+     * 重写上下文启用模板值记录时，值提供者以占位参数代替，由重写模板在输出时回填。
+     * </p>
+     *
+     * @param value   值或{@link IValueSupplier}
+     * @param context 重写上下文，可为null
+     * @return Expression对象
+     */
+    public static Expression createValueExpression(Object value, RewriteContext context) {
+        if (value instanceof IValueSupplier) {
+            IValueSupplier supplier = (IValueSupplier) value;
+
+            return context == null ? createValueExpression(supplier.get(null)) : context.resolveValue(supplier);
         }
+        return createValueExpression(value);
     }
 
     /**
@@ -1,5 +1,6 @@
 package io.github.anthem37.sql.rewiter.core.util;
 
+import io.github.anthem37.sql.rewiter.core.rule.ICombineSqlRule;
 import io.github.anthem37.sql.rewiter.core.rule.IRule;
 import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
 
@@ -34,4 +35,24 @@ public class RuleUtils {
 
         return rules == null ? Collections.emptyList() : rules.stream().sorted(Comparator.comparingInt(ISqlRule::getPriority)).collect(Collectors.toList());
     }
+
+    /**
+     * 获取规则包含的ISqlRule（ISqlRule返回自身，组合规则返回其子规则）
+     *
+     * @param rule 规则
+     * @return ISqlRule列表，规则既不是ISqlRule也不是ICombineSqlRule（作用范围未知）时返回null
+     */
+    public static List<ISqlRule<?>> getSqlRules(IRule rule) {
+        if (rule instanceof ISqlRule) {
+
+            return Collections.singletonList((ISqlRule<?>) rule);
+        }
+        if (rule instanceof ICombineSqlRule) {
+            List<ISqlRule<?>> children = ((ICombineSqlRule) rule).getRules();
+
+            return children == null ? Collections.emptyList() : children;
+        }
+
+        return null;
+    }
 }
@@ -1,6 +1,8 @@
 package io.github.anthem37.sql.rewiter.core.util;
 
 import cn.hutool.core.util.StrUtil;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlLexer;
+import io.github.anthem37.sql.rewiter.core.lexer.SqlTokenType;
 
 /**
  * sql格式化工具
@@ -10,8 +12,20 @@ import cn.hutool.core.util.StrUtil;
  */
 public class SqlFormatUtils {
 
+    /**
+     * 可复用缓冲区的最大容量，超出时使用临时缓冲区，避免线程长期持有大块内存
+     */
+    private static final int MAX_REUSABLE_BUFFER_CAPACITY = 1 << 16;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
     /**
      * 清理SQL字符串，去除多余换行、空行、首尾空白，将多个空白合并为一个空格
+     * <p>
+     * 单次词法扫描完成：字符串字面量、带引号的标识符与注释内的空白保持原样，
+     * 单行注释结尾的换行会被保留（否则注释会吞掉其后的SQL）。
+     * 无需清理时直接返回入参本身，不产生任何对象；需要清理时写入线程内复用的缓冲区。
+     * </p>
      *
      * @param sql 原始SQL
      * @return 清理后的SQL
@@ -21,14 +35,80 @@ public class SqlFormatUtils {
 
             return sql;
         }
-        // 1. 去除首尾空白
-        String cleaned = sql.trim();
-        // 2. 将所有换行、制表符替换为单个空格
-        cleaned = cleaned.replaceAll("[\\t\\n\\r]+", StrUtil.SPACE);
-        // 3. 多个空格合并为一个空格
-        cleaned = cleaned.replaceAll(" +", StrUtil.SPACE);
+        if (!mayNeedCleaning(sql)) {
 
-        return cleaned;
+            return sql;
+        }
+        StringBuilder buffer = borrowBuffer(sql.length());
+        SqlLexer lexer = new SqlLexer(sql);
+        boolean pendingSpace = false;
+        boolean afterLineComment = false;
+        while (lexer.next()) {
+            SqlTokenType tokenType = lexer.getTokenType();
+            if (tokenType == SqlTokenType.WHITESPACE) {
+                // 首部空白丢弃；单行注释已以换行结尾，其后的空白无需再输出
+                pendingSpace = buffer.length() > 0 && !afterLineComment;
+                continue;
+            }
+            if (pendingSpace) {
+                buffer.append(' ');
+                pendingSpace = false;
+            }
+            buffer.append(sql, lexer.getTokenStart(), lexer.getTokenEnd());
+            afterLineComment = tokenType == SqlTokenType.LINE_COMMENT;
+        }
+        // 去除尾部空白（位于末尾的单行注释的换行）
+        int length = buffer.length();
+        while (length > 0 && Character.isWhitespace(buffer.charAt(length - 1))) {
+            length--;
+        }
+        buffer.setLength(length);
+        if (length == sql.length() && contentEquals(buffer, sql)) {
+            // 仅字面量或注释内含有空白，无需清理
+            return sql;
+        }
+        return buffer.toString();
     }
-    
+
+    /**
+     * 快速判断SQL是否可能需要清理：首尾为空白、含有空格以外的空白字符或连续空格
+     */
+    private static boolean mayNeedCleaning(String sql) {
+        int length = sql.length();
+        if (Character.isWhitespace(sql.charAt(0)) || Character.isWhitespace(sql.charAt(length - 1))) {
+            return true;
+        }
+        char previous = 0;
+        for (int i = 0; i < length; i++) {
+            char c = sql.charAt(i);
+            if (c == ' ') {
+                if (previous == ' ') {
+                    return true;
+                }
+            } else if (Character.isWhitespace(c)) {
+                return true;
+            }
+            previous = c;
+        }
+        return false;
+    }
+
+    private static StringBuilder borrowBuffer(int capacity) {
+        if (capacity > MAX_REUSABLE_BUFFER_CAPACITY) {
+            return new StringBuilder(capacity);
+        }
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        return buffer;
+    }
+
+    private static boolean contentEquals(StringBuilder buffer, String sql) {
+        for (int i = 0; i < sql.length(); i++) {
+            if (buffer.charAt(i) != sql.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
 }
@@ -0,0 +1,114 @@
+package io.github.anthem37.sql.rewiter.core.context;
+
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddColumnInsertRule;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionSelectRule;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * SqlEditRecorder 单元测试
+ */
+public class SqlEditRecorderTest {
+
+    private static final List<IRule> SELECT_RULES = Arrays.asList(
+            new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1")),
+            new AddConditionSelectRule("orders", new EqualToConditionExpression("orders", "tenant_id", "TENANT_1")),
+            new AddConditionSelectRule("orders", new EqualToConditionExpression("orders", "deleted", "N")));
+
+    /**
+     * 可以作为列名出现在条件中的子句关键字
+     */
+    private static final String[] COLUMN_KEYWORDS = {"GROUP", "ORDER", "LIMIT", "OFFSET", "QUALIFY", "CONNECT", "START", "LEFT", "RIGHT", "APPLY"};
+
+    private static String splice(String sql, List<IRule> rules) throws Exception {
+        Statement statement = CCJSqlParserUtil.parse(sql);
+        RewriteContext context = new RewriteContext();
+        context.enableEditRecording();
+        for (IRule rule : rules) {
+            rule.apply(statement, context);
+        }
+        String spliced = context.splice(sql);
+        if (spliced != null) {
+            // 拼接结果与反解析结果语义一致
+            assertEquals(statement.toString(), CCJSqlParserUtil.parse(spliced).toString());
+        }
+        return spliced;
+    }
+
+    @Test
+    public void spliceShouldPreserveOriginalFormatting() throws Exception {
+        String sql = "select *\n  from tenant   -- 租户\n where status = 'A'\n order by id";
+
+        assertEquals("select *\n  from tenant   -- 租户\n where (status = 'A') AND tenant.tenant_id = 'TENANT_1'\n order by id", splice(sql, SELECT_RULES));
+    }
+
+    @Test
+    public void spliceShouldAddWhereAndJoinConditions() throws Exception {
+        String sql = "SELECT * FROM tenant t\n\tLEFT JOIN orders o ON t.id = o.tenant_id OR o.shared = 1\nGROUP BY t.id";
+
+        assertEquals("SELECT * FROM tenant t\n\tLEFT JOIN orders o ON ((t.id = o.tenant_id OR o.shared = 1) AND o.tenant_id = 'TENANT_1') AND o.deleted = 'N' WHERE t.tenant_id = 'TENANT_1'\nGROUP BY t.id",
+                splice(sql, SELECT_RULES));
+    }
+
+    @Test
+    public void spliceShouldHandleSubqueries() throws Exception {
+        assertNotNull(splice("SELECT * FROM tenant WHERE id IN (SELECT tenant_id FROM orders o WHERE o.amount > 10) LIMIT 10", SELECT_RULES));
+        assertNotNull(splice("SELECT * FROM (SELECT * FROM orders) sub JOIN tenant ON sub.tenant_id = tenant.id", SELECT_RULES));
+        assertNotNull(splice("SELECT * FROM orders o LEFT JOIN tenant t ON LEFT(o.code, 1) = t.code WHERE LEFT(o.code, 1) = 'A' ORDER BY o.id", SELECT_RULES));
+    }
+
+    @Test
+    public void spliceShouldNotTreatColumnsNamedLikeClauseKeywordsAsWhereEnd() throws Exception {
+        for (String keyword : COLUMN_KEYWORDS) {
+            String qualified = "SELECT * FROM tenant t WHERE t.a = 1 AND t." + keyword + " > 2 ORDER BY t.id";
+            assertEquals(keyword, "SELECT * FROM tenant t WHERE (t.a = 1 AND t." + keyword + " > 2) AND t.tenant_id = 'TENANT_1' ORDER BY t.id",
+                    splice(qualified, SELECT_RULES));
+
+            String bare = "SELECT * FROM tenant t WHERE " + keyword + " = 1 AND t.a = " + keyword + " ORDER BY t.id";
+            assertEquals(keyword, "SELECT * FROM tenant t WHERE (" + keyword + " = 1 AND t.a = " + keyword + ") AND t.tenant_id = 'TENANT_1' ORDER BY t.id",
+                    splice(bare, SELECT_RULES));
+        }
+    }
+
+    @Test
+    public void spliceShouldNotTreatColumnsNamedLikeClauseKeywordsAsJoinEnd() throws Exception {
+        for (String keyword : COLUMN_KEYWORDS) {
+            String sql = "SELECT * FROM tenant t JOIN orders o ON o." + keyword + " = t.id AND t.a = o." + keyword + " WHERE t.a = 1";
+            assertEquals(keyword, "SELECT * FROM tenant t JOIN orders o ON ((o." + keyword + " = t.id AND t.a = o." + keyword
+                            + ") AND o.tenant_id = 'TENANT_1') AND o.deleted = 'N' WHERE (t.a = 1) AND t.tenant_id = 'TENANT_1'",
+                    splice(sql, SELECT_RULES));
+        }
+    }
+
+    @Test
+    public void spliceShouldAddInsertColumnToEveryRow() throws Exception {
+        String sql = "INSERT INTO orders (id, name)\nVALUES (1, 'a'),\n       (2, 'b')";
+        Statement statement = CCJSqlParserUtil.parse(sql);
+        RewriteContext context = new RewriteContext();
+        context.enableEditRecording();
+
+        new AddColumnInsertRule("orders", "tenant_id", "TENANT_1").apply(statement, context);
+
+        assertEquals("INSERT INTO orders (id, name, tenant_id)\nVALUES (1, 'a', 'TENANT_1'),\n       (2, 'b', 'TENANT_1')", context.splice(sql));
+    }
+
+    @Test
+    public void spliceShouldReturnNullForUnrecordedChange() throws Exception {
+        Statement statement = CCJSqlParserUtil.parse("SELECT * FROM tenant");
+        RewriteContext context = new RewriteContext();
+        context.enableEditRecording();
+        SELECT_RULES.get(0).apply(statement, context);
+        context.markChanged();
+
+        assertNull(context.splice("SELECT * FROM tenant"));
+    }
+
+}
@@ -0,0 +1,65 @@
+package io.github.anthem37.sql.rewiter.core.engine.async;
+
+import io.github.anthem37.sql.rewiter.core.exception.SqlRewriteException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * AsyncRewriter 单元测试
+ */
+public class AsyncRewriterTest {
+
+    @Test
+    public void submitShouldRejectWhenPendingLimitReached() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        AsyncRewriter rewriter = new AsyncRewriter(queued::add, 1, false, 2, AsyncRejectPolicy.ABORT);
+
+        CompletableFuture<String> first = rewriter.submit("a", String::toUpperCase);
+        CompletableFuture<String> second = rewriter.submit("b", String::toUpperCase);
+        CompletableFuture<String> rejected = rewriter.submit("c", String::toUpperCase);
+
+        assertEquals(2, rewriter.getPendingCount());
+        assertTrue(rejected.isCompletedExceptionally());
+        try {
+            rejected.get();
+            fail();
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof SqlRewriteException);
+        }
+        queued.forEach(Runnable::run);
+        assertEquals("A", first.get());
+        assertEquals("B", second.get());
+        assertEquals(0, rewriter.getPendingCount());
+        assertEquals(1, rewriter.getRejectedCount());
+    }
+
+    @Test
+    public void submitShouldRunInCallerWhenPolicyIsCallerRuns() throws Exception {
+        List<Runnable> queued = new ArrayList<>();
+        AsyncRewriter rewriter = new AsyncRewriter(queued::add, 1, false, 1, AsyncRejectPolicy.CALLER_RUNS);
+
+        rewriter.submit("a", String::toUpperCase);
+        CompletableFuture<String> inCaller = rewriter.submit("b", sql -> sql + Thread.currentThread().getName());
+
+        assertTrue(inCaller.isDone());
+        assertEquals("b" + Thread.currentThread().getName(), inCaller.get());
+    }
+
+    @Test
+    public void submitShouldCreateInternalExecutorLazily() throws Exception {
+        // 低于JDK 21时自动退回平台线程池
+        AsyncRewriter rewriter = new AsyncRewriter(null, 2, true, 16, AsyncRejectPolicy.ABORT);
+
+        String result = rewriter.submit("a", String::toUpperCase).get(10, TimeUnit.SECONDS);
+
+        assertEquals("A", result);
+    }
+
+}
@@ -0,0 +1,76 @@
+package io.github.anthem37.sql.rewiter.core.engine.batch;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * BatchRewriter 单元测试
+ */
+public class BatchRewriterTest {
+
+    @Test
+    public void rewriteShouldDeduplicateAndKeepInputOrder() {
+        AtomicInteger calls = new AtomicInteger();
+        BatchRewriter rewriter = new BatchRewriter(null, 64);
+
+        BatchRewriteResult result = rewriter.rewrite(Arrays.asList("a", "b", "a", null, "b", "c"), sql -> {
+            calls.incrementAndGet();
+            return sql == null ? null : sql.toUpperCase();
+        });
+
+        assertEquals(Arrays.asList("A", "B", "A", null, "B", "C"), result.getResults());
+        assertEquals(6, result.getTotalCount());
+        assertEquals(4, result.getDistinctCount());
+        assertEquals(2, result.getDuplicateCount());
+        assertEquals(4, calls.get());
+        assertFalse(result.isParallel());
+    }
+
+    @Test
+    public void rewriteShouldRunInParallelOnConfiguredPool() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Set<Thread> threads = ConcurrentHashMap.newKeySet();
+            List<String> sqls = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                sqls.add("SELECT " + (i % 500));
+            }
+            BatchRewriter rewriter = new BatchRewriter(pool, 16);
+
+            BatchRewriteResult result = rewriter.rewrite(sqls, sql -> {
+                threads.add(Thread.currentThread());
+                return sql + " /* rewritten */";
+            });
+
+            assertTrue(result.isParallel());
+            assertEquals(500, result.getDistinctCount());
+            for (int i = 0; i < sqls.size(); i++) {
+                assertEquals(sqls.get(i) + " /* rewritten */", result.getResults().get(i));
+            }
+            for (Thread thread : threads) {
+                assertTrue(thread.getName(), thread.getName().startsWith("ForkJoinPool-"));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void rewriteShouldHandleEmptyBatch() {
+        BatchRewriteResult result = new BatchRewriter(null, 1).rewrite(Collections.emptyList(), sql -> sql);
+
+        assertTrue(result.getResults().isEmpty());
+        assertEquals(0, result.getDuplicateCount());
+    }
+
+}
@@ -0,0 +1,74 @@
+package io.github.anthem37.sql.rewiter.core.engine.dispatch;
+
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddColumnInsertRule;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionSelectRule;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import io.github.anthem37.sql.rewiter.core.rule.RulePriority;
+import io.github.anthem37.sql.rewiter.core.util.RuleUtils;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * RuleDispatchIndex 单元测试
+ */
+public class RuleDispatchIndexTest {
+
+    private final AddConditionSelectRule tenantRule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"), RulePriority.LOW);
+    private final AddConditionSelectRule ordersRule = new AddConditionSelectRule("orders", new EqualToConditionExpression("orders", "tenant_id", "TENANT_1"), RulePriority.HIGH);
+    private final AddConditionSelectRule usersRule = new AddConditionSelectRule("users", new EqualToConditionExpression("users", "tenant_id", "TENANT_1"), RulePriority.MEDIUM);
+    private final AddColumnInsertRule insertRule = new AddColumnInsertRule("tenant", "tenant_id", "TENANT_1");
+
+    @Test
+    public void selectShouldReturnOnlyRulesForPresentTablesInPriorityOrder() throws Exception {
+        RuleDispatchIndex index = newIndex(tenantRule, ordersRule, usersRule, insertRule);
+        String sql = "SELECT * FROM tenant t JOIN orders o ON t.id = o.tenant_id";
+
+        List<IRule> candidates = index.select(CCJSqlParserUtil.parse(sql));
+
+        assertEquals(Arrays.asList(ordersRule, tenantRule), candidates);
+    }
+
+    @Test
+    public void selectShouldFilterByStatementType() throws Exception {
+        RuleDispatchIndex index = newIndex(tenantRule, ordersRule, usersRule, insertRule);
+        String sql = "INSERT INTO tenant (id) VALUES (1)";
+
+        List<IRule> candidates = index.select(CCJSqlParserUtil.parse(sql));
+
+        assertEquals(Collections.singletonList(insertRule), candidates);
+    }
+
+    @Test
+    public void selectShouldReturnEmptyWhenNoTableMatches() throws Exception {
+        RuleDispatchIndex index = newIndex(tenantRule, ordersRule, usersRule, insertRule);
+        String sql = "SELECT * FROM inventory WHERE note = 'tenant'";
+        Statement statement = CCJSqlParserUtil.parse(sql);
+
+        assertTrue(index.select(statement).isEmpty());
+    }
+
+    @Test
+    public void selectShouldCollectTablesFromParsedStatement() throws Exception {
+        RuleDispatchIndex index = newIndex(tenantRule, ordersRule, usersRule, insertRule);
+
+        assertEquals(Collections.singletonList(tenantRule),
+                index.select(CCJSqlParserUtil.parse("SELECT * FROM inventory i WHERE EXISTS (SELECT 1 FROM db.\"TENANT\" WHERE id = i.id)")));
+        assertEquals(Arrays.asList(ordersRule, tenantRule),
+                index.select(CCJSqlParserUtil.parse("WITH x AS (SELECT * FROM orders) SELECT * FROM x JOIN inventory tenant ON x.id = tenant.id")));
+        // 只出现在列限定名、字面量或注释中的表名不命中
+        assertTrue(index.select(CCJSqlParserUtil.parse("SELECT users.id, 'orders' FROM inventory /* tenant */")).isEmpty());
+    }
+
+    private RuleDispatchIndex newIndex(IRule... rules) {
+        return new RuleDispatchIndex(RuleUtils.sortByPriority(Arrays.asList(rules)));
+    }
+}
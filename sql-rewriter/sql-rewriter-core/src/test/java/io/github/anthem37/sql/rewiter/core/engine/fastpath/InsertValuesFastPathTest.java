@@ -0,0 +1,91 @@
+package io.github.anthem37.sql.rewiter.core.engine.fastpath;
+
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddColumnInsertRule;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionSelectRule;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
+import net.sf.jsqlparser.statement.Statement;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * InsertValuesFastPath 单元测试
+ */
+public class InsertValuesFastPathTest {
+
+    private final InsertValuesFastPath fastPath = InsertValuesFastPath.of(Arrays.asList(
+            new AddColumnInsertRule("tenant", "tenant_id", "T1"),
+            new AddColumnInsertRule("tenant", "created_by", 7L),
+            new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1"))));
+
+    @Test
+    public void tryRewriteShouldAppendToEveryTuple() {
+        String sql = "insert into db.tenant (id, name)\nvalues (1, 'a,)'), (2, CONCAT('b', ')')) -- ;\n, ROW(3, NULL)";
+
+        assertEquals("insert into db.tenant (id, name, tenant_id, created_by)\nvalues (1, 'a,)', 'T1', 7), "
+                + "(2, CONCAT('b', ')'), 'T1', 7) -- ;\n, ROW(3, NULL, 'T1', 7)", fastPath.tryRewrite(sql));
+        assertEquals(1, fastPath.getRewrittenCount());
+    }
+
+    @Test
+    public void tryRewriteShouldKeepTrailingClauses() {
+        String sql = "INSERT IGNORE INTO \"tenant\" (id) VALUES (?) ON DUPLICATE KEY UPDATE id = VALUES(id);";
+
+        assertEquals("INSERT IGNORE INTO \"tenant\" (id, tenant_id, created_by) VALUES (?, 'T1', 7) ON DUPLICATE KEY UPDATE id = VALUES(id);",
+                fastPath.tryRewrite(sql));
+    }
+
+    @Test
+    public void tryRewriteShouldReturnSameInstanceWhenTableNotMatch() {
+        String sql = "INSERT INTO other (id) VALUES (1)";
+
+        assertSame(sql, fastPath.tryRewrite(sql));
+    }
+
+    @Test
+    public void tryRewriteShouldReturnNullForUnsupportedStructures() {
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant VALUES (1)"));
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant (id) SELECT id FROM other"));
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant SET id = 1"));
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant (id) VALUES ('open"));
+        assertNull(fastPath.tryRewrite("SELECT * FROM tenant"));
+        assertEquals(0, fastPath.getRewrittenCount());
+    }
+
+    @Test
+    public void tryRewriteShouldReturnNullForUnrecognizedTail() {
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant (id) VALUES (1); INSERT INTO tenant (id) VALUES (2)"));
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant (id) VALUES (1), (2),"));
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant (id) VALUES (1) (2)"));
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant (id) VALUES (1) ON CONFLICT DO NOTHING"));
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant (id) VALUES (1) RETURNING id; DELETE FROM tenant"));
+        assertNull(fastPath.tryRewrite("INSERT INTO tenant (id) VALUES (1);;"));
+        assertEquals(0, fastPath.getRewrittenCount());
+
+        assertEquals("INSERT INTO tenant (id, tenant_id, created_by) VALUES (1, 'T1', 7) RETURNING id; -- done",
+                fastPath.tryRewrite("INSERT INTO tenant (id) VALUES (1) RETURNING id; -- done"));
+    }
+
+    @Test
+    public void ofShouldReturnNullWhenOtherInsertRulesExist() {
+        ISqlRule<Statement> anyStatementRule = new ISqlRule<Statement>() {
+            @Override
+            public Class<Statement> getType() {
+                return Statement.class;
+            }
+
+            @Override
+            public void applyTyped(Statement statement) {
+            }
+        };
+
+        assertNull(InsertValuesFastPath.of(Arrays.<IRule>asList(new AddColumnInsertRule("tenant", "tenant_id", "T1"), anyStatementRule)));
+        assertNull(InsertValuesFastPath.of(Collections.<IRule>singletonList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1")))));
+    }
+}
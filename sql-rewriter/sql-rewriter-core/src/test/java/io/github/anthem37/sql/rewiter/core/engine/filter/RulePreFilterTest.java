@@ -0,0 +1,84 @@
+package io.github.anthem37.sql.rewiter.core.engine.filter;
+
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddColumnInsertRule;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionSelectRule;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import net.sf.jsqlparser.statement.Statement;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * RulePreFilter 单元测试
+ */
+public class RulePreFilterTest {
+
+    private final List<IRule> rules = Arrays.asList(
+            new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1")),
+            new AddColumnInsertRule("orders", "tenant_id", "TENANT_1")
+    );
+
+    @Test
+    public void mayApplyShouldMatchTargetTableByIdentifier() {
+        RulePreFilter preFilter = new RulePreFilter(rules);
+
+        assertTrue(preFilter.mayApply("SELECT * FROM tenant"));
+        assertTrue(preFilter.mayApply("select * from db.\"TENANT\" t"));
+        assertTrue(preFilter.mayApply("/* hint */ (SELECT * FROM `Tenant`)"));
+        assertTrue(preFilter.mayApply("INSERT INTO orders (id) VALUES (1)"));
+    }
+
+    @Test
+    public void mayApplyShouldIgnoreLiteralsCommentsAndLongerIdentifiers() {
+        RulePreFilter preFilter = new RulePreFilter(rules);
+
+        assertFalse(preFilter.mayApply("SELECT * FROM users WHERE name = 'tenant'"));
+        assertFalse(preFilter.mayApply("SELECT * FROM users -- tenant\n"));
+        assertFalse(preFilter.mayApply("SELECT * FROM tenant_history /* tenant */"));
+        assertEquals(3, preFilter.getBypassedCount());
+    }
+
+    @Test
+    public void mayApplyShouldNotBypassWhenLiteralOrCommentBoundaryIsUncertain() {
+        RulePreFilter preFilter = new RulePreFilter(rules);
+
+        assertTrue(preFilter.mayApply("SELECT * FROM a WHERE x = 'C:\\' AND id IN (SELECT id FROM tenant) AND y = 'z'"));
+        assertTrue(preFilter.mayApply("SELECT * FROM a WHERE x = 'C:\\'"));
+        assertTrue(preFilter.mayApply("SELECT * FROM a WHERE x = 'abc"));
+        assertTrue(preFilter.mayApply("SELECT * FROM a /* tenant"));
+        assertTrue(preFilter.mayApply("/* SELECT * FROM a"));
+        assertTrue(preFilter.mayApply("DELETE FROM a WHERE x = 'C:\\';\nSELECT * FROM tenant"));
+        assertEquals(0, preFilter.getBypassedCount());
+    }
+
+    @Test
+    public void mayApplyShouldFilterByStatementType() {
+        RulePreFilter preFilter = new RulePreFilter(rules);
+
+        assertFalse(preFilter.mayApply("INSERT INTO tenant (id) VALUES (1)"));
+        assertFalse(preFilter.mayApply("DELETE FROM tenant"));
+        assertTrue(preFilter.mayApply("WITH x AS (SELECT 1) SELECT * FROM tenant"));
+    }
+
+    @Test
+    public void mayApplyShouldPassThroughWhenRuleScopeUnknown() {
+        IRule customRule = new IRule() {
+            @Override
+            public boolean match(Statement statement) {
+                return true;
+            }
+
+            @Override
+            public void apply(Statement statement) {
+            }
+        };
+        RulePreFilter preFilter = new RulePreFilter(Arrays.asList(customRule, rules.get(0)));
+
+        assertTrue(preFilter.mayApply("DELETE FROM users"));
+        assertEquals(0, preFilter.getBypassedCount());
+    }
+}
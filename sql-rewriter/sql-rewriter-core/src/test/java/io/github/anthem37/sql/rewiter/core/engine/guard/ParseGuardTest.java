@@ -0,0 +1,84 @@
+package io.github.anthem37.sql.rewiter.core.engine.guard;
+
+import io.github.anthem37.sql.rewiter.core.exception.ErrorEnum;
+import io.github.anthem37.sql.rewiter.core.parser.ParseResult;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * ParseGuard 单元测试
+ */
+public class ParseGuardTest {
+
+    @Test
+    public void checkShouldRejectTooLongSql() {
+        ParseGuard guard = new ParseGuard(20, 0, 0, 0);
+
+        assertNull(guard.check("SELECT * FROM t"));
+        ParseResult result = guard.check("SELECT * FROM t WHERE id = 1");
+
+        assertNotNull(result);
+        assertEquals(ErrorEnum.SQL_PARSE_LIMIT_EXCEEDED, result.getError());
+        assertEquals(1, guard.getLengthExceededCount());
+        assertEquals(1, guard.getRejectedCount());
+    }
+
+    @Test
+    public void checkShouldRejectDeepNestingButIgnoreParenthesesInLiterals() {
+        ParseGuard guard = new ParseGuard(0, 2, 0, 0);
+
+        assertNull(guard.check("SELECT * FROM (SELECT * FROM (SELECT 1) a) b WHERE name = '((((('"));
+        assertNotNull(guard.check("SELECT * FROM (SELECT * FROM (SELECT * FROM (SELECT 1) a) b) c"));
+        assertEquals(1, guard.getDepthExceededCount());
+    }
+
+    @Test
+    public void checkShouldRejectTooManyTokens() {
+        ParseGuard guard = new ParseGuard(0, 0, 10, 0);
+
+        assertNull(guard.check("SELECT * FROM t /* a b c d e f g h */"));
+        assertNotNull(guard.check("SELECT * FROM t WHERE id IN (1, 2, 3, 4)"));
+        assertEquals(1, guard.getNodesExceededCount());
+    }
+
+    @Test
+    public void parseShouldSucceedWithinTimeout() {
+        ParseGuard guard = new ParseGuard(0, 0, 0, 5_000L);
+
+        ParseResult result = guard.parse("SELECT *\n  FROM t", false);
+
+        assertTrue(result.isSuccess());
+        assertEquals(0, guard.getTimeoutCount());
+    }
+
+    @Test
+    public void parseShouldReportSyntaxErrorAsParseError() {
+        ParseGuard guard = new ParseGuard(0, 0, 0, 5_000L);
+
+        ParseResult result = guard.parse("SELECT FROM WHERE", true);
+
+        assertFalse(result.isSuccess());
+        assertEquals(ErrorEnum.SQL_PARSE_ERROR, result.getError());
+        assertEquals(0, guard.getRejectedCount());
+    }
+
+    @Test
+    public void parseShouldReportTimeout() {
+        ParseGuard guard = new ParseGuard(0, 0, 0, 10L);
+        StringBuilder sql = new StringBuilder("SELECT * FROM t WHERE ");
+        for (int i = 0; i < 40; i++) {
+            sql.append('(');
+        }
+        sql.append("a = 1");
+        for (int i = 0; i < 40; i++) {
+            sql.append(')');
+        }
+
+        ParseResult result = guard.parse(sql.toString(), false);
+
+        assertFalse(result.isSuccess());
+        assertEquals(ErrorEnum.SQL_PARSE_TIMEOUT, result.getError());
+        assertEquals(1, guard.getTimeoutCount());
+    }
+}
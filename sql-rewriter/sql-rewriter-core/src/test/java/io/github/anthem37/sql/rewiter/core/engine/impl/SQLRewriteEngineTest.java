@@ -1,9 +1,27 @@
 package io.github.anthem37.sql.rewiter.core.engine.impl;
 
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.engine.RewriteResult;
+import io.github.anthem37.sql.rewiter.core.engine.config.SQLRewriteEngineConfig;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.RewriteOutcome;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.RewritePhase;
+import io.github.anthem37.sql.rewiter.core.engine.metrics.impl.HistogramRewriteMetrics;
+import io.github.anthem37.sql.rewiter.core.engine.script.ScriptRewriteResult;
+import io.github.anthem37.sql.rewiter.core.exception.ErrorEnum;
+import io.github.anthem37.sql.rewiter.core.exception.SqlRewriteException;
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddColumnInsertRule;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionDeleteRule;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionSelectRule;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionUpdateRule;
+import io.github.anthem37.sql.rewiter.core.extension.value.impl.ContextAttributeValueSupplier;
 import io.github.anthem37.sql.rewiter.core.rule.IRule;
 import io.github.anthem37.sql.rewiter.core.rule.ISqlRule;
 import io.github.anthem37.sql.rewiter.core.rule.RulePriority;
+import net.sf.jsqlparser.expression.Expression;
+import net.sf.jsqlparser.expression.Parenthesis;
 import net.sf.jsqlparser.expression.StringValue;
+import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
 import net.sf.jsqlparser.expression.operators.relational.EqualsTo;
 import net.sf.jsqlparser.schema.Column;
 import net.sf.jsqlparser.schema.Table;
@@ -11,10 +29,17 @@ import net.sf.jsqlparser.statement.select.PlainSelect;
 import net.sf.jsqlparser.statement.select.Select;
 import org.junit.Test;
 
+import java.io.StringReader;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.Assert.*;
 
@@ -93,6 +118,537 @@ public class SQLRewriteEngineTest {
         assertSame(lowPriority, sortedRules.get(1));
     }
 
+    @Test
+    public void runShouldServeRepeatedSqlFromResultCache() {
+        CountingSelectRule rule = new CountingSelectRule();
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().resultCacheEnabled(true).resultCacheMaximumSize(10).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule), config);
+
+        String first = engine.run("SELECT * FROM tenant");
+        String second = engine.run("SELECT * FROM tenant");
+
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1'", first);
+        assertSame(first, second);
+        assertEquals(1, rule.getApplyCount());
+        assertEquals(1, engine.getResultCacheStats().hitCount());
+        assertEquals(1, engine.getResultCacheStats().missCount());
+    }
+
+    @Test
+    public void runShouldCacheUnchangedSqlAsOriginalInstance() {
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().resultCacheEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new TrackingSelectRule("tenant")), config);
+        String originalSql = "INSERT INTO tenant (id) VALUES (1)";
+
+        engine.run(originalSql);
+        String result = engine.run(originalSql);
+
+        assertSame(originalSql, result);
+        assertEquals(1, engine.getResultCacheStats().hitCount());
+    }
+
+    @Test
+    public void runShouldEvictWhenResultCacheIsFull() {
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().resultCacheEnabled(true).resultCacheMaximumSize(1).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new TrackingSelectRule("tenant")), config);
+
+        engine.run("SELECT * FROM tenant");
+        engine.run("SELECT id FROM tenant");
+
+        assertEquals(1, engine.getResultCacheStats().evictionCount());
+    }
+
+    @Test
+    public void runShouldNotCacheResultWhenRuleFails() {
+        FailingOnceSelectRule rule = new FailingOnceSelectRule();
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().resultCacheEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule), config);
+        String originalSql = "SELECT * FROM tenant";
+
+        RewriteResult first = engine.runWithResult(originalSql, null);
+        String second = engine.run(originalSql);
+
+        assertSame(originalSql, first.getSql());
+        assertEquals(RewriteOutcome.RULE_FAILED, first.getOutcome());
+        assertFalse(first.isCacheable());
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1'", second);
+        assertEquals(0, engine.getResultCacheStats().hitCount());
+        assertEquals(2, engine.getResultCacheStats().missCount());
+    }
+
+    @Test(expected = StackOverflowError.class)
+    public void runShouldPropagateErrorThrownDuringCachedRewrite() {
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().resultCacheEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new CountingSelectRule() {
+            @Override
+            public void applyTyped(Select statement) {
+                throw new StackOverflowError("rule error");
+            }
+        }), config);
+
+        engine.run("SELECT * FROM tenant");
+    }
+
+    @Test
+    public void runShouldRebindLiteralsIntoCachedTemplate() {
+        CountingSelectRule rule = new CountingSelectRule();
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().templateCacheEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule), config);
+
+        String first = engine.run("SELECT * FROM tenant WHERE id = 123 AND name = 'a'");
+        String second = engine.run("SELECT * FROM tenant   WHERE id = 456 AND name = 'it''s'");
+
+        assertEquals("SELECT * FROM tenant WHERE (id = 123 AND name = 'a') AND tenant.tenant_id = 'TENANT_1'", first);
+        assertEquals("SELECT * FROM tenant WHERE (id = 456 AND name = 'it''s') AND tenant.tenant_id = 'TENANT_1'", second);
+        assertEquals(1, rule.getApplyCount());
+        assertEquals(1, engine.getTemplateShapeCount());
+        assertEquals(0.5, engine.getTemplateCacheStats().hitRate(), 0.0001);
+    }
+
+    @Test
+    public void runShouldReturnOriginalSqlWhenTemplateUnchanged() {
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().templateCacheEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new TrackingSelectRule("tenant")), config);
+        String originalSql = "INSERT INTO tenant (id) VALUES (2)";
+
+        engine.run("INSERT INTO tenant (id) VALUES (1)");
+        String result = engine.run(originalSql);
+
+        assertSame(originalSql, result);
+        assertEquals(1, engine.getTemplateCacheStats().hitCount());
+    }
+
+    @Test
+    public void runShouldNotCacheTemplateWhenCompileFails() {
+        FailingOnceSelectRule rule = new FailingOnceSelectRule();
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().templateCacheEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule), config);
+
+        String first = engine.run("SELECT * FROM tenant WHERE id = 1");
+        String second = engine.run("SELECT * FROM tenant WHERE id = 2");
+
+        assertEquals("SELECT * FROM tenant WHERE (id = 1) AND tenant.tenant_id = 'TENANT_1'", first);
+        assertEquals("SELECT * FROM tenant WHERE (id = 2) AND tenant.tenant_id = 'TENANT_1'", second);
+        assertEquals(1, engine.getTemplateShapeCount());
+        assertEquals(0, engine.getTemplateCacheStats().hitCount());
+    }
+
+    @Test
+    public void runWithTemplateCacheShouldNotMoveConditionIntoCommentAfterBackslashLiteral() {
+        EqualToConditionExpression condition = new EqualToConditionExpression("tenant", "tenant_id", "T1");
+        List<IRule> rules = Arrays.<IRule>asList(new AddConditionSelectRule("tenant", condition),
+                new AddConditionUpdateRule("tenant", condition), new AddConditionDeleteRule("tenant", condition));
+        for (boolean splice : new boolean[]{false, true}) {
+            SQLRewriteEngine plain = new SQLRewriteEngine(rules, SQLRewriteEngineConfig.builder().spliceOutputEnabled(splice).build());
+            SQLRewriteEngine templated = new SQLRewriteEngine(rules, SQLRewriteEngineConfig.builder().spliceOutputEnabled(splice).templateCacheEnabled(true).build());
+            for (String sql : Arrays.asList(
+                    "UPDATE tenant SET p = 'C:\\' WHERE id = 1 -- '",
+                    "SELECT * FROM tenant WHERE p = 'C:\\' AND id = 1 -- '",
+                    "DELETE FROM tenant WHERE p = 'C:\\' AND id = 1 -- '")) {
+                String expected = plain.run(sql);
+                String first = templated.run(sql);
+                String second = templated.run(sql.replace("id = 1", "id = 2"));
+
+                assertTrue(expected, expected.indexOf("tenant.tenant_id = 'T1'") < expected.indexOf("--") || !expected.contains("--"));
+                assertEquals(expected, first);
+                assertEquals(expected.replace("id = 1", "id = 2"), second);
+            }
+        }
+    }
+
+    @Test
+    public void runShouldSkipParsingForKnownUnparseableSql() {
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().parseFailureCacheEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new TrackingSelectRule("tenant")), config);
+        String invalidSql = "VENDOR SPECIFIC STATEMENT";
+
+        assertEquals(invalidSql, engine.run(invalidSql));
+        assertEquals(invalidSql, engine.run(invalidSql));
+
+        assertEquals(1, engine.getParseFailureCacheStats().hitCount());
+        assertEquals(2, engine.getParseFailureCount());
+    }
+
+    @Test
+    public void runShouldNotCacheParseTimeout() {
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().parseFailureCacheEnabled(true).resultCacheEnabled(true)
+                .parseGuardEnabled(true).maxNestingDepth(0).parseTimeoutMillis(10L).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new TrackingSelectRule("t")), config);
+        StringBuilder sql = new StringBuilder("SELECT * FROM t WHERE ");
+        for (int i = 0; i < 40; i++) {
+            sql.append('(');
+        }
+        sql.append("a = 1");
+        for (int i = 0; i < 40; i++) {
+            sql.append(')');
+        }
+
+        RewriteResult first = engine.runWithResult(sql.toString(), null);
+        engine.run(sql.toString());
+
+        assertEquals(RewriteOutcome.PARSE_FAILED, first.getOutcome());
+        assertFalse(first.isCacheable());
+        assertEquals(2, engine.getParseTimeoutCount());
+        assertEquals(0, engine.getParseFailureCacheStats().hitCount());
+        assertEquals(0, engine.getResultCacheStats().hitCount());
+    }
+
+    @Test
+    public void runShouldBypassParsingWhenNoRuleTargetsSql() {
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().preFilterEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new TrackingSelectRule("tenant")), config);
+        String originalSql = "SELECT * FROM users WHERE name = 'tenant'";
+
+        assertSame(originalSql, engine.run(originalSql));
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1'", engine.run("SELECT * FROM tenant"));
+        assertEquals(1, engine.getPreFilterBypassCount());
+    }
+
+    @Test
+    public void runShouldDispatchOnlyToRulesTargetingStatementTables() {
+        TrackingSelectRule tenantRule = new TrackingSelectRule("tenant");
+        TrackingSelectRule ordersRule = new TrackingSelectRule("orders");
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().dispatchIndexEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Arrays.asList(tenantRule, ordersRule), config);
+
+        String result = engine.run("SELECT * FROM tenant");
+
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1'", result);
+        assertTrue(tenantRule.wasApplied());
+        assertFalse(ordersRule.wasApplied());
+    }
+
+    @Test
+    public void runShouldFuseConditionRulesWithoutChangingResult() {
+        List<IRule> rules = Arrays.asList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1")),
+                new AddConditionSelectRule("orders", new EqualToConditionExpression("orders", "tenant_id", "TENANT_1")));
+        SQLRewriteEngine plain = new SQLRewriteEngine(rules);
+        SQLRewriteEngine fused = new SQLRewriteEngine(rules, SQLRewriteEngineConfig.builder().fuseConditionRules(true).dispatchIndexEnabled(true).build());
+        String sql = "SELECT * FROM tenant t JOIN orders o ON t.id = o.tenant_id";
+
+        String result = fused.run(sql);
+
+        assertEquals(plain.run(sql), result);
+        assertEquals("SELECT * FROM tenant t JOIN orders o ON (t.id = o.tenant_id) AND o.tenant_id = 'TENANT_1' WHERE t.tenant_id = 'TENANT_1'", result);
+        assertEquals(rules, fused.getRules());
+    }
+
+    @Test
+    public void reloadRulesShouldSwapRulesAndIsolateCachedResults() {
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "A"))),
+                SQLRewriteEngineConfig.builder().resultCacheEnabled(true).templateCacheEnabled(true).build());
+        String sql = "SELECT * FROM tenant WHERE id = 1";
+        assertEquals("SELECT * FROM tenant WHERE (id = 1) AND tenant.tenant_id = 'A'", engine.run(sql));
+        assertEquals(0L, engine.getRuleVersion());
+
+        long version = engine.reloadRules(Collections.singletonList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "B"))));
+
+        assertEquals(1L, version);
+        assertEquals(1L, engine.getRuleVersion());
+        assertEquals("SELECT * FROM tenant WHERE (id = 1) AND tenant.tenant_id = 'B'", engine.run(sql));
+        assertEquals("SELECT * FROM tenant WHERE (id = 2) AND tenant.tenant_id = 'B'", engine.run("SELECT * FROM tenant WHERE id = 2"));
+        assertEquals(1, engine.getRules().size());
+
+        engine.reloadRules(Collections.emptyList());
+        assertSame(sql, engine.run(sql));
+        assertTrue(engine.getRules().isEmpty());
+    }
+
+    @Test
+    public void reloadRulesShouldLetInFlightRewriteFinishWithItsSnapshot() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountingSelectRule blockingRule = new CountingSelectRule() {
+            @Override
+            public void applyTyped(Select statement) {
+                entered.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                super.applyTyped(statement);
+            }
+        };
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(blockingRule));
+        CompletableFuture<String> inFlight = CompletableFuture.supplyAsync(() -> engine.run("SELECT * FROM tenant"));
+        assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+        engine.reloadRules(Collections.emptyList());
+        assertEquals("SELECT * FROM tenant", engine.run("SELECT * FROM tenant"));
+        release.countDown();
+
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1'", inFlight.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void runShouldTrustChangeTrackingRulesWithoutDeparsing() {
+        CountingSelectRule silentRule = new CountingSelectRule() {
+            @Override
+            public boolean isChangeTracking() {
+                return true;
+            }
+        };
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(silentRule));
+        String sql = "SELECT * FROM tenant";
+
+        // 规则声明支持变更跟踪却未标记修改，引擎直接返回原SQL而不反解析比较
+        assertSame(sql, engine.run(sql));
+        assertEquals(1, silentRule.getApplyCount());
+    }
+
+    @Test
+    public void runShouldDeparseOnceWhenTrackingRuleMarksChange() {
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"));
+        SQLRewriteEngine engine = new SQLRewriteEngine(Arrays.asList(rule, new CountingSelectRule()));
+        String unchanged = "SELECT * FROM orders";
+
+        assertEquals("SELECT * FROM tenant WHERE (tenant.tenant_id = 'TENANT_1') AND tenant.tenant_id = 'TENANT_1'", engine.run("SELECT * FROM tenant"));
+        assertNotSame(unchanged, engine.run(unchanged));
+        assertSame(unchanged, new SQLRewriteEngine(Collections.singletonList(rule)).run(unchanged));
+    }
+
+    @Test
+    public void runShouldSpliceEditsIntoOriginalSql() {
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"));
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().spliceOutputEnabled(true).build();
+        String sql = "select id,\n       name\n  from tenant /* 主表 */\n order by id";
+
+        assertEquals("select id,\n       name\n  from tenant WHERE tenant.tenant_id = 'TENANT_1' /* 主表 */\n order by id", new SQLRewriteEngine(Collections.singletonList(rule), config).run(sql));
+        // 存在不支持变更跟踪的规则时退回反解析
+        assertEquals("SELECT id, name FROM tenant WHERE (tenant.tenant_id = 'TENANT_1') AND tenant.tenant_id = 'TENANT_1' ORDER BY id",
+                new SQLRewriteEngine(Arrays.asList(rule, new CountingSelectRule()), config).run(sql));
+    }
+
+    @Test
+    public void runWithSpliceOutputShouldFallBackToDeparseWhenSplicedSqlDiffers() {
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"));
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule), SQLRewriteEngineConfig.builder().spliceOutputEnabled(true).build());
+
+        // 词法定位把列名start误判为START WITH子句，拼接结果无法解析，退回反解析
+        assertEquals("SELECT * FROM tenant WHERE (name LIKE start) AND tenant.tenant_id = 'TENANT_1'", engine.run("select * from tenant where name like start"));
+    }
+
+    @Test
+    public void runBatchShouldRewriteInInputOrder() {
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"));
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule), SQLRewriteEngineConfig.builder().batchParallelThreshold(2).build());
+        List<String> sqls = Arrays.asList("SELECT * FROM tenant", "SELECT * FROM orders", "SELECT * FROM tenant");
+
+        List<String> results = engine.runBatch(sqls);
+
+        assertEquals(Arrays.asList("SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1'", "SELECT * FROM orders", "SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1'"), results);
+        assertEquals(1, engine.runBatchWithStats(sqls).getDuplicateCount());
+    }
+
+    @Test
+    public void runAsyncShouldCompleteWithRewrittenSql() throws Exception {
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"));
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule));
+
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1'", engine.runAsync("SELECT * FROM tenant").get(10, TimeUnit.SECONDS));
+        assertEquals(0, engine.getAsyncRejectedCount());
+    }
+
+    @Test
+    public void runShouldPassThroughSqlExceedingParseLimits() {
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"));
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().parseGuardEnabled(true).maxNestingDepth(2).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule), config);
+        String nested = "SELECT * FROM tenant WHERE id IN (SELECT id FROM (SELECT id FROM (SELECT 1 AS id) a) b)";
+
+        assertSame(nested, engine.run(nested));
+        assertEquals(1, engine.getParseGuardRejectedCount());
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1'", engine.run("SELECT * FROM tenant"));
+        assertEquals(1, engine.getParseGuardRejectedCount());
+    }
+
+    @Test
+    public void runShouldCancelRewriteAfterTimeout() {
+        CountingSelectRule slowRule = new CountingSelectRule() {
+            @Override
+            public void applyTyped(Select statement) {
+                super.applyTyped(statement);
+                try {
+                    Thread.sleep(50);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        CountingSelectRule nextRule = new CountingSelectRule();
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().rewriteTimeoutMillis(10).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Arrays.asList(slowRule, nextRule), config);
+        String sql = "SELECT * FROM tenant";
+
+        assertSame(sql, engine.run(sql));
+        assertEquals(1, slowRule.getApplyCount());
+        assertEquals(0, nextRule.getApplyCount());
+        assertEquals(1, engine.getRewriteCancelledCount());
+    }
+
+    @Test
+    public void runShouldReportPhaseTimingsAndOutcomesToMetrics() {
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"));
+        HistogramRewriteMetrics metrics = new HistogramRewriteMetrics();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule), SQLRewriteEngineConfig.builder().metrics(metrics).build());
+
+        engine.run("SELECT * FROM tenant");
+        engine.run("SELECT * FROM other");
+        engine.run("SELECT FROM WHERE");
+
+        assertEquals(1, metrics.getOutcomeCount(RewriteOutcome.REWRITTEN));
+        assertEquals(1, metrics.getOutcomeCount(RewriteOutcome.UNCHANGED));
+        assertEquals(1, metrics.getOutcomeCount(RewriteOutcome.PARSE_FAILED));
+        assertEquals(0, metrics.getOutcomeCount(RewriteOutcome.RULE_FAILED));
+        assertEquals(3, metrics.getPhaseSnapshot(RewritePhase.CLEAN).getCount());
+        assertEquals(3, metrics.getPhaseSnapshot(RewritePhase.PARSE).getCount());
+        assertEquals(2, metrics.getPhaseSnapshot(RewritePhase.MATCH).getCount());
+        assertEquals(1, metrics.getPhaseSnapshot(RewritePhase.DEPARSE).getCount());
+        assertEquals(2, metrics.getRuleSnapshots().get(rule).getCount());
+    }
+
+    @Test
+    public void runShouldCountOnlyRewritesSlowerThanThreshold() {
+        CountingSelectRule slowRule = new CountingSelectRule() {
+            @Override
+            public void applyTyped(Select statement) {
+                super.applyTyped(statement);
+                if (statement.toString().contains("slow")) {
+                    try {
+                        Thread.sleep(30);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        };
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().slowRewriteThresholdMillis(20).diagnosticsSampleRate(1D).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(slowRule), config);
+
+        engine.run("SELECT * FROM tenant");
+        engine.run("SELECT * FROM slow");
+
+        assertEquals(1, engine.getSlowRewriteCount());
+        assertEquals(0, new SQLRewriteEngine(Collections.singletonList(slowRule)).getSlowRewriteCount());
+    }
+
+    @Test
+    public void runScriptShouldRewriteEachStatement() throws Exception {
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"));
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(rule));
+        StringWriter writer = new StringWriter();
+
+        ScriptRewriteResult result = engine.runScript(new StringReader("SELECT * FROM tenant;\n-- keep\nSELECT ';' FROM other;\n"), writer);
+
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'TENANT_1';\n-- keep\nSELECT ';' FROM other;\n", writer.toString());
+        assertEquals(2, result.getStatementCount());
+        assertEquals(1, result.getRewrittenCount());
+    }
+
+    @Test
+    public void runScriptShouldSplitBackslashLiteralLikeParser() throws Exception {
+        EqualToConditionExpression condition = new EqualToConditionExpression("tenant", "tenant_id", "T1");
+        SQLRewriteEngine engine = new SQLRewriteEngine(Arrays.<IRule>asList(new AddColumnInsertRule("tenant", "tenant_id", "T1"),
+                new AddConditionDeleteRule("tenant", condition)));
+        StringWriter writer = new StringWriter();
+
+        ScriptRewriteResult result = engine.runScript(new StringReader("INSERT INTO tenant (p) VALUES ('C:\\');\n"
+                + "DELETE FROM tenant WHERE id = 1;\nINSERT INTO tenant (p) VALUES ('x');"), writer);
+
+        assertEquals("INSERT INTO tenant (p, tenant_id) VALUES ('C:\\', 'T1');\n"
+                + "DELETE FROM tenant WHERE (id = 1) AND tenant.tenant_id = 'T1';\n"
+                + "INSERT INTO tenant (p, tenant_id) VALUES ('x', 'T1');", writer.toString());
+        assertEquals(3, result.getStatementCount());
+        assertEquals(3, result.getRewrittenCount());
+        assertEquals(0, result.getSuspiciousCount());
+    }
+
+    @Test
+    public void runScriptShouldReportUnparseableStatementContainingSemicolon() throws Exception {
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.<IRule>singletonList(
+                new AddConditionDeleteRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1"))));
+        String script = "INSERT INTO other (p) VALUES ('O\\'Brien');\nDELETE FROM tenant WHERE id = 1;\nSELECT 1;\n";
+        StringWriter writer = new StringWriter();
+
+        ScriptRewriteResult result = engine.runScript(new StringReader(script), writer);
+
+        assertEquals(script, writer.toString());
+        assertEquals(1, result.getStatementCount());
+        assertEquals(1, result.getSuspiciousCount());
+    }
+
+    @Test
+    public void runShouldRewriteInsertValuesWithoutParsingWhenFastPathEnabled() {
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().insertFastPathEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new AddColumnInsertRule("tenant", "tenant_id", "T1")), config);
+
+        assertEquals("INSERT  INTO tenant (id, tenant_id) VALUES (1, 'T1'), (2, 'T1')", engine.run("INSERT  INTO tenant (id) VALUES (1), (2)"));
+        // INSERT ... SELECT走常规重写流程
+        assertEquals("INSERT INTO tenant (id) SELECT id FROM other", engine.run("INSERT INTO tenant (id) SELECT id FROM other"));
+        assertEquals(1, engine.getInsertFastPathCount());
+    }
+
+    @Test
+    public void runShouldAddConditionsToUpdateAndDeleteInSingleParse() {
+        EqualToConditionExpression condition = new EqualToConditionExpression("tenant", "tenant_id", "T1");
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().spliceOutputEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Arrays.<IRule>asList(new AddConditionUpdateRule("tenant", condition),
+                new AddConditionDeleteRule("tenant", condition)), config);
+
+        assertEquals("UPDATE tenant SET name = 'x' WHERE (id = 1) AND tenant.tenant_id = 'T1'", engine.run("UPDATE tenant SET name = 'x' WHERE id = 1"));
+        assertEquals("DELETE FROM orders WHERE id IN (SELECT id FROM tenant WHERE tenant.tenant_id = 'T1')",
+                engine.run("DELETE FROM orders WHERE id IN (SELECT id FROM tenant)"));
+        assertEquals("SELECT * FROM tenant", engine.run("SELECT * FROM tenant"));
+    }
+
+    @Test
+    public void runWithContextShouldServeAllTenantsFromOneTemplate() {
+        ContextAttributeValueSupplier tenantId = new ContextAttributeValueSupplier("tenantId");
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().resultCacheEnabled(true).templateCacheEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Arrays.<IRule>asList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", tenantId)),
+                new AddColumnInsertRule("tenant", "tenant_id", tenantId)), config);
+        RewriteContext t1 = new RewriteContext();
+        t1.setAttribute("tenantId", "T1");
+        RewriteContext t2 = new RewriteContext();
+        t2.setAttribute("tenantId", "T2");
+
+        assertEquals("SELECT * FROM tenant WHERE (id = 1) AND tenant.tenant_id = 'T1'", engine.run("SELECT * FROM tenant WHERE id = 1", t1));
+        assertEquals("SELECT * FROM tenant WHERE (id = 2) AND tenant.tenant_id = 'T2'", engine.run("SELECT * FROM tenant WHERE id = 2", t2));
+        assertEquals("SELECT * FROM tenant WHERE (id = 1) AND tenant.tenant_id = 'T2'", engine.run("SELECT * FROM tenant WHERE id = 1", t2));
+        assertEquals("INSERT INTO tenant (id, tenant_id) VALUES (1, 'T2'), (2, 'T2')", engine.run("INSERT INTO tenant (id) VALUES (1), (2)", t2));
+        assertEquals(2, engine.getTemplateShapeCount());
+        assertEquals(0, engine.getResultCacheStats().requestCount());
+    }
+
+    @Test
+    public void runWithContextShouldThrowWhenAttributeMissing() {
+        HistogramRewriteMetrics metrics = new HistogramRewriteMetrics();
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().templateCacheEnabled(true).metrics(metrics).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", new ContextAttributeValueSupplier("tenantId")))), config);
+
+        SqlRewriteException exception = assertThrows(SqlRewriteException.class, () -> engine.run("SELECT * FROM tenant", new RewriteContext()));
+        assertThrows(SqlRewriteException.class, () -> engine.run("SELECT * FROM tenant"));
+        assertEquals(ErrorEnum.CONTEXT_ATTRIBUTE_MISSING.getCode(), exception.getCode());
+        assertEquals(2, metrics.getOutcomeCount(RewriteOutcome.RULE_FAILED));
+    }
+
+    @Test
+    public void runWithContextShouldThrowFromResultCacheWhenAttributeMissing() {
+        SQLRewriteEngineConfig config = SQLRewriteEngineConfig.builder().resultCacheEnabled(true).build();
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", new ContextAttributeValueSupplier("tenantId")))), config);
+
+        assertThrows(SqlRewriteException.class, () -> engine.run("SELECT * FROM tenant"));
+        assertThrows(SqlRewriteException.class, () -> engine.run("SELECT * FROM tenant"));
+        assertEquals(0, engine.getResultCacheStats().hitCount());
+    }
+
     private static final class TrackingSelectRule implements ISqlRule<Select> {
 
         private final String tableName;
@@ -157,4 +713,40 @@ public class SQLRewriteEngineTest {
             throw new IllegalStateException("rule failed");
         }
     }
+
+    private static final class FailingOnceSelectRule extends CountingSelectRule {
+
+        private final AtomicBoolean failed = new AtomicBoolean();
+
+        @Override
+        public void applyTyped(Select statement) {
+            if (failed.compareAndSet(false, true)) {
+                throw new IllegalStateException("rule failed");
+            }
+            super.applyTyped(statement);
+        }
+    }
+
+    private static class CountingSelectRule implements ISqlRule<Select> {
+
+        private final AtomicInteger applyCount = new AtomicInteger();
+
+        @Override
+        public Class<Select> getType() {
+            return Select.class;
+        }
+
+        @Override
+        public void applyTyped(Select statement) {
+            PlainSelect plainSelect = (PlainSelect) statement.getSelectBody();
+            EqualsTo condition = new EqualsTo(new Column(new Table("tenant"), "tenant_id"), new StringValue("TENANT_1"));
+            Expression where = plainSelect.getWhere();
+            plainSelect.setWhere(where == null ? condition : new AndExpression(new Parenthesis(where), condition));
+            applyCount.incrementAndGet();
+        }
+
+        private int getApplyCount() {
+            return applyCount.get();
+        }
+    }
 }
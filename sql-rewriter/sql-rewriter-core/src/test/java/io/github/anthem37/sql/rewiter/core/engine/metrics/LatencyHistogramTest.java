@@ -0,0 +1,74 @@
+package io.github.anthem37.sql.rewiter.core.engine.metrics;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * LatencyHistogram 单元测试
+ */
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketsShouldBeContiguousAndBounded() {
+        long previousUpper = -1L;
+        for (int i = 0; i <= LatencyHistogram.bucketIndex(Long.MAX_VALUE); i++) {
+            long upper = LatencyHistogram.bucketUpperBound(i);
+            assertTrue(upper > previousUpper);
+            assertEquals(i, LatencyHistogram.bucketIndex(previousUpper + 1));
+            assertEquals(i, LatencyHistogram.bucketIndex(upper));
+            previousUpper = upper;
+        }
+        assertEquals(Long.MAX_VALUE, previousUpper);
+    }
+
+    @Test
+    public void snapshotShouldReportQuantilesWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 10_000; v++) {
+            histogram.record(v * 1_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertEquals(10_000, snapshot.getCount());
+        assertEquals(10_000_000L, snapshot.getMax());
+        assertEquals(5_000_500.0D, snapshot.getMean(), 0.001D);
+        assertEquals(5_000_000D, snapshot.getValueAtQuantile(0.5D), 5_000_000D * 0.125D);
+        assertEquals(9_900_000D, snapshot.getValueAtQuantile(0.99D), 9_900_000D * 0.125D);
+        assertEquals(10_000_000L, snapshot.getValueAtQuantile(1D));
+    }
+
+    @Test
+    public void recordShouldNotLoseCountsUnderConcurrency() throws Exception {
+        LatencyHistogram histogram = new LatencyHistogram();
+        int threads = 4;
+        int perThread = 50_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread worker = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < perThread; i++) {
+                    histogram.record(i);
+                }
+            });
+            worker.start();
+            workers.add(worker);
+        }
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        assertEquals((long) threads * perThread, histogram.snapshot().getCount());
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.anthem37.sql.rewiter.core.engine.script;
+
+import io.github.anthem37.sql.rewiter.core.engine.impl.SQLRewriteEngine;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddColumnInsertRule;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * DumpFileRewriter 单元测试
+ */
+public class DumpFileRewriterTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void rewriteShouldKeepOrderAcrossParallelChunks() throws IOException {
+        StringBuilder dump = new StringBuilder("-- dump header;\n/*!40101 SET NAMES utf8mb4 */;\n");
+        StringBuilder expected = new StringBuilder("-- dump header;\n/*!40101 SET NAMES utf8mb4 */;\n");
+        for (int i = 0; i < 500; i++) {
+            String statement = "insert into t values (" + i + ", 'a;\nb''" + i + "', \"租户;\n\")";
+            dump.append(statement).append(";\n");
+            expected.append(statement.toUpperCase()).append(";\n");
+        }
+        Path input = write(dump.toString().getBytes(StandardCharsets.UTF_8));
+        Path output = folder.getRoot().toPath().resolve("out.sql");
+
+        DumpRewriteResult result = new DumpFileRewriter(4, 256, new ScriptRewriter(1 << 20, 8192))
+                .rewrite(input, output, String::toUpperCase);
+
+        assertEquals(expected.toString(), new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+        assertEquals(500, result.getRewrittenCount());
+        assertTrue(result.getChunkCount() > 10);
+        assertEquals(Files.size(input), result.getBytesRead());
+        assertEquals(Files.size(output), result.getBytesWritten());
+        assertTrue(result.getThroughputMbPerSecond() > 0D);
+    }
+
+    @Test
+    public void rewriteShouldPreserveInvalidUtf8Bytes() throws IOException {
+        byte[] prefix = "INSERT INTO t VALUES ('".getBytes(StandardCharsets.US_ASCII);
+        byte[] suffix = "');\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] dump = new byte[prefix.length + 2 + suffix.length];
+        System.arraycopy(prefix, 0, dump, 0, prefix.length);
+        dump[prefix.length] = (byte) 0xC3;
+        dump[prefix.length + 1] = (byte) 0x28;
+        System.arraycopy(suffix, 0, dump, prefix.length + 2, suffix.length);
+        Path input = write(dump);
+        Path output = folder.getRoot().toPath().resolve("out.sql");
+
+        new DumpFileRewriter(2, 16, new ScriptRewriter(1 << 20, 8192)).rewrite(input, output, sql -> sql);
+
+        assertArrayEquals(dump, Files.readAllBytes(output));
+    }
+
+    @Test
+    public void rewriteShouldDecodeValidStatementsInChunkWithInvalidUtf8() throws IOException {
+        byte[] valid = "insert into t values ('租户');\ninsert into t values ('".getBytes(StandardCharsets.UTF_8);
+        byte[] suffix = "');\n".getBytes(StandardCharsets.US_ASCII);
+        byte[] dump = new byte[valid.length + 2 + suffix.length];
+        System.arraycopy(valid, 0, dump, 0, valid.length);
+        dump[valid.length] = (byte) 0xE7;
+        dump[valid.length + 1] = (byte) 0x28;
+        System.arraycopy(suffix, 0, dump, valid.length + 2, suffix.length);
+        byte[] expected = dump.clone();
+        byte[] upper = "INSERT INTO T VALUES ('租户');\nINSERT INTO T VALUES ('".getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(upper, 0, expected, 0, upper.length);
+        Path input = write(dump);
+        Path output = folder.getRoot().toPath().resolve("out.sql");
+
+        new DumpFileRewriter(1, 1 << 20, new ScriptRewriter(1 << 20, 8192)).rewrite(input, output, String::toUpperCase);
+
+        assertArrayEquals(expected, Files.readAllBytes(output));
+    }
+
+    @Test
+    public void rewriteShouldFailWhenOutputCannotBeEncoded() throws IOException {
+        Path input = write("INSERT INTO t VALUES (1);\n".getBytes(StandardCharsets.UTF_8));
+        Path output = folder.getRoot().toPath().resolve("out.sql");
+        DumpFileRewriter rewriter = new DumpFileRewriter(1, 1 << 20, new ScriptRewriter(1 << 20, 8192));
+
+        assertThrows(IOException.class, () -> rewriter.rewrite(input, output, sql -> sql + "\uD800"));
+    }
+
+    @Test
+    public void rewriteShouldNotSplitInsideBackslashEscapedDoubleQuotedString() throws IOException {
+        Path input = write("INSERT INTO t VALUES (\"a\\\";\nb\");\nINSERT INTO t VALUES (2);\n".getBytes(StandardCharsets.UTF_8));
+        Path output = folder.getRoot().toPath().resolve("out.sql");
+
+        DumpRewriteResult result = new DumpFileRewriter(1, 1, new ScriptRewriter(1 << 20, 8192)).rewrite(input, output, sql -> sql);
+
+        // 按解析器规则第一个双引号在反斜杠处结束，第二个双引号一直延续到文件末尾，两种规则都在引号之外的边界不存在
+        assertEquals(1, result.getChunkCount());
+        assertArrayEquals(Files.readAllBytes(input), Files.readAllBytes(output));
+    }
+
+    @Test
+    public void engineShouldInjectTenantColumnIntoDump() throws IOException {
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new AddColumnInsertRule("t", "tenant_id", "T1")));
+        Path input = write("INSERT INTO t (id) VALUES (1);\nINSERT INTO other (id) VALUES (2);\n".getBytes(StandardCharsets.UTF_8));
+        Path output = folder.getRoot().toPath().resolve("out.sql");
+
+        DumpRewriteResult result = engine.runDumpFile(input, output);
+
+        String[] lines = new String(Files.readAllBytes(output), StandardCharsets.UTF_8).split("\n");
+        assertEquals("INSERT INTO t (id, tenant_id) VALUES (1, 'T1');", lines[0]);
+        assertEquals("INSERT INTO other (id) VALUES (2);", lines[1]);
+        assertEquals(2, result.getStatementCount());
+        assertEquals(1, result.getRewrittenCount());
+    }
+
+    @Test
+    public void rewriteShouldNotSplitChunkWhereParserSeesOneStatement() throws IOException {
+        Path input = write("INSERT INTO t VALUES ('a\\', 'b;\nc');\nINSERT INTO t VALUES (2);\n".getBytes(StandardCharsets.UTF_8));
+        Path output = folder.getRoot().toPath().resolve("out.sql");
+
+        DumpRewriteResult result = new DumpFileRewriter(1, 1, new ScriptRewriter(1 << 20, 8192)).rewrite(input, output, String::toUpperCase);
+
+        // 'b;\n中的分号换行按MySQL规则位于引号之外、按解析器规则位于引号之内，末尾的分号换行按MySQL规则位于引号之内，都不能作为边界
+        assertEquals(1, result.getChunkCount());
+        assertEquals("INSERT INTO T VALUES ('A\\', 'B;\nC');\nINSERT INTO T VALUES (2);\n", new String(Files.readAllBytes(output), StandardCharsets.UTF_8));
+        assertEquals(2, result.getStatementCount());
+    }
+
+    @Test
+    public void engineShouldReportUnparseableStatementContainingSemicolonInDump() throws IOException {
+        SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(new AddColumnInsertRule("t", "tenant_id", "T1")));
+        byte[] dump = "INSERT INTO t (p) VALUES ('O\\'Brien');\nINSERT INTO t (p) VALUES ('x');\n".getBytes(StandardCharsets.UTF_8);
+        Path input = write(dump);
+        Path output = folder.getRoot().toPath().resolve("out.sql");
+
+        DumpRewriteResult result = engine.runDumpFile(input, output);
+
+        assertArrayEquals(dump, Files.readAllBytes(output));
+        assertEquals(1, result.getSuspiciousCount());
+        assertEquals(0, result.getRewrittenCount());
+    }
+
+    private Path write(byte[] content) throws IOException {
+        Path input = folder.newFile().toPath();
+        Files.write(input, content);
+        return input;
+    }
+}
@@ -0,0 +1,136 @@
+package io.github.anthem37.sql.rewiter.core.engine.script;
+
+import io.github.anthem37.sql.rewiter.core.engine.RewriteResult;
+import org.junit.Test;
+
+import java.io.FilterReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.Assert.*;
+
+/**
+ * ScriptRewriter 单元测试
+ */
+public class ScriptRewriterTest {
+
+    private static final String SCRIPT = "-- header; not a statement\n"
+            + "INSERT INTO t VALUES ('a;b', \"c;d\");\n"
+            + "/* block; comment */ UPDATE t SET v = 'x''; y' WHERE id = 1 ;\n"
+            + "CREATE FUNCTION f() RETURNS int AS $body$ SELECT 1; SELECT 2; $body$ LANGUAGE sql;\n"
+            + "SELECT $$a;b$$;;\n"
+            + "SELECT 1 -- trailing; comment\n";
+
+    @Test
+    public void rewriteShouldSplitAroundLiteralsCommentsAndDollarQuotes() throws IOException {
+        List<String> statements = new ArrayList<>();
+        StringWriter writer = new StringWriter();
+
+        ScriptRewriteResult result = new ScriptRewriter(1024, 64).rewrite(new StringReader(SCRIPT), writer, collect(statements));
+
+        assertEquals(Arrays.asList(
+                "INSERT INTO t VALUES ('a;b', \"c;d\")",
+                "UPDATE t SET v = 'x''; y' WHERE id = 1",
+                "CREATE FUNCTION f() RETURNS int AS $body$ SELECT 1; SELECT 2; $body$ LANGUAGE sql",
+                "SELECT $$a;b$$",
+                "SELECT 1"), statements);
+        assertEquals(SCRIPT, writer.toString());
+        assertEquals(5, result.getStatementCount());
+        assertEquals(0, result.getRewrittenCount());
+        assertEquals(SCRIPT.length(), result.getCharCount());
+    }
+
+    @Test
+    public void rewriteShouldHandleTokensSplitAcrossReads() throws IOException {
+        List<String> statements = new ArrayList<>();
+        StringWriter writer = new StringWriter();
+
+        new ScriptRewriter(1024, 64).rewrite(new OneCharReader(SCRIPT), writer, collect(statements));
+
+        assertEquals(5, statements.size());
+        assertEquals("CREATE FUNCTION f() RETURNS int AS $body$ SELECT 1; SELECT 2; $body$ LANGUAGE sql", statements.get(2));
+        assertEquals(SCRIPT, writer.toString());
+    }
+
+    @Test
+    public void rewriteShouldReplaceStatementsAndKeepSurroundingText() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        ScriptRewriteResult result = new ScriptRewriter(1024, 64).rewrite(new StringReader("  select 1;\n-- c\nselect 2 ;"), writer, String::toUpperCase);
+
+        assertEquals("  SELECT 1;\n-- c\nSELECT 2 ;", writer.toString());
+        assertEquals(2, result.getRewrittenCount());
+    }
+
+    @Test
+    public void rewriteShouldPassThroughOversizedStatements() throws IOException {
+        StringBuilder longStatement = new StringBuilder("select 'x'");
+        for (int i = 0; i < 500; i++) {
+            longStatement.append(" || 'y;z'");
+        }
+        String script = "select 1;" + longStatement + ";select 2;";
+        StringWriter writer = new StringWriter();
+
+        ScriptRewriteResult result = new ScriptRewriter(256, 64).rewrite(new StringReader(script), writer, String::toUpperCase);
+
+        assertEquals("SELECT 1;" + longStatement + ";SELECT 2;", writer.toString());
+        assertEquals(1, result.getOversizedCount());
+        assertEquals(2, result.getStatementCount());
+    }
+
+    @Test
+    public void rewriteShouldPassThroughUnterminatedStringLongerThanLimit() throws IOException {
+        StringBuilder script = new StringBuilder("select 1;select '");
+        for (int i = 0; i < 100_000; i++) {
+            script.append("abc;\n");
+        }
+        StringWriter writer = new StringWriter();
+
+        ScriptRewriteResult result = new ScriptRewriter(1024, 64).rewrite(new StringReader(script.toString()), writer, String::toUpperCase);
+
+        assertEquals("SELECT 1;" + script.substring("select 1;".length()), writer.toString());
+        assertEquals(1, result.getOversizedCount());
+        assertEquals(1, result.getStatementCount());
+    }
+
+    @Test
+    public void rewriteWithResultShouldCountUnparseableStatementsContainingSemicolon() throws IOException {
+        StringWriter writer = new StringWriter();
+
+        ScriptRewriteResult result = new ScriptRewriter(1024, 64).rewriteWithResult(new StringReader("select 'a;b' x;\nselect broken;\nselect 1;"), writer,
+                sql -> sql.contains("'") || sql.contains("broken") ? RewriteResult.parseFailed(sql, true) : RewriteResult.rewritten(sql.toUpperCase()));
+
+        assertEquals("select 'a;b' x;\nselect broken;\nSELECT 1;", writer.toString());
+        assertEquals(3, result.getStatementCount());
+        assertEquals(1, result.getRewrittenCount());
+        assertEquals(1, result.getSuspiciousCount());
+    }
+
+    private static Function<String, String> collect(List<String> statements) {
+        return sql -> {
+            statements.add(sql);
+            return sql;
+        };
+    }
+
+    /**
+     * 每次只返回一个字符的Reader，用于覆盖跨读取块的词法单元
+     */
+    private static final class OneCharReader extends FilterReader {
+
+        private OneCharReader(String text) {
+            super(new StringReader(text));
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            return super.read(buffer, offset, Math.min(1, length));
+        }
+    }
+}
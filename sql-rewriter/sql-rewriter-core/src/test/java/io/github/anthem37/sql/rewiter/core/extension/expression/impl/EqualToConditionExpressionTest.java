@@ -0,0 +1,62 @@
+package io.github.anthem37.sql.rewiter.core.extension.expression.impl;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.extension.expression.IConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.value.impl.ContextAttributeValueSupplier;
+import net.sf.jsqlparser.expression.LongValue;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * EqualToConditionExpression 单元测试
+ */
+public class EqualToConditionExpressionTest {
+
+    private final EqualToConditionExpression expression = new EqualToConditionExpression("tenant", "tenant_id", "T1");
+
+    @Test
+    public void reconstructAliasExpressionShouldMemoizePerAlias() {
+        IConditionExpression first = expression.reconstructAliasExpression("t");
+
+        assertEquals("t.tenant_id = 'T1'", first.toString());
+        assertSame(first, expression.reconstructAliasExpression("t"));
+        assertNotSame(first, expression.reconstructAliasExpression("u"));
+        assertSame(expression, expression.reconstructAliasExpression("tenant"));
+        assertSame(expression.getRightExpression(), ((EqualToConditionExpression) first).getRightExpression());
+    }
+
+    @Test
+    public void reconstructAliasExpressionShouldStopMemoizingBeyondLimit() {
+        for (int i = 0; i < 64; i++) {
+            expression.reconstructAliasExpression("t" + i);
+        }
+
+        assertSame(expression.reconstructAliasExpression("t0"), expression.reconstructAliasExpression("t0"));
+        assertNotSame(expression.reconstructAliasExpression("t64"), expression.reconstructAliasExpression("t64"));
+        assertEquals("t64.tenant_id = 'T1'", expression.reconstructAliasExpression("t64").toString());
+    }
+
+    @Test
+    public void resolvedExpressionShouldNotMemoizeAliases() {
+        EqualToConditionExpression supplied = new EqualToConditionExpression("tenant", "tenant_id", new ContextAttributeValueSupplier("tenantId"));
+        RewriteContext context = new RewriteContext();
+        context.setAttribute("tenantId", "A");
+
+        IConditionExpression resolved = supplied.resolveValues(context);
+
+        assertEquals("t.tenant_id = 'A'", resolved.reconstructAliasExpression("t").toString());
+        assertNotSame(resolved.reconstructAliasExpression("t"), resolved.reconstructAliasExpression("t"));
+        assertSame(supplied, supplied.reconstructAliasExpression("tenant"));
+    }
+
+    @Test
+    public void mutatorsShouldBeRejected() {
+        IConditionExpression aliased = expression.reconstructAliasExpression("t");
+
+        assertThrows(UnsupportedOperationException.class, () -> expression.setRightExpression(new LongValue(1)));
+        assertThrows(UnsupportedOperationException.class, () -> expression.withLeftExpression(new LongValue(1)));
+        assertThrows(UnsupportedOperationException.class, () -> ((EqualToConditionExpression) aliased).setOldOracleJoinSyntax(1));
+        assertEquals("tenant.tenant_id = 'T1'", expression.toString());
+    }
+}
@@ -1,5 +1,6 @@
 package io.github.anthem37.sql.rewiter.core.extension.rule;
 
+import net.sf.jsqlparser.expression.operators.relational.ExpressionList;
 import net.sf.jsqlparser.parser.CCJSqlParserUtil;
 import net.sf.jsqlparser.statement.Statement;
 import net.sf.jsqlparser.statement.insert.Insert;
@@ -44,7 +45,29 @@ public class AddColumnInsertRuleTest {
 
         rule.applyTyped(insert);
 
-        assertEquals("INSERT INTO tenant (name, tenant_id) VALUES (UPPER('NAME', 'TENANT_1'))", insert.toString());
+        assertEquals("INSERT INTO tenant (name, tenant_id) VALUES (UPPER('NAME'), 'TENANT_1')", insert.toString());
+    }
+
+    @Test
+    public void applyTypedShouldShareValueExpressionAcrossRows() throws Exception {
+        Insert insert = (Insert) CCJSqlParserUtil.parse("INSERT INTO tenant(id, name) VALUES (1, 'A'), (2, 'B'), ROW(3, 'C')");
+        AddColumnInsertRule rule = new AddColumnInsertRule("tenant", "tenant_id", 1L);
+
+        rule.applyTyped(insert);
+
+        assertEquals("INSERT INTO tenant (id, name, tenant_id) VALUES (1, 'A', 1), (2, 'B', 1), ROW(3, 'C', 1)", insert.toString());
+        ExpressionList<?> rows = insert.getValues().getExpressions();
+        assertSame(((ExpressionList<?>) rows.get(0)).get(2), ((ExpressionList<?>) rows.get(1)).get(2));
+    }
+
+    @Test
+    public void applyTypedShouldIgnoreInsertSelect() throws Exception {
+        Insert insert = (Insert) CCJSqlParserUtil.parse("INSERT INTO tenant(name) SELECT name FROM other");
+        AddColumnInsertRule rule = new AddColumnInsertRule("tenant", "tenant_id", "TENANT_1");
+
+        rule.applyTyped(insert);
+
+        assertEquals("INSERT INTO tenant (name) SELECT name FROM other", insert.toString());
     }
 
     @Test
@@ -0,0 +1,49 @@
+package io.github.anthem37.sql.rewiter.core.extension.rule;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.delete.Delete;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * AddConditionDeleteRule 单元测试
+ */
+public class AddConditionDeleteRuleTest {
+
+    private final AddConditionDeleteRule rule = new AddConditionDeleteRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1"));
+
+    @Test
+    public void applyTypedShouldAppendConditionToWhereClause() throws Exception {
+        Delete delete = (Delete) CCJSqlParserUtil.parse("DELETE FROM tenant");
+        RewriteContext context = new RewriteContext();
+
+        rule.applyTyped(delete, context);
+
+        assertEquals("DELETE FROM tenant WHERE tenant.tenant_id = 'T1'", delete.toString());
+        assertTrue(context.isChanged());
+    }
+
+    @Test
+    public void applyTypedShouldHandleJoinedAndUsingTables() throws Exception {
+        Delete joined = (Delete) CCJSqlParserUtil.parse("DELETE o FROM orders o JOIN tenant t ON o.tenant_id = t.id WHERE o.x = 1");
+        Delete using = (Delete) CCJSqlParserUtil.parse("DELETE FROM orders USING tenant t WHERE orders.tenant_id = t.id");
+
+        rule.applyTyped(joined);
+        rule.applyTyped(using);
+
+        assertEquals("DELETE o FROM orders o JOIN tenant t ON (o.tenant_id = t.id) AND t.tenant_id = 'T1' WHERE o.x = 1", joined.toString());
+        assertEquals("DELETE FROM orders USING tenant t WHERE (orders.tenant_id = t.id) AND t.tenant_id = 'T1'", using.toString());
+    }
+
+    @Test
+    public void applyTypedShouldHandleSubqueries() throws Exception {
+        Delete delete = (Delete) CCJSqlParserUtil.parse("DELETE FROM orders WHERE EXISTS (SELECT 1 FROM tenant t WHERE t.id = orders.tenant_id)");
+
+        rule.applyTyped(delete);
+
+        assertEquals("DELETE FROM orders WHERE EXISTS (SELECT 1 FROM tenant t WHERE (t.id = orders.tenant_id) AND t.tenant_id = 'T1')", delete.toString());
+    }
+}
@@ -1,6 +1,8 @@
 package io.github.anthem37.sql.rewiter.core.extension.rule;
 
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
 import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.value.impl.ContextAttributeValueSupplier;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.Parenthesis;
 import net.sf.jsqlparser.expression.operators.conditional.AndExpression;
@@ -18,6 +20,19 @@ import static org.junit.Assert.*;
  */
 public class AddConditionSelectRuleTest {
 
+    @Test
+    public void applyTypedShouldResolveValueSupplierFromContext() throws Exception {
+        Select select = (Select) CCJSqlParserUtil.parse("SELECT * FROM tenant t");
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant",
+                new EqualToConditionExpression("tenant", "tenant_id", new ContextAttributeValueSupplier("tenantId")));
+        RewriteContext context = new RewriteContext();
+        context.setAttribute("tenantId", "T9");
+
+        rule.applyTyped(select, context.newStatementContext());
+
+        assertEquals("SELECT * FROM tenant t WHERE t.tenant_id = 'T9'", select.toString());
+    }
+
     @Test
     public void applyTypedShouldAppendConditionToWhereClauseWhenTableMatches() throws Exception {
         Statement statement = CCJSqlParserUtil.parse("SELECT * FROM tenant");
@@ -123,4 +138,18 @@ public class AddConditionSelectRuleTest {
 
         assertEquals("tenant", rule.getTargetTableName());
     }
+
+    @Test
+    public void applyTypedShouldMarkContextOnlyWhenConditionAdded() throws Exception {
+        AddConditionSelectRule rule = new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1"));
+        RewriteContext unchanged = new RewriteContext();
+        RewriteContext changed = new RewriteContext();
+
+        rule.applyTyped((Select) CCJSqlParserUtil.parse("SELECT * FROM orders"), unchanged);
+        rule.applyTyped((Select) CCJSqlParserUtil.parse("SELECT * FROM orders o JOIN tenant t ON o.tenant_id = t.id"), changed);
+
+        assertTrue(rule.isChangeTracking());
+        assertFalse(unchanged.isChanged());
+        assertTrue(changed.isChanged());
+    }
 }
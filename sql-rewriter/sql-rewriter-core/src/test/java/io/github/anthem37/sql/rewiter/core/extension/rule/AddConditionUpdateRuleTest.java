@@ -0,0 +1,64 @@
+package io.github.anthem37.sql.rewiter.core.extension.rule;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.update.Update;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * AddConditionUpdateRule 单元测试
+ */
+public class AddConditionUpdateRuleTest {
+
+    private final AddConditionUpdateRule rule = new AddConditionUpdateRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1"));
+
+    @Test
+    public void applyTypedShouldAppendConditionToWhereClause() throws Exception {
+        Update update = (Update) CCJSqlParserUtil.parse("UPDATE tenant t SET name = 'x' WHERE id = 1 OR id = 2");
+
+        rule.applyTyped(update);
+
+        assertEquals("UPDATE tenant t SET name = 'x' WHERE (id = 1 OR id = 2) AND t.tenant_id = 'T1'", update.toString());
+    }
+
+    @Test
+    public void applyTypedShouldHandleJoinedTables() throws Exception {
+        Update joined = (Update) CCJSqlParserUtil.parse("UPDATE orders o JOIN tenant t ON o.tenant_id = t.id SET o.x = 1");
+        Update comma = (Update) CCJSqlParserUtil.parse("UPDATE orders o, tenant t SET o.x = t.x");
+        Update from = (Update) CCJSqlParserUtil.parse("UPDATE orders SET x = 1 FROM tenant WHERE orders.id = tenant.id");
+
+        rule.applyTyped(joined);
+        rule.applyTyped(comma);
+        rule.applyTyped(from);
+
+        assertEquals("UPDATE orders o JOIN tenant t ON (o.tenant_id = t.id) AND t.tenant_id = 'T1' SET o.x = 1", joined.toString());
+        assertEquals("UPDATE orders o, tenant t SET o.x = t.x WHERE t.tenant_id = 'T1'", comma.toString());
+        assertEquals("UPDATE orders SET x = 1 FROM tenant WHERE (orders.id = tenant.id) AND tenant.tenant_id = 'T1'", from.toString());
+    }
+
+    @Test
+    public void applyTypedShouldHandleSubqueries() throws Exception {
+        Update update = (Update) CCJSqlParserUtil.parse("UPDATE orders SET total = (SELECT MAX(x) FROM tenant) WHERE id IN (SELECT id FROM tenant)");
+        RewriteContext context = new RewriteContext();
+
+        rule.applyTyped(update, context);
+
+        assertEquals("UPDATE orders SET total = (SELECT MAX(x) FROM tenant WHERE tenant.tenant_id = 'T1') "
+                + "WHERE id IN (SELECT id FROM tenant WHERE tenant.tenant_id = 'T1')", update.toString());
+        assertTrue(context.isChanged());
+    }
+
+    @Test
+    public void applyTypedShouldDoNothingWhenTableNotMatch() throws Exception {
+        Update update = (Update) CCJSqlParserUtil.parse("UPDATE other SET name = 'x' WHERE id = 1");
+        RewriteContext context = new RewriteContext();
+
+        rule.applyTyped(update, context);
+
+        assertEquals("UPDATE other SET name = 'x' WHERE id = 1", update.toString());
+        assertFalse(context.isChanged());
+    }
+}
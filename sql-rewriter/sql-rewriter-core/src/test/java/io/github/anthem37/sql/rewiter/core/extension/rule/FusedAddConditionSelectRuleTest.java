@@ -0,0 +1,75 @@
+package io.github.anthem37.sql.rewiter.core.extension.rule;
+
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.rule.IRule;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.Statement;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * FusedAddConditionSelectRule 单元测试
+ */
+public class FusedAddConditionSelectRuleTest {
+
+    private static final String[] SQLS = {
+            "SELECT * FROM tenant",
+            "SELECT * FROM tenant t JOIN orders o ON t.id = o.tenant_id WHERE t.status = 'ACTIVE'",
+            "SELECT * FROM (SELECT * FROM orders) sub JOIN tenant ON sub.tenant_id = tenant.id",
+            "SELECT * FROM tenant WHERE id IN (SELECT tenant_id FROM orders o WHERE o.amount > 10)",
+            "SELECT * FROM (tenant t JOIN orders o ON t.id = o.tenant_id)",
+            "SELECT * FROM orders UNION SELECT * FROM orders o2"
+    };
+
+    private static List<AddConditionSelectRule> rules() {
+        return Arrays.asList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "TENANT_1")),
+                new AddConditionSelectRule("orders", new EqualToConditionExpression("orders", "tenant_id", "TENANT_1")),
+                new AddConditionSelectRule("orders", new EqualToConditionExpression("orders", "deleted", 0))
+        );
+    }
+
+    @Test
+    public void applyShouldProduceSameResultAsSequentialRules() throws Exception {
+        FusedAddConditionSelectRule fused = new FusedAddConditionSelectRule(rules());
+        for (String sql : SQLS) {
+            Statement sequential = CCJSqlParserUtil.parse(sql);
+            for (AddConditionSelectRule rule : rules()) {
+                rule.apply(sequential);
+            }
+            Statement single = CCJSqlParserUtil.parse(sql);
+            fused.apply(single);
+
+            assertEquals(sql, sequential.toString(), single.toString());
+        }
+    }
+
+    @Test
+    public void fuseShouldMergeOnlyContiguousRules() {
+        List<AddConditionSelectRule> selectRules = rules();
+        AddColumnInsertRule insertRule = new AddColumnInsertRule("orders", "tenant_id", "TENANT_1");
+        IRule barrier = new IRule() {
+            @Override
+            public boolean match(Statement statement) {
+                return true;
+            }
+
+            @Override
+            public void apply(Statement statement) {
+            }
+        };
+        List<IRule> fused = FusedAddConditionSelectRule.fuse(Arrays.asList(selectRules.get(0), insertRule, selectRules.get(1), barrier, selectRules.get(2)));
+
+        assertEquals(4, fused.size());
+        assertTrue(fused.get(0) instanceof FusedAddConditionSelectRule);
+        assertEquals(Arrays.asList(selectRules.get(0), selectRules.get(1)), ((FusedAddConditionSelectRule) fused.get(0)).getRules());
+        assertSame(insertRule, fused.get(1));
+        assertSame(barrier, fused.get(2));
+        assertSame(selectRules.get(2), fused.get(3));
+    }
+
+}
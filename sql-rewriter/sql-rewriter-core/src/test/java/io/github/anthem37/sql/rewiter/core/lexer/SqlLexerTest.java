@@ -0,0 +1,86 @@
+package io.github.anthem37.sql.rewiter.core.lexer;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * SqlLexer 单元测试
+ */
+public class SqlLexerTest {
+
+    @Test
+    public void nextShouldRecognizeLiteralsIdentifiersAndComments() {
+        List<String> tokens = significantTokens("SELECT \"t\".id, 'it''s' /* c */ FROM `tenant` -- tail\nWHERE x = 1.5e3 AND y = :name AND z = ?");
+
+        assertEquals("WORD:SELECT", tokens.get(0));
+        assertEquals("QUOTED_IDENTIFIER:\"t\"", tokens.get(1));
+        assertTrue(tokens.contains("STRING:'it''s'"));
+        assertTrue(tokens.contains("QUOTED_IDENTIFIER:`tenant`"));
+        assertTrue(tokens.contains("NUMBER:1.5e3"));
+        assertTrue(tokens.contains("PARAMETER::name"));
+        assertTrue(tokens.contains("PARAMETER:?"));
+        assertFalse(tokens.contains("WORD:c"));
+        assertFalse(tokens.contains("WORD:tail"));
+    }
+
+    @Test
+    public void nextShouldRecognizePrefixedAndDollarQuotedStrings() {
+        List<String> tokens = significantTokens("SELECT N'a', X'0F', $$it's; here$$, $tag$x$tag$ FROM t");
+
+        assertTrue(tokens.contains("STRING:N'a'"));
+        assertTrue(tokens.contains("STRING:X'0F'"));
+        assertTrue(tokens.contains("STRING:$$it's; here$$"));
+        assertTrue(tokens.contains("STRING:$tag$x$tag$"));
+    }
+
+    @Test
+    public void nextShouldFlagUnterminatedString() {
+        SqlLexer lexer = new SqlLexer("SELECT 'abc");
+        boolean unterminated = false;
+        while (lexer.next()) {
+            unterminated |= lexer.isUnterminated();
+        }
+
+        assertTrue(unterminated);
+    }
+
+    @Test
+    public void nextShouldNotTreatBackslashAsEscapeByDefault() {
+        List<String> tokens = significantTokens("UPDATE t SET p = 'C:\\' WHERE id = 1 -- '");
+
+        assertTrue(tokens.contains("STRING:'C:\\'"));
+        assertTrue(tokens.contains("WORD:WHERE"));
+        assertEquals("NUMBER:1", tokens.get(tokens.size() - 1));
+    }
+
+    @Test
+    public void nextShouldTreatBackslashAsEscapeForMySqlAndFlagAmbiguity() {
+        String sql = "SELECT 'it\\'s', 'plain'";
+        SqlLexer lexer = new SqlLexer(sql, 0, sql.length(), true);
+        List<String> strings = new ArrayList<>();
+        List<Boolean> ambiguous = new ArrayList<>();
+        while (lexer.nextSignificant()) {
+            if (lexer.getTokenType() == SqlTokenType.STRING) {
+                strings.add(lexer.getTokenText());
+                ambiguous.add(lexer.isAmbiguous());
+            }
+        }
+
+        assertEquals(Arrays.asList("'it\\'s'", "'plain'"), strings);
+        assertEquals(Arrays.asList(true, false), ambiguous);
+    }
+
+    private List<String> significantTokens(String sql) {
+        SqlLexer lexer = new SqlLexer(sql);
+        List<String> tokens = new ArrayList<>();
+        while (lexer.nextSignificant()) {
+            tokens.add(lexer.getTokenType() + ":" + lexer.getTokenText());
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.anthem37.sql.rewiter.core.parser;
+
+import net.sf.jsqlparser.JSQLParserException;
+import net.sf.jsqlparser.parser.CCJSqlParserUtil;
+import net.sf.jsqlparser.statement.select.Select;
+import org.junit.Test;
+
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+/**
+ * CallerThreadSqlParser 单元测试
+ */
+public class CallerThreadSqlParserTest {
+
+    @Test
+    public void parseShouldMatchCCJSqlParserUtil() throws Exception {
+        String sql = "SELECT t.id FROM tenant t JOIN orders o ON t.id = o.tenant_id WHERE t.status IN ('A', 'B')";
+
+        assertTrue(CallerThreadSqlParser.parse(sql) instanceof Select);
+        assertEquals(CCJSqlParserUtil.parse(sql).toString(), CallerThreadSqlParser.parse(sql, 0).toString());
+        assertNull(CallerThreadSqlParser.parse(""));
+    }
+
+    @Test
+    public void parseShouldRejectTrailingTokens() {
+        JSQLParserException e = assertThrows(JSQLParserException.class, () -> CallerThreadSqlParser.parse("SELECT 1 garbage garbage"));
+
+        assertFalse(e.getCause() instanceof TimeoutException);
+    }
+
+    @Test
+    public void parseShouldStopWhenTimeoutElapses() {
+        StringBuilder sql = new StringBuilder("SELECT * FROM t WHERE ");
+        for (int i = 0; i < 40; i++) {
+            sql.append('(');
+        }
+        sql.append("a = 1");
+        for (int i = 0; i < 40; i++) {
+            sql.append(')');
+        }
+
+        JSQLParserException e = assertThrows(JSQLParserException.class, () -> CallerThreadSqlParser.parse(sql.toString(), 10L));
+
+        assertTrue(e.getCause() instanceof TimeoutException);
+    }
+}
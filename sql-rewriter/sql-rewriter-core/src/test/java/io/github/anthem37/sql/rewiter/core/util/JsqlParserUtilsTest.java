@@ -2,6 +2,7 @@ package io.github.anthem37.sql.rewiter.core.util;
 
 import io.github.anthem37.sql.rewiter.core.exception.ErrorEnum;
 import io.github.anthem37.sql.rewiter.core.exception.SqlRewriteException;
+import io.github.anthem37.sql.rewiter.core.parser.ParseResult;
 import net.sf.jsqlparser.expression.Expression;
 import net.sf.jsqlparser.expression.LongValue;
 import net.sf.jsqlparser.expression.NullValue;
@@ -41,6 +42,24 @@ public class JsqlParserUtilsTest {
         assertEquals(ErrorEnum.SQL_PARSE_ERROR.getCode(), exception.getCode());
     }
 
+    @Test
+    public void tryParseSqlShouldReturnStatementWhenValid() {
+        ParseResult result = JsqlParserUtils.tryParseSql("SELECT * FROM tenant");
+
+        assertTrue(result.isSuccess());
+        assertEquals("SELECT * FROM tenant", result.getStatement().toString());
+    }
+
+    @Test
+    public void tryParseSqlShouldReturnFailureWithoutThrowing() {
+        ParseResult result = JsqlParserUtils.tryParseSql("INVALID");
+
+        assertFalse(result.isSuccess());
+        assertNull(result.getStatement());
+        assertEquals(ErrorEnum.SQL_PARSE_ERROR, result.getError());
+        assertEquals(ErrorEnum.SQL_PARSE_ERROR.formatMsg("INVALID"), result.getErrorMessage());
+    }
+
     @Test
     public void createValueExpressionShouldHandleNull() {
         Expression expression = JsqlParserUtils.createValueExpression(null);
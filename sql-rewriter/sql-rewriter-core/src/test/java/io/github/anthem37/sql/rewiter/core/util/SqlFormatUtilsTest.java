@@ -0,0 +1,49 @@
+package io.github.anthem37.sql.rewiter.core.util;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * SqlFormatUtils 单元测试
+ */
+public class SqlFormatUtilsTest {
+
+    @Test
+    public void cleanSqlShouldCollapseWhitespaceAndTrim() {
+        assertEquals("SELECT id, name FROM t WHERE id = 1",
+                SqlFormatUtils.cleanSql("\n  SELECT id,\tname\r\n   FROM t\n\n WHERE id  =  1 \n"));
+    }
+
+    @Test
+    public void cleanSqlShouldReturnSameInstanceWhenAlreadyClean() {
+        String sql = "SELECT * FROM t WHERE id = 1";
+
+        assertSame(sql, SqlFormatUtils.cleanSql(sql));
+    }
+
+    @Test
+    public void cleanSqlShouldReturnSameInstanceWhenWhitespaceOnlyInsideLiterals() {
+        String sql = "SELECT 'a  b\nc' FROM \"my  table\"";
+
+        assertSame(sql, SqlFormatUtils.cleanSql(sql));
+    }
+
+    @Test
+    public void cleanSqlShouldKeepLiteralsQuotedIdentifiersAndBlockComments() {
+        assertEquals("SELECT 'a  b\n c', `x  y` /* keep\n  this */ FROM t",
+                SqlFormatUtils.cleanSql("SELECT   'a  b\n c',\n`x  y`  /* keep\n  this */\nFROM t"));
+    }
+
+    @Test
+    public void cleanSqlShouldKeepNewlineAfterLineComment() {
+        assertEquals("SELECT id -- the id\nFROM t", SqlFormatUtils.cleanSql("SELECT id   -- the id\n    FROM t\n"));
+        assertEquals("SELECT id -- trailing", SqlFormatUtils.cleanSql("SELECT id -- trailing\n"));
+    }
+
+    @Test
+    public void cleanSqlShouldHandleBlankAndNull() {
+        assertNull(SqlFormatUtils.cleanSql(null));
+        assertEquals("  ", SqlFormatUtils.cleanSql("  "));
+    }
+}
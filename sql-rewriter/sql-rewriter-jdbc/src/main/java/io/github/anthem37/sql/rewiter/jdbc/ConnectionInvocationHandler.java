@@ -0,0 +1,84 @@
+package io.github.anthem37.sql.rewiter.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+
+/**
+ * 连接代理
+ * <p>
+ * 改写预编译SQL（经数据源级缓存，见{@link RewriteDataSource#rewritePrepared(String)}），创建的语句同样被代理。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/30 10:08:33
+ */
+final class ConnectionInvocationHandler implements InvocationHandler {
+
+    private final Connection delegate;
+
+    private final RewriteDataSource dataSource;
+
+    ConnectionInvocationHandler(Connection delegate, RewriteDataSource dataSource) {
+        this.delegate = delegate;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        String name = method.getName();
+        switch (name) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "RewriteConnection(" + delegate + ")";
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            case "prepareStatement":
+            case "prepareCall":
+            case "nativeSQL":
+                args[0] = dataSource.rewritePrepared((String) args[0]);
+                break;
+            default:
+                break;
+        }
+        Object result;
+        try {
+            result = method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+        if (result instanceof Statement) {
+            return wrapStatement((Connection) proxy, name, (Statement) result);
+        }
+        return result;
+    }
+
+    private Statement wrapStatement(Connection connectionProxy, String methodName, Statement statement) {
+        Class<?> type;
+        if ("prepareCall".equals(methodName)) {
+            type = CallableStatement.class;
+        } else if ("prepareStatement".equals(methodName)) {
+            type = PreparedStatement.class;
+        } else {
+            type = Statement.class;
+        }
+        return (Statement) Proxy.newProxyInstance(RewriteDataSource.class.getClassLoader(), new Class<?>[]{type},
+                new StatementInvocationHandler(statement, connectionProxy, dataSource));
+    }
+}
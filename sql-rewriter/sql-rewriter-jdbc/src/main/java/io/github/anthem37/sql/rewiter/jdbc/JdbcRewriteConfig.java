@@ -0,0 +1,49 @@
+package io.github.anthem37.sql.rewiter.jdbc;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.function.Supplier;
+
+/**
+ * JDBC重写代理配置
+ *
+ * @author anthem37
+ * @since 2025/11/30 09:41:15
+ */
+@Getter
+@Builder
+@ToString
+public class JdbcRewriteConfig {
+
+    /**
+     * 预编译SQL改写结果缓存的数量上限，数据源内所有连接共享，小于等于0表示不缓存
+     * <p>
+     * 重复预编译的SQL直接取缓存中的改写结果（同一个字符串实例），不再经过重写引擎，
+     * 驱动自身以SQL为键的预编译语句缓存因此仍能命中；连接池每次借出的连接都是新的代理，缓存不随代理丢失。
+     * </p>
+     */
+    @Builder.Default
+    private final int preparedSqlCacheSize = 256;
+
+    /**
+     * 重写上下文提供者（如从线程上下文取得当前租户），每次改写时调用，为null时不传上下文
+     * <p>
+     * 提供的上下文带有属性时改写结果因属性而异，不经过预编译SQL缓存（引擎的重写模板缓存仍然有效）。
+     * </p>
+     */
+    @Builder.Default
+    private final Supplier<RewriteContext> contextSupplier = null;
+
+    /**
+     * 默认配置
+     *
+     * @return 默认配置
+     */
+    public static JdbcRewriteConfig defaultConfig() {
+
+        return JdbcRewriteConfig.builder().build();
+    }
+}
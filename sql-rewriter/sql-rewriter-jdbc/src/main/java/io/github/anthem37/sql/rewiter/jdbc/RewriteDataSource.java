@@ -0,0 +1,250 @@
+package io.github.anthem37.sql.rewiter.jdbc;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.engine.ISQLRewriteEngine;
+import io.github.anthem37.sql.rewiter.core.engine.RewriteResult;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+
+/**
+ * SQL重写数据源代理
+ * <p>
+ * 包装任意{@link DataSource}，SQL在到达驱动之前经过重写引擎改写，只依赖JDK的JDBC接口（通过动态代理实现）：
+ * <ul>
+ *     <li>{@code Connection.prepareStatement/prepareCall/nativeSQL}：改写结果在数据源内所有连接间共享缓存，
+ *     重复预编译的SQL得到同一个字符串实例，驱动的预编译语句缓存仍能命中；改写失败原样返回的SQL不缓存；</li>
+ *     <li>{@code Statement.execute/executeQuery/executeUpdate/executeLargeUpdate/addBatch}：每次经过重写引擎改写
+ *     （可命中引擎的各级缓存），批量执行时逐条改写；</li>
+ *     <li>{@code PreparedStatement.addBatch()}沿用预编译时已改写的SQL。</li>
+ * </ul>
+ * </p>
+ * <pre>
+ * DataSource dataSource = new RewriteDataSource(hikariDataSource, engine);
+ * </pre>
+ *
+ * @author anthem37
+ * @since 2025/11/30 09:52:08
+ */
+public class RewriteDataSource implements DataSource {
+
+    /**
+     * 被代理的数据源
+     */
+    @Getter
+    private final DataSource delegate;
+
+    /**
+     * 重写引擎
+     */
+    @Getter
+    private final ISQLRewriteEngine engine;
+
+    @Getter
+    private final JdbcRewriteConfig config;
+
+    /**
+     * 规则版本 + 原SQL -> 改写后SQL，所有连接共享，未启用时为null
+     */
+    private final Cache<PreparedSqlKey, String> preparedSqlCache;
+
+    /**
+     * 最近一次看到的规则版本，规则替换后尽早清空旧版本的缓存条目
+     */
+    private volatile long cacheRuleVersion;
+
+    private final LongAdder preparedCacheHits = new LongAdder();
+
+    private final LongAdder preparedCacheMisses = new LongAdder();
+
+    public RewriteDataSource(DataSource delegate, ISQLRewriteEngine engine) {
+        this(delegate, engine, JdbcRewriteConfig.defaultConfig());
+    }
+
+    public RewriteDataSource(DataSource delegate, ISQLRewriteEngine engine, JdbcRewriteConfig config) {
+        if (delegate == null || engine == null) {
+            throw new IllegalArgumentException("被代理的数据源与重写引擎不能为空");
+        }
+        this.delegate = delegate;
+        this.engine = engine;
+        this.config = config == null ? JdbcRewriteConfig.defaultConfig() : config;
+        this.preparedSqlCache = this.config.getPreparedSqlCacheSize() <= 0 ? null
+                : CacheBuilder.newBuilder().maximumSize(this.config.getPreparedSqlCacheSize()).build();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+
+        return wrap(delegate.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+
+        return wrap(delegate.getConnection(username, password));
+    }
+
+    /**
+     * 获取预编译SQL缓存的累计命中次数
+     *
+     * @return 次数
+     */
+    public long getPreparedCacheHitCount() {
+
+        return preparedCacheHits.sum();
+    }
+
+    /**
+     * 获取预编译SQL缓存的累计未命中次数（含带属性上下文而不经过缓存的改写）
+     *
+     * @return 次数
+     */
+    public long getPreparedCacheMissCount() {
+
+        return preparedCacheMisses.sum();
+    }
+
+    /**
+     * 包装连接，已经是代理连接时原样返回
+     *
+     * @param connection 驱动连接
+     * @return 代理连接
+     */
+    public Connection wrap(Connection connection) {
+        if (connection == null || Proxy.isProxyClass(connection.getClass())
+                && Proxy.getInvocationHandler(connection) instanceof ConnectionInvocationHandler) {
+            return connection;
+        }
+        return (Connection) Proxy.newProxyInstance(RewriteDataSource.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionInvocationHandler(connection, this));
+    }
+
+    /**
+     * 获取本次改写使用的重写上下文
+     *
+     * @return 重写上下文，未配置上下文提供者时返回null
+     */
+    RewriteContext currentContext() {
+        Supplier<RewriteContext> contextSupplier = config.getContextSupplier();
+
+        return contextSupplier == null ? null : contextSupplier.get();
+    }
+
+    /**
+     * 改写预编译SQL，可缓存时优先取数据源级缓存
+     *
+     * @param sql 预编译SQL
+     * @return 改写后的sql
+     */
+    String rewritePrepared(String sql) {
+        if (sql == null) {
+            return null;
+        }
+        RewriteContext context = currentContext();
+        if (preparedSqlCache == null || (context != null && context.hasAttributes())) {
+            preparedCacheMisses.increment();
+            return rewrite(sql, context);
+        }
+        long ruleVersion = engine.getRuleVersion();
+        if (ruleVersion > cacheRuleVersion) {
+            // 键中带有规则版本，旧版本条目不会再被命中，这里只是尽早释放
+            cacheRuleVersion = ruleVersion;
+            preparedSqlCache.invalidateAll();
+        }
+        PreparedSqlKey key = new PreparedSqlKey(ruleVersion, sql);
+        String rewritten = preparedSqlCache.getIfPresent(key);
+        if (rewritten != null) {
+            preparedCacheHits.increment();
+            return rewritten;
+        }
+        preparedCacheMisses.increment();
+        RewriteResult result = engine.runWithResult(sql, context);
+        if (!result.isCacheable()) {
+            return result.getSql();
+        }
+        String existing = preparedSqlCache.asMap().putIfAbsent(key, result.getSql());
+
+        return existing == null ? result.getSql() : existing;
+    }
+
+    /**
+     * 通过重写引擎改写SQL
+     *
+     * @param sql     sql
+     * @param context 重写上下文，可为null
+     * @return 改写后的sql
+     */
+    String rewrite(String sql, RewriteContext context) {
+
+        return context == null ? engine.run(sql) : engine.run(sql, context);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+
+        return delegate.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        delegate.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        delegate.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+
+        return delegate.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+
+        return delegate.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return delegate.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+
+        return iface.isInstance(this) || delegate.isWrapperFor(iface);
+    }
+
+    /**
+     * 预编译SQL缓存键：规则版本 + SQL
+     */
+    @EqualsAndHashCode
+    private static final class PreparedSqlKey {
+
+        private final long ruleVersion;
+
+        private final String sql;
+
+        PreparedSqlKey(long ruleVersion, String sql) {
+            this.ruleVersion = ruleVersion;
+            this.sql = sql;
+        }
+    }
+}
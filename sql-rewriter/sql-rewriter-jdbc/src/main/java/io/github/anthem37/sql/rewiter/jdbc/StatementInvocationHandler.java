@@ -0,0 +1,71 @@
+package io.github.anthem37.sql.rewiter.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+
+/**
+ * 语句代理
+ * <p>
+ * 改写以SQL文本为首个参数的执行方法与{@code addBatch(String)}，{@code getConnection()}返回代理连接。
+ * 预编译语句的无参执行方法与{@code addBatch()}沿用预编译时已改写的SQL，不做处理。
+ * </p>
+ *
+ * @author anthem37
+ * @since 2025/11/30 10:21:47
+ */
+final class StatementInvocationHandler implements InvocationHandler {
+
+    private final Object delegate;
+
+    private final Connection connection;
+
+    private final RewriteDataSource dataSource;
+
+    StatementInvocationHandler(Object delegate, Connection connection, RewriteDataSource dataSource) {
+        this.delegate = delegate;
+        this.connection = connection;
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "RewriteStatement(" + delegate + ")";
+            case "getConnection":
+                return connection;
+            case "unwrap":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+                break;
+            case "isWrapperFor":
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return true;
+                }
+                break;
+            case "execute":
+            case "executeQuery":
+            case "executeUpdate":
+            case "executeLargeUpdate":
+            case "addBatch":
+                if (args != null && args.length > 0 && args[0] instanceof String) {
+                    args[0] = dataSource.rewrite((String) args[0], dataSource.currentContext());
+                }
+                break;
+            default:
+                break;
+        }
+        try {
+            return method.invoke(delegate, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
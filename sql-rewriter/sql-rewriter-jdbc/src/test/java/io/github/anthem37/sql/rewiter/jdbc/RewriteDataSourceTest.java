@@ -0,0 +1,207 @@
+package io.github.anthem37.sql.rewiter.jdbc;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.engine.impl.SQLRewriteEngine;
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionSelectRule;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionUpdateRule;
+import io.github.anthem37.sql.rewiter.core.extension.value.impl.ContextAttributeValueSupplier;
+import net.sf.jsqlparser.statement.select.Select;
+import org.junit.Test;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * RewriteDataSource 单元测试
+ */
+public class RewriteDataSourceTest {
+
+    /**
+     * 驱动收到的SQL
+     */
+    private final List<String> received = new ArrayList<>();
+
+    private final DataSource driver = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{DataSource.class},
+            (proxy, method, args) -> "getConnection".equals(method.getName()) ? fakeConnection() : null);
+
+    private final SQLRewriteEngine engine = new SQLRewriteEngine(Arrays.asList(
+            new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1")),
+            new AddConditionUpdateRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1"))));
+
+    @Test
+    public void prepareStatementShouldRewriteAndShareCacheAcrossConnections() throws Exception {
+        RewriteDataSource dataSource = new RewriteDataSource(driver, engine);
+        Connection connection = dataSource.getConnection();
+
+        connection.prepareStatement("SELECT * FROM tenant WHERE id = ?");
+        connection.prepareStatement("SELECT * FROM tenant WHERE id = ?");
+
+        assertEquals("SELECT * FROM tenant WHERE (id = ?) AND tenant.tenant_id = 'T1'", received.get(0));
+        assertSame(received.get(0), received.get(1));
+        assertEquals(1, dataSource.getPreparedCacheHitCount());
+        assertEquals(1, dataSource.getPreparedCacheMissCount());
+
+        dataSource.getConnection().prepareStatement("SELECT * FROM tenant WHERE id = ?");
+        assertSame(received.get(0), received.get(2));
+        assertEquals(2, dataSource.getPreparedCacheHitCount());
+        assertEquals(1, dataSource.getPreparedCacheMissCount());
+    }
+
+    @Test
+    public void prepareStatementShouldNotCacheFailedRewrite() throws Exception {
+        AtomicBoolean failed = new AtomicBoolean();
+        SQLRewriteEngine flakyEngine = new SQLRewriteEngine(Collections.singletonList(new AddConditionSelectRule("tenant",
+                new EqualToConditionExpression("tenant", "tenant_id", "T1")) {
+            @Override
+            public void applyTyped(Select statement, RewriteContext context) {
+                if (failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("rule failed");
+                }
+                super.applyTyped(statement, context);
+            }
+        }));
+        RewriteDataSource dataSource = new RewriteDataSource(driver, flakyEngine);
+        Connection connection = dataSource.getConnection();
+
+        connection.prepareStatement("SELECT * FROM tenant");
+        connection.prepareStatement("SELECT * FROM tenant");
+
+        assertEquals(Arrays.asList("SELECT * FROM tenant", "SELECT * FROM tenant WHERE tenant.tenant_id = 'T1'"), received);
+        assertEquals(0, dataSource.getPreparedCacheHitCount());
+    }
+
+    @Test
+    public void prepareStatementShouldDropCachedSqlAfterRulesReloaded() throws Exception {
+        SQLRewriteEngine reloadable = new SQLRewriteEngine(Collections.singletonList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1"))));
+        RewriteDataSource dataSource = new RewriteDataSource(driver, reloadable);
+        Connection connection = dataSource.getConnection();
+        connection.prepareStatement("SELECT * FROM tenant");
+
+        reloadable.reloadRules(Collections.singletonList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T2"))));
+        connection.prepareStatement("SELECT * FROM tenant");
+
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'T2'", received.get(1));
+        assertEquals(0, dataSource.getPreparedCacheHitCount());
+    }
+
+    @Test
+    public void prepareStatementShouldBypassCacheWhenDisabled() throws Exception {
+        RewriteDataSource dataSource = new RewriteDataSource(driver, engine, JdbcRewriteConfig.builder().preparedSqlCacheSize(0).build());
+        Connection connection = dataSource.getConnection();
+
+        connection.prepareStatement("SELECT * FROM tenant");
+        connection.prepareStatement("SELECT * FROM tenant");
+
+        assertEquals(0, dataSource.getPreparedCacheHitCount());
+        assertEquals(2, dataSource.getPreparedCacheMissCount());
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'T1'", received.get(1));
+    }
+
+    @Test
+    public void statementShouldRewriteEachExecutedAndBatchedSql() throws Exception {
+        Connection connection = new RewriteDataSource(driver, engine).getConnection();
+        Statement statement = connection.createStatement();
+
+        statement.executeQuery("SELECT id FROM tenant");
+        statement.addBatch("UPDATE tenant SET name = 'a'");
+        statement.addBatch("UPDATE other SET name = 'b'");
+        statement.executeBatch();
+
+        assertEquals(Arrays.asList("SELECT id FROM tenant WHERE tenant.tenant_id = 'T1'",
+                "UPDATE tenant SET name = 'a' WHERE tenant.tenant_id = 'T1'",
+                "UPDATE other SET name = 'b'"), received);
+        assertSame(connection, statement.getConnection());
+    }
+
+    @Test
+    public void preparedStatementShouldKeepPreparedSql() throws Exception {
+        Connection connection = new RewriteDataSource(driver, engine).getConnection();
+        PreparedStatement statement = connection.prepareStatement("UPDATE tenant SET name = ?");
+
+        statement.addBatch();
+        statement.executeBatch();
+
+        assertEquals(1, received.size());
+        assertSame(connection, statement.getConnection());
+        assertTrue(statement.isWrapperFor(PreparedStatement.class));
+    }
+
+    @Test
+    public void contextWithAttributesShouldBypassPreparedCache() throws Exception {
+        SQLRewriteEngine tenantEngine = new SQLRewriteEngine(Collections.singletonList(new AddConditionSelectRule("tenant",
+                new EqualToConditionExpression("tenant", "tenant_id", new ContextAttributeValueSupplier("tenantId")))));
+        ThreadLocal<String> currentTenant = new ThreadLocal<>();
+        RewriteDataSource dataSource = new RewriteDataSource(driver, tenantEngine, JdbcRewriteConfig.builder().contextSupplier(() -> {
+            RewriteContext context = new RewriteContext();
+            context.setAttribute("tenantId", currentTenant.get());
+            return context;
+        }).build());
+        Connection connection = dataSource.getConnection();
+
+        currentTenant.set("A");
+        connection.prepareStatement("SELECT * FROM tenant");
+        currentTenant.set("B");
+        connection.prepareStatement("SELECT * FROM tenant");
+
+        assertEquals(Arrays.asList("SELECT * FROM tenant WHERE tenant.tenant_id = 'A'", "SELECT * FROM tenant WHERE tenant.tenant_id = 'B'"), received);
+        assertEquals(0, dataSource.getPreparedCacheHitCount());
+    }
+
+    @Test
+    public void wrapShouldNotWrapTwice() throws Exception {
+        RewriteDataSource dataSource = new RewriteDataSource(driver, engine);
+        Connection connection = dataSource.getConnection();
+
+        assertSame(connection, dataSource.wrap(connection));
+        assertSame(connection, connection.unwrap(Connection.class));
+        assertTrue(dataSource.isWrapperFor(RewriteDataSource.class));
+    }
+
+    private Connection fakeConnection() {
+        return (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "prepareStatement":
+                    received.add((String) args[0]);
+                    return fakeStatement(PreparedStatement.class);
+                case "createStatement":
+                    return fakeStatement(Statement.class);
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private Statement fakeStatement(Class<? extends Statement> type) {
+        List<String> batch = new ArrayList<>();
+        return (Statement) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "executeQuery":
+                    received.add((String) args[0]);
+                    return null;
+                case "addBatch":
+                    if (args != null) {
+                        batch.add((String) args[0]);
+                    }
+                    return null;
+                case "executeBatch":
+                    received.addAll(batch);
+                    return new int[batch.size()];
+                default:
+                    return null;
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package io.github.anthem37.sql.rewiter.mybatis;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.function.Supplier;
+
+/**
+ * MyBatis重写拦截器配置
+ *
+ * @author anthem37
+ * @since 2025/11/30 14:12:40
+ */
+@Getter
+@Builder
+@ToString
+public class MybatisRewriteConfig {
+
+    /**
+     * 改写结果缓存的条目数上限（键为MappedStatement id + BoundSql），小于等于0表示不缓存
+     * <p>
+     * 每个MappedStatement产生的不同SQL通常很少且稳定，稳态下几乎全部命中，不再经过重写引擎。
+     * </p>
+     */
+    @Builder.Default
+    private final long cacheMaximumSize = 4096;
+
+    /**
+     * 重写上下文提供者（如从线程上下文取得当前租户），每次改写时调用，为null时不传上下文
+     * <p>
+     * 提供的上下文带有属性时改写结果因属性而异，不经过拦截器缓存（引擎的重写模板缓存仍然有效）。
+     * </p>
+     */
+    @Builder.Default
+    private final Supplier<RewriteContext> contextSupplier = null;
+
+    /**
+     * 默认配置
+     *
+     * @return 默认配置
+     */
+    public static MybatisRewriteConfig defaultConfig() {
+
+        return MybatisRewriteConfig.builder().build();
+    }
+}
@@ -0,0 +1,223 @@
+package io.github.anthem37.sql.rewiter.mybatis;
+
+import com.google.common.base.Throwables;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.engine.ISQLRewriteEngine;
+import io.github.anthem37.sql.rewiter.core.engine.RewriteResult;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * MyBatis SQL重写拦截器
+ * <p>
+ * 拦截{@code StatementHandler.prepare}，在创建JDBC语句之前通过重写引擎改写{@link BoundSql}中的SQL。
+ * 改写结果以MappedStatement id与SQL为键缓存（Guava Cache，容量有界并记录命中率），
+ * 同一SQL的并发未命中只执行一次改写；引擎替换规则（规则版本变化）后旧版本的结果不再使用。
+ * 改写失败原样返回的SQL（见{@link RewriteResult#isCacheable()}）不缓存，下次重新改写。
+ * </p>
+ * <pre>
+ * sqlSessionFactory.getConfiguration().addInterceptor(new SqlRewriteInterceptor(engine));
+ * </pre>
+ *
+ * @author anthem37
+ * @since 2025/11/30 14:20:06
+ */
+@Slf4j
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+public class SqlRewriteInterceptor implements Interceptor {
+
+    /**
+     * 重写引擎
+     */
+    @Getter
+    private final ISQLRewriteEngine engine;
+
+    @Getter
+    private final MybatisRewriteConfig config;
+
+    /**
+     * 改写结果缓存，未启用时为null
+     */
+    private final Cache<StatementKey, String> cache;
+
+    /**
+     * 缓存中最新条目对应的规则版本，引擎替换规则后清理旧版本的条目
+     */
+    private volatile long cacheRuleVersion;
+
+    public SqlRewriteInterceptor(ISQLRewriteEngine engine) {
+        this(engine, MybatisRewriteConfig.defaultConfig());
+    }
+
+    public SqlRewriteInterceptor(ISQLRewriteEngine engine, MybatisRewriteConfig config) {
+        if (engine == null) {
+            throw new IllegalArgumentException("重写引擎不能为空");
+        }
+        this.engine = engine;
+        this.config = config == null ? MybatisRewriteConfig.defaultConfig() : config;
+        this.cache = this.config.getCacheMaximumSize() <= 0 ? null
+                : CacheBuilder.newBuilder().recordStats().maximumSize(this.config.getCacheMaximumSize()).build();
+    }
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        StatementHandler handler = (StatementHandler) invocation.getTarget();
+        BoundSql boundSql = handler.getBoundSql();
+        String sql = boundSql.getSql();
+        if (sql != null) {
+            String rewritten = rewrite(resolveStatementId(handler), sql);
+            if (rewritten != sql) {
+                SystemMetaObject.forObject(boundSql).setValue("sql", rewritten);
+            }
+        }
+
+        return invocation.proceed();
+    }
+
+    /**
+     * 改写SQL，可缓存时优先取缓存
+     *
+     * @param statementId MappedStatement id，无法确定时为null
+     * @param sql         BoundSql中的SQL
+     * @return 改写后的SQL，无需改写时返回原实例
+     */
+    String rewrite(String statementId, String sql) {
+        Supplier<RewriteContext> contextSupplier = config.getContextSupplier();
+        RewriteContext context = contextSupplier == null ? null : contextSupplier.get();
+        if (cache == null || (context != null && context.hasAttributes())) {
+            return context == null ? engine.run(sql) : engine.run(sql, context);
+        }
+        long ruleVersion = engine.getRuleVersion();
+        if (ruleVersion > cacheRuleVersion) {
+            // 键中带有规则版本，旧版本条目不会再被命中，这里只是尽早释放
+            cacheRuleVersion = ruleVersion;
+            cache.invalidateAll();
+        }
+        try {
+            return cache.get(new StatementKey(ruleVersion, statementId, sql), () -> {
+                RewriteResult result = engine.runWithResult(sql, context);
+                if (!result.isCacheable()) {
+                    throw new UncacheableRewrite(result.getSql());
+                }
+                return result.getSql();
+            });
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof UncacheableRewrite) {
+                log.debug("SqlRewriteInterceptor.rewrite, 改写结果不可缓存，本次直接使用: {}", sql);
+
+                return ((UncacheableRewrite) e.getCause()).sql;
+            }
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        } catch (ExecutionError e) {
+            Throwables.throwIfUnchecked(e.getCause());
+            throw e;
+        } catch (ExecutionException e) {
+            // 改写函数不声明受检异常，不会出现
+            throw new UncheckedExecutionException(e.getCause());
+        }
+    }
+
+    /**
+     * 获取缓存统计信息，hitRate()即命中率，未启用缓存时返回全0统计
+     *
+     * @return 统计信息
+     */
+    public CacheStats getCacheStats() {
+
+        return cache == null ? new CacheStats(0, 0, 0, 0, 0, 0) : cache.stats();
+    }
+
+    /**
+     * 当前缓存条目数
+     *
+     * @return 条目数，未启用缓存时返回0
+     */
+    public long getCacheSize() {
+
+        return cache == null ? 0 : cache.size();
+    }
+
+    /**
+     * 清空缓存（如规则变更后）
+     */
+    public void invalidateCache() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    /**
+     * 取得语句处理器对应的MappedStatement id，处理器被其他插件代理时先取得被代理对象
+     */
+    private static String resolveStatementId(StatementHandler handler) {
+        Object target = handler;
+        while (Proxy.isProxyClass(target.getClass()) && Proxy.getInvocationHandler(target) instanceof Plugin) {
+            target = SystemMetaObject.forObject(Proxy.getInvocationHandler(target)).getValue("target");
+        }
+        MetaObject metaObject = SystemMetaObject.forObject(target);
+        String property = target instanceof RoutingStatementHandler ? "delegate.mappedStatement" : "mappedStatement";
+        if (!metaObject.hasGetter(property)) {
+            return null;
+        }
+        MappedStatement mappedStatement = (MappedStatement) metaObject.getValue(property);
+
+        return mappedStatement == null ? null : mappedStatement.getId();
+    }
+
+    /**
+     * 携带不可缓存的改写结果跳出Guava Cache的加载，使其不被写入缓存
+     */
+    private static final class UncacheableRewrite extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String sql;
+
+        private UncacheableRewrite(String sql) {
+            super(null, null, false, false);
+            this.sql = sql;
+        }
+    }
+
+    /**
+     * 缓存键：规则版本 + MappedStatement id + SQL
+     */
+    @EqualsAndHashCode
+    private static final class StatementKey {
+
+        private final long ruleVersion;
+
+        private final String statementId;
+
+        private final String sql;
+
+        StatementKey(long ruleVersion, String statementId, String sql) {
+            this.ruleVersion = ruleVersion;
+            this.statementId = statementId;
+            this.sql = sql;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.anthem37.sql.rewiter.mybatis;
+
+import io.github.anthem37.sql.rewiter.core.context.RewriteContext;
+import io.github.anthem37.sql.rewiter.core.engine.impl.SQLRewriteEngine;
+import io.github.anthem37.sql.rewiter.core.extension.expression.impl.EqualToConditionExpression;
+import io.github.anthem37.sql.rewiter.core.extension.rule.AddConditionSelectRule;
+import net.sf.jsqlparser.statement.select.Select;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.*;
+
+/**
+ * SqlRewriteInterceptor 单元测试
+ */
+public class SqlRewriteInterceptorTest {
+
+    /**
+     * 驱动收到的SQL
+     */
+    private final List<String> received = new ArrayList<>();
+
+    private final Connection connection = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{Connection.class},
+            (proxy, method, args) -> {
+                if ("prepareStatement".equals(method.getName())) {
+                    received.add((String) args[0]);
+                    return Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[]{PreparedStatement.class}, (p, m, a) -> null);
+                }
+                return null;
+            });
+
+    private final SQLRewriteEngine engine = new SQLRewriteEngine(Collections.singletonList(
+            new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1"))));
+
+    @Test
+    public void prepareShouldRewriteBoundSqlAndCacheByStatement() throws Exception {
+        Configuration configuration = new Configuration();
+        SqlRewriteInterceptor interceptor = new SqlRewriteInterceptor(engine);
+        configuration.addInterceptor(interceptor);
+
+        prepare(configuration, "TenantMapper.selectById", "SELECT * FROM tenant WHERE id = ?");
+        prepare(configuration, "TenantMapper.selectById", "SELECT * FROM tenant WHERE id = ?");
+        prepare(configuration, "TenantMapper.selectAll", "SELECT * FROM tenant WHERE id = ?");
+
+        assertEquals("SELECT * FROM tenant WHERE (id = ?) AND tenant.tenant_id = 'T1'", received.get(0));
+        assertSame(received.get(0), received.get(1));
+        assertEquals(1, interceptor.getCacheStats().hitCount());
+        assertEquals(2, interceptor.getCacheStats().missCount());
+        assertEquals(2, interceptor.getCacheSize());
+    }
+
+    @Test
+    public void prepareShouldResolveStatementThroughOtherPlugins() throws Exception {
+        Configuration configuration = new Configuration();
+        SqlRewriteInterceptor interceptor = new SqlRewriteInterceptor(engine);
+        configuration.addInterceptor(interceptor);
+        configuration.addInterceptor(new PassThroughInterceptor());
+
+        prepare(configuration, "TenantMapper.count", "SELECT COUNT(*) FROM other");
+
+        assertEquals("SELECT COUNT(*) FROM other", received.get(0));
+        assertEquals("SELECT COUNT(*) FROM other", interceptor.rewrite("TenantMapper.count", "SELECT COUNT(*) FROM other"));
+        assertEquals(1, interceptor.getCacheStats().hitCount());
+    }
+
+    @Test
+    public void prepareShouldDropCachedSqlAfterRulesReloaded() throws Exception {
+        SQLRewriteEngine reloadable = new SQLRewriteEngine(Collections.singletonList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T1"))));
+        Configuration configuration = new Configuration();
+        SqlRewriteInterceptor interceptor = new SqlRewriteInterceptor(reloadable);
+        configuration.addInterceptor(interceptor);
+        prepare(configuration, "TenantMapper.selectAll", "SELECT * FROM tenant");
+
+        reloadable.reloadRules(Collections.singletonList(
+                new AddConditionSelectRule("tenant", new EqualToConditionExpression("tenant", "tenant_id", "T2"))));
+        prepare(configuration, "TenantMapper.selectAll", "SELECT * FROM tenant");
+
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'T2'", received.get(1));
+        assertEquals(0, interceptor.getCacheStats().hitCount());
+        assertEquals(1, interceptor.getCacheSize());
+    }
+
+    @Test
+    public void prepareShouldNotCacheFailedRewrite() throws Exception {
+        AtomicBoolean failed = new AtomicBoolean();
+        SQLRewriteEngine flakyEngine = new SQLRewriteEngine(Collections.singletonList(new AddConditionSelectRule("tenant",
+                new EqualToConditionExpression("tenant", "tenant_id", "T1")) {
+            @Override
+            public void applyTyped(Select statement, RewriteContext context) {
+                if (failed.compareAndSet(false, true)) {
+                    throw new IllegalStateException("rule failed");
+                }
+                super.applyTyped(statement, context);
+            }
+        }));
+        Configuration configuration = new Configuration();
+        SqlRewriteInterceptor interceptor = new SqlRewriteInterceptor(flakyEngine);
+        configuration.addInterceptor(interceptor);
+
+        prepare(configuration, "TenantMapper.selectAll", "SELECT * FROM tenant");
+        prepare(configuration, "TenantMapper.selectAll", "SELECT * FROM tenant");
+
+        assertEquals("SELECT * FROM tenant", received.get(0));
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'T1'", received.get(1));
+        assertEquals(0, interceptor.getCacheStats().hitCount());
+        assertEquals(1, interceptor.getCacheSize());
+    }
+
+    @Test
+    public void prepareShouldBypassCacheWhenDisabled() throws Exception {
+        Configuration configuration = new Configuration();
+        SqlRewriteInterceptor interceptor = new SqlRewriteInterceptor(engine, MybatisRewriteConfig.builder().cacheMaximumSize(0).build());
+        configuration.addInterceptor(interceptor);
+
+        prepare(configuration, "TenantMapper.selectAll", "SELECT * FROM tenant");
+
+        assertEquals("SELECT * FROM tenant WHERE tenant.tenant_id = 'T1'", received.get(0));
+        assertEquals(0, interceptor.getCacheStats().requestCount());
+        assertEquals(0, interceptor.getCacheSize());
+    }
+
+    private void prepare(Configuration configuration, String id, String sql) throws Exception {
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration, id,
+                new StaticSqlSource(configuration, sql), SqlCommandType.SELECT).build();
+        StatementHandler handler = configuration.newStatementHandler(null, mappedStatement, null, RowBounds.DEFAULT, null,
+                mappedStatement.getBoundSql(null));
+        handler.prepare(connection, null);
+    }
+
+    @Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}))
+    public static class PassThroughInterceptor implements Interceptor {
+
+        @Override
+        public Object intercept(Invocation invocation) throws Throwable {
+
+            return invocation.proceed();
+        }
+    }
+}